@@ -0,0 +1,16 @@
+#!/bin/sh
+# Prints the platform and virtual k6 summaries side by side.
+# Usage: ./compare.sh [dir]   (dir holds summary-platform.tsv and summary-virtual.tsv)
+set -e
+dir=${1:-.}
+tab=$(printf '\t')
+for mode in platform virtual; do
+    [ -f "$dir/summary-$mode.tsv" ] || { echo "missing $dir/summary-$mode.tsv" >&2; exit 1; }
+done
+{
+    head -n 1 "$dir/summary-platform.tsv"
+    {
+        tail -n +2 "$dir/summary-platform.tsv"
+        tail -n +2 "$dir/summary-virtual.tsv"
+    } | sort -t "$tab" -k2,2 -s
+} | column -t -s "$tab"
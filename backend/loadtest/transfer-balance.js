@@ -0,0 +1,124 @@
+// k6 load test: /api/upi/transfer and /api/wallet/balance.
+//
+// Run once against a backend started with VIRTUAL_THREADS=false and once
+// with VIRTUAL_THREADS=true (same machine, same database, same VUS), then
+// compare the two summaries with compare.sh. See README.md.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e MODE=platform transfer-balance.js
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const MODE = __ENV.MODE || 'unlabelled';
+const USERS = parseInt(__ENV.USERS || '50', 10);
+const VUS = parseInt(__ENV.VUS || '200', 10);
+const DURATION = __ENV.DURATION || '2m';
+// share of iterations that transfer; the rest read the balance
+const TRANSFER_RATIO = parseFloat(__ENV.TRANSFER_RATIO || '0.3');
+
+const PASSWORD = 'Loadtest@123';
+const PIN = '1234';
+
+export const options = {
+    setupTimeout: '5m',
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    scenarios: {
+        mixed: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: DURATION,
+            gracefulStop: '10s',
+        },
+    },
+    // no pass/fail gate: the thresholds only make k6 report per-endpoint series
+    thresholds: {
+        'http_req_duration{endpoint:transfer}': ['max>=0'],
+        'http_req_duration{endpoint:balance}': ['max>=0'],
+        'http_reqs{endpoint:transfer}': ['count>=0'],
+        'http_reqs{endpoint:balance}': ['count>=0'],
+        'http_req_failed{endpoint:transfer}': ['rate>=0'],
+        'http_req_failed{endpoint:balance}': ['rate>=0'],
+    },
+};
+
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+// Registers USERS fresh users (unique per run) and logs them in.
+export function setup() {
+    const run = Date.now();
+    const users = [];
+
+    for (let i = 0; i < USERS; i++) {
+        const email = `lt-${run}-${i}@loadtest.local`;
+
+        const created = http.post(`${BASE_URL}/api/setup/user`, JSON.stringify({
+            name: `Load Test ${i}`,
+            email: email,
+            password: PASSWORD,
+            initialBalance: 1000000,
+            transactionPin: PIN,
+        }), { headers: JSON_HEADERS, tags: { endpoint: 'setup' } });
+        if (created.status !== 200) {
+            throw new Error(`user setup failed (${created.status}): ${created.body}`);
+        }
+
+        const login = http.post(`${BASE_URL}/api/auth/login`, JSON.stringify({
+            email: email,
+            password: PASSWORD,
+        }), { headers: JSON_HEADERS, tags: { endpoint: 'setup' } });
+        const token = login.json('token');
+
+        const me = http.get(`${BASE_URL}/api/upi/me`, {
+            headers: { Authorization: `Bearer ${token}` },
+            tags: { endpoint: 'setup' },
+        });
+
+        users.push({ token: token, upiId: me.json('upiId') });
+    }
+    return { users: users };
+}
+
+export default function (data) {
+    const users = data.users;
+    const senderIndex = (__VU - 1) % users.length;
+    const sender = users[senderIndex];
+    const auth = { Authorization: `Bearer ${sender.token}` };
+
+    if (Math.random() < TRANSFER_RATIO) {
+        // any user but the sender
+        const offset = 1 + Math.floor(Math.random() * (users.length - 1));
+        const receiver = users[(senderIndex + offset) % users.length];
+
+        const res = http.post(`${BASE_URL}/api/upi/transfer`, JSON.stringify({
+            toUpiId: receiver.upiId,
+            amount: 1,
+            pin: PIN,
+        }), { headers: Object.assign({}, JSON_HEADERS, auth), tags: { endpoint: 'transfer' } });
+        check(res, { 'transfer 200': (r) => r.status === 200 });
+    } else {
+        const res = http.get(`${BASE_URL}/api/wallet/balance`, {
+            headers: auth,
+            tags: { endpoint: 'balance' },
+        });
+        check(res, { 'balance 200': (r) => r.status === 200 });
+    }
+}
+
+export function handleSummary(data) {
+    const line = (endpoint) => {
+        const duration = data.metrics[`http_req_duration{endpoint:${endpoint}}`].values;
+        const reqs = data.metrics[`http_reqs{endpoint:${endpoint}}`].values;
+        const failed = data.metrics[`http_req_failed{endpoint:${endpoint}}`].values;
+        return `${MODE}\t${endpoint}\t${reqs.rate.toFixed(1)}\t${duration['p(50)'].toFixed(1)}`
+            + `\t${duration['p(99)'].toFixed(1)}\t${(failed.rate * 100).toFixed(2)}`;
+    };
+    const table = 'mode\tendpoint\treq/s\tp50 ms\tp99 ms\terror %\n'
+        + line('transfer') + '\n' + line('balance') + '\n';
+
+    return {
+        stdout: table,
+        [`summary-${MODE}.json`]: JSON.stringify(data, null, 2),
+        [`summary-${MODE}.tsv`]: table,
+    };
+}
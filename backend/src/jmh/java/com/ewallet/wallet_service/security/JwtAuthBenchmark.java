@@ -0,0 +1,72 @@
+package com.ewallet.wallet_service.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.security.Key;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token verification cost, as JwtFilter pays it.
+ *
+ *   legacyThreeParses - the old path: isTokenValid, extractEmail and
+ *                       extractRole, each building a parser and verifying
+ *   verifyUncached    - one parse with the shared parser (first sight of
+ *                       a token)
+ *   verifyCached      - a token seen before (every later request)
+ *
+ * ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtAuthBenchmark {
+
+    private JwtUtil cached;
+    private JwtUtil uncached;
+    private Key key;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cached = new JwtUtil();
+        uncached = new JwtUtil(0, Duration.ZERO);
+        key = cached.signingKey();
+        token = cached.generateToken("bench@koshpay.com", "ROLE_USER");
+        cached.verify(token);
+    }
+
+    @Benchmark
+    public void legacyThreeParses(Blackhole bh) {
+        bh.consume(legacyClaims());                          // isTokenValid
+        bh.consume(legacyClaims().getSubject());             // extractEmail
+        bh.consume(legacyClaims().get("role", String.class)); // extractRole
+    }
+
+    @Benchmark
+    public Object verifyUncached() {
+        return uncached.verify(token);
+    }
+
+    @Benchmark
+    public Object verifyCached() {
+        return cached.verify(token);
+    }
+
+    private Claims legacyClaims() {
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
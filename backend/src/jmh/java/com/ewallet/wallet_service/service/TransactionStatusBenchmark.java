@@ -0,0 +1,145 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.entity.Transaction;
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Latency of one happy-path transfer's status pipeline, PER_STATE vs
+ * JOURNALED (sample mode: see the p0.99 row).
+ *
+ * The transaction manager charges a fixed cost per commit (the fsync and
+ * round trip a real database would charge) and the repository is free, so
+ * the difference is what the extra commits cost. TransactionStatusBenchmarkTest
+ * pins the commit counts themselves.
+ *
+ * ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionStatusBenchmark {
+
+    private static final long COMMIT_COST_NANOS = TimeUnit.MICROSECONDS.toNanos(300);
+
+    @Param({"PER_STATE", "JOURNALED"})
+    public TransactionStatusService.Mode mode;
+
+    private TransactionStatusService statusService;
+    private TransactionTemplate business;
+
+    @Setup
+    public void setUp() {
+        CostlyTransactionManager txManager = new CostlyTransactionManager();
+
+        statusService = new TransactionStatusService(repository(), txManager, event -> { });
+        Field field = ReflectionUtils.findField(TransactionStatusService.class, "mode");
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, statusService, mode);
+
+        business = new TransactionTemplate(txManager);
+    }
+
+    // Same status sequence as WalletServiceImpl.transfer on the happy path
+    @Benchmark
+    public void transfer() {
+        business.executeWithoutResult(s -> {
+            Transaction tx = new Transaction();
+            tx.setAmount(BigDecimal.TEN);
+            tx.setTimestamp(Instant.now());
+
+            statusService.updateStatus(tx, TransactionStatus.INITIATED);
+            statusService.updateStatus(tx, TransactionStatus.PENDING);
+            statusService.updateStatus(tx, TransactionStatus.SUCCESS);
+        });
+    }
+
+    // Only what the status pipeline calls; anything else is a benchmark bug
+    private static TransactionRepository repository() {
+        AtomicLong ids = new AtomicLong();
+        return (TransactionRepository) Proxy.newProxyInstance(
+                TransactionRepository.class.getClassLoader(),
+                new Class<?>[] { TransactionRepository.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "saveAndFlush" -> {
+                        Transaction tx = (Transaction) args[0];
+                        if (tx.getId() == null) {
+                            tx.setId(ids.incrementAndGet());
+                        }
+                        yield tx;
+                    }
+                    case "updateStatus" -> 1;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Single-threaded transaction manager that supports REQUIRED and
+     * REQUIRES_NEW (suspend / resume) and charges COMMIT_COST_NANOS per commit.
+     */
+    private static final class CostlyTransactionManager extends AbstractPlatformTransactionManager {
+
+        private boolean active;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return active;
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            active = true;
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            active = false;
+            return Boolean.TRUE;
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+            active = true;
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            LockSupport.parkNanos(COMMIT_COST_NANOS);
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            active = false;
+        }
+    }
+}
@@ -32,6 +32,12 @@ public class CorsConfig {
                 "Content-Type",
                 "Accept"
         ));
+        // readable by the frontend (keyset pagination, admin totals)
+        config.setExposedHeaders(List.of(
+                "X-Next-Cursor",
+                "X-Total-Count",
+                "X-Total-Count-Exact"
+        ));
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source =
@@ -1,22 +1,49 @@
 package com.ewallet.wallet_service.config;
 
+import com.ewallet.wallet_service.security.CredentialEncoder;
+import com.ewallet.wallet_service.security.CredentialHashExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class SecurityBeansConfig {
 
     /**
-     * BCrypt password encoder
-     * Used in UserServiceImpl
+     * Login passwords (users and admins): BCrypt at
+     * app.security.credentials.password.bcrypt-cost
+     * Used in UserServiceImpl, AuthController, AdminInitializer
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Primary
+    public PasswordEncoder passwordEncoder(
+            CredentialHashExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${app.security.credentials.password.bcrypt-cost:10}") int cost
+    ) {
+        return new CredentialEncoder(
+                "password", CredentialEncoder.Scheme.BCRYPT, cost, null, executor, meterRegistry);
+    }
+
+    /**
+     * Transaction PINs: BCrypt by default. PBKDF2 is cheaper, since a 4-digit
+     * secret is protected by attempt limiting (PinVerifier) rather than by
+     * hash cost, but only with a pepper; without one startup fails
+     */
+    @Bean
+    public PasswordEncoder pinEncoder(
+            CredentialHashExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${app.security.credentials.pin.scheme:BCRYPT}") CredentialEncoder.Scheme scheme,
+            @Value("${app.security.credentials.pin.work-factor:10}") int workFactor,
+            @Value("${app.security.credentials.pin.pepper:}") String pepper
+    ) {
+        return new CredentialEncoder("pin", scheme, workFactor, pepper, executor, meterRegistry);
     }
 
     /**
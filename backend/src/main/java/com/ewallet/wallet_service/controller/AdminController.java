@@ -1,21 +1,26 @@
 package com.ewallet.wallet_service.controller;
 
+import com.ewallet.wallet_service.dto.request.AdminTransactionFilter;
+import com.ewallet.wallet_service.dto.request.AuditLogFilter;
+import com.ewallet.wallet_service.dto.response.AdminAnalyticsResponse;
 import com.ewallet.wallet_service.dto.response.AdminSummaryResponse;
 import com.ewallet.wallet_service.dto.response.AdminTransactionResponse;
+import com.ewallet.wallet_service.dto.response.AuditLogResponse;
 import com.ewallet.wallet_service.dto.response.TransactionStatusDistributionResponse;
-import com.ewallet.wallet_service.entity.AuditLog;
-import com.ewallet.wallet_service.entity.Transaction;
-import com.ewallet.wallet_service.repository.AuditLogRepository;
-import com.ewallet.wallet_service.repository.TransactionRepository;
-import com.ewallet.wallet_service.repository.VirtualPaymentAddressRepository;
+import com.ewallet.wallet_service.dto.response.TransactionTimeSeriesResponse;
+import com.ewallet.wallet_service.entity.TransactionRollup.Granularity;
 import com.ewallet.wallet_service.service.AdminAnalyticsService;
+import com.ewallet.wallet_service.service.AdminTransactionQueryService;
+import com.ewallet.wallet_service.service.AuditLogQueryService;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -23,10 +28,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AdminController {
 
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    public static final String TOTAL_COUNT_EXACT_HEADER = "X-Total-Count-Exact";
+
     private final AdminAnalyticsService analyticsService;
-    private final TransactionRepository transactionRepository;
-    private final AuditLogRepository auditLogRepository;
-    private final VirtualPaymentAddressRepository vpaRepository;
+    private final AdminTransactionQueryService transactionQueryService;
+    private final AuditLogQueryService auditLogQueryService;
 
     // =====================================================
     // DASHBOARD SUMMARY
@@ -48,51 +55,68 @@ public class AdminController {
         return ResponseEntity.ok(analyticsService.getStatusDistribution());
     }
 
+    // Totals plus today's (UTC) count and volume
+    @GetMapping("/analytics")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ANALYTICS')")
+    public ResponseEntity<AdminAnalyticsResponse> getAnalytics() {
+        return ResponseEntity.ok(analyticsService.getAnalytics());
+    }
+
+    // Time series over [from, to), default the last 24 hours. Without
+    // ?granularity= (MINUTE, HOUR, DAY) the finest one that fits is used.
+    @GetMapping("/analytics/timeseries")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ANALYTICS')")
+    public ResponseEntity<TransactionTimeSeriesResponse> getTimeSeries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) Granularity granularity
+    ) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofDays(1));
+        return ResponseEntity.ok(analyticsService.getTimeSeries(start, end, granularity));
+    }
+
     // =====================================================
     // TRANSACTIONS
     // SUPER_ADMIN + TRANSACTIONS role
     // =====================================================
+    // Filters, sort and keyset cursor: see AdminTransactionFilter.
+    // Pass the X-Next-Cursor header back as ?cursor= for the next page.
     @GetMapping("/transactions")
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'TRANSACTIONS')")
-    @Transactional(readOnly = true)
-    public ResponseEntity<List<AdminTransactionResponse>> getAllTransactions() {
-
-        List<Transaction> transactions = transactionRepository.findAll();
-
-        List<AdminTransactionResponse> result = transactions.stream().map(tx -> {
-
-            Long fromUserId = tx.getFromWallet().getUser().getId();
-            Long toUserId   = tx.getToWallet().getUser().getId();
-
-            String fromUpi = vpaRepository.findByUserId(fromUserId)
-                    .map(vpa -> vpa.getUpiId())
-                    .orElse("N/A");
-
-            String toUpi = vpaRepository.findByUserId(toUserId)
-                    .map(vpa -> vpa.getUpiId())
-                    .orElse("N/A");
-
-            return new AdminTransactionResponse(
-                    tx.getId(),
-                    fromUpi,
-                    toUpi,
-                    tx.getAmount(),
-                    tx.getStatus().name(),
-                    tx.getTimestamp()
-            );
-
-        }).toList();
-
-        return ResponseEntity.ok(result);
+    public ResponseEntity<List<AdminTransactionResponse>> getAllTransactions(
+            @ModelAttribute AdminTransactionFilter filter
+    ) {
+        AdminTransactionQueryService.Page page = transactionQueryService.search(filter);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(WalletController.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
     }
 
     // =====================================================
     // AUDIT LOGS
     // SUPER_ADMIN + AUDIT_LOGS role
     // =====================================================
+    // Filters and keyset cursor: see AuditLogFilter. With ?count=ESTIMATE
+    // the total comes back in X-Total-Count (see AuditLogQueryService).
     @GetMapping("/audit-logs")
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'AUDIT_LOGS')")
-    public ResponseEntity<List<AuditLog>> getAuditLogs() {
-        return ResponseEntity.ok(auditLogRepository.findAll());
+    public ResponseEntity<List<AuditLogResponse>> getAuditLogs(
+            @ModelAttribute AuditLogFilter filter
+    ) {
+        AuditLogQueryService.Page page = auditLogQueryService.search(filter);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(WalletController.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        if (page.totalCount() != null) {
+            response.header(TOTAL_COUNT_HEADER, String.valueOf(page.totalCount()));
+            response.header(TOTAL_COUNT_EXACT_HEADER, String.valueOf(page.totalExact()));
+        }
+        return response.body(page.items());
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.ewallet.wallet_service.controller;
+
+import com.ewallet.wallet_service.service.AdminExportService;
+import com.ewallet.wallet_service.service.AdminExportService.Format;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/admin/export")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminExportController {
+
+    private final AdminExportService exportService;
+
+    // =====================================================
+    // TRANSACTIONS DUMP
+    // SUPER_ADMIN + TRANSACTIONS role
+    // =====================================================
+    @GetMapping("/transactions")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'TRANSACTIONS')")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "CSV") Format format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to
+    ) {
+        return stream("transactions", format, gzip, out -> {
+            long rows = exportService.exportTransactions(out, format, gzip, from, to);
+            log.info("Exported {} transaction row(s) as {}{}", rows, format, gzip ? " (gzip)" : "");
+        });
+    }
+
+    // =====================================================
+    // AUDIT LOGS DUMP
+    // SUPER_ADMIN + AUDIT_LOGS role
+    // =====================================================
+    @GetMapping("/audit-logs")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'AUDIT_LOGS')")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @RequestParam(defaultValue = "CSV") Format format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to
+    ) {
+        return stream("audit-logs", format, gzip, out -> {
+            long rows = exportService.exportAuditLogs(out, format, gzip, from, to);
+            log.info("Exported {} audit log row(s) as {}{}", rows, format, gzip ? " (gzip)" : "");
+        });
+    }
+
+    // Body is written after the handler returns, straight into the
+    // chunked response; nothing is buffered beyond the writer's buffer
+    private static ResponseEntity<StreamingResponseBody> stream(
+            String name, Format format, boolean gzip, StreamingResponseBody body) {
+
+        String extension = format == Format.NDJSON ? "ndjson" : "csv";
+        MediaType type = gzip
+                ? MediaType.parseMediaType("application/gzip")
+                : format == Format.NDJSON
+                        ? MediaType.parseMediaType("application/x-ndjson")
+                        : MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+        String filename = name + "." + extension + (gzip ? ".gz" : "");
+
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -37,6 +37,12 @@ public class AuthController {
                 throw new InvalidRequestException("Invalid admin credentials");
             }
 
+            // cost changed since this hash was written
+            if (passwordEncoder.upgradeEncoding(admin.getPassword())) {
+                admin.setPassword(passwordEncoder.encode(request.getPassword()));
+                adminRepository.save(admin);
+            }
+
             // ✅ Use the actual role stored in DB, not a hardcoded "ROLE_ADMIN"
             String token = jwtUtil.generateToken(admin.getEmail(), admin.getRole());
             return ResponseEntity.ok(new AuthResponse(token));
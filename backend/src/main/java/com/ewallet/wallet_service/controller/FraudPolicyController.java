@@ -0,0 +1,37 @@
+package com.ewallet.wallet_service.controller;
+
+import com.ewallet.wallet_service.fraud.model.FraudPolicy;
+import com.ewallet.wallet_service.fraud.service.FraudPolicyService;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/fraud-policy")
+@RequiredArgsConstructor
+public class FraudPolicyController {
+
+    private final FraudPolicyService fraudPolicyService;
+
+    // =====================================================
+    // ACTIVE POLICY
+    // SUPER_ADMIN only
+    // =====================================================
+    @GetMapping
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<FraudPolicy> getActivePolicy() {
+        return ResponseEntity.ok(fraudPolicyService.current());
+    }
+
+    // =====================================================
+    // FORCE RELOAD (instead of waiting for the refresh poll)
+    // 400 if the new policy does not compile; the old one stays active
+    // =====================================================
+    @PostMapping("/reload")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<FraudPolicy> reload() {
+        return ResponseEntity.ok(fraudPolicyService.reload());
+    }
+}
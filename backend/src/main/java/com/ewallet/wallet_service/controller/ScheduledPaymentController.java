@@ -1,6 +1,8 @@
 package com.ewallet.wallet_service.controller;
 
+import com.ewallet.wallet_service.dto.request.RecurringScheduleRequest;
 import com.ewallet.wallet_service.dto.request.SchedulePaymentRequest;
+import com.ewallet.wallet_service.dto.response.RecurringScheduleResponse;
 import com.ewallet.wallet_service.dto.response.ScheduledPaymentResponse;
 import com.ewallet.wallet_service.entity.ScheduledPayment;
 import com.ewallet.wallet_service.service.ScheduledPaymentService;
@@ -95,4 +97,75 @@ public class ScheduledPaymentController {
 
         return ResponseEntity.ok("Scheduled payment cancelled");
     }
-}
\ No newline at end of file
+
+    // =============================
+    // RECURRING SCHEDULES
+    // =============================
+
+    @PostMapping("/recurring")
+    public ResponseEntity<RecurringScheduleResponse> createRecurringSchedule(
+            @RequestBody RecurringScheduleRequest request,
+            Authentication authentication
+    ) {
+
+        return ResponseEntity.ok(RecurringScheduleResponse.from(
+                scheduledPaymentService.createRecurringSchedule(authentication.getName(), request)));
+    }
+
+    @GetMapping("/recurring")
+    public ResponseEntity<List<RecurringScheduleResponse>> getUserRecurringSchedules(
+            Authentication authentication
+    ) {
+
+        List<RecurringScheduleResponse> responses =
+            scheduledPaymentService
+                    .getUserRecurringSchedules(authentication.getName())
+                    .stream()
+                    .map(RecurringScheduleResponse::from)
+                    .toList();
+
+        return ResponseEntity.ok(responses);
+    }
+
+    @PutMapping("/recurring/{id}")
+    public ResponseEntity<RecurringScheduleResponse> updateRecurringSchedule(
+            @PathVariable Long id,
+            @RequestBody RecurringScheduleRequest request,
+            Authentication authentication
+    ) {
+
+        return ResponseEntity.ok(RecurringScheduleResponse.from(
+                scheduledPaymentService.updateRecurringSchedule(id, authentication.getName(), request)));
+    }
+
+    @PostMapping("/recurring/{id}/pause")
+    public ResponseEntity<RecurringScheduleResponse> pauseRecurringSchedule(
+            @PathVariable Long id,
+            Authentication authentication
+    ) {
+
+        return ResponseEntity.ok(RecurringScheduleResponse.from(
+                scheduledPaymentService.pauseRecurringSchedule(id, authentication.getName())));
+    }
+
+    @PostMapping("/recurring/{id}/resume")
+    public ResponseEntity<RecurringScheduleResponse> resumeRecurringSchedule(
+            @PathVariable Long id,
+            Authentication authentication
+    ) {
+
+        return ResponseEntity.ok(RecurringScheduleResponse.from(
+                scheduledPaymentService.resumeRecurringSchedule(id, authentication.getName())));
+    }
+
+    @DeleteMapping("/recurring/{id}")
+    public ResponseEntity<?> cancelRecurringSchedule(
+            @PathVariable Long id,
+            Authentication authentication
+    ) {
+
+        scheduledPaymentService.cancelRecurringSchedule(id, authentication.getName());
+
+        return ResponseEntity.ok("Recurring schedule cancelled");
+    }
+}
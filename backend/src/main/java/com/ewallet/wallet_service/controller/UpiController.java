@@ -7,6 +7,7 @@ import com.ewallet.wallet_service.entity.VirtualPaymentAddress;
 import com.ewallet.wallet_service.exception.ResourceNotFoundException;
 import com.ewallet.wallet_service.repository.UserRepository;
 import com.ewallet.wallet_service.repository.VirtualPaymentAddressRepository;
+import com.ewallet.wallet_service.security.AuthenticatedUser;
 import com.ewallet.wallet_service.service.QrService;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
@@ -37,6 +38,11 @@ public class UpiController {
     @GetMapping("/me")
     public UpiIdResponse getMyUpiId() {
 
+        AuthenticatedUser principal = AuthenticatedUser.current();
+        if (principal != null && principal.upiId() != null) {
+            return new UpiIdResponse(principal.upiId());
+        }
+
         String email = SecurityContextHolder
                 .getContext()
                 .getAuthentication()
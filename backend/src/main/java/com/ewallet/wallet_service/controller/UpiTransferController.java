@@ -1,7 +1,6 @@
 package com.ewallet.wallet_service.controller;
 
 import com.ewallet.wallet_service.dto.request.UpiTransferRequest;
-import com.ewallet.wallet_service.entity.Wallet;
 import com.ewallet.wallet_service.service.UpiResolverService;
 import com.ewallet.wallet_service.service.WalletService;
 import jakarta.validation.Valid;
@@ -35,11 +34,11 @@ public class UpiTransferController {
             @Valid @RequestBody UpiTransferRequest request
     ) {
 
-        Wallet receiverWallet =
-                upiResolverService.resolveToWallet(request.getToUpiId());
+        Long receiverWalletId =
+                upiResolverService.resolveWalletId(request.getToUpiId());
 
     Object result = walletService.transfer(
-            receiverWallet.getId(),
+            receiverWalletId,
             request.getAmount(),
             request.getPin(),
             request.getOtp()
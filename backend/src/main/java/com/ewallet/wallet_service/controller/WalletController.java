@@ -1,5 +1,7 @@
 package com.ewallet.wallet_service.controller;
 
+import com.ewallet.wallet_service.dto.request.TransactionHistoryFilter;
+import com.ewallet.wallet_service.dto.response.TransactionHistoryPage;
 import com.ewallet.wallet_service.dto.response.TransactionResponse;
 import com.ewallet.wallet_service.dto.response.WalletResponse;
 import com.ewallet.wallet_service.service.WalletService;
@@ -14,6 +16,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class WalletController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final WalletService walletService;
 
     // =============================
@@ -43,11 +47,19 @@ public class WalletController {
     // =============================
     // MY TRANSACTION HISTORY
     // =============================
+    // Newest first, keyset-paginated: pass the X-Next-Cursor header of
+    // one page as ?cursor= to get the next. No header on the last page.
     @GetMapping("/transactions")
-    public ResponseEntity<List<TransactionResponse>> getMyTransactions() {
-        return ResponseEntity.ok(
-                walletService.getMyTransactionHistory()
-        );
+    public ResponseEntity<List<TransactionResponse>> getMyTransactions(
+            @ModelAttribute TransactionHistoryFilter filter
+    ) {
+        TransactionHistoryPage page = walletService.getMyTransactionHistory(filter);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
 }
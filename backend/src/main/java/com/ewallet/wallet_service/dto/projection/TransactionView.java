@@ -0,0 +1,28 @@
+package com.ewallet.wallet_service.dto.projection;
+
+import com.ewallet.wallet_service.entity.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Flat read-only row for transaction listings: the transaction plus both
+ * parties' user name and UPI id, built by a JPQL constructor expression
+ * (see TransactionRepository) in one statement. No entities are loaded,
+ * so nothing is lazily fetched per row afterwards.
+ *
+ * fromUpi / toUpi are null when the user has no VPA.
+ */
+public record TransactionView(
+        Long id,
+        Long fromWalletId,
+        Long toWalletId,
+        String fromUserName,
+        String fromUpi,
+        String toUserName,
+        String toUpi,
+        BigDecimal amount,
+        Instant timestamp,
+        TransactionStatus status
+) {
+}
@@ -0,0 +1,43 @@
+package com.ewallet.wallet_service.dto.request;
+
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Query parameters of GET /api/admin/transactions. Every field is
+ * optional; ranges are inclusive of min/from and exclusive of to.
+ */
+@Data
+public class AdminTransactionFilter {
+
+    public enum SortField { TIMESTAMP, AMOUNT }
+
+    public enum SortOrder { ASC, DESC }
+
+    private TransactionStatus status;
+
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant to;
+
+    // matches either side of the transfer
+    private String upiId;
+    private Long walletId;
+
+    private SortField sort = SortField.TIMESTAMP;
+    private SortOrder order = SortOrder.DESC;
+
+    // X-Next-Cursor of the previous page
+    private String cursor;
+
+    private Integer limit;
+}
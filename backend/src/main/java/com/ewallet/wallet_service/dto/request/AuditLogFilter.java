@@ -0,0 +1,47 @@
+package com.ewallet.wallet_service.dto.request;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+
+/**
+ * Query parameters of GET /api/admin/audit-logs. Every filter is optional;
+ * the time range is inclusive of from and exclusive of to. Results are
+ * always newest first.
+ */
+@Data
+public class AuditLogFilter {
+
+    /**
+     * NONE: no total. ESTIMATE: a cheap total (X-Total-Count), exact only
+     * when X-Total-Count-Exact is true.
+     */
+    public enum CountMode { NONE, ESTIMATE }
+
+    private Long userId;
+
+    private String actionType;
+    private String status;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant to;
+
+    // X-Next-Cursor of the previous page
+    private String cursor;
+
+    private Integer limit;
+
+    private CountMode count = CountMode.NONE;
+
+    public boolean hasFilters() {
+        return userId != null
+                || (actionType != null && !actionType.isBlank())
+                || (status != null && !status.isBlank())
+                || from != null
+                || to != null;
+    }
+}
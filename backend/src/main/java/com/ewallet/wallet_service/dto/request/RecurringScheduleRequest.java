@@ -0,0 +1,60 @@
+package com.ewallet.wallet_service.dto.request;
+
+import com.ewallet.wallet_service.entity.RecurrenceFrequency;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public class RecurringScheduleRequest {
+
+    private String receiverUpiId;   // create only
+    private BigDecimal amount;
+    private RecurrenceFrequency frequency;
+    private String cronExpression;  // CRON only, e.g. "0 0 9 * * MON-FRI"
+    private String zone;            // defaults to UTC
+    private Instant startAt;        // defaults to now
+    private Instant endAt;          // optional, inclusive
+
+    public String getReceiverUpiId() {
+        return receiverUpiId;
+    }
+    public void setReceiverUpiId(String receiverUpiId) {
+        this.receiverUpiId = receiverUpiId;
+    }
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+    public void setFrequency(RecurrenceFrequency frequency) {
+        this.frequency = frequency;
+    }
+    public String getCronExpression() {
+        return cronExpression;
+    }
+    public void setCronExpression(String cronExpression) {
+        this.cronExpression = cronExpression;
+    }
+    public String getZone() {
+        return zone;
+    }
+    public void setZone(String zone) {
+        this.zone = zone;
+    }
+    public Instant getStartAt() {
+        return startAt;
+    }
+    public void setStartAt(Instant startAt) {
+        this.startAt = startAt;
+    }
+    public Instant getEndAt() {
+        return endAt;
+    }
+    public void setEndAt(Instant endAt) {
+        this.endAt = endAt;
+    }
+}
@@ -0,0 +1,31 @@
+package com.ewallet.wallet_service.dto.request;
+
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+
+/**
+ * Query parameters of GET /api/wallet/transactions. Every field is
+ * optional; from is inclusive, to is exclusive.
+ */
+@Data
+public class TransactionHistoryFilter {
+
+    // DEBIT or CREDIT (from current user's perspective)
+    private String direction;
+
+    private TransactionStatus status;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant to;
+
+    // X-Next-Cursor of the previous page
+    private String cursor;
+
+    private Integer limit;
+}
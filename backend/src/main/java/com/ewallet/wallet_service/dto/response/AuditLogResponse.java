@@ -0,0 +1,25 @@
+package com.ewallet.wallet_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class AuditLogResponse {
+
+    private Long id;
+
+    private Long userId;
+    private String username;
+
+    private String actionType;
+    private String status;
+
+    private BigDecimal oldBalance;
+    private BigDecimal newBalance;
+
+    private Instant timestamp;
+}
@@ -0,0 +1,101 @@
+package com.ewallet.wallet_service.dto.response;
+
+import com.ewallet.wallet_service.entity.RecurrenceFrequency;
+import com.ewallet.wallet_service.entity.RecurringPaymentRule;
+import com.ewallet.wallet_service.entity.RecurringRuleStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public class RecurringScheduleResponse {
+
+    private Long id;
+    private String receiverUpiId;
+    private BigDecimal amount;
+    private RecurrenceFrequency frequency;
+    private String cronExpression;
+    private String zone;
+    private Instant startAt;
+    private Instant endAt;
+    private Instant nextRunAt;
+    private RecurringRuleStatus status;
+
+    public RecurringScheduleResponse(
+            Long id,
+            String receiverUpiId,
+            BigDecimal amount,
+            RecurrenceFrequency frequency,
+            String cronExpression,
+            String zone,
+            Instant startAt,
+            Instant endAt,
+            Instant nextRunAt,
+            RecurringRuleStatus status
+    ) {
+        this.id = id;
+        this.receiverUpiId = receiverUpiId;
+        this.amount = amount;
+        this.frequency = frequency;
+        this.cronExpression = cronExpression;
+        this.zone = zone;
+        this.startAt = startAt;
+        this.endAt = endAt;
+        this.nextRunAt = nextRunAt;
+        this.status = status;
+    }
+
+    public static RecurringScheduleResponse from(RecurringPaymentRule rule) {
+        return new RecurringScheduleResponse(
+                rule.getId(),
+                rule.getReceiver().getUpiId(),
+                rule.getAmount(),
+                rule.getFrequency(),
+                rule.getCronExpression(),
+                rule.getZone(),
+                rule.getStartAt(),
+                rule.getEndAt(),
+                rule.getNextRunAt(),
+                rule.getStatus()
+        );
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getReceiverUpiId() {
+        return receiverUpiId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public String getCronExpression() {
+        return cronExpression;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public Instant getStartAt() {
+        return startAt;
+    }
+
+    public Instant getEndAt() {
+        return endAt;
+    }
+
+    public Instant getNextRunAt() {
+        return nextRunAt;
+    }
+
+    public RecurringRuleStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ewallet.wallet_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionHistoryPage {
+
+    private List<TransactionResponse> items;
+
+    // null on the last page
+    private String nextCursor;
+}
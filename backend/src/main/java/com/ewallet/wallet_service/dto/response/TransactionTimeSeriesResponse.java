@@ -0,0 +1,44 @@
+package com.ewallet.wallet_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Transfers created per bucket over [from, to). Volume is successful
+ * volume; distinct sender counts are estimates (about 3% error).
+ */
+@Data
+@AllArgsConstructor
+public class TransactionTimeSeriesResponse {
+
+    private String granularity;
+
+    private Instant from;
+    private Instant to;
+
+    private List<Point> points;
+
+    // whole range
+    private long totalCount;
+    private BigDecimal totalVolume;
+    private long distinctSenders;
+
+    @Data
+    @AllArgsConstructor
+    public static class Point {
+
+        private Instant bucketStart;
+
+        private long count;
+        private long successCount;
+        private long failedCount;
+
+        private BigDecimal volume;
+
+        private long distinctSenders;
+    }
+}
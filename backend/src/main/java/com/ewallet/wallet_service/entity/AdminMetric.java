@@ -0,0 +1,33 @@
+package com.ewallet.wallet_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One dashboard aggregate (see AdminMetricsStore), shared by all instances.
+ * Counts and the volume sum live in the same column.
+ */
+@Entity
+@Table(name = "admin_metrics")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminMetric {
+
+    @Id
+    @Column(name = "metric_name", length = 32)
+    private String name;
+
+    @Column(name = "metric_value", nullable = false, precision = 19, scale = 2)
+    private BigDecimal value;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,87 @@
+package com.ewallet.wallet_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Denormalized copy of a transfer for the admin explorer, maintained by
+ * AdminTransactionProjector. Admin queries filter and sort this table only;
+ * they never join or scan transactions.
+ *
+ * Each index serves one filter or sort, and ends with the keyset tie-breaker.
+ */
+@Entity
+@Table(
+    name = "admin_transactions",
+    indexes = {
+        @Index(name = "idx_atx_ts", columnList = "timestamp, transaction_id"),
+        @Index(name = "idx_atx_amount", columnList = "amount, transaction_id"),
+        @Index(name = "idx_atx_status_ts", columnList = "status, timestamp, transaction_id"),
+        @Index(name = "idx_atx_from_wallet_ts", columnList = "from_wallet_id, timestamp, transaction_id"),
+        @Index(name = "idx_atx_to_wallet_ts", columnList = "to_wallet_id, timestamp, transaction_id"),
+        @Index(name = "idx_atx_from_upi_ts", columnList = "from_upi_id, timestamp, transaction_id"),
+        @Index(name = "idx_atx_to_upi_ts", columnList = "to_upi_id, timestamp, transaction_id")
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class AdminTransactionRecord implements Persistable<Long> {
+
+    // same id as the transactions row
+    @Id
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    @Column(name = "from_wallet_id", nullable = false)
+    private Long fromWalletId;
+
+    @Column(name = "to_wallet_id", nullable = false)
+    private Long toWalletId;
+
+    @Column(name = "from_upi_id")
+    private String fromUpiId;
+
+    @Column(name = "to_upi_id")
+    private String toUpiId;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionStatus status;
+
+    @Column(nullable = false)
+    private Instant timestamp;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    // The id is assigned, not generated: without this, save() would
+    // SELECT before every INSERT to decide between persist and merge.
+    @Transient
+    private boolean isNew = true;
+
+    @Override
+    public Long getId() {
+        return transactionId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -7,8 +7,21 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.Instant;
 
+/**
+ * Indexes back the admin audit search (AuditLogQueryService): each serves
+ * one filter combination and ends with the (timestamp, id) keyset.
+ */
 @Entity
-@Table(name = "audit_logs")
+@Table(
+    name = "audit_logs",
+    indexes = {
+        @Index(name = "idx_audit_ts", columnList = "timestamp, id"),
+        @Index(name = "idx_audit_user_ts", columnList = "user_id, timestamp, id"),
+        @Index(name = "idx_audit_action_ts", columnList = "action_type, timestamp, id"),
+        @Index(name = "idx_audit_action_status_ts", columnList = "action_type, status, timestamp, id"),
+        @Index(name = "idx_audit_status_ts", columnList = "status, timestamp, id")
+    }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,8 @@
+package com.ewallet.wallet_service.entity;
+
+public enum RecurrenceFrequency {
+    DAILY,   // same local time every day
+    WEEKLY,  // same local time and weekday as the start
+    MONTHLY, // same day of month as the start (clamped to the month's last day)
+    CRON     // Spring cron expression (second minute hour day month weekday)
+}
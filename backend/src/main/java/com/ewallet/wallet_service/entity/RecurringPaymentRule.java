@@ -0,0 +1,71 @@
+package com.ewallet.wallet_service.entity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A standing instruction: one row per rule, however many times it runs.
+ *
+ * Occurrences are not generated up front. RecurringPaymentMaterializer
+ * turns nextRunAt into an ordinary ScheduledPayment shortly before it is
+ * due and moves nextRunAt on, so only the next occurrence of each rule
+ * ever sits in scheduled_payment.
+ */
+@Entity
+@Table(indexes = {
+    // materializer scan (RecurringPaymentRuleRepository.findDue)
+    @Index(name = "idx_rpr_due", columnList = "status, next_run_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class RecurringPaymentRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "sender_id", nullable = false)
+    private User sender;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "receiver_vpa_id", nullable = false)
+    private VirtualPaymentAddress receiver;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RecurrenceFrequency frequency;
+
+    // CRON only
+    @Column(length = 120)
+    private String cronExpression;
+
+    // Time zone the rule is evaluated in (days, weeks and months follow its DST changes)
+    @Column(nullable = false, length = 64)
+    private String zone = "UTC";
+
+    // First occurrence, and the anchor of DAILY / WEEKLY / MONTHLY rules
+    @Column(nullable = false)
+    private Instant startAt;
+
+    // Inclusive; null = no end
+    private Instant endAt;
+
+    // Next occurrence not yet materialized; null once the rule is over
+    private Instant nextRunAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RecurringRuleStatus status = RecurringRuleStatus.ACTIVE;
+
+    private Instant createdAt;
+}
@@ -0,0 +1,8 @@
+package com.ewallet.wallet_service.entity;
+
+public enum RecurringRuleStatus {
+    ACTIVE,    // occurrences are materialized as they come due
+    PAUSED,    // kept, but nothing is materialized until resumed
+    COMPLETED, // past its end date
+    CANCELLED  // stopped by the user
+}
@@ -0,0 +1,32 @@
+package com.ewallet.wallet_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * How far a rollup rebuild has got (see TransactionRollupService), shared
+ * by all instances: everything before backfilledTo is in the rollups.
+ */
+@Entity
+@Table(name = "rollup_progress")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupProgress {
+
+    @Id
+    @Column(name = "progress_name", length = 32)
+    private String name;
+
+    @Column(name = "backfilled_to", nullable = false)
+    private Instant backfilledTo;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
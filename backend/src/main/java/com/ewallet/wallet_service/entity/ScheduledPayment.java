@@ -10,6 +10,16 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 @Entity
+@Table(
+    indexes = {
+        // claim scan (ScheduledPaymentRepository.findClaimable)
+        @Index(name = "idx_sp_due", columnList = "executed, status, scheduled_at"),
+        // pending occurrence of a recurring rule (ScheduledPaymentRepository.findPendingByRuleForUpdate)
+        @Index(name = "idx_sp_rule", columnList = "rule_id"),
+        // archiver scan (ScheduledPaymentRepository.findArchivable)
+        @Index(name = "idx_sp_done", columnList = "status, scheduled_at")
+    }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -44,4 +54,16 @@ public class ScheduledPayment {
     private Instant createdAt;
 
     private Instant executedAt;
+
+    // Lease taken by the executor node that will run this payment; another
+    // node may claim it once claimExpiresAt has passed
+    @Column(length = 64)
+    private String claimedBy;
+
+    private Instant claimExpiresAt;
+
+    // Recurring rule this payment is an occurrence of; null for one-off payments
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "rule_id")
+    private RecurringPaymentRule rule;
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.ewallet.wallet_service.entity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Cold copy of a finished ScheduledPayment, moved here by
+ * ScheduledPaymentArchiver so scheduled_payment only holds live and
+ * recently finished rows. Same id as the original; references are plain
+ * ids (no foreign keys), so the table can be moved to cheaper storage.
+ */
+@Entity
+@Table(indexes = {
+    @Index(name = "idx_spa_sender", columnList = "sender_id, scheduled_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ScheduledPaymentArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "sender_id", nullable = false)
+    private Long senderId;
+
+    @Column(name = "receiver_vpa_id", nullable = false)
+    private Long receiverVpaId;
+
+    @Column(name = "rule_id")
+    private Long ruleId;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private Instant scheduledAt;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionStatus status;
+
+    private String failureReason;
+
+    private boolean executed;
+
+    private Instant createdAt;
+
+    private Instant executedAt;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+}
@@ -11,7 +11,18 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 
 @Entity
-@Table(name = "transactions")
+@Table(
+    name = "transactions",
+    indexes = {
+        // keyset history pages (TransactionRepository.findSentPage / findReceivedPage)
+        @Index(name = "idx_tx_from_ts", columnList = "from_wallet_id, timestamp, id"),
+        @Index(name = "idx_tx_to_ts", columnList = "to_wallet_id, timestamp, id"),
+        // time-range scans (rollup recount, velocity warm-up, today's totals)
+        @Index(name = "idx_tx_ts", columnList = "timestamp"),
+        // payee lookups before the payee index is loaded, and with confirm-misses on
+        @Index(name = "idx_tx_from_to_status", columnList = "from_wallet_id, to_wallet_id, status")
+    }
+)
 @Getter
 @Setter
 public class Transaction {
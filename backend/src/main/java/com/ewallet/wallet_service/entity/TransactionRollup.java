@@ -0,0 +1,94 @@
+package com.ewallet.wallet_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Aggregate of the transfers created in one UTC-aligned time bucket,
+ * maintained by TransactionRollupService. Counts are by the transfer's
+ * current status; volume is successful volume only.
+ *
+ * senderSketch is a HyperLogLog of the sending wallets, so distinct
+ * senders can be combined across buckets; distinctSenders is its estimate.
+ */
+@Entity
+@Table(name = "transaction_rollups")
+@IdClass(TransactionRollup.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class TransactionRollup {
+
+    public enum Granularity {
+        MINUTE(ChronoUnit.MINUTES),
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public Duration duration() {
+            return unit.getDuration();
+        }
+
+        public Instant truncate(Instant instant) {
+            return instant.truncatedTo(unit);
+        }
+    }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private Granularity granularity;
+
+    @Id
+    @Column(name = "bucket_start")
+    private Instant bucketStart;
+
+    @Column(name = "tx_count", nullable = false)
+    private long txCount;
+
+    @Column(name = "success_count", nullable = false)
+    private long successCount;
+
+    @Column(name = "failed_count", nullable = false)
+    private long failedCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal volume = BigDecimal.ZERO;
+
+    @Column(name = "distinct_senders", nullable = false)
+    private long distinctSenders;
+
+    @Column(name = "sender_sketch", length = 1024)
+    private byte[] senderSketch;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public TransactionRollup(Granularity granularity, Instant bucketStart) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Granularity granularity;
+        private Instant bucketStart;
+    }
+}
@@ -29,11 +29,16 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
 
-    // Stored as BCrypt hash
+    // Stored as BCrypt hash (see CredentialEncoder)
     @Column(nullable = false)
     private String password;
 
-    private String transactionPin; // Hashed (4 or 6 digits)
+    private String transactionPin; // Hashed (4 or 6 digits), see CredentialEncoder
+
+    // consecutive wrong PINs; reset on success or when the lock is applied (see PinVerifier)
+    private Integer pinFailedAttempts;
+    private LocalDateTime pinLockedUntil;
+
     private String currentOtp;     
     private LocalDateTime otpExpiry;
 
@@ -0,0 +1,47 @@
+package com.ewallet.wallet_service.event;
+
+import com.ewallet.wallet_service.entity.Transaction;
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.entity.Wallet;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Published by TransactionStatusService on every status change, on the
+ * thread that made the change.
+ *
+ * INITIATED and FAILED are already committed when the event fires.
+ * SUCCESS may still be part of the caller's open transaction, so
+ * listeners that must only see committed transfers should use
+ * {@code @TransactionalEventListener(phase = AFTER_COMMIT, fallbackExecution = true)}.
+ *
+ * previousStatus is null for a new transfer (the INITIATED event).
+ */
+public record TransactionStatusChangedEvent(
+        Long transactionId,
+        Long fromWalletId,
+        Long toWalletId,
+        BigDecimal amount,
+        Instant timestamp,
+        TransactionStatus status,
+        TransactionStatus previousStatus
+) {
+
+    public static TransactionStatusChangedEvent of(
+            Transaction tx, TransactionStatus status, TransactionStatus previousStatus) {
+        return new TransactionStatusChangedEvent(
+                tx.getId(),
+                walletId(tx.getFromWallet()),
+                walletId(tx.getToWallet()),
+                tx.getAmount(),
+                tx.getTimestamp(),
+                status,
+                previousStatus
+        );
+    }
+
+    private static Long walletId(Wallet wallet) {
+        return wallet == null ? null : wallet.getId();
+    }
+}
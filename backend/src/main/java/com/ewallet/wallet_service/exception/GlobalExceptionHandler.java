@@ -79,6 +79,22 @@ public class GlobalExceptionHandler {
                 .body(errors);
     }
 
+    // =============================
+    // 503 - SATURATED, RETRY LATER
+    // =============================
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiErrorResponse> handleBusy(
+            ServiceBusyException ex,
+            HttpServletRequest request
+    ) {
+        log.warn(
+            "Service busy: path={}, message={}",
+            request.getRequestURI(),
+            ex.getMessage()
+        );
+        return buildResponse(ex, HttpStatus.SERVICE_UNAVAILABLE, request);
+    }
+
     // =============================
     // 500 - GENERIC EXCEPTION
     // =============================
@@ -0,0 +1,8 @@
+package com.ewallet.wallet_service.exception;
+
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,131 @@
+package com.ewallet.wallet_service.fraud.model;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Compiled, immutable fraud policy: rule thresholds, risk points and the
+ * decision bands. Numbers are parsed once here so rule evaluation only
+ * compares against ready-made constants.
+ *
+ * Built from a properties source (see fraud-policy.properties); a missing
+ * key falls back to the original hard-coded value.
+ */
+public final class FraudPolicy {
+
+    private final BigDecimal highAmountThreshold;
+    private final int highAmountPoints;
+
+    private final BigDecimal walletDrainRatio;
+    private final int walletDrainPoints;
+
+    private final int newPayeePoints;
+
+    private final List<VelocityLimit> velocityLimits;
+    private final int velocityPoints;
+
+    private final int blockScore;
+    private final int otpRiskScore;
+    private final BigDecimal otpAmount;
+
+    private final String source;
+    private final Instant loadedAt;
+
+    private FraudPolicy(Properties p, Duration maxVelocityWindow, String source) {
+        this.highAmountThreshold = decimal(p, "high-amount.threshold", "10000");
+        this.highAmountPoints = points(p, "high-amount.points", 70);
+
+        this.walletDrainRatio = decimal(p, "wallet-drain.ratio", "0.80");
+        this.walletDrainPoints = points(p, "wallet-drain.points", 40);
+        if (walletDrainRatio.signum() <= 0 || walletDrainRatio.compareTo(BigDecimal.ONE) > 0) {
+            throw new IllegalArgumentException("wallet-drain.ratio must be in (0, 1]");
+        }
+
+        this.newPayeePoints = points(p, "new-payee.points", 40);
+
+        List<VelocityLimit> limits = new ArrayList<>();
+        for (String spec : p.getProperty("velocity.limits", "10m:5").split(",")) {
+            if (spec.isBlank()) {
+                continue;
+            }
+            VelocityLimit limit = VelocityLimit.parse(spec);
+            if (limit.window().compareTo(maxVelocityWindow) > 0) {
+                throw new IllegalArgumentException("velocity window " + limit.window()
+                        + " exceeds tracker retention " + maxVelocityWindow);
+            }
+            limits.add(limit);
+        }
+        limits.sort(Comparator.comparing(VelocityLimit::window));
+        this.velocityLimits = List.copyOf(limits);
+        this.velocityPoints = points(p, "velocity.points", 80);
+
+        this.blockScore = points(p, "decision.block-score", 70);
+        this.otpRiskScore = points(p, "otp.risk-score", 30);
+        this.otpAmount = decimal(p, "otp.amount", "1000");
+
+        this.source = source;
+        this.loadedAt = Instant.now();
+    }
+
+    /**
+     * @throws IllegalArgumentException if a value is malformed or out of range
+     */
+    public static FraudPolicy compile(Properties properties, Duration maxVelocityWindow, String source) {
+        return new FraudPolicy(properties, maxVelocityWindow, source);
+    }
+
+    /** The original hard-coded policy. */
+    public static FraudPolicy defaults() {
+        return compile(new Properties(), Duration.ofMinutes(10), "defaults");
+    }
+
+    // Step-up authentication gate used before moving money
+    public boolean requiresOtp(int riskScore, BigDecimal amount) {
+        return riskScore > otpRiskScore || amount.compareTo(otpAmount) > 0;
+    }
+
+    public boolean isBlocked(int riskScore) {
+        return riskScore >= blockScore;
+    }
+
+    public BigDecimal getHighAmountThreshold() { return highAmountThreshold; }
+    public int getHighAmountPoints() { return highAmountPoints; }
+    public BigDecimal getWalletDrainRatio() { return walletDrainRatio; }
+    public int getWalletDrainPoints() { return walletDrainPoints; }
+    public int getNewPayeePoints() { return newPayeePoints; }
+    public List<VelocityLimit> getVelocityLimits() { return velocityLimits; }
+    public int getVelocityPoints() { return velocityPoints; }
+    public int getBlockScore() { return blockScore; }
+    public int getOtpRiskScore() { return otpRiskScore; }
+    public BigDecimal getOtpAmount() { return otpAmount; }
+    public String getSource() { return source; }
+    public Instant getLoadedAt() { return loadedAt; }
+
+    private static BigDecimal decimal(Properties p, String key, String fallback) {
+        String value = p.getProperty(key, fallback).trim();
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " is not a number: " + value);
+        }
+    }
+
+    private static int points(Properties p, String key, int fallback) {
+        String value = p.getProperty(key);
+        int parsed;
+        try {
+            parsed = (value == null) ? fallback : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " is not an integer: " + value);
+        }
+        if (parsed < 0) {
+            throw new IllegalArgumentException(key + " must not be negative");
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ewallet.wallet_service.fraud.model;
+
+import java.time.Duration;
+
+/**
+ * One velocity limit, e.g. "10m:5" = at most 5 transfers in 10 minutes.
+ * Whether the window fits the tracker's retention is checked by FraudPolicy.
+ */
+public record VelocityLimit(Duration window, int maxTransfers) {
+
+    /**
+     * @throws IllegalArgumentException if spec is malformed, or the window
+     *                                  or the transfer count is not positive
+     */
+    public static VelocityLimit parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid velocity limit '" + spec + "', expected e.g. 10m:5");
+        }
+        int maxTransfers = Integer.parseInt(parts[1].trim());
+        if (maxTransfers <= 0) {
+            throw new IllegalArgumentException("Invalid velocity limit '" + spec + "', maxTransfers must be positive");
+        }
+        return new VelocityLimit(parseWindow(parts[0].trim()), maxTransfers);
+    }
+
+    private static Duration parseWindow(String value) {
+        if (value.length() < 2) {
+            throw new IllegalArgumentException(
+                    "Invalid velocity window '" + value + "', expected a number and m or h, e.g. 10m");
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Invalid velocity window '" + value + "', must be positive");
+        }
+        return switch (value.charAt(value.length() - 1)) {
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException(
+                    "Invalid velocity window '" + value + "', use minutes (m) or hours (h)");
+        };
+    }
+}
@@ -1,25 +1,26 @@
 package com.ewallet.wallet_service.fraud.rules;
 
 import com.ewallet.wallet_service.fraud.model.FraudContext;
+import com.ewallet.wallet_service.fraud.model.FraudPolicy;
 import com.ewallet.wallet_service.fraud.service.FraudRule;
-import com.ewallet.wallet_service.repository.TransactionRepository;
+import com.ewallet.wallet_service.fraud.service.PayeeIndex;
 
 import org.springframework.stereotype.Component;
 
 @Component
 public class NewPayeeRule implements FraudRule {
 
-    private final TransactionRepository transactionRepository;
+    private final PayeeIndex payeeIndex;
 
-    public NewPayeeRule(TransactionRepository transactionRepository) {
-        this.transactionRepository = transactionRepository;
+    public NewPayeeRule(PayeeIndex payeeIndex) {
+        this.payeeIndex = payeeIndex;
     }
 
     @Override
-    public boolean isTriggered(FraudContext context) {
+    public boolean isTriggered(FraudContext context, FraudPolicy policy) {
 
         boolean hasSentBefore =
-            transactionRepository.existsByFromWalletIdAndToWalletId(
+            payeeIndex.hasPaidBefore(
                 context.getFromWalletId(),
                 context.getToWalletId()
             );
@@ -29,7 +30,19 @@ public class NewPayeeRule implements FraudRule {
     }
 
     @Override
-    public int riskPoints() {
-        return 40; // medium risk
+    public int riskPoints(FraudPolicy policy) {
+        return policy.getNewPayeePoints(); // medium risk
     }
-}
\ No newline at end of file
+
+    // Memory probe once the payee index is loaded; database before that
+    // (and for misses when confirm-misses is on)
+    @Override
+    public CostClass costClass() {
+        return CostClass.MODERATE;
+    }
+
+    @Override
+    public boolean requiresIo() {
+        return true;
+    }
+}
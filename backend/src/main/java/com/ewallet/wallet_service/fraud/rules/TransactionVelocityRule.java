@@ -1,44 +1,42 @@
 package com.ewallet.wallet_service.fraud.rules;
 
 import com.ewallet.wallet_service.fraud.model.FraudContext;
+import com.ewallet.wallet_service.fraud.model.FraudPolicy;
+import com.ewallet.wallet_service.fraud.model.VelocityLimit;
 import com.ewallet.wallet_service.fraud.service.FraudRule;
-import com.ewallet.wallet_service.repository.TransactionRepository;
+import com.ewallet.wallet_service.fraud.service.VelocityTracker;
 import org.springframework.stereotype.Component;
 
-import java.time.Duration;
-import java.time.Instant;
-
 @Component
 public class TransactionVelocityRule implements FraudRule {
 
-    private static final int MAX_TXNS = 5;
-    private static final Duration WINDOW = Duration.ofMinutes(10);
-
-    private final TransactionRepository transactionRepository;
+    private final VelocityTracker velocityTracker;
 
-    public TransactionVelocityRule(TransactionRepository transactionRepository) {
-        this.transactionRepository = transactionRepository;
+    public TransactionVelocityRule(VelocityTracker velocityTracker) {
+        this.velocityTracker = velocityTracker;
     }
 
+    // Triggered if ANY configured window (velocity.limits) is exceeded
     @Override
-    public boolean isTriggered(FraudContext context) {
+    public boolean isTriggered(FraudContext context, FraudPolicy policy) {
 
-        Instant windowStart = Instant.now().minus(WINDOW);
+        for (VelocityLimit limit : policy.getVelocityLimits()) {
 
-        long recentTxCount =
-            transactionRepository.countByFromWallet_IdAndTimestampAfter(
-                context.getFromWalletId(),
-                windowStart
-            );
+            long recentTxCount =
+                velocityTracker.count(context.getFromWalletId(), limit.window());
 
-        // IMPORTANT: +1 because current txn is not yet persisted
-        long effectiveCount = recentTxCount + 1;
+            // IMPORTANT: +1 because current txn is not yet recorded
+            long effectiveCount = recentTxCount + 1;
 
-        return effectiveCount > MAX_TXNS;
+            if (effectiveCount > limit.maxTransfers()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
-    public int riskPoints() {
-        return 80;
+    public int riskPoints(FraudPolicy policy) {
+        return policy.getVelocityPoints();
     }
-}
\ No newline at end of file
+}
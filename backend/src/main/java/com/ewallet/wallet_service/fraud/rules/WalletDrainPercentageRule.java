@@ -1,20 +1,17 @@
 package com.ewallet.wallet_service.fraud.rules;
 
 import com.ewallet.wallet_service.fraud.model.FraudContext;
+import com.ewallet.wallet_service.fraud.model.FraudPolicy;
 import com.ewallet.wallet_service.fraud.service.FraudRule;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 import org.springframework.stereotype.Component;
 
 @Component
 public class WalletDrainPercentageRule implements FraudRule {
 
-    private static final BigDecimal THRESHOLD_PERCENT =
-            new BigDecimal("0.80"); // 80%
-
     @Override
-    public boolean isTriggered(FraudContext context) {
+    public boolean isTriggered(FraudContext context, FraudPolicy policy) {
 
         BigDecimal balance = context.getCurrentBalance();
         BigDecimal amount = context.getAmount();
@@ -24,14 +21,14 @@ public class WalletDrainPercentageRule implements FraudRule {
             return false;
         }
 
-        BigDecimal drainRatio =
-                amount.divide(balance, 4, RoundingMode.HALF_UP);
+        // amount / balance >= ratio, without the division
+        BigDecimal drainLimit = balance.multiply(policy.getWalletDrainRatio());
 
-        return drainRatio.compareTo(THRESHOLD_PERCENT) >= 0;
+        return amount.compareTo(drainLimit) >= 0;
     }
 
     @Override
-    public int riskPoints() {
-        return 40; // medium-high risk
+    public int riskPoints(FraudPolicy policy) {
+        return policy.getWalletDrainPoints(); // medium-high risk
     }
-}
\ No newline at end of file
+}
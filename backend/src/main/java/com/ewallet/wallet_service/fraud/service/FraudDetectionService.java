@@ -1,38 +1,212 @@
 package com.ewallet.wallet_service.fraud.service;
 
 import com.ewallet.wallet_service.fraud.model.FraudContext;
+import com.ewallet.wallet_service.fraud.model.FraudPolicy;
 import com.ewallet.wallet_service.fraud.model.FraudResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Scores a transfer against all FraudRules.
+ *
+ * Evaluation order:
+ *   1. in-memory rules, cheapest first, on the calling thread
+ *   2. I/O rules (FraudRule.requiresIo), by app.fraud.io-execution:
+ *      CALLER (default) runs them after the in-memory rules on the calling
+ *      thread, inside the transfer's transaction and on its connection;
+ *      PARALLEL runs them concurrently on virtual threads, all sharing one
+ *      deadline of app.fraud.rule-timeout-ms. A virtual thread has no
+ *      transaction, so a database rule there takes a second pooled
+ *      connection per transfer: use PARALLEL only for rules that call
+ *      remote services.
+ *
+ * The policy is read once per evaluation and handed to every rule, so all
+ * thresholds and points of one transfer come from the same snapshot.
+ *
+ * Scores only ever go up, so evaluation stops as soon as the score
+ * reaches the policy's BLOCK score; outstanding I/O rules are cancelled.
+ *
+ * A rule that throws or times out is handled by app.fraud.failure-policy:
+ * FAIL_OPEN ignores it, FAIL_CLOSED counts it as triggered. Either way it
+ * is counted in fraud.rule.failures (tags: rule, reason, outcome), so a
+ * check that is silently skipped under load shows up on the dashboard.
+ */
 @Service
+@Slf4j
 public class FraudDetectionService {
 
-    private final List<FraudRule> rules;
+    public enum FailurePolicy { FAIL_OPEN, FAIL_CLOSED }
 
-    public FraudDetectionService(List<FraudRule> rules) {
-        this.rules = rules;
-        System.out.println("Fraud rules loaded count = " + rules.size());
-        rules.forEach(r -> 
-            System.out.println("Loaded rule: " + r.getClass().getSimpleName())
-        );
+    public enum IoExecution { CALLER, PARALLEL }
+
+    private final List<FraudRule> localRules;
+    private final List<FraudRule> ioRules;
+    private final FraudPolicyService policyService;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${app.fraud.rule-timeout-ms:200}")
+    private long ruleTimeoutMs = 200;
+
+    @Value("${app.fraud.failure-policy:FAIL_OPEN}")
+    private FailurePolicy failurePolicy = FailurePolicy.FAIL_OPEN;
+
+    @Value("${app.fraud.io-execution:CALLER}")
+    private IoExecution ioExecution = IoExecution.CALLER;
+
+    public FraudDetectionService(List<FraudRule> rules, FraudPolicyService policyService,
+                                 MeterRegistry meterRegistry) {
+        this.policyService = policyService;
+        this.meterRegistry = meterRegistry;
+
+        List<FraudRule> ordered = new ArrayList<>(rules);
+        ordered.sort(Comparator.comparing(FraudRule::costClass));
+
+        this.localRules = ordered.stream().filter(r -> !r.requiresIo()).toList();
+        this.ioRules = ordered.stream().filter(FraudRule::requiresIo).toList();
+
+        log.info("Fraud rules loaded count = {}", rules.size());
+        ordered.forEach(r -> log.info("Loaded rule: {} (cost={}, io={})",
+                ruleName(r), r.costClass(), r.requiresIo()));
     }
 
     public FraudResult evaluate(FraudContext context) {
 
-        int score = 0;
-        List<String> triggeredRules = new java.util.ArrayList<>();
+        Evaluation eval = new Evaluation(policyService.current());
 
+        if (evaluateInline(localRules, context, eval)) {
+            return eval.result();
+        }
+
+        if (ioRules.isEmpty()) {
+            return eval.result();
+        }
+        if (ioExecution == IoExecution.CALLER) {
+            evaluateInline(ioRules, context, eval);
+        } else {
+            evaluateIoRules(context, eval);
+        }
+
+        return eval.result();
+    }
+
+    // true once block is certain (the remaining rules are skipped)
+    private boolean evaluateInline(List<FraudRule> rules, FraudContext context, Evaluation eval) {
         for (FraudRule rule : rules) {
-            if (rule.isTriggered(context)) {
-                score += rule.riskPoints();
-                triggeredRules.add(rule.getClass().getSimpleName());
+            boolean triggered;
+            try {
+                triggered = rule.isTriggered(context, eval.policy);
+            } catch (RuntimeException e) {
+                triggered = onFailure(rule, e);
+            }
+            eval.record(rule, triggered);
+
+            if (eval.blockCertain()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evaluateIoRules(FraudContext context, Evaluation eval) {
+
+        List<Future<Boolean>> futures = new ArrayList<>(ioRules.size());
+        for (FraudRule rule : ioRules) {
+            futures.add(ioExecutor.submit(() -> rule.isTriggered(context, eval.policy)));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ruleTimeoutMs);
+
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                FraudRule rule = ioRules.get(i);
+                boolean triggered;
+                try {
+                    long remaining = Math.max(0, deadline - System.nanoTime());
+                    triggered = futures.get(i).get(remaining, TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    triggered = onFailure(rule, e);
+                } catch (ExecutionException e) {
+                    triggered = onFailure(rule, e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    triggered = onFailure(rule, e);
+                }
+                eval.record(rule, triggered);
+
+                if (eval.blockCertain()) {
+                    return;
+                }
             }
+        } finally {
+            // no-op for completed futures; stops the rest after a short-circuit
+            futures.forEach(f -> f.cancel(true));
         }
+    }
 
-        FraudDecision decision = (score >= 70) ? FraudDecision.BLOCK : FraudDecision.ALLOW;
+    private boolean onFailure(FraudRule rule, Throwable cause) {
+        boolean triggered = failurePolicy == FailurePolicy.FAIL_CLOSED;
+        Counter.builder("fraud.rule.failures")
+                .description("Fraud rules that threw or timed out, by how they were counted")
+                .tag("rule", ruleName(rule))
+                .tag("reason", cause instanceof TimeoutException ? "timeout" : "error")
+                .tag("outcome", triggered ? "triggered" : "skipped")
+                .register(meterRegistry)
+                .increment();
+        log.warn("Fraud rule {} failed ({}), treated as {}",
+                ruleName(rule),
+                cause instanceof TimeoutException ? "timeout after " + ruleTimeoutMs + "ms" : cause.toString(),
+                triggered ? "triggered" : "not triggered");
+        return triggered;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ioExecutor.shutdownNow();
+    }
+
+    private static String ruleName(FraudRule rule) {
+        return rule.getClass().getSimpleName();
+    }
 
-        return new FraudResult(score, decision, triggeredRules);
+    private static final class Evaluation {
+
+        private final FraudPolicy policy;
+        private int score;
+        private final List<String> triggeredRules = new ArrayList<>();
+
+        Evaluation(FraudPolicy policy) {
+            this.policy = policy;
+        }
+
+        void record(FraudRule rule, boolean triggered) {
+            if (triggered) {
+                score += rule.riskPoints(policy);
+                triggeredRules.add(ruleName(rule));
+            }
+        }
+
+        boolean blockCertain() {
+            return policy.isBlocked(score);
+        }
+
+        FraudResult result() {
+            FraudDecision decision = policy.isBlocked(score) ? FraudDecision.BLOCK : FraudDecision.ALLOW;
+            return new FraudResult(score, decision, triggeredRules);
+        }
     }
-}
\ No newline at end of file
+}
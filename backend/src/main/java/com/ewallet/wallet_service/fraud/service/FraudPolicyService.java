@@ -0,0 +1,131 @@
+package com.ewallet.wallet_service.fraud.service;
+
+import com.ewallet.wallet_service.exception.InvalidRequestException;
+import com.ewallet.wallet_service.fraud.model.FraudPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the active FraudPolicy and swaps it atomically when the policy
+ * source changes.
+ *
+ * The source (app.fraud.policy.location, any Spring resource — use a
+ * file: location to tune without a deploy) is re-read every
+ * app.fraud.policy.refresh-ms; it is recompiled only if its content
+ * changed. A policy that fails to compile is rejected and the current one
+ * stays active. Admins can also force a reload via the API.
+ *
+ * A swap is a single reference write: readers never see a half-built
+ * policy, and nothing on the evaluation path locks.
+ */
+@Service
+@Slf4j
+public class FraudPolicyService {
+
+    private final AtomicReference<FraudPolicy> active;
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final Duration maxVelocityWindow;
+
+    // content hash of the last successfully compiled source
+    private volatile int loadedHash;
+
+    @Autowired
+    public FraudPolicyService(
+            ResourceLoader resourceLoader,
+            @Value("${app.fraud.policy.location:classpath:fraud-policy.properties}") String location,
+            @Value("${app.fraud.velocity.retention:1h}") Duration maxVelocityWindow
+    ) {
+        this.resourceLoader = resourceLoader;
+        this.location = location;
+        this.maxVelocityWindow = maxVelocityWindow;
+        this.active = new AtomicReference<>(FraudPolicy.defaults());
+        refresh();
+    }
+
+    /** Fixed policy, no reloading (tests, tooling). */
+    public FraudPolicyService(FraudPolicy policy) {
+        this.resourceLoader = null;
+        this.location = null;
+        this.maxVelocityWindow = null;
+        this.active = new AtomicReference<>(policy);
+    }
+
+    public FraudPolicy current() {
+        return active.get();
+    }
+
+    /**
+     * Re-reads and recompiles the source unconditionally.
+     *
+     * @throws InvalidRequestException if the source cannot be read or compiled
+     */
+    public FraudPolicy reload() {
+        if (location == null) {
+            throw new InvalidRequestException("No fraud policy location configured");
+        }
+        try {
+            byte[] content = read();
+            return install(content);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidRequestException("Fraud policy rejected: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.fraud.policy.refresh-ms:30000}")
+    public void refresh() {
+        if (location == null) {
+            return;
+        }
+        try {
+            byte[] content = read();
+            if (Arrays.hashCode(content) != loadedHash) {
+                install(content);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Fraud policy at {} rejected, keeping policy loaded at {}: {}",
+                    location, active.get().getLoadedAt(), e.getMessage());
+        }
+    }
+
+    private FraudPolicy install(byte[] content) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new ByteArrayInputStream(content)) {
+            properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        FraudPolicy compiled = FraudPolicy.compile(properties, maxVelocityWindow, location);
+        active.set(compiled);
+        loadedHash = Arrays.hashCode(content);
+
+        log.info("Fraud policy loaded from {}: blockScore={}, otpRiskScore={}, otpAmount={}, velocityLimits={}",
+                location,
+                compiled.getBlockScore(),
+                compiled.getOtpRiskScore(),
+                compiled.getOtpAmount(),
+                compiled.getVelocityLimits());
+        return compiled;
+    }
+
+    private byte[] read() throws IOException {
+        Resource resource = resourceLoader.getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+}
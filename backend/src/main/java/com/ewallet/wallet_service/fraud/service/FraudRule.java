@@ -1,10 +1,30 @@
 package com.ewallet.wallet_service.fraud.service;
 
 import com.ewallet.wallet_service.fraud.model.FraudContext;
+import com.ewallet.wallet_service.fraud.model.FraudPolicy;
 
 public interface FraudRule {
 
-    boolean isTriggered(FraudContext context);
+    /** Rough evaluation cost; cheaper rules are evaluated first. */
+    enum CostClass { CHEAP, MODERATE, EXPENSIVE }
 
-    int riskPoints();
-}
\ No newline at end of file
+    /**
+     * @param policy the snapshot the whole evaluation runs against, so a
+     *               policy reload mid-evaluation cannot mix two policies
+     */
+    boolean isTriggered(FraudContext context, FraudPolicy policy);
+
+    int riskPoints(FraudPolicy policy);
+
+    default CostClass costClass() {
+        return CostClass.CHEAP;
+    }
+
+    /**
+     * True if the rule may block on I/O (database, remote call). Such rules
+     * run after the in-memory ones (see FraudDetectionService for where).
+     */
+    default boolean requiresIo() {
+        return false;
+    }
+}
@@ -0,0 +1,299 @@
+package com.ewallet.wallet_service.fraud.service;
+
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.event.TransactionStatusChangedEvent;
+import com.ewallet.wallet_service.repository.TransactionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory payer → payee relationship index for NewPayeeRule.
+ *
+ * Two layers:
+ *   1. a Bloom filter over (sender, payee) pairs — a negative answer is
+ *      final ("never paid this wallet") and costs k bit probes
+ *   2. per sender, a sorted long[] of payee wallet ids — exact, checked
+ *      only when the filter says "maybe"
+ *
+ * Loaded from successful transfers on startup, updated after each
+ * successful transfer of this instance commits, and every
+ * app.fraud.payee-index.refresh-interval-ms topped up with the pairs of
+ * transfers created since the previous refresh (minus refresh-overlap, for
+ * transfers still settling and clock skew between instances), so other
+ * instances' transfers are known within one interval.
+ *
+ * Until the initial load finishes the database is asked instead. With
+ * app.fraud.payee-index.confirm-misses on, every miss is asked too; that
+ * closes the refresh gap but puts a query on each transfer to a new payee.
+ */
+@Component
+@Slf4j
+public class PayeeIndex {
+
+    private static final long ARRAY_HEADER_BYTES = 16;
+    private static final long MAP_ENTRY_BYTES = 64; // node + boxed key, rough
+
+    private final TransactionRepository transactionRepository;
+    private final boolean confirmMisses;
+    private final BloomFilter bloom;
+
+    // sender wallet id -> sorted payee wallet ids (copy-on-write)
+    private final Map<Long, long[]> payees = new ConcurrentHashMap<>();
+
+    private final LongAdder pairs = new LongAdder();
+    private final LongAdder bloomPositives = new LongAdder();
+    private final LongAdder bloomFalsePositives = new LongAdder();
+
+    @Value("${app.fraud.payee-index.refresh-overlap:5m}")
+    private Duration refreshOverlap = Duration.ofMinutes(5);
+
+    private volatile boolean loaded;
+    // start of the last successful load or refresh
+    private volatile Instant refreshedAt;
+
+    public PayeeIndex(
+            TransactionRepository transactionRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.fraud.payee-index.expected-pairs:1000000}") long expectedPairs,
+            @Value("${app.fraud.payee-index.bloom-fpp:0.01}") double bloomFpp,
+            @Value("${app.fraud.payee-index.confirm-misses:false}") boolean confirmMisses
+    ) {
+        this.transactionRepository = transactionRepository;
+        this.confirmMisses = confirmMisses;
+        this.bloom = new BloomFilter(expectedPairs, bloomFpp);
+
+        Gauge.builder("fraud.payee_index.memory", this, PayeeIndex::estimatedMemoryBytes)
+                .baseUnit("bytes")
+                .description("Estimated heap used by the payee index (Bloom filter + payee sets)")
+                .register(meterRegistry);
+        Gauge.builder("fraud.payee_index.pairs", pairs, LongAdder::sum)
+                .description("Known sender/payee pairs")
+                .register(meterRegistry);
+        Gauge.builder("fraud.payee_index.bloom.fpp.expected", this, PayeeIndex::expectedFalsePositiveRate)
+                .description("Theoretical Bloom filter false-positive rate at the current fill")
+                .register(meterRegistry);
+        Gauge.builder("fraud.payee_index.bloom.fpp.observed", this, PayeeIndex::observedFalsePositiveRate)
+                .description("Share of Bloom filter 'maybe' answers rejected by the exact set")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Has this sender ever successfully paid this payee?
+     */
+    public boolean hasPaidBefore(Long fromWalletId, Long toWalletId) {
+        if (!loaded) {
+            return paidInDatabase(fromWalletId, toWalletId);
+        }
+
+        boolean known = false;
+        if (bloom.mightContain(fromWalletId, toWalletId)) {
+            bloomPositives.increment();
+            known = contains(fromWalletId, toWalletId);
+            if (!known) {
+                bloomFalsePositives.increment();
+            }
+        }
+
+        if (!known && confirmMisses && paidInDatabase(fromWalletId, toWalletId)) {
+            // paid through another instance
+            add(fromWalletId, toWalletId);
+            known = true;
+        }
+        return known;
+    }
+
+    private boolean paidInDatabase(Long fromWalletId, Long toWalletId) {
+        return transactionRepository.existsByFromWalletIdAndToWalletIdAndStatus(
+                fromWalletId, toWalletId, TransactionStatus.SUCCESS);
+    }
+
+    public void add(Long fromWalletId, Long toWalletId) {
+        if (fromWalletId == null || toWalletId == null) {
+            return;
+        }
+        long payee = toWalletId;
+
+        payees.compute(fromWalletId, (sender, current) -> {
+            if (current == null) {
+                pairs.increment();
+                return new long[] { payee };
+            }
+            int pos = Arrays.binarySearch(current, payee);
+            if (pos >= 0) {
+                return current;
+            }
+            int insertAt = -pos - 1;
+            long[] next = new long[current.length + 1];
+            System.arraycopy(current, 0, next, 0, insertAt);
+            next[insertAt] = payee;
+            System.arraycopy(current, insertAt, next, insertAt + 1, current.length - insertAt);
+            pairs.increment();
+            return next;
+        });
+
+        bloom.put(fromWalletId, toWalletId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChanged(TransactionStatusChangedEvent event) {
+        if (event.status() == TransactionStatus.SUCCESS) {
+            add(event.fromWalletId(), event.toWalletId());
+        }
+    }
+
+    // =============================
+    // STARTUP LOAD
+    // =============================
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Instant started = Instant.now();
+        addAll(transactionRepository.findDistinctPayeePairs(TransactionStatus.SUCCESS));
+        refreshedAt = started;
+        loaded = true;
+
+        log.info("Payee index loaded: pairs={}, senders={}, memoryBytes={}",
+                pairs.sum(), payees.size(), estimatedMemoryBytes());
+    }
+
+    // =============================
+    // REFRESH (other instances' transfers)
+    // =============================
+    @Scheduled(fixedDelayString = "${app.fraud.payee-index.refresh-interval-ms:10000}",
+               initialDelayString = "${app.fraud.payee-index.refresh-interval-ms:10000}")
+    public void refresh() {
+        Instant since = refreshedAt;
+        if (!loaded || since == null) {
+            return;
+        }
+
+        Instant started = Instant.now();
+        try {
+            List<Object[]> rows = transactionRepository.findDistinctPayeePairsSince(
+                    TransactionStatus.SUCCESS, since.minus(refreshOverlap));
+            addAll(rows);
+            refreshedAt = started;
+            log.debug("Payee index refreshed: rows={}, pairs={}", rows.size(), pairs.sum());
+        } catch (DataAccessException e) {
+            // next run covers the same range again
+            log.warn("Payee index refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private void addAll(List<Object[]> rows) {
+        for (Object[] row : rows) {
+            add((Long) row[0], (Long) row[1]);
+        }
+    }
+
+    // =============================
+    // METRICS
+    // =============================
+    public long estimatedMemoryBytes() {
+        long total = bloom.sizeInBytes();
+        for (long[] set : payees.values()) {
+            total += MAP_ENTRY_BYTES + ARRAY_HEADER_BYTES + 8L * set.length;
+        }
+        return total;
+    }
+
+    public double expectedFalsePositiveRate() {
+        return bloom.expectedFpp(pairs.sum());
+    }
+
+    public double observedFalsePositiveRate() {
+        long positives = bloomPositives.sum();
+        return positives == 0 ? 0.0 : (double) bloomFalsePositives.sum() / positives;
+    }
+
+    private boolean contains(Long fromWalletId, long toWalletId) {
+        long[] set = payees.get(fromWalletId);
+        return set != null && Arrays.binarySearch(set, toWalletId) >= 0;
+    }
+
+    /**
+     * Fixed-size Bloom filter over (long, long) pairs, bits in an
+     * AtomicLongArray so puts and probes need no locking. Uses double
+     * hashing (h1 + i * h2) to derive the k probe positions.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(long expectedInsertions, double fpp) {
+            if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1) {
+                throw new IllegalArgumentException("Bloom filter needs expected-pairs > 0 and 0 < fpp < 1");
+            }
+            long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64);
+            this.words = new AtomicLongArray(wordCount);
+            this.bitCount = wordCount * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        }
+
+        void put(long a, long b) {
+            long h1 = mix(a * 0x9E3779B97F4A7C15L + b);
+            long h2 = mix(h1 ^ 0xC2B2AE3D27D4EB4FL) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                while (((current = words.get(word)) & mask) == 0
+                        && !words.compareAndSet(word, current, current | mask)) {
+                    // retry: another bit in the same word changed
+                }
+            }
+        }
+
+        boolean mightContain(long a, long b) {
+            long h1 = mix(a * 0x9E3779B97F4A7C15L + b);
+            long h2 = mix(h1 ^ 0xC2B2AE3D27D4EB4FL) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long sizeInBytes() {
+            return ARRAY_HEADER_BYTES + 8L * words.length();
+        }
+
+        // (1 - e^(-kn/m))^k
+        double expectedFpp(long insertions) {
+            return Math.pow(1 - Math.exp(-hashCount * (double) insertions / bitCount), hashCount);
+        }
+
+        // MurmurHash3 fmix64
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            h *= 0xC4CEB9FE1A85EC53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
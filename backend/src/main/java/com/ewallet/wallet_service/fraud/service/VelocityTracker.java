@@ -0,0 +1,188 @@
+package com.ewallet.wallet_service.fraud.service;
+
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.event.TransactionStatusChangedEvent;
+import com.ewallet.wallet_service.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-wallet outgoing transfer counts over sliding windows, kept in memory.
+ *
+ * Each wallet has a ring of minute buckets covering the retention period
+ * (app.fraud.velocity.retention, the longest window a policy may use); a
+ * count is the sum of the buckets inside the window, so a check never
+ * touches the database and costs at most one pass over the ring.
+ * A window of W minutes spans the current minute, the W - 1 before it and
+ * the tail of one more. Buckets do not know when in their minute a transfer
+ * happened, so that oldest bucket counts in full: a count may include up to
+ * 59s of transfers just older than the window, but never misses one inside
+ * it (errs toward blocking).
+ *
+ * Fed by INITIATED status events (the same rows the old
+ * countByFromWallet_IdAndTimestampAfter query counted) and warmed from the
+ * transactions table on startup. Counts are per instance.
+ */
+@Component
+@Slf4j
+public class VelocityTracker {
+
+    private final TransactionRepository transactionRepository;
+    private final Clock clock;
+    private final int bucketCount;
+
+    private final Map<Long, WalletWindow> windows = new ConcurrentHashMap<>();
+
+    @Autowired
+    public VelocityTracker(
+            TransactionRepository transactionRepository,
+            @Value("${app.fraud.velocity.retention:1h}") Duration retention
+    ) {
+        this(transactionRepository, retention, Clock.systemUTC());
+    }
+
+    public VelocityTracker(TransactionRepository transactionRepository, Duration retention, Clock clock) {
+        if (retention.toMinutes() < 1) {
+            throw new IllegalArgumentException("app.fraud.velocity.retention must be at least 1 minute");
+        }
+        this.transactionRepository = transactionRepository;
+        this.clock = clock;
+
+        // +1: the oldest window reaches into one extra, partially covered bucket
+        this.bucketCount = (int) retention.toMinutes() + 1;
+    }
+
+    /**
+     * Transfers from the wallet within the window, not counting the one
+     * being evaluated.
+     */
+    public long count(Long walletId, Duration window) {
+        WalletWindow w = windows.get(walletId);
+        if (w == null) {
+            return 0;
+        }
+        // +1: the bucket the window starts in
+        return w.sum(currentMinute(), (int) window.toMinutes() + 1);
+    }
+
+    public void record(Long walletId, Instant at) {
+        if (walletId == null || at == null) {
+            return;
+        }
+        long minute = at.getEpochSecond() / 60;
+        if (minute <= currentMinute() - bucketCount) {
+            return; // older than any window
+        }
+        // compute (not computeIfAbsent + add) so evictIdle cannot drop the
+        // window between lookup and update
+        windows.compute(walletId, (id, w) -> {
+            WalletWindow window = (w != null) ? w : new WalletWindow(bucketCount);
+            window.add(minute);
+            return window;
+        });
+    }
+
+    @EventListener
+    public void onStatusChanged(TransactionStatusChangedEvent event) {
+        if (event.status() == TransactionStatus.INITIATED) {
+            record(event.fromWalletId(), event.timestamp());
+        }
+    }
+
+    // =============================
+    // STARTUP WARM-UP
+    // =============================
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Instant since = Instant.ofEpochSecond((currentMinute() - bucketCount + 1) * 60);
+
+        List<Object[]> rows = transactionRepository.findSenderTimestampsAfter(since);
+        for (Object[] row : rows) {
+            record((Long) row[0], (Instant) row[1]);
+        }
+
+        log.info("Velocity tracker warmed with {} transfer(s) since {}", rows.size(), since);
+    }
+
+    // Drop wallets with no activity inside the longest window
+    @Scheduled(fixedDelayString = "${app.fraud.velocity.cleanup-interval-ms:300000}")
+    public void evictIdle() {
+        long oldestLive = currentMinute() - bucketCount + 1;
+        for (Long walletId : windows.keySet()) {
+            windows.computeIfPresent(walletId,
+                    (id, w) -> w.latestMinute() < oldestLive ? null : w);
+        }
+    }
+
+    public int trackedWallets() {
+        return windows.size();
+    }
+
+    private long currentMinute() {
+        return clock.instant().getEpochSecond() / 60;
+    }
+
+    /**
+     * Ring of per-minute counters; slot i holds minute m where m % size == i.
+     * A slot whose stamp is not the minute being asked for is stale and
+     * counts as zero.
+     *
+     * synchronized is fine on virtual threads here: nothing inside blocks,
+     * so a carrier is only ever pinned for a few array accesses.
+     */
+    private static final class WalletWindow {
+
+        private final long[] minutes;
+        private final int[] counts;
+        private long latest;
+
+        WalletWindow(int size) {
+            minutes = new long[size];
+            counts = new int[size];
+        }
+
+        synchronized void add(long minute) {
+            int slot = (int) Math.floorMod(minute, (long) minutes.length);
+            if (minutes[slot] > minute) {
+                return; // slot already reused by a newer minute
+            }
+            if (minutes[slot] != minute) {
+                minutes[slot] = minute;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+            latest = Math.max(latest, minute);
+        }
+
+        // buckets ending at nowMinute
+        synchronized long sum(long nowMinute, int buckets) {
+            int n = Math.min(buckets, minutes.length);
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                total += countAt(nowMinute - i);
+            }
+            return total;
+        }
+
+        private int countAt(long minute) {
+            int slot = (int) Math.floorMod(minute, (long) minutes.length);
+            return minutes[slot] == minute ? counts[slot] : 0;
+        }
+
+        synchronized long latestMinute() {
+            return latest;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ewallet.wallet_service.repository;
+
+import com.ewallet.wallet_service.entity.AdminMetric;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Dashboard aggregates (see AdminMetricsStore).
+ */
+public interface AdminMetricRepository extends JpaRepository<AdminMetric, String> {
+
+    // Relative update: instances flushing at the same time never overwrite each other
+    @Modifying
+    @Query("""
+           UPDATE AdminMetric m
+           SET m.value = m.value + :delta, m.updatedAt = :updatedAt
+           WHERE m.name = :name
+           """)
+    int increment(
+            @Param("name") String name,
+            @Param("delta") BigDecimal delta,
+            @Param("updatedAt") Instant updatedAt
+    );
+}
@@ -0,0 +1,45 @@
+package com.ewallet.wallet_service.repository;
+
+import com.ewallet.wallet_service.entity.AdminTransactionRecord;
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Admin read model (see AdminTransactionProjector). Filtered listing is
+ * built with the Criteria API in AdminTransactionQueryService.
+ */
+public interface AdminTransactionRecordRepository extends JpaRepository<AdminTransactionRecord, Long> {
+
+    @Modifying
+    @Query("""
+           UPDATE AdminTransactionRecord r
+           SET r.status = :status, r.updatedAt = :updatedAt
+           WHERE r.transactionId = :id
+           """)
+    int updateStatus(
+            @Param("id") Long id,
+            @Param("status") TransactionStatus status,
+            @Param("updatedAt") Instant updatedAt
+    );
+
+    // Reconcile: rows still non-terminal after the cutoff
+    @Query("""
+           SELECT r.transactionId FROM AdminTransactionRecord r
+           WHERE r.status IN :statuses
+           AND r.timestamp < :cutoff
+           ORDER BY r.timestamp
+           """)
+    List<Long> findUnsettledIds(
+            @Param("statuses") Collection<TransactionStatus> statuses,
+            @Param("cutoff") Instant cutoff,
+            Pageable page
+    );
+}
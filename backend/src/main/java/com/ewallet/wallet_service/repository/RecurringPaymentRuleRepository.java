@@ -0,0 +1,53 @@
+package com.ewallet.wallet_service.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.ewallet.wallet_service.entity.RecurringPaymentRule;
+import com.ewallet.wallet_service.entity.RecurringRuleStatus;
+import com.ewallet.wallet_service.entity.User;
+
+public interface RecurringPaymentRuleRepository
+        extends JpaRepository<RecurringPaymentRule, Long> {
+
+    /**
+     * Rules whose next occurrence is due by horizon, soonest first.
+     * SKIP LOCKED (lock timeout -2), so materializers on several nodes take
+     * disjoint rules.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+    SELECT r FROM RecurringPaymentRule r
+    WHERE r.status = :status
+    AND r.nextRunAt <= :horizon
+    ORDER BY r.nextRunAt, r.id
+    """)
+    List<RecurringPaymentRule> findDue(
+        @Param("status") RecurringRuleStatus status,
+        @Param("horizon") Instant horizon,
+        Pageable page
+);
+
+    // Row lock held while a rule is edited, paused, resumed or cancelled
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+    SELECT r FROM RecurringPaymentRule r
+    JOIN FETCH r.sender
+    JOIN FETCH r.receiver
+    WHERE r.id = :id
+    """)
+    Optional<RecurringPaymentRule> findByIdForUpdate(@Param("id") Long id);
+
+    List<RecurringPaymentRule> findBySender(User sender);
+}
@@ -0,0 +1,21 @@
+package com.ewallet.wallet_service.repository;
+
+import com.ewallet.wallet_service.entity.RollupProgress;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+/**
+ * Rollup rebuild markers (see TransactionRollupService).
+ */
+public interface RollupProgressRepository extends JpaRepository<RollupProgress, String> {
+
+    // Row lock: one instance at a time advances a marker
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM RollupProgress p WHERE p.name = :name")
+    Optional<RollupProgress> findForUpdate(@Param("name") String name);
+}
@@ -0,0 +1,31 @@
+package com.ewallet.wallet_service.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.ewallet.wallet_service.entity.ScheduledPaymentArchive;
+
+public interface ScheduledPaymentArchiveRepository
+        extends JpaRepository<ScheduledPaymentArchive, Long> {
+
+    // Copies the given scheduled_payment rows in one statement (ScheduledPaymentArchiver)
+    @Modifying
+    @Query(nativeQuery = true, value = """
+    INSERT INTO scheduled_payment_archive
+        (id, sender_id, receiver_vpa_id, rule_id, amount, scheduled_at,
+         status, failure_reason, executed, created_at, executed_at, archived_at)
+    SELECT id, sender_id, receiver_vpa_id, rule_id, amount, scheduled_at,
+           status, failure_reason, executed, created_at, executed_at, :archivedAt
+    FROM scheduled_payment
+    WHERE id IN (:ids)
+    """)
+    int copyFromScheduledPayments(
+        @Param("ids") Collection<Long> ids,
+        @Param("archivedAt") Instant archivedAt
+);
+}
@@ -1,10 +1,18 @@
 package com.ewallet.wallet_service.repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import com.ewallet.wallet_service.entity.ScheduledPayment;
@@ -14,19 +22,168 @@ import com.ewallet.wallet_service.entity.User;
 public interface ScheduledPaymentRepository
         extends JpaRepository<ScheduledPayment, Long> {
 
+    /**
+     * Due, unexecuted payments without a live lease, oldest first.
+     * Locked with SKIP LOCKED (lock timeout -2), so nodes claiming at the
+     * same moment take disjoint rows instead of waiting on each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+    SELECT sp FROM ScheduledPayment sp
+    WHERE sp.executed = false
+    AND sp.status = :status
+    AND sp.scheduledAt <= :now
+    AND (sp.claimExpiresAt IS NULL OR sp.claimExpiresAt < :now)
+    ORDER BY sp.scheduledAt, sp.id
+    """)
+    List<ScheduledPayment> findClaimable(
+        @Param("now") Instant now,
+        @Param("status") TransactionStatus status,
+        Pageable page
+);
+
+    @Modifying
+    @Query("""
+    UPDATE ScheduledPayment sp
+    SET sp.claimedBy = :owner, sp.claimExpiresAt = :until
+    WHERE sp.id IN :ids
+    """)
+    int claim(
+        @Param("ids") Collection<Long> ids,
+        @Param("owner") String owner,
+        @Param("until") Instant until
+);
+
+    // Claims those of ids that are due and free; the rest are left alone
+    @Modifying
+    @Query("""
+    UPDATE ScheduledPayment sp
+    SET sp.claimedBy = :owner, sp.claimExpiresAt = :until
+    WHERE sp.id IN :ids
+    AND sp.executed = false
+    AND sp.status = :status
+    AND sp.scheduledAt <= :now
+    AND (sp.claimExpiresAt IS NULL OR sp.claimExpiresAt < :now)
+    """)
+    int claimIfDue(
+        @Param("ids") Collection<Long> ids,
+        @Param("status") TransactionStatus status,
+        @Param("owner") String owner,
+        @Param("now") Instant now,
+        @Param("until") Instant until
+);
+
+    // [id, scheduledAt] of pending payments due in (from, to], soonest first
+    @Query("""
+    SELECT sp.id, sp.scheduledAt FROM ScheduledPayment sp
+    WHERE sp.executed = false
+    AND sp.status = :status
+    AND sp.scheduledAt > :from
+    AND sp.scheduledAt <= :to
+    ORDER BY sp.scheduledAt, sp.id
+    """)
+    List<Object[]> findUpcoming(
+        @Param("status") TransactionStatus status,
+        @Param("from") Instant from,
+        @Param("to") Instant to,
+        Pageable page
+);
+
+    @Modifying
+    @Query("""
+    UPDATE ScheduledPayment sp
+    SET sp.claimExpiresAt = :until
+    WHERE sp.id IN :ids
+    AND sp.claimedBy = :owner
+    AND sp.executed = false
+    """)
+    int renewClaims(
+        @Param("ids") Collection<Long> ids,
+        @Param("owner") String owner,
+        @Param("until") Instant until
+);
+
+    @Modifying
+    @Query("""
+    UPDATE ScheduledPayment sp
+    SET sp.claimedBy = NULL, sp.claimExpiresAt = NULL
+    WHERE sp.id IN :ids
+    AND sp.claimedBy = :owner
+    AND sp.executed = false
+    """)
+    int releaseClaims(
+        @Param("ids") Collection<Long> ids,
+        @Param("owner") String owner
+);
+
+    // Row lock held while a payment is executed, edited or cancelled
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("""
     SELECT sp FROM ScheduledPayment sp
     JOIN FETCH sp.sender
     JOIN FETCH sp.receiver
-    WHERE sp.executed = false
+    WHERE sp.id = :id
+    """)
+    Optional<ScheduledPayment> findByIdForUpdate(@Param("id") Long id);
+
+    // Row locks on a sender group (ScheduledPaymentBatchProcessor), in due order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+    SELECT sp FROM ScheduledPayment sp
+    JOIN FETCH sp.sender
+    JOIN FETCH sp.receiver
+    WHERE sp.id IN :ids
+    ORDER BY sp.scheduledAt, sp.id
+    """)
+    List<ScheduledPayment> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // [id, sender id] of the given payments, grouped by sender
+    @Query("""
+    SELECT sp.id, sp.sender.id FROM ScheduledPayment sp
+    WHERE sp.id IN :ids
+    ORDER BY sp.sender.id, sp.scheduledAt, sp.id
+    """)
+    List<Object[]> findSenderIds(@Param("ids") Collection<Long> ids);
+
+    // Materialized, not yet executed occurrences of a recurring rule (at most one in practice)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+    SELECT sp FROM ScheduledPayment sp
+    WHERE sp.rule.id = :ruleId
+    AND sp.executed = false
     AND sp.status = :status
-    AND sp.scheduledAt <= :time
     """)
-    List<ScheduledPayment> findPendingPayments(
-        @Param("time") Instant time,
+    List<ScheduledPayment> findPendingByRuleForUpdate(
+        @Param("ruleId") Long ruleId,
         @Param("status") TransactionStatus status
 );
 
+    /**
+     * Finished payments of one status scheduled before cutoff, oldest
+     * first, locked with SKIP LOCKED so archivers on several nodes take
+     * disjoint rows. One status and this order are exactly idx_sp_done
+     * (status, scheduled_at, then the primary key): the scan reads and
+     * locks only the rows it returns, with no filesort.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+    SELECT sp FROM ScheduledPayment sp
+    WHERE sp.status = :status
+    AND sp.scheduledAt < :cutoff
+    ORDER BY sp.scheduledAt, sp.id
+    """)
+    List<ScheduledPayment> findArchivable(
+        @Param("status") TransactionStatus status,
+        @Param("cutoff") Instant cutoff,
+        Pageable page
+);
+
+    @Modifying
+    @Query("DELETE FROM ScheduledPayment sp WHERE sp.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
     // Fetch user’s scheduled payments
     List<ScheduledPayment> 
         findBySender(User sender);
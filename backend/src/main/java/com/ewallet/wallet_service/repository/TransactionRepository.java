@@ -1,23 +1,101 @@
 package com.ewallet.wallet_service.repository;
 
+import com.ewallet.wallet_service.dto.projection.TransactionView;
 import com.ewallet.wallet_service.entity.Transaction;
 import com.ewallet.wallet_service.entity.TransactionStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
+    // Transaction + wallets + users + both VPAs in one statement, mapped
+    // straight into TransactionView (no entities, no per-row lookups)
+    String VIEW_SELECT = """
+           SELECT new com.ewallet.wallet_service.dto.projection.TransactionView(
+               t.id, fw.id, tw.id, fu.name, fv.upiId, tu.name, tv.upiId,
+               t.amount, t.timestamp, t.status)
+           FROM Transaction t
+           JOIN t.fromWallet fw JOIN fw.user fu
+           JOIN t.toWallet tw JOIN tw.user tu
+           LEFT JOIN VirtualPaymentAddress fv ON fv.user = fu
+           LEFT JOIN VirtualPaymentAddress tv ON tv.user = tu
+           """;
+
     // =====================================================
     // USER TRANSACTION HISTORY
     // =====================================================
-    List<Transaction> findByFromWalletIdOrToWalletIdOrderByTimestampDesc(
-            Long fromWalletId,
-            Long toWalletId
+    // Keyset pages, one per side of the wallet: each is a range scan on
+    // idx_tx_from_ts / idx_tx_to_ts, where an OR of both sides could not
+    // use either index. Rows strictly after (cursorTs, cursorId).
+    @Query(VIEW_SELECT + """
+           WHERE fw.id = :walletId
+           AND t.status IN :statuses
+           AND t.timestamp >= :from AND t.timestamp < :to
+           AND (t.timestamp < :cursorTs OR (t.timestamp = :cursorTs AND t.id < :cursorId))
+           ORDER BY t.timestamp DESC, t.id DESC
+           """)
+    List<TransactionView> findSentPage(
+            @Param("walletId") Long walletId,
+            @Param("statuses") Collection<TransactionStatus> statuses,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            @Param("cursorTs") Instant cursorTs,
+            @Param("cursorId") Long cursorId,
+            Pageable page
+    );
+
+    @Query(VIEW_SELECT + """
+           WHERE tw.id = :walletId
+           AND t.status IN :statuses
+           AND t.timestamp >= :from AND t.timestamp < :to
+           AND (t.timestamp < :cursorTs OR (t.timestamp = :cursorTs AND t.id < :cursorId))
+           ORDER BY t.timestamp DESC, t.id DESC
+           """)
+    List<TransactionView> findReceivedPage(
+            @Param("walletId") Long walletId,
+            @Param("statuses") Collection<TransactionStatus> statuses,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            @Param("cursorTs") Instant cursorTs,
+            @Param("cursorId") Long cursorId,
+            Pageable page
+    );
+
+    // =====================================================
+    // STATUS TRACKING (see TransactionStatusService)
+    // =====================================================
+
+    // Status-only write: no SELECT + merge of the whole row
+    @Modifying
+    @Query("""
+           UPDATE Transaction t
+           SET t.status = :status
+           WHERE t.id = :id
+           """)
+    int updateStatus(
+            @Param("id") Long id,
+            @Param("status") TransactionStatus status
+    );
+
+    // Crash recovery: rows that never reached a terminal state
+    @Modifying
+    @Query("""
+           UPDATE Transaction t
+           SET t.status = com.ewallet.wallet_service.entity.TransactionStatus.FAILED
+           WHERE t.status IN :statuses
+           AND t.timestamp < :cutoff
+           """)
+    int failStaleTransactions(
+            @Param("statuses") Collection<TransactionStatus> statuses,
+            @Param("cutoff") Instant cutoff
     );
 
     // =====================================================
@@ -28,11 +106,73 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             Instant timestamp
     );
 
-    boolean existsByFromWalletIdAndToWalletId(
+    // Velocity tracker warm-up: [fromWalletId, timestamp] pairs
+    @Query("""
+           SELECT t.fromWallet.id, t.timestamp
+           FROM Transaction t
+           WHERE t.timestamp >= :since
+           """)
+    List<Object[]> findSenderTimestampsAfter(@Param("since") Instant since);
+
+    // Rollup recount: [timestamp, fromWalletId, status, amount] of transfers created in [from, to)
+    @Query("""
+           SELECT t.timestamp, t.fromWallet.id, t.status, t.amount
+           FROM Transaction t
+           WHERE t.timestamp >= :from AND t.timestamp < :to
+           """)
+    List<Object[]> findRollupRows(@Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT MIN(t.timestamp) FROM Transaction t")
+    Instant findFirstTimestamp();
+
+    // Payee index load: distinct [fromWalletId, toWalletId] pairs
+    @Query("""
+           SELECT DISTINCT t.fromWallet.id, t.toWallet.id
+           FROM Transaction t
+           WHERE t.status = :status
+           """)
+    List<Object[]> findDistinctPayeePairs(@Param("status") TransactionStatus status);
+
+    // Payee index refresh: pairs of transfers created since (idx_tx_ts range)
+    @Query("""
+           SELECT DISTINCT t.fromWallet.id, t.toWallet.id
+           FROM Transaction t
+           WHERE t.timestamp >= :since AND t.status = :status
+           """)
+    List<Object[]> findDistinctPayeePairsSince(
+            @Param("status") TransactionStatus status,
+            @Param("since") Instant since
+    );
+
+    boolean existsByFromWalletIdAndToWalletIdAndStatus(
             Long fromWalletId,
-            Long toWalletId
+            Long toWalletId,
+            TransactionStatus status
+    );
+
+    // =====================================================
+    // ADMIN READ MODEL (see AdminTransactionProjector)
+    // =====================================================
+    // Gap fill: transfers above afterId that have no read-model row (anti-join on its primary key)
+    @Query(VIEW_SELECT + """
+           WHERE t.id > :afterId
+           AND NOT EXISTS (
+               SELECT r.transactionId FROM AdminTransactionRecord r WHERE r.transactionId = t.id)
+           ORDER BY t.id
+           """)
+    List<TransactionView> findUnprojectedViewsAfterId(
+            @Param("afterId") Long afterId,
+            Pageable page
     );
 
+    // [id, status] pairs, by primary key
+    @Query("""
+           SELECT t.id, t.status
+           FROM Transaction t
+           WHERE t.id IN :ids
+           """)
+    List<Object[]> findStatusesByIds(@Param("ids") Collection<Long> ids);
+
     // =====================================================
     // ADMIN ANALYTICS
     // =====================================================
@@ -48,6 +188,14 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
            """)
     BigDecimal sumSuccessfulTransactionVolume();
 
+    // Count and volume per status in one pass: rows of [status, count, sum]
+    @Query("""
+           SELECT t.status, COUNT(t), COALESCE(SUM(t.amount), 0)
+           FROM Transaction t
+           GROUP BY t.status
+           """)
+    List<Object[]> findStatusTotals();
+
     // Total volume of ALL transactions (regardless of status)
     @Query("""
            SELECT COALESCE(SUM(t.amount), 0)
@@ -0,0 +1,54 @@
+package com.ewallet.wallet_service.repository;
+
+import com.ewallet.wallet_service.entity.TransactionRollup;
+import com.ewallet.wallet_service.entity.TransactionRollup.Granularity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Time-bucketed transfer aggregates (see TransactionRollupService).
+ */
+public interface TransactionRollupRepository extends JpaRepository<TransactionRollup, TransactionRollup.Key> {
+
+    // Row lock: instances flushing the same bucket merge one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+           SELECT r FROM TransactionRollup r
+           WHERE r.granularity = :granularity AND r.bucketStart = :bucketStart
+           """)
+    Optional<TransactionRollup> findForUpdate(
+            @Param("granularity") Granularity granularity,
+            @Param("bucketStart") Instant bucketStart
+    );
+
+    // Buckets starting in [from, to), oldest first
+    @Query("""
+           SELECT r FROM TransactionRollup r
+           WHERE r.granularity = :granularity
+             AND r.bucketStart >= :from AND r.bucketStart < :to
+           ORDER BY r.bucketStart
+           """)
+    List<TransactionRollup> findRange(
+            @Param("granularity") Granularity granularity,
+            @Param("from") Instant from,
+            @Param("to") Instant to
+    );
+
+    @Modifying
+    @Query("""
+           DELETE FROM TransactionRollup r
+           WHERE r.granularity = :granularity AND r.bucketStart < :cutoff
+           """)
+    int deleteOlderThan(
+            @Param("granularity") Granularity granularity,
+            @Param("cutoff") Instant cutoff
+    );
+}
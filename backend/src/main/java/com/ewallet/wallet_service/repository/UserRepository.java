@@ -2,7 +2,12 @@ package com.ewallet.wallet_service.repository;
 
 import com.ewallet.wallet_service.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -10,4 +15,39 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    // [userId, name, walletId, active upiId]; at most one row
+    @Query("""
+           SELECT u.id, u.name, w.id, v.upiId FROM User u
+           LEFT JOIN Wallet w ON w.user = u
+           LEFT JOIN VirtualPaymentAddress v ON v.user = u AND v.active = true
+           WHERE u.email = :email
+           """)
+    List<Object[]> findIdentity(@Param("email") String email);
+
+    // Reserves one PIN attempt before the PIN is hashed; 0 rows = locked.
+    // The attempt that reaches maxAttempts sets the lock and restarts the
+    // count, so parallel requests cannot get past maxAttempts in total.
+    // pinLockedUntil is assigned first because MySQL applies assignments
+    // left to right: both CASEs must see the old count.
+    @Modifying
+    @Query("""
+           UPDATE User u SET
+               u.pinLockedUntil = CASE WHEN COALESCE(u.pinFailedAttempts, 0) + 1 >= :maxAttempts
+                                       THEN :lockUntil ELSE u.pinLockedUntil END,
+               u.pinFailedAttempts = CASE WHEN COALESCE(u.pinFailedAttempts, 0) + 1 >= :maxAttempts
+                                          THEN 0 ELSE COALESCE(u.pinFailedAttempts, 0) + 1 END
+           WHERE u.id = :userId
+           AND (u.pinLockedUntil IS NULL OR u.pinLockedUntil <= :now)
+           """)
+    int reservePinAttempt(
+            @Param("userId") Long userId,
+            @Param("maxAttempts") int maxAttempts,
+            @Param("now") LocalDateTime now,
+            @Param("lockUntil") LocalDateTime lockUntil);
+
+    // A correct PIN gives its reserved attempt back and clears any lock
+    @Modifying
+    @Query("UPDATE User u SET u.pinFailedAttempts = 0, u.pinLockedUntil = NULL WHERE u.id = :userId")
+    int resetPinFailures(@Param("userId") Long userId);
 }
@@ -2,8 +2,12 @@ package com.ewallet.wallet_service.repository;
 
 import com.ewallet.wallet_service.entity.VirtualPaymentAddress;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,5 +18,21 @@ public interface VirtualPaymentAddressRepository
 
     Optional<VirtualPaymentAddress> findByUserId(Long userId);
 
+    // [walletId, upiId] for those of the wallets whose owner has a VPA
+    @Query("""
+           SELECT w.id, v.upiId FROM VirtualPaymentAddress v, Wallet w
+           WHERE w.id IN :walletIds
+           AND v.user = w.user
+           """)
+    List<Object[]> findUpiIdsByWalletIds(@Param("walletIds") Collection<Long> walletIds);
+
+    // [walletId (null if the owner has no wallet), active]; at most one row
+    @Query("""
+           SELECT w.id, v.active FROM VirtualPaymentAddress v
+           LEFT JOIN Wallet w ON w.user = v.user
+           WHERE v.upiId = :upiId
+           """)
+    List<Object[]> findResolution(@Param("upiId") String upiId);
+
     boolean existsByUpiId(String upiId);
 }
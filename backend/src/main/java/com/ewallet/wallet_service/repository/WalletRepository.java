@@ -2,10 +2,64 @@ package com.ewallet.wallet_service.repository;
 
 import com.ewallet.wallet_service.entity.Wallet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
 
     Optional<Wallet> findByUserId(Long userId);
+
+    // Wallets of several users in one query, owners loaded with them
+    @Query("""
+           SELECT w
+           FROM Wallet w
+           JOIN FETCH w.user u
+           WHERE u.id IN :userIds
+           """)
+    List<Wallet> findAllByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // =====================================================
+    // ATOMIC BALANCE UPDATES
+    // Single UPDATE statements — no read-modify-write window.
+    // Both return the affected row count.
+    // =====================================================
+
+    // Debits only if the balance covers the amount (0 rows = insufficient)
+    @Modifying
+    @Query("""
+           UPDATE Wallet w
+           SET w.balance = w.balance - :amount
+           WHERE w.id = :walletId
+           AND w.balance >= :amount
+           """)
+    int debitIfSufficient(
+            @Param("walletId") Long walletId,
+            @Param("amount") BigDecimal amount
+    );
+
+    // Credits unconditionally (0 rows = wallet does not exist)
+    @Modifying
+    @Query("""
+           UPDATE Wallet w
+           SET w.balance = w.balance + :amount
+           WHERE w.id = :walletId
+           """)
+    int credit(
+            @Param("walletId") Long walletId,
+            @Param("amount") BigDecimal amount
+    );
+
+    // Scalar read: bypasses the (possibly stale) managed entity
+    @Query("""
+           SELECT w.balance
+           FROM Wallet w
+           WHERE w.id = :walletId
+           """)
+    BigDecimal findBalanceById(@Param("walletId") Long walletId);
 }
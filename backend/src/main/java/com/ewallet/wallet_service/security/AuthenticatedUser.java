@@ -0,0 +1,41 @@
+package com.ewallet.wallet_service.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Principal;
+
+/**
+ * Principal JwtFilter installs for ROLE_USER tokens, resolved through
+ * IdentityCache, so services can read the caller's ids without looking
+ * the email up again.
+ *
+ * getName() is the email, so Authentication.getName() is unchanged.
+ *
+ * @param walletId null if the user has no wallet
+ * @param upiId    the active VPA, null if none
+ */
+public record AuthenticatedUser(
+        Long userId,
+        String email,
+        String displayName,
+        Long walletId,
+        String upiId
+) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    /**
+     * @return the current principal, or null if the request was
+     *         authenticated some other way (admin token, tests)
+     */
+    public static AuthenticatedUser current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? user
+                : null;
+    }
+}
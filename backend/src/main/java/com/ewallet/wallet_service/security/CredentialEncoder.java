@@ -0,0 +1,147 @@
+package com.ewallet.wallet_service.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * PasswordEncoder for one credential type (login password, transaction
+ * PIN) with its own scheme and work factor.
+ *
+ * Stored formats:
+ *   $2a$NN$...        BCrypt at cost NN (also every hash written before
+ *                     this class existed)
+ *   {pbkdf2:N}hex     PBKDF2-HMAC-SHA256, N iterations, 16-byte salt,
+ *                     keyed with the configured pepper
+ *
+ * matches() accepts either format, whatever the current setting, and
+ * upgradeEncoding() is true whenever a hash isn't in the current scheme
+ * and work factor, so callers can rehash after a successful check.
+ *
+ * All hashing runs on CredentialHashExecutor; times are recorded as
+ * credentials.hash{credential, op}.
+ */
+public class CredentialEncoder implements PasswordEncoder {
+
+    public enum Scheme { BCRYPT, PBKDF2 }
+
+    private static final String PBKDF2_PREFIX = "{pbkdf2:";
+    private static final int MAX_PBKDF2_ITERATIONS = 10_000_000;
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$.{53}$");
+
+    private final Scheme scheme;
+    private final int workFactor;
+    private final String pepper;
+    private final CredentialHashExecutor executor;
+
+    // encodes at workFactor when the scheme is BCRYPT; matches any cost
+    private final BCryptPasswordEncoder bcrypt;
+    private final Map<Integer, Pbkdf2PasswordEncoder> pbkdf2 = new ConcurrentHashMap<>();
+
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+
+    /**
+     * @param workFactor BCrypt cost (4-31) or PBKDF2 iterations
+     * @param pepper     PBKDF2 secret, required for PBKDF2; changing it
+     *                   invalidates existing PBKDF2 hashes
+     */
+    public CredentialEncoder(
+            String credential,
+            Scheme scheme,
+            int workFactor,
+            String pepper,
+            CredentialHashExecutor executor,
+            MeterRegistry meterRegistry
+    ) {
+        if (scheme == Scheme.BCRYPT && (workFactor < 4 || workFactor > 31)) {
+            throw new IllegalArgumentException("BCrypt cost must be 4-31, got " + workFactor);
+        }
+        if (scheme == Scheme.PBKDF2 && (workFactor < 1 || workFactor > MAX_PBKDF2_ITERATIONS)) {
+            throw new IllegalArgumentException("PBKDF2 iterations out of range: " + workFactor);
+        }
+        if (scheme == Scheme.PBKDF2 && (pepper == null || pepper.isBlank())) {
+            // a cheap unkeyed hash of a short secret falls to a brute force of a leaked table
+            throw new IllegalArgumentException("PBKDF2 requires a pepper for " + credential);
+        }
+        this.scheme = scheme;
+        this.workFactor = workFactor;
+        this.pepper = pepper == null ? "" : pepper;
+        this.executor = executor;
+        this.bcrypt = scheme == Scheme.BCRYPT ? new BCryptPasswordEncoder(workFactor) : new BCryptPasswordEncoder();
+
+        this.encodeTimer = Timer.builder("credentials.hash")
+                .tag("credential", credential)
+                .tag("op", "encode")
+                .description("Time spent hashing a credential")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("credentials.hash")
+                .tag("credential", credential)
+                .tag("op", "match")
+                .description("Time spent hashing a credential")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence raw) {
+        return executor.call(() -> encodeTimer.record(() -> scheme == Scheme.PBKDF2
+                ? PBKDF2_PREFIX + workFactor + "}" + pbkdf2(workFactor).encode(raw)
+                : bcrypt.encode(raw)));
+    }
+
+    @Override
+    public boolean matches(CharSequence raw, String stored) {
+        if (raw == null || stored == null || stored.isEmpty()) {
+            return false;
+        }
+
+        if (stored.startsWith(PBKDF2_PREFIX)) {
+            int end = stored.indexOf('}');
+            int iterations = end < 0 ? -1 : parseIterations(stored.substring(PBKDF2_PREFIX.length(), end));
+            if (iterations < 1) {
+                return false;
+            }
+            String hash = stored.substring(end + 1);
+            return executor.call(() -> matchTimer.record(() -> pbkdf2(iterations).matches(raw, hash)));
+        }
+
+        if (!BCRYPT_HASH.matcher(stored).matches()) {
+            return false;
+        }
+        return executor.call(() -> matchTimer.record(() -> bcrypt.matches(raw, stored)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String stored) {
+        if (stored == null || stored.isEmpty()) {
+            return false;
+        }
+        if (scheme == Scheme.PBKDF2) {
+            return !stored.startsWith(PBKDF2_PREFIX + workFactor + "}");
+        }
+        Matcher m = BCRYPT_HASH.matcher(stored);
+        return !m.matches() || Integer.parseInt(m.group(1)) != workFactor;
+    }
+
+    private Pbkdf2PasswordEncoder pbkdf2(int iterations) {
+        return pbkdf2.computeIfAbsent(iterations, n ->
+                new Pbkdf2PasswordEncoder(pepper, 16, n, SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+    }
+
+    private static int parseIterations(String value) {
+        try {
+            int n = Integer.parseInt(value);
+            return n <= MAX_PBKDF2_ITERATIONS ? n : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
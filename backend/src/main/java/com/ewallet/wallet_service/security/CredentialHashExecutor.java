@@ -0,0 +1,97 @@
+package com.ewallet.wallet_service.security;
+
+import com.ewallet.wallet_service.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool that runs every password/PIN hash.
+ *
+ * Hashing is pure CPU. Without a cap, a login burst would put one hash on
+ * every request thread and starve the rest of the app. Here at most
+ * app.security.credentials.threads hashes run at once, up to
+ * queue-capacity more wait, and anything beyond that fails fast with
+ * ServiceBusyException (503) instead of queueing without bound.
+ *
+ * The caller blocks until its hash is done.
+ */
+@Component
+public class CredentialHashExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    public CredentialHashExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${app.security.credentials.threads:0}") int threads,
+            @Value("${app.security.credentials.queue-capacity:200}") int queueCapacity
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "credential-hash-" + sequence.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.rejected = Counter.builder("credentials.hash.rejected")
+                .description("Hashes refused because the hashing queue was full")
+                .register(meterRegistry);
+        Gauge.builder("credentials.hash.queued", executor, e -> e.getQueue().size())
+                .description("Hashes waiting for a hashing thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs task on a hashing thread and waits for the result.
+     *
+     * @throws ServiceBusyException if the queue is full
+     */
+    public <T> T call(Supplier<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task::get);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            // neutral: login, registration and every transfer's PIN check share this pool
+            throw new ServiceBusyException("Server is busy, please retry shortly");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while hashing a credential", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
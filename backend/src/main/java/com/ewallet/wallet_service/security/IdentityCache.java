@@ -0,0 +1,63 @@
+package com.ewallet.wallet_service.security;
+
+import com.ewallet.wallet_service.repository.UserRepository;
+import com.ewallet.wallet_service.service.util.ReadThrough;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * email → AuthenticatedUser, for JwtFilter.
+ *
+ * A miss is one joined query (user, wallet, active VPA); entries live for
+ * app.security.identity-cache.ttl. Ids never change for an email, and the
+ * VPA is created with the user, so a short TTL only delays a wallet or VPA
+ * added later. Unknown emails are not cached. Misses load through
+ * ReadThrough.
+ *
+ * Hit/miss/eviction counts: cache.* meters, cache=security.identity.
+ */
+@Component
+public class IdentityCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, AuthenticatedUser> cache;
+
+    public IdentityCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.security.identity-cache.max-size:10000}") long maxSize,
+            @Value("${app.security.identity-cache.ttl:60s}") Duration ttl
+    ) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "security.identity");
+    }
+
+    /**
+     * @return the identity for email, or null if no such user
+     */
+    public AuthenticatedUser get(String email) {
+        return ReadThrough.get(cache, email, this::load);
+    }
+
+    private AuthenticatedUser load(String email) {
+        List<Object[]> rows = userRepository.findIdentity(email);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        return new AuthenticatedUser((Long) row[0], email, (String) row[1], (Long) row[2], (String) row[3]);
+    }
+}
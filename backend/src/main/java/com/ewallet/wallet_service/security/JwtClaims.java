@@ -0,0 +1,9 @@
+package com.ewallet.wallet_service.security;
+
+import java.time.Instant;
+
+/**
+ * What the app reads from a verified token.
+ */
+public record JwtClaims(String email, String role, Instant expiresAt) {
+}
@@ -13,12 +13,14 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final IdentityCache identityCache;
 
     @Override
     protected void doFilterInternal(
@@ -38,14 +40,25 @@ public class JwtFilter extends OncePerRequestFilter {
 
             String token = authHeader.substring(7);
 
-            if (jwtUtil.isTokenValid(token)) {
+            Optional<JwtClaims> claims = jwtUtil.verify(token);
 
-                String email = jwtUtil.extractEmail(token);
-                String role = jwtUtil.extractRole(token);
+            if (claims.isPresent()) {
+
+                String email = claims.get().email();
+                String role = claims.get().role();
+
+                // users get their ids resolved once here (see AuthenticatedUser)
+                Object principal = email;
+                if ("ROLE_USER".equals(role)) {
+                    AuthenticatedUser user = identityCache.get(email);
+                    if (user != null) {
+                        principal = user;
+                    }
+                }
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
-                                email,
+                                principal,
                                 null,
                                 List.of(new SimpleGrantedAuthority(role))
                         );
@@ -1,16 +1,38 @@
 package com.ewallet.wallet_service.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
+/**
+ * Issues and verifies tokens.
+ *
+ * verify() parses and checks the signature once, with a single shared
+ * (immutable, thread-safe) parser. Verified tokens are remembered by
+ * SHA-256 of the token, so a client replaying the same token skips the
+ * parse and HMAC until the token expires or app.security.jwt.cache.max-ttl
+ * passes, whichever is first.
+ */
 @Component
 public class JwtUtil {
 
@@ -21,6 +43,28 @@ public class JwtUtil {
 
     private final Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
 
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(key)
+            .build();
+
+    // null when disabled (max-size 0)
+    private final Cache<String, JwtClaims> verified;
+
+    @Autowired
+    public JwtUtil(
+            @Value("${app.security.jwt.cache.max-size:10000}") long cacheMaxSize,
+            @Value("${app.security.jwt.cache.max-ttl:5m}") Duration cacheMaxTtl
+    ) {
+        this.verified = cacheMaxSize <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilExpiry(cacheMaxTtl))
+                .build();
+    }
+
+    public JwtUtil() {
+        this(10_000, Duration.ofMinutes(5));
+    }
+
     public String generateToken(String email, String role) {
 
         Map<String, Object> claims = new HashMap<>();
@@ -37,28 +81,75 @@ public class JwtUtil {
                 .compact();
     }
 
-    public String extractEmail(String token) {
-        return getClaims(token).getSubject();
+    /**
+     * @return the token's claims, or empty if it is malformed, forged or
+     *         expired
+     */
+    public Optional<JwtClaims> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        if (verified == null) {
+            return Optional.ofNullable(parse(token));
+        }
+
+        String cacheKey = sha256(token);
+        JwtClaims claims = verified.getIfPresent(cacheKey);
+        if (claims != null && claims.expiresAt().isAfter(Instant.now())) {
+            return Optional.of(claims);
+        }
+
+        claims = parse(token);
+        if (claims != null) {
+            verified.put(cacheKey, claims);
+        }
+        return Optional.ofNullable(claims);
+    }
+
+    // for JwtAuthBenchmark's uncached baseline
+    Key signingKey() {
+        return key;
     }
 
-    public String extractRole(String token) {
-        return getClaims(token).get("role", String.class);
+    private JwtClaims parse(String token) {
+        try {
+            Claims body = parser.parseClaimsJws(token).getBody();
+            Date expiration = body.getExpiration();
+            return new JwtClaims(
+                    body.getSubject(),
+                    body.get("role", String.class),
+                    expiration != null ? expiration.toInstant() : Instant.MAX);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
     }
 
-    public boolean isTokenValid(String token) {
+    private static String sha256(String token) {
         try {
-            getClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return new String(digest, StandardCharsets.ISO_8859_1); // one char per byte
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JRE ships SHA-256
         }
     }
 
-    private Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private record UntilExpiry(Duration maxTtl) implements Expiry<String, JwtClaims> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtClaims claims, long currentTime) {
+            Duration untilExpiry = Duration.between(Instant.now(), claims.expiresAt());
+            return Math.max(0, (untilExpiry.compareTo(maxTtl) < 0 ? untilExpiry : maxTtl).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,97 @@
+package com.ewallet.wallet_service.security;
+
+import com.ewallet.wallet_service.entity.User;
+import com.ewallet.wallet_service.exception.InvalidRequestException;
+import com.ewallet.wallet_service.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Checks transaction PINs with attempt limiting.
+ *
+ * A 4-digit PIN has 10,000 values, so its real protection is the attempt
+ * limit, not the hash: after app.security.pin.max-attempts wrong PINs in a
+ * row the PIN is locked for app.security.pin.lockout. The counter lives
+ * on the user row and is updated in its own transaction, so it survives
+ * the rollback of the transfer that failed and is shared by all instances.
+ *
+ * Every check first reserves an attempt with one conditional UPDATE and
+ * only then hashes; a correct PIN gives it back. Parallel requests
+ * therefore cannot all pass a stale "not locked" read: at most
+ * max-attempts of them get to hash before the PIN locks.
+ *
+ * A correct PIN stored in an older scheme or work factor is rehashed in
+ * the caller's transaction.
+ */
+@Service
+@Slf4j
+public class PinVerifier {
+
+    private final PasswordEncoder pinEncoder;
+    private final UserRepository userRepository;
+    private final TransactionTemplate separateTransaction;
+
+    @Value("${app.security.pin.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${app.security.pin.lockout:15m}")
+    private Duration lockout = Duration.ofMinutes(15);
+
+    public PinVerifier(
+            @Qualifier("pinEncoder") PasswordEncoder pinEncoder,
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.pinEncoder = pinEncoder;
+        this.userRepository = userRepository;
+        this.separateTransaction = new TransactionTemplate(transactionManager);
+        this.separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String encode(String pin) {
+        return pinEncoder.encode(pin);
+    }
+
+    /**
+     * @throws InvalidRequestException   if the PIN is locked
+     * @throws IllegalArgumentException if the PIN is wrong
+     */
+    public void verify(User user, String pin) {
+        LocalDateTime now = LocalDateTime.now();
+
+        Integer reserved = user.getPinLockedUntil() != null && user.getPinLockedUntil().isAfter(now)
+                ? Integer.valueOf(0)
+                : separateTransaction.execute(s ->
+                        userRepository.reservePinAttempt(user.getId(), maxAttempts, now, now.plus(lockout)));
+        if (reserved == null || reserved == 0) {
+            log.warn("Locked PIN used. userId={}", user.getId());
+            throw new InvalidRequestException(
+                    "Transaction PIN locked after too many incorrect attempts. Try again later.");
+        }
+
+        String stored = user.getTransactionPin();
+        if (stored == null || pin == null || !pinEncoder.matches(pin, stored)) {
+            // the reserved attempt stays counted
+            log.warn("Invalid PIN attempt for user: {}", user.getEmail());
+            throw new IllegalArgumentException("Invalid Transaction PIN");
+        }
+
+        separateTransaction.executeWithoutResult(s -> userRepository.resetPinFailures(user.getId()));
+        // keep the managed entity in step, or a later flush writes the old count back
+        user.setPinFailedAttempts(0);
+        user.setPinLockedUntil(null);
+
+        if (pinEncoder.upgradeEncoding(stored)) {
+            user.setTransactionPin(pinEncoder.encode(pin));
+        }
+    }
+}
@@ -1,65 +1,65 @@
 package com.ewallet.wallet_service.service;
 
+import com.ewallet.wallet_service.dto.response.AdminAnalyticsResponse;
 import com.ewallet.wallet_service.dto.response.AdminSummaryResponse;
 import com.ewallet.wallet_service.dto.response.TransactionStatusDistributionResponse;
-import com.ewallet.wallet_service.entity.TransactionStatus;
-import com.ewallet.wallet_service.repository.AuditLogRepository;
-import com.ewallet.wallet_service.repository.TransactionRepository;
-import com.ewallet.wallet_service.repository.UserRepository;
+import com.ewallet.wallet_service.dto.response.TransactionTimeSeriesResponse;
+import com.ewallet.wallet_service.entity.TransactionRollup;
+import com.ewallet.wallet_service.entity.TransactionRollup.Granularity;
+import com.ewallet.wallet_service.service.AdminMetricsStore.Metric;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.time.Instant;
 
+/**
+ * Dashboard figures, read from AdminMetricsStore, and time series from the
+ * transaction rollups. Nothing here scans users or transactions.
+ */
 @Service
 @RequiredArgsConstructor
 public class AdminAnalyticsService {
 
-    private final UserRepository userRepository;
-    private final TransactionRepository transactionRepository;
-    private final AuditLogRepository auditLogRepository;
+    private final AdminMetricsStore metricsStore;
+    private final TransactionRollupService rollupService;
 
     public AdminSummaryResponse getSummary() {
 
-        long totalUsers = userRepository.count();
-        long totalTransactions = transactionRepository.count();
-
-        BigDecimal totalVolume =
-                transactionRepository.sumSuccessfulTransactionVolume();
-
-        long fraudBlocked =
-                auditLogRepository.countByActionTypeAndStatus(
-                        "TRANSFER",
-                        "FRAUD_BLOCK"
-                );
-
         return new AdminSummaryResponse(
-                totalUsers,
-                totalTransactions,
-                totalVolume,
-                fraudBlocked
+                metricsStore.count(Metric.USERS),
+                metricsStore.count(Metric.TRANSACTIONS),
+                metricsStore.value(Metric.SUCCESS_VOLUME),
+                metricsStore.count(Metric.FRAUD_BLOCKED)
         );
     }
 
     public TransactionStatusDistributionResponse getStatusDistribution() {
 
-        long initiated =
-                transactionRepository.countByStatus(TransactionStatus.INITIATED);
-
-        long pending =
-                transactionRepository.countByStatus(TransactionStatus.PENDING);
+        return new TransactionStatusDistributionResponse(
+                metricsStore.count(Metric.INITIATED),
+                metricsStore.count(Metric.PENDING),
+                metricsStore.count(Metric.SUCCESS),
+                metricsStore.count(Metric.FAILED)
+        );
+    }
 
-        long success =
-                transactionRepository.countByStatus(TransactionStatus.SUCCESS);
+    public AdminAnalyticsResponse getAnalytics() {
 
-        long failed =
-                transactionRepository.countByStatus(TransactionStatus.FAILED);
+        TransactionRollup today = rollupService.today();
 
-        return new TransactionStatusDistributionResponse(
-                initiated,
-                pending,
-                success,
-                failed
+        return new AdminAnalyticsResponse(
+                metricsStore.count(Metric.USERS),
+                metricsStore.count(Metric.TRANSACTIONS),
+                metricsStore.value(Metric.SUCCESS_VOLUME),
+                metricsStore.count(Metric.SUCCESS),
+                metricsStore.count(Metric.FAILED),
+                metricsStore.count(Metric.PENDING),
+                today.getTxCount(),
+                today.getVolume()
         );
     }
+
+    public TransactionTimeSeriesResponse getTimeSeries(Instant from, Instant to, Granularity granularity) {
+        return rollupService.timeSeries(from, to, granularity);
+    }
 }
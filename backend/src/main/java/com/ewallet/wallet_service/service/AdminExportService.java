@@ -0,0 +1,291 @@
+package com.ewallet.wallet_service.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full-table exports for reconciliation, written straight to the response.
+ *
+ * Rows are read over plain JDBC, not JPA, so no entities pile up in a
+ * persistence context. They come from a forward-only, read-only cursor
+ * with a bounded fetch size, and each row is written to the output as it
+ * arrives. Memory use is the same for ten rows or ten million.
+ *
+ * Streaming needs the right driver settings: PostgreSQL only honours the
+ * fetch size inside a transaction (hence the read-only TransactionTemplate),
+ * and MySQL streams only with fetch size Integer.MIN_VALUE, which is used
+ * automatically when the database is MySQL.
+ */
+@Service
+@Slf4j
+public class AdminExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final String TRANSACTIONS_SQL = """
+            SELECT t.id, t.from_wallet_id, t.to_wallet_id,
+                   fv.upi_id AS from_upi_id, tv.upi_id AS to_upi_id,
+                   t.amount, t.status, t.timestamp
+            FROM transactions t
+            JOIN wallets fw ON fw.id = t.from_wallet_id
+            JOIN wallets tw ON tw.id = t.to_wallet_id
+            LEFT JOIN virtual_payment_addresses fv ON fv.user_id = fw.user_id
+            LEFT JOIN virtual_payment_addresses tv ON tv.user_id = tw.user_id
+            WHERE t.timestamp >= ? AND t.timestamp < ?
+            ORDER BY t.id
+            """;
+
+    private static final String AUDIT_LOGS_SQL = """
+            SELECT id, user_id, username, action_type, status,
+                   old_balance, new_balance, timestamp
+            FROM audit_logs
+            WHERE timestamp >= ? AND timestamp < ?
+            ORDER BY id
+            """;
+
+    private static final Instant EXPORT_END = Instant.parse("9999-12-31T23:59:59Z");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnly;
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    private volatile boolean fetchSizeResolved;
+
+    public AdminExportService(JdbcTemplate dataSourceTemplate, PlatformTransactionManager transactionManager) {
+        // own JdbcTemplate: fetch size must not leak into other users of the shared one
+        this.jdbcTemplate = new JdbcTemplate(dataSourceTemplate.getDataSource());
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    public long exportTransactions(OutputStream out, Format format, boolean gzip, Instant from, Instant to) {
+        return export(TRANSACTIONS_SQL, out, format, gzip, from, to);
+    }
+
+    public long exportAuditLogs(OutputStream out, Format format, boolean gzip, Instant from, Instant to) {
+        return export(AUDIT_LOGS_SQL, out, format, gzip, from, to);
+    }
+
+    private long export(String sql, OutputStream out, Format format, boolean gzip, Instant from, Instant to) {
+        resolveFetchSize();
+
+        Timestamp fromTs = Timestamp.from(from != null ? from : Instant.EPOCH);
+        Timestamp toTs = Timestamp.from(to != null ? to : EXPORT_END);
+
+        try {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+            RowSink sink = format == Format.NDJSON ? new NdjsonSink(writer) : new CsvSink(writer);
+
+            Long rows = readOnly.execute(status -> {
+                sink.rows = 0;
+                jdbcTemplate.query(sql,
+                        (PreparedStatementSetter) ps -> {
+                            ps.setTimestamp(1, fromTs, utc());
+                            ps.setTimestamp(2, toTs, utc());
+                        },
+                        sink);
+                return sink.rows;
+            });
+
+            sink.finish();
+            if (target instanceof GZIPOutputStream gz) {
+                gz.finish();
+            }
+            out.flush();
+            return rows != null ? rows : 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Calendar is mutable; drivers may change it, so never share one
+    private static Calendar utc() {
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+
+    private void resolveFetchSize() {
+        if (fetchSizeResolved) {
+            return;
+        }
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        // Connector/J: MIN_VALUE switches to row-by-row streaming
+        int size = product != null && product.toLowerCase().contains("mysql") ? Integer.MIN_VALUE : fetchSize;
+        jdbcTemplate.setFetchSize(size);
+        fetchSizeResolved = true;
+        log.info("Export fetch size for {}: {}", product, size);
+    }
+
+    /**
+     * Writes each row as it comes off the cursor. Column names come from
+     * the result set, so both exports share one writer per format.
+     */
+    private abstract static class RowSink implements RowCallbackHandler {
+
+        long rows;
+        private List<String> columns;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            ResultSetMetaData meta = rs.getMetaData();
+            try {
+                if (columns == null) {
+                    columns = new ArrayList<>(meta.getColumnCount());
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        columns.add(meta.getColumnLabel(i).toLowerCase());
+                    }
+                    header(columns);
+                }
+                row(columns, rs, meta);
+                rows++;
+            } catch (IOException e) {
+                // client went away: abort the query instead of reading on
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            if (columns == null) {
+                header(List.of());
+            }
+            flush();
+        }
+
+        abstract void header(List<String> columns) throws IOException;
+
+        abstract void row(List<String> columns, ResultSet rs, ResultSetMetaData meta) throws SQLException, IOException;
+
+        abstract void flush() throws IOException;
+
+        static Object value(ResultSet rs, ResultSetMetaData meta, int i) throws SQLException {
+            int type = meta.getColumnType(i);
+            if (type == Types.TIMESTAMP || type == Types.TIMESTAMP_WITH_TIMEZONE) {
+                Timestamp ts = rs.getTimestamp(i, utc());
+                return ts == null ? null : ts.toInstant();
+            }
+            return rs.getObject(i);
+        }
+    }
+
+    private static final class CsvSink extends RowSink {
+
+        private final Writer writer;
+
+        CsvSink(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        void header(List<String> columns) throws IOException {
+            if (!columns.isEmpty()) {
+                writer.write(String.join(",", columns));
+                writer.write("\r\n");
+            }
+        }
+
+        @Override
+        void row(List<String> columns, ResultSet rs, ResultSetMetaData meta) throws SQLException, IOException {
+            for (int i = 1; i <= columns.size(); i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                Object value = value(rs, meta, i);
+                if (value != null) {
+                    writer.write(escape(value instanceof BigDecimal bd ? bd.toPlainString() : value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        void flush() throws IOException {
+            writer.flush();
+        }
+
+        // RFC 4180: quote fields containing separators, quotes or line breaks
+        static String escape(String s) {
+            if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+                return s;
+            }
+            return '"' + s.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static final class NdjsonSink extends RowSink {
+
+        private static final JsonFactory JSON = new JsonFactory();
+
+        private final Writer writer;
+        private final JsonGenerator json;
+
+        NdjsonSink(Writer writer) throws IOException {
+            this.writer = writer;
+            this.json = JSON.createGenerator(writer);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        void header(List<String> columns) {
+            // self-describing rows, no header
+        }
+
+        @Override
+        void row(List<String> columns, ResultSet rs, ResultSetMetaData meta) throws SQLException, IOException {
+            json.writeStartObject();
+            for (int i = 1; i <= columns.size(); i++) {
+                Object value = value(rs, meta, i);
+                json.writeFieldName(columns.get(i - 1));
+                if (value == null) {
+                    json.writeNull();
+                } else if (value instanceof BigDecimal bd) {
+                    json.writeNumber(bd);
+                } else if (value instanceof Number n) {
+                    json.writeNumber(n.longValue());
+                } else {
+                    json.writeString(value.toString());
+                }
+            }
+            json.writeEndObject();
+            json.flush();
+            writer.write('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            json.flush();
+            writer.flush();
+        }
+    }
+}
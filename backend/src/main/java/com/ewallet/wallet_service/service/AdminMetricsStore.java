@@ -0,0 +1,367 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.entity.AdminMetric;
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.event.TransactionStatusChangedEvent;
+import com.ewallet.wallet_service.repository.AdminMetricRepository;
+import com.ewallet.wallet_service.repository.AuditLogRepository;
+import com.ewallet.wallet_service.repository.TransactionRepository;
+import com.ewallet.wallet_service.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Precomputed admin dashboard figures, so a dashboard read never scans
+ * users, transactions or audit_logs.
+ *
+ * Each instance counts the changes it sees (status events, registrations,
+ * fraud blocks) in LongAdders and a BigDecimal accumulator — no locking on
+ * the transfer path. Every app.admin.metrics.flush-interval-ms the changes
+ * not yet flushed are added to the shared admin_metrics table with relative
+ * UPDATEs, and the table is read back so this instance also sees the other
+ * instances' flushes. A read is the last table snapshot plus the local
+ * changes made since.
+ *
+ * Status events are counted as they fire, except SUCCESS, which belongs
+ * to the caller's transaction and is counted once that commits. A FAILED
+ * event for a transfer whose SUCCESS is still uncommitted (the caller is
+ * about to roll back) moves the count from the status before SUCCESS.
+ *
+ * On startup, and every app.admin.metrics.reconcile-interval-ms, the
+ * figures are recounted from the source tables and the table is corrected
+ * by recount minus the value read just before, as a relative UPDATE, so a
+ * flush another instance commits meanwhile is kept. Changes another
+ * instance has counted but not yet flushed when the recount runs are in the
+ * recount and are added again by its next flush: that drift is at most one
+ * flush interval of that instance's changes, until the next reconcile.
+ * Reconcile also picks up changes that publish nothing (the stale transfer
+ * sweep, users created outside registration, dropped audit rows).
+ */
+@Service
+@Slf4j
+public class AdminMetricsStore {
+
+    public enum Metric { USERS, TRANSACTIONS, INITIATED, PENDING, SUCCESS, FAILED, SUCCESS_VOLUME, FRAUD_BLOCKED }
+
+    private final UserRepository userRepository;
+    private final TransactionRepository transactionRepository;
+    private final AuditLogRepository auditLogRepository;
+    private final AdminMetricRepository metricRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // every change seen on this instance since startup
+    private final Map<Metric, LongAdder> counts = new EnumMap<>(Metric.class);
+    private final AtomicReference<BigDecimal> successVolume = new AtomicReference<>(BigDecimal.ZERO);
+
+    // transfers whose SUCCESS waits for the caller's commit -> status before SUCCESS
+    private final Map<Long, TransactionStatus> uncommittedSuccess = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(new EnumMap<>(Metric.class), new EnumMap<>(Metric.class));
+    private volatile boolean initialized;
+
+    // flush and reconcile only; never taken on the read or update path
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public AdminMetricsStore(
+            UserRepository userRepository,
+            TransactionRepository transactionRepository,
+            AuditLogRepository auditLogRepository,
+            AdminMetricRepository metricRepository,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.userRepository = userRepository;
+        this.transactionRepository = transactionRepository;
+        this.auditLogRepository = auditLogRepository;
+        this.metricRepository = metricRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        for (Metric metric : Metric.values()) {
+            if (metric != Metric.SUCCESS_VOLUME) {
+                counts.put(metric, new LongAdder());
+            }
+        }
+    }
+
+    // =============================
+    // READS
+    // =============================
+    public long count(Metric metric) {
+        return value(metric).longValue();
+    }
+
+    public BigDecimal value(Metric metric) {
+        return snapshot.base(metric).add(local(metric));
+    }
+
+    // =============================
+    // UPDATES
+    // =============================
+    @EventListener
+    public void onStatusChanged(TransactionStatusChangedEvent event) {
+        TransactionStatus previous = event.previousStatus();
+        TransactionStatus status = event.status();
+        if (previous == status) {
+            return;
+        }
+
+        if (status == TransactionStatus.SUCCESS && previous != null && event.transactionId() != null
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            countSuccessOnCommit(event);
+            return;
+        }
+        if (previous == TransactionStatus.SUCCESS) {
+            // the SUCCESS is still uncommitted and was never counted
+            TransactionStatus counted = uncommittedSuccess.remove(event.transactionId());
+            if (counted != null) {
+                previous = counted;
+            }
+        }
+        move(previous, status, event.amount());
+    }
+
+    private void countSuccessOnCommit(TransactionStatusChangedEvent event) {
+        Long id = event.transactionId();
+        TransactionStatus previous = event.previousStatus();
+        uncommittedSuccess.put(id, previous);
+
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int txStatus) {
+                        // already removed if a FAILED event came first
+                        if (uncommittedSuccess.remove(id, previous) && txStatus == STATUS_COMMITTED) {
+                            move(previous, TransactionStatus.SUCCESS, event.amount());
+                        }
+                    }
+                });
+    }
+
+    private void move(TransactionStatus previous, TransactionStatus status, BigDecimal amount) {
+        if (previous == null) {
+            counts.get(Metric.TRANSACTIONS).increment();
+        } else {
+            counts.get(metricOf(previous)).decrement();
+            if (previous == TransactionStatus.SUCCESS) {
+                addVolume(amount, false);
+            }
+        }
+
+        counts.get(metricOf(status)).increment();
+        if (status == TransactionStatus.SUCCESS) {
+            addVolume(amount, true);
+        }
+    }
+
+    // Counted once the registration commits
+    public void recordUserRegistered() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counts.get(Metric.USERS).increment();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        counts.get(Metric.USERS).increment();
+                    }
+                });
+    }
+
+    public void recordAudit(String actionType, String status) {
+        if ("TRANSFER".equals(actionType) && "FRAUD_BLOCK".equals(status)) {
+            counts.get(Metric.FRAUD_BLOCKED).increment();
+        }
+    }
+
+    // =============================
+    // FLUSH TO admin_metrics
+    // =============================
+    @Scheduled(fixedDelayString = "${app.admin.metrics.flush-interval-ms:5000}")
+    public void flush() {
+        if (!initialized || !lock.tryLock()) {
+            return;
+        }
+        try {
+            Snapshot current = snapshot;
+            Map<Metric, BigDecimal> local = localValues();
+            Instant now = Instant.now();
+
+            List<AdminMetric> rows = transactionTemplate.execute(s -> {
+                for (Metric metric : Metric.values()) {
+                    BigDecimal delta = local.get(metric).subtract(current.flushed(metric));
+                    if (delta.signum() != 0) {
+                        metricRepository.increment(metric.name(), delta, now);
+                    }
+                }
+                return metricRepository.findAll();
+            });
+
+            install(rows, local);
+        } catch (DataAccessException e) {
+            // nothing was marked flushed; the same changes go out next time
+            log.warn("Admin metrics flush failed: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // =============================
+    // REBUILD / RECONCILE
+    // =============================
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        reconcile();
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.admin.metrics.reconcile-interval-ms:900000}",
+            fixedDelayString = "${app.admin.metrics.reconcile-interval-ms:900000}")
+    public void reconcile() {
+        lock.lock();
+        try {
+            Map<Metric, BigDecimal> stored = persisted(transactionTemplate.execute(s -> metricRepository.findAll()));
+            // taken before the recount: everything counted so far is also in it
+            Map<Metric, BigDecimal> local = localValues();
+            Map<Metric, BigDecimal> actual = recount();
+
+            if (initialized) {
+                for (Metric metric : Metric.values()) {
+                    BigDecimal shown = value(metric);
+                    if (shown.compareTo(actual.get(metric)) != 0) {
+                        log.info("Admin metric {} drifted: shown={}, actual={}", metric, shown, actual.get(metric));
+                    }
+                }
+            }
+
+            Instant now = Instant.now();
+            List<AdminMetric> rows = transactionTemplate.execute(s -> {
+                for (Metric metric : Metric.values()) {
+                    BigDecimal value = actual.get(metric);
+                    if (!stored.containsKey(metric)) {
+                        metricRepository.save(new AdminMetric(metric.name(), value, now));
+                        continue;
+                    }
+                    BigDecimal correction = value.subtract(stored.get(metric));
+                    if (correction.signum() != 0) {
+                        metricRepository.increment(metric.name(), correction, now);
+                    }
+                }
+                return metricRepository.findAll();
+            });
+
+            install(rows, local);
+            initialized = true;
+        } catch (DataAccessException e) {
+            log.error("Admin metrics reconcile failed: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<Metric, BigDecimal> recount() {
+        Map<Metric, BigDecimal> actual = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            actual.put(metric, BigDecimal.ZERO);
+        }
+
+        transactionTemplate.executeWithoutResult(s -> {
+            actual.put(Metric.USERS, BigDecimal.valueOf(userRepository.count()));
+            actual.put(Metric.FRAUD_BLOCKED, BigDecimal.valueOf(
+                    auditLogRepository.countByActionTypeAndStatus("TRANSFER", "FRAUD_BLOCK")));
+
+            long transactions = 0;
+            for (Object[] row : transactionRepository.findStatusTotals()) {
+                TransactionStatus status = (TransactionStatus) row[0];
+                long count = ((Number) row[1]).longValue();
+                transactions += count;
+                actual.put(metricOf(status), BigDecimal.valueOf(count));
+                if (status == TransactionStatus.SUCCESS) {
+                    actual.put(Metric.SUCCESS_VOLUME, (BigDecimal) row[2]);
+                }
+            }
+            actual.put(Metric.TRANSACTIONS, BigDecimal.valueOf(transactions));
+        });
+        return actual;
+    }
+
+    // The table now holds rows, which include the local changes up to local
+    private void install(List<AdminMetric> rows, Map<Metric, BigDecimal> local) {
+        Map<Metric, BigDecimal> persisted = persisted(rows);
+
+        Map<Metric, BigDecimal> base = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            base.put(metric, persisted.getOrDefault(metric, BigDecimal.ZERO).subtract(local.get(metric)));
+        }
+        snapshot = new Snapshot(base, local);
+    }
+
+    private static Map<Metric, BigDecimal> persisted(List<AdminMetric> rows) {
+        Map<Metric, BigDecimal> persisted = new EnumMap<>(Metric.class);
+        for (AdminMetric row : rows) {
+            try {
+                persisted.put(Metric.valueOf(row.getName()), row.getValue());
+            } catch (IllegalArgumentException e) {
+                // metric dropped in a newer version; ignore
+            }
+        }
+        return persisted;
+    }
+
+    private Map<Metric, BigDecimal> localValues() {
+        Map<Metric, BigDecimal> local = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            local.put(metric, local(metric));
+        }
+        return local;
+    }
+
+    private BigDecimal local(Metric metric) {
+        return metric == Metric.SUCCESS_VOLUME
+                ? successVolume.get()
+                : BigDecimal.valueOf(counts.get(metric).sum());
+    }
+
+    private void addVolume(BigDecimal amount, boolean add) {
+        if (amount != null) {
+            successVolume.accumulateAndGet(amount, add ? BigDecimal::add : BigDecimal::subtract);
+        }
+    }
+
+    private static Metric metricOf(TransactionStatus status) {
+        return Metric.valueOf(status.name());
+    }
+
+    /**
+     * base: table value minus the local changes it already contains, so
+     * base + local is the current figure. flushed: local values at the
+     * last flush or reconcile.
+     */
+    private record Snapshot(Map<Metric, BigDecimal> base, Map<Metric, BigDecimal> flushed) {
+
+        BigDecimal base(Metric metric) {
+            return base.getOrDefault(metric, BigDecimal.ZERO);
+        }
+
+        BigDecimal flushed(Metric metric) {
+            return flushed.getOrDefault(metric, BigDecimal.ZERO);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.dto.projection.TransactionView;
+import com.ewallet.wallet_service.entity.AdminTransactionRecord;
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.event.TransactionStatusChangedEvent;
+import com.ewallet.wallet_service.repository.AdminTransactionRecordRepository;
+import com.ewallet.wallet_service.repository.TransactionRepository;
+import com.ewallet.wallet_service.repository.VirtualPaymentAddressRepository;
+import com.ewallet.wallet_service.service.util.BatchingQueue;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the admin_transactions read model in step with transfers.
+ *
+ *   - status events: queued and applied in batches by a writer thread, off
+ *     the transfer path. INITIATED and FAILED are already committed when
+ *     they fire and are queued at once; PENDING and SUCCESS belong to the
+ *     caller's transaction and are queued after it commits. A batch keeps
+ *     the latest event per transfer and is written in one transaction: one
+ *     SELECT for the rows that exist, one joined lookup for the UPI ids of
+ *     new rows, then batched inserts and updates. When the queue is full
+ *     the event is written on the calling thread. A batch that fails
+ *     (database down, or a row another replica inserted meanwhile) is
+ *     retried write-attempts times; after that its lowest transfer id is
+ *     remembered for the gap sweep.
+ *   - gap fill: transfers with no admin_transactions row (anti-join), so
+ *     rows lost below any watermark are found too: events still queued
+ *     when the process died, batches given up on. All of them on startup;
+ *     from the lowest remembered id at the next reconcile. It inserts only
+ *     rows still missing, so it may race the writer thread and other
+ *     replicas; a lost race fails the page, which the next sweep redoes.
+ *   - reconcile sweep: rows still INITIATED/PENDING after
+ *     app.admin.read-model.reconcile-after-ms are re-read by primary key
+ *     (covers crash recovery, which fails stale transfers in bulk)
+ *
+ * Projection failures are logged and never reach the transfer or startup.
+ */
+@Service
+@Slf4j
+public class AdminTransactionProjector {
+
+    private static final EnumSet<TransactionStatus> NON_TERMINAL =
+            EnumSet.of(TransactionStatus.INITIATED, TransactionStatus.PENDING);
+
+    private final AdminTransactionRecordRepository recordRepository;
+    private final TransactionRepository transactionRepository;
+    private final VirtualPaymentAddressRepository vpaRepository;
+    private final TransactionTemplate requiresNew;
+    private final int queueCapacity;
+
+    @Value("${app.admin.read-model.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${app.admin.read-model.reconcile-after-ms:600000}")
+    private long reconcileAfterMs = 600000;
+
+    @Value("${app.admin.read-model.write-batch-size:200}")
+    private int writeBatchSize = 200;
+
+    @Value("${app.admin.read-model.linger-ms:50}")
+    private long lingerMs = 50;
+
+    @Value("${app.admin.read-model.write-attempts:3}")
+    private int writeAttempts = 3;
+
+    @Value("${app.admin.read-model.retry-backoff-ms:1000}")
+    private long retryBackoffMs = 1000;
+
+    // created by start(); until then events are written on the caller
+    private volatile BatchingQueue<TransactionStatusChangedEvent> queue;
+
+    // lowest transfer id an unwritten event belonged to; Long.MAX_VALUE: none
+    private final AtomicLong gapFloor = new AtomicLong(Long.MAX_VALUE);
+
+    public AdminTransactionProjector(
+            AdminTransactionRecordRepository recordRepository,
+            TransactionRepository transactionRepository,
+            VirtualPaymentAddressRepository vpaRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.admin.read-model.queue-capacity:10000}") int queueCapacity
+    ) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("app.admin.read-model.queue-capacity must be positive");
+        }
+        this.recordRepository = recordRepository;
+        this.transactionRepository = transactionRepository;
+        this.vpaRepository = vpaRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queueCapacity = queueCapacity;
+    }
+
+    @PostConstruct
+    public void start() {
+        BatchingQueue<TransactionStatusChangedEvent> writer = new BatchingQueue<>(
+                "admin-read-model-writer", queueCapacity, writeBatchSize, lingerMs, this::write);
+        writer.start();
+        queue = writer;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (queue != null) {
+            queue.stop(10_000);
+        }
+    }
+
+    @EventListener
+    public void onStatusChanged(TransactionStatusChangedEvent event) {
+        if (event.transactionId() == null) {
+            return;
+        }
+
+        boolean alreadyCommitted = event.status() == TransactionStatus.INITIATED
+                || event.status() == TransactionStatus.FAILED;
+
+        if (alreadyCommitted || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(event);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        enqueue(event);
+                    }
+                });
+    }
+
+    private void enqueue(TransactionStatusChangedEvent event) {
+        BatchingQueue<TransactionStatusChangedEvent> writer = queue;
+        // not started (or stopping), or queue full: write on the caller, once
+        if (writer == null || !writer.isRunning() || !writer.offer(event)) {
+            List<TransactionStatusChangedEvent> single = List.of(event);
+            if (!apply(single)) {
+                rememberGap(single);
+            }
+        }
+    }
+
+    // =============================
+    // WRITER THREAD
+    // =============================
+    private void write(List<TransactionStatusChangedEvent> batch) {
+        for (int attempt = 1; !apply(batch); attempt++) {
+            if (attempt >= writeAttempts) {
+                rememberGap(batch);
+                return;
+            }
+            try {
+                Thread.sleep(retryBackoffMs * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rememberGap(batch);
+                return;
+            }
+        }
+    }
+
+    private void rememberGap(List<TransactionStatusChangedEvent> events) {
+        long lowest = events.stream().mapToLong(TransactionStatusChangedEvent::transactionId).min().orElseThrow();
+        gapFloor.accumulateAndGet(lowest, Math::min);
+        log.error("Admin read model: gave up on {} event(s) from transfer {}; the next reconcile fills them in",
+                events.size(), lowest);
+    }
+    // true once the whole batch is written
+    boolean apply(List<TransactionStatusChangedEvent> events) {
+        // events of one transfer arrive in order: the last one wins
+        Map<Long, TransactionStatusChangedEvent> latest = new LinkedHashMap<>();
+        for (TransactionStatusChangedEvent event : events) {
+            latest.put(event.transactionId(), event);
+        }
+        Set<Long> ids = Set.copyOf(latest.keySet());
+
+        try {
+            requiresNew.executeWithoutResult(s -> {
+                Instant now = Instant.now();
+
+                for (AdminTransactionRecord record : recordRepository.findAllById(ids)) {
+                    TransactionStatusChangedEvent event = latest.remove(record.getTransactionId());
+                    if (NON_TERMINAL.contains(event.status()) && !NON_TERMINAL.contains(record.getStatus())) {
+                        // a caller-run write overtook the queue; never move a settled row back
+                        continue;
+                    }
+                    // managed: written back by the batched flush at commit
+                    record.setStatus(event.status());
+                    record.setUpdatedAt(now);
+                }
+                if (latest.isEmpty()) {
+                    return;
+                }
+
+                Map<Long, String> upiIds = upiIdsOf(latest.values());
+                recordRepository.saveAll(latest.values().stream()
+                        .map(event -> newRecord(event, upiIds, now))
+                        .toList());
+            });
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Admin read model update failed. transfers={}, reason={}",
+                    ids, e.getMessage());
+            return false;
+        }
+    }
+
+    private Map<Long, String> upiIdsOf(Collection<TransactionStatusChangedEvent> events) {
+        Set<Long> walletIds = new HashSet<>();
+        for (TransactionStatusChangedEvent event : events) {
+            walletIds.add(event.fromWalletId());
+            walletIds.add(event.toWalletId());
+        }
+        Map<Long, String> upiIds = new HashMap<>();
+        for (Object[] row : vpaRepository.findUpiIdsByWalletIds(walletIds)) {
+            upiIds.put((Long) row[0], (String) row[1]);
+        }
+        return upiIds;
+    }
+
+    private static AdminTransactionRecord newRecord(
+            TransactionStatusChangedEvent event, Map<Long, String> upiIds, Instant now) {
+        AdminTransactionRecord record = new AdminTransactionRecord();
+        record.setTransactionId(event.transactionId());
+        record.setFromWalletId(event.fromWalletId());
+        record.setToWalletId(event.toWalletId());
+        record.setFromUpiId(upiIds.get(event.fromWalletId()));
+        record.setToUpiId(upiIds.get(event.toWalletId()));
+        record.setAmount(event.amount());
+        record.setStatus(event.status());
+        record.setTimestamp(event.timestamp());
+        record.setUpdatedAt(now);
+        return record;
+    }
+
+    // =============================
+    // GAP FILL
+    // =============================
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        long projected = fillGaps(0);
+        log.info("Admin read model caught up: {} missing transfer(s) projected", projected);
+    }
+
+    // Transfers above afterId without a read-model row, a page at a time
+    private long fillGaps(long afterId) {
+        long projected = 0;
+
+        while (true) {
+            long from = afterId;
+            Integer inserted;
+            List<TransactionView> batch;
+            try {
+                batch = transactionRepository.findUnprojectedViewsAfterId(from, PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                inserted = requiresNew.execute(s -> insertMissing(batch, Instant.now()));
+            } catch (DataAccessException e) {
+                // lost a race with another writer, or the database is away: redo from here next time
+                gapFloor.accumulateAndGet(from + 1, Math::min);
+                log.warn("Admin read model gap fill stopped after id {}: {}", from, e.getMessage());
+                break;
+            }
+
+            afterId = batch.get(batch.size() - 1).id();
+            projected += inserted == null ? 0 : inserted;
+        }
+        return projected;
+    }
+
+    // Only rows still missing: the writer thread or another replica may have inserted some since the read
+    private int insertMissing(List<TransactionView> views, Instant now) {
+        Set<Long> existing = new HashSet<>();
+        recordRepository.findAllById(views.stream().map(TransactionView::id).toList())
+                .forEach(record -> existing.add(record.getTransactionId()));
+
+        List<AdminTransactionRecord> missing = views.stream()
+                .filter(view -> !existing.contains(view.id()))
+                .map(view -> fromView(view, now))
+                .toList();
+        if (!missing.isEmpty()) {
+            recordRepository.saveAll(missing);
+        }
+        return missing.size();
+    }
+
+    private static AdminTransactionRecord fromView(TransactionView view, Instant now) {
+        AdminTransactionRecord record = new AdminTransactionRecord();
+        record.setTransactionId(view.id());
+        record.setFromWalletId(view.fromWalletId());
+        record.setToWalletId(view.toWalletId());
+        record.setFromUpiId(view.fromUpi());
+        record.setToUpiId(view.toUpi());
+        record.setAmount(view.amount());
+        record.setStatus(view.status());
+        record.setTimestamp(view.timestamp());
+        record.setUpdatedAt(now);
+        return record;
+    }
+
+    // =============================
+    // RECONCILE
+    // =============================
+    @Scheduled(fixedDelayString = "${app.admin.read-model.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        long floor = gapFloor.getAndSet(Long.MAX_VALUE);
+        if (floor != Long.MAX_VALUE) {
+            long filled = fillGaps(floor - 1);
+            log.info("Admin read model filled {} missing transfer(s) from id {}", filled, floor);
+        }
+
+        Instant cutoff = Instant.now().minusMillis(reconcileAfterMs);
+
+        List<Long> ids = recordRepository.findUnsettledIds(NON_TERMINAL, cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        Integer fixed = requiresNew.execute(s -> {
+            Instant now = Instant.now();
+            int count = 0;
+            for (Object[] row : transactionRepository.findStatusesByIds(ids)) {
+                TransactionStatus actual = (TransactionStatus) row[1];
+                if (!NON_TERMINAL.contains(actual)) {
+                    count += recordRepository.updateStatus((Long) row[0], actual, now);
+                }
+            }
+            return count;
+        });
+
+        if (fixed != null && fixed > 0) {
+            log.info("Admin read model reconciled {} settled transfer(s)", fixed);
+        }
+    }
+}
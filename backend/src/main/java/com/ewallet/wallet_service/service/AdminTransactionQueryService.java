@@ -0,0 +1,206 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.dto.request.AdminTransactionFilter;
+import com.ewallet.wallet_service.dto.request.AdminTransactionFilter.SortField;
+import com.ewallet.wallet_service.dto.request.AdminTransactionFilter.SortOrder;
+import com.ewallet.wallet_service.dto.response.AdminTransactionResponse;
+import com.ewallet.wallet_service.entity.AdminTransactionRecord;
+import com.ewallet.wallet_service.exception.InvalidRequestException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Admin transaction explorer over the admin_transactions read model.
+ *
+ * Filters are combined into one Criteria query. Pages are keyset-based on
+ * (sort key, transaction id), so a deep page costs the same as the first.
+ * The cursor records its sort and order, and is rejected if either changes.
+ */
+@Service
+public class AdminTransactionQueryService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.admin.transactions.default-page-size:50}")
+    private int defaultPageSize = 50;
+
+    @Value("${app.admin.transactions.max-page-size:500}")
+    private int maxPageSize = 500;
+
+    public record Page(List<AdminTransactionResponse> items, String nextCursor) {}
+
+    @Transactional(readOnly = true)
+    public Page search(AdminTransactionFilter filter) {
+        int limit = resolvePageSize(filter.getLimit());
+        SortField sort = filter.getSort() != null ? filter.getSort() : SortField.TIMESTAMP;
+        SortOrder order = filter.getOrder() != null ? filter.getOrder() : SortOrder.DESC;
+        Cursor cursor = Cursor.decode(filter.getCursor(), sort, order);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AdminTransactionRecord> query = cb.createQuery(AdminTransactionRecord.class);
+        Root<AdminTransactionRecord> r = query.from(AdminTransactionRecord.class);
+
+        List<Predicate> where = filters(cb, r, filter);
+        if (cursor != null) {
+            where.add(after(cb, r, sort, order, cursor));
+        }
+
+        Path<Comparable<Object>> key = sortKey(r, sort);
+        Path<Long> id = r.get("transactionId");
+        query.where(where.toArray(Predicate[]::new));
+        query.orderBy(order == SortOrder.ASC
+                ? List.of(cb.asc(key), cb.asc(id))
+                : List.of(cb.desc(key), cb.desc(id)));
+
+        // one extra row tells whether another page exists
+        List<AdminTransactionRecord> rows = entityManager.createQuery(query)
+                .setMaxResults(limit + 1)
+                .getResultList();
+
+        boolean hasMore = rows.size() > limit;
+        List<AdminTransactionRecord> page = hasMore ? rows.subList(0, limit) : rows;
+
+        List<AdminTransactionResponse> items = page.stream()
+                .map(rec -> new AdminTransactionResponse(
+                        rec.getTransactionId(),
+                        rec.getFromUpiId() != null ? rec.getFromUpiId() : "N/A",
+                        rec.getToUpiId() != null ? rec.getToUpiId() : "N/A",
+                        rec.getAmount(),
+                        rec.getStatus().name(),
+                        rec.getTimestamp()
+                ))
+                .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            AdminTransactionRecord last = page.get(page.size() - 1);
+            nextCursor = Cursor.of(last, sort, order).encode();
+        }
+        return new Page(items, nextCursor);
+    }
+
+    private List<Predicate> filters(CriteriaBuilder cb, Root<AdminTransactionRecord> r, AdminTransactionFilter f) {
+        List<Predicate> where = new ArrayList<>();
+
+        if (f.getStatus() != null) {
+            where.add(cb.equal(r.get("status"), f.getStatus()));
+        }
+        if (f.getMinAmount() != null) {
+            where.add(cb.greaterThanOrEqualTo(r.get("amount"), f.getMinAmount()));
+        }
+        if (f.getMaxAmount() != null) {
+            where.add(cb.lessThanOrEqualTo(r.get("amount"), f.getMaxAmount()));
+        }
+        if (f.getFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(r.get("timestamp"), f.getFrom()));
+        }
+        if (f.getTo() != null) {
+            where.add(cb.lessThan(r.get("timestamp"), f.getTo()));
+        }
+        if (f.getUpiId() != null && !f.getUpiId().isBlank()) {
+            String upiId = f.getUpiId().trim();
+            where.add(cb.or(
+                    cb.equal(r.get("fromUpiId"), upiId),
+                    cb.equal(r.get("toUpiId"), upiId)));
+        }
+        if (f.getWalletId() != null) {
+            where.add(cb.or(
+                    cb.equal(r.get("fromWalletId"), f.getWalletId()),
+                    cb.equal(r.get("toWalletId"), f.getWalletId())));
+        }
+        return where;
+    }
+
+    // (key, id) strictly past the cursor in the requested order
+    private Predicate after(CriteriaBuilder cb, Root<AdminTransactionRecord> r,
+                            SortField sort, SortOrder order, Cursor cursor) {
+        Path<Comparable<Object>> key = sortKey(r, sort);
+        Path<Long> id = r.get("transactionId");
+        @SuppressWarnings("unchecked")
+        Comparable<Object> value = (Comparable<Object>) cursor.value();
+
+        if (order == SortOrder.ASC) {
+            return cb.or(
+                    cb.greaterThan(key, value),
+                    cb.and(cb.equal(key, value), cb.greaterThan(id, cursor.id())));
+        }
+        return cb.or(
+                cb.lessThan(key, value),
+                cb.and(cb.equal(key, value), cb.lessThan(id, cursor.id())));
+    }
+
+    private static Path<Comparable<Object>> sortKey(Root<AdminTransactionRecord> r, SortField sort) {
+        return r.get(sort == SortField.AMOUNT ? "amount" : "timestamp");
+    }
+
+    private int resolvePageSize(Integer requested) {
+        if (requested == null) {
+            return defaultPageSize;
+        }
+        if (requested < 1) {
+            throw new InvalidRequestException("limit must be at least 1");
+        }
+        return Math.min(requested, maxPageSize);
+    }
+
+    /**
+     * Last row of a page: its sort key and id, plus the sort it belongs to.
+     */
+    record Cursor(SortField sort, SortOrder order, Object value, Long id) {
+
+        static Cursor of(AdminTransactionRecord last, SortField sort, SortOrder order) {
+            Object value = sort == SortField.AMOUNT ? last.getAmount() : last.getTimestamp();
+            return new Cursor(sort, order, value, last.getTransactionId());
+        }
+
+        String encode() {
+            String key = value instanceof Instant ts
+                    ? ts.getEpochSecond() + "." + ts.getNano()
+                    : ((BigDecimal) value).toPlainString();
+            String raw = sort + ":" + order + ":" + key + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        static Cursor decode(String token, SortField sort, SortOrder order) {
+            if (token == null || token.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+                String[] parts = raw.split(":");
+                if (parts.length != 4
+                        || SortField.valueOf(parts[0]) != sort
+                        || SortOrder.valueOf(parts[1]) != order) {
+                    throw new IllegalArgumentException();
+                }
+                Object value;
+                if (sort == SortField.AMOUNT) {
+                    value = new BigDecimal(parts[2]);
+                } else {
+                    String[] ts = parts[2].split("\\.");
+                    value = Instant.ofEpochSecond(Long.parseLong(ts[0]), Long.parseLong(ts[1]));
+                }
+                return new Cursor(sort, order, value, Long.parseLong(parts[3]));
+            } catch (RuntimeException e) {
+                throw new InvalidRequestException("Invalid cursor for sort=" + sort + ", order=" + order);
+            }
+        }
+    }
+}
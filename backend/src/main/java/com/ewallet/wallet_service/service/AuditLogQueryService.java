@@ -0,0 +1,225 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.dto.request.AuditLogFilter;
+import com.ewallet.wallet_service.dto.request.AuditLogFilter.CountMode;
+import com.ewallet.wallet_service.dto.response.AuditLogResponse;
+import com.ewallet.wallet_service.entity.AuditLog;
+import com.ewallet.wallet_service.exception.InvalidRequestException;
+import com.ewallet.wallet_service.service.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Admin audit log search.
+ *
+ * Filters are combined into one Criteria query over audit_logs, newest
+ * first. Pages are keyset-based on (timestamp, id), so every filter
+ * combination is a range scan on one of the AuditLog indexes and a deep
+ * page costs the same as the first.
+ *
+ * Totals are never an exact COUNT(*) over the table. With count=ESTIMATE:
+ *   - unfiltered: the row count from the database's table statistics
+ *   - filtered (or no statistics): ids are counted off the index up to
+ *     app.admin.audit-logs.count-cap; past the cap the total is the cap
+ *     and is reported as not exact
+ */
+@Service
+@Slf4j
+public class AuditLogQueryService {
+
+    private static final String MYSQL_TABLE_ROWS = """
+            SELECT TABLE_ROWS FROM information_schema.TABLES
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_logs'
+            """;
+
+    private static final String POSTGRES_TABLE_ROWS =
+            "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE relname = 'audit_logs'";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.admin.audit-logs.default-page-size:50}")
+    private int defaultPageSize = 50;
+
+    @Value("${app.admin.audit-logs.max-page-size:500}")
+    private int maxPageSize = 500;
+
+    @Value("${app.admin.audit-logs.count-cap:10000}")
+    private int countCap = 10000;
+
+    private volatile String tableRowsSql;
+
+    public AuditLogQueryService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param totalCount null unless count=ESTIMATE was requested
+     * @param totalExact whether totalCount is the exact number of matches
+     */
+    public record Page(List<AuditLogResponse> items, String nextCursor, Long totalCount, boolean totalExact) {}
+
+    @Transactional(readOnly = true)
+    public Page search(AuditLogFilter filter) {
+        int limit = resolvePageSize(filter.getLimit());
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AuditLog> query = cb.createQuery(AuditLog.class);
+        Root<AuditLog> a = query.from(AuditLog.class);
+
+        List<Predicate> where = filters(cb, a, filter);
+        if (filter.getCursor() != null && !filter.getCursor().isBlank()) {
+            where.add(after(cb, a, KeysetCursor.decode(filter.getCursor())));
+        }
+
+        query.where(where.toArray(Predicate[]::new));
+        query.orderBy(cb.desc(a.get("timestamp")), cb.desc(a.get("id")));
+
+        // one extra row tells whether another page exists
+        List<AuditLog> rows = entityManager.createQuery(query)
+                .setMaxResults(limit + 1)
+                .getResultList();
+
+        boolean hasMore = rows.size() > limit;
+        List<AuditLog> page = hasMore ? rows.subList(0, limit) : rows;
+
+        List<AuditLogResponse> items = page.stream()
+                .map(entry -> new AuditLogResponse(
+                        entry.getId(),
+                        entry.getUserId(),
+                        entry.getUsername(),
+                        entry.getActionType(),
+                        entry.getStatus(),
+                        entry.getOldBalance(),
+                        entry.getNewBalance(),
+                        entry.getTimestamp()
+                ))
+                .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            AuditLog last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getTimestamp(), last.getId()).encode();
+        }
+
+        if (filter.getCount() != CountMode.ESTIMATE) {
+            return new Page(items, nextCursor, null, false);
+        }
+
+        // the first page already holds every match
+        if (!hasMore && (filter.getCursor() == null || filter.getCursor().isBlank())) {
+            return new Page(items, nextCursor, (long) items.size(), true);
+        }
+
+        if (!filter.hasFilters()) {
+            Long estimate = tableStatistics();
+            if (estimate != null) {
+                return new Page(items, nextCursor, estimate, false);
+            }
+        }
+
+        long counted = cappedCount(cb, filter);
+        return new Page(items, nextCursor, Math.min(counted, countCap), counted <= countCap);
+    }
+
+    private List<Predicate> filters(CriteriaBuilder cb, Root<AuditLog> a, AuditLogFilter f) {
+        List<Predicate> where = new ArrayList<>();
+
+        if (f.getUserId() != null) {
+            where.add(cb.equal(a.get("userId"), f.getUserId()));
+        }
+        if (f.getActionType() != null && !f.getActionType().isBlank()) {
+            where.add(cb.equal(a.get("actionType"), f.getActionType().trim()));
+        }
+        if (f.getStatus() != null && !f.getStatus().isBlank()) {
+            where.add(cb.equal(a.get("status"), f.getStatus().trim()));
+        }
+        if (f.getFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(a.get("timestamp"), f.getFrom()));
+        }
+        if (f.getTo() != null) {
+            where.add(cb.lessThan(a.get("timestamp"), f.getTo()));
+        }
+        return where;
+    }
+
+    // (timestamp, id) strictly older than the cursor
+    private Predicate after(CriteriaBuilder cb, Root<AuditLog> a, KeysetCursor cursor) {
+        Path<Instant> timestamp = a.get("timestamp");
+        Path<Long> id = a.get("id");
+        return cb.or(
+                cb.lessThan(timestamp, cursor.timestamp()),
+                cb.and(cb.equal(timestamp, cursor.timestamp()), cb.lessThan(id, cursor.id())));
+    }
+
+    // Reads at most countCap + 1 ids, so the cost is bounded however many rows match
+    private long cappedCount(CriteriaBuilder cb, AuditLogFilter filter) {
+        CriteriaQuery<Long> ids = cb.createQuery(Long.class);
+        Root<AuditLog> a = ids.from(AuditLog.class);
+        ids.select(a.get("id"));
+        ids.where(filters(cb, a, filter).toArray(Predicate[]::new));
+
+        return entityManager.createQuery(ids)
+                .setMaxResults(countCap + 1)
+                .getResultList()
+                .size();
+    }
+
+    // Planner statistics: refreshed by ANALYZE / InnoDB sampling, so approximate
+    private Long tableStatistics() {
+        String sql = tableRowsSql();
+        if (sql.isEmpty()) {
+            return null;
+        }
+        try {
+            Long rows = jdbcTemplate.queryForObject(sql, Long.class);
+            // PostgreSQL reports -1 for a table that was never analyzed
+            return rows != null && rows >= 0 ? rows : null;
+        } catch (DataAccessException e) {
+            log.debug("Audit log table statistics unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private String tableRowsSql() {
+        String sql = tableRowsSql;
+        if (sql == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            String name = product != null ? product.toLowerCase() : "";
+            sql = name.contains("mysql") ? MYSQL_TABLE_ROWS
+                    : name.contains("postgresql") ? POSTGRES_TABLE_ROWS
+                    : "";
+            tableRowsSql = sql;
+        }
+        return sql;
+    }
+
+    private int resolvePageSize(Integer requested) {
+        if (requested == null) {
+            return defaultPageSize;
+        }
+        if (requested < 1) {
+            throw new InvalidRequestException("limit must be at least 1");
+        }
+        return Math.min(requested, maxPageSize);
+    }
+}
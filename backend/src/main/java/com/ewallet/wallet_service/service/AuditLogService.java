@@ -2,13 +2,11 @@ package com.ewallet.wallet_service.service;
 
 import com.ewallet.wallet_service.entity.AuditLog;
 import com.ewallet.wallet_service.entity.User;
-import com.ewallet.wallet_service.repository.AuditLogRepository;
+import com.ewallet.wallet_service.service.util.AuditLogWriter;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 
 import java.math.BigDecimal;
@@ -20,13 +18,13 @@ public class AuditLogService {
     private static final Logger log =
             LoggerFactory.getLogger(AuditLogService.class);
 
-    private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
+    private final AdminMetricsStore metricsStore;
 
     /**
-     * Writes audit logs in a NEW transaction.
-     * Must never affect main business flow.
+     * Hands the audit row to the background writer (batched, own
+     * transaction). Must never affect main business flow.
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void log(
             User user,
             String action,
@@ -50,10 +48,11 @@ public class AuditLogService {
             audit.setNewBalance(newBal);
             audit.setTimestamp(Instant.now());
 
-            auditLogRepository.save(audit);
+            auditLogWriter.enqueue(audit);
+            metricsStore.recordAudit(action, status);
 
             log.debug(
-                "Audit log saved: user={}, action={}, status={}",
+                "Audit log queued: user={}, action={}, status={}",
                 audit.getUsername(),
                 action,
                 status
@@ -62,7 +61,7 @@ public class AuditLogService {
         } catch (Exception e) {
             // 🔒 FAIL-SAFE: Audit logging must never break core logic
             log.error(
-                "Failed to write audit log (ignored to preserve flow)",
+                "Failed to queue audit log (ignored to preserve flow)",
                 e
             );
         }
@@ -4,9 +4,19 @@ import com.ewallet.wallet_service.dto.response.BalanceUpdateResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 
+/**
+ * Pushes balance updates to /topic/wallet/{id}.
+ *
+ * Inside a transaction the push waits for the commit, so clients never see
+ * a balance that is rolled back, and the transfer does not hold its row
+ * locks while messages go out. Delivery to sessions then happens on the
+ * clientOutboundChannel executor (see WebSocketConfig).
+ */
 @Service
 @RequiredArgsConstructor
 public class BalanceWebSocketService {
@@ -14,6 +24,20 @@ public class BalanceWebSocketService {
     private final SimpMessagingTemplate messagingTemplate;
 
     public void publishBalance(Long walletId, BigDecimal balance) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(walletId, balance);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        send(walletId, balance);
+                    }
+                });
+    }
+
+    private void send(Long walletId, BigDecimal balance) {
         BalanceUpdateResponse response =
                 new BalanceUpdateResponse(walletId, balance);
 
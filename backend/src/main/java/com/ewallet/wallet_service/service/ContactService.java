@@ -9,6 +9,7 @@ import com.ewallet.wallet_service.exception.ResourceNotFoundException;
 import com.ewallet.wallet_service.repository.ContactRepository;
 import com.ewallet.wallet_service.repository.UserRepository;
 import com.ewallet.wallet_service.repository.VirtualPaymentAddressRepository;
+import com.ewallet.wallet_service.security.AuthenticatedUser;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -99,6 +100,12 @@ public class ContactService {
     // =============================
     private User getCurrentUser() {
 
+        AuthenticatedUser principal = AuthenticatedUser.current();
+        if (principal != null) {
+            // only the id is used; no need to load the row
+            return userRepository.getReferenceById(principal.userId());
+        }
+
         String email = SecurityContextHolder
                 .getContext()
                 .getAuthentication()
@@ -5,6 +5,7 @@ import com.ewallet.wallet_service.entity.VirtualPaymentAddress;
 import com.ewallet.wallet_service.exception.ResourceNotFoundException;
 import com.ewallet.wallet_service.repository.UserRepository;
 import com.ewallet.wallet_service.repository.VirtualPaymentAddressRepository;
+import com.ewallet.wallet_service.security.AuthenticatedUser;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -28,25 +29,34 @@ public class QrService {
 
     public String generateQrPayload(BigDecimal amount) {
 
-        // 1️⃣ Get logged-in user
-        String email = SecurityContextHolder
-                .getContext()
-                .getAuthentication()
-                .getName();
+        // 1️⃣ Get logged-in user and UPI ID (already resolved by JwtFilter if possible)
+        String upiId;
+        String name;
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() ->
-                        new ResourceNotFoundException("User not found"));
+        AuthenticatedUser principal = AuthenticatedUser.current();
+        if (principal != null && principal.upiId() != null) {
+            upiId = principal.upiId();
+            name = principal.displayName();
+        } else {
+            String email = SecurityContextHolder
+                    .getContext()
+                    .getAuthentication()
+                    .getName();
 
-        // 2️⃣ Fetch UPI ID
-        VirtualPaymentAddress vpa = vpaRepository
-                .findByUserId(user.getId())
-                .filter(VirtualPaymentAddress::isActive)
-                .orElseThrow(() ->
-                        new ResourceNotFoundException("UPI ID not found"));
+            User user = userRepository.findByEmail(email)
+                    .orElseThrow(() ->
+                            new ResourceNotFoundException("User not found"));
 
-        String upiId = vpa.getUpiId();
-        String name = user.getName();
+            // 2️⃣ Fetch UPI ID
+            VirtualPaymentAddress vpa = vpaRepository
+                    .findByUserId(user.getId())
+                    .filter(VirtualPaymentAddress::isActive)
+                    .orElseThrow(() ->
+                            new ResourceNotFoundException("UPI ID not found"));
+
+            upiId = vpa.getUpiId();
+            name = user.getName();
+        }
 
         // URL encode name (important for spaces/special chars)
         String encodedName = URLEncoder.encode(name, StandardCharsets.UTF_8);
@@ -0,0 +1,137 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.entity.RecurringPaymentRule;
+import com.ewallet.wallet_service.entity.RecurringRuleStatus;
+import com.ewallet.wallet_service.entity.ScheduledPayment;
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.repository.RecurringPaymentRuleRepository;
+import com.ewallet.wallet_service.repository.ScheduledPaymentRepository;
+import com.ewallet.wallet_service.service.util.Recurrence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Turns the next occurrence of each active recurring rule into a
+ * ScheduledPayment shortly before it is due.
+ *
+ * Every app.scheduled-payments.recurring.interval-ms a node takes up to
+ * batch-size rules whose nextRunAt falls within lead of now (FOR UPDATE
+ * SKIP LOCKED, so nodes never share a rule), writes one PENDING
+ * ScheduledPayment per rule for that instant and moves nextRunAt to the
+ * following occurrence, all in one transaction. From there the payment is
+ * an ordinary one: fired by ScheduledPaymentTimer, swept and claimed by
+ * ScheduledPaymentExecutor. A rule past its endAt is marked COMPLETED.
+ *
+ * Occurrences missed while the service was down are not replayed one by
+ * one: the overdue occurrence is materialized (and runs at once) and the
+ * rule continues with its first occurrence after now.
+ */
+@Service
+@Slf4j
+public class RecurringPaymentMaterializer {
+
+    private final RecurringPaymentRuleRepository ruleRepository;
+    private final ScheduledPaymentRepository scheduledPaymentRepository;
+    private final ScheduledPaymentTimer scheduledPaymentTimer;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration lead;
+    private final int batchSize;
+    private final Clock clock;
+
+    @Autowired
+    public RecurringPaymentMaterializer(
+            RecurringPaymentRuleRepository ruleRepository,
+            ScheduledPaymentRepository scheduledPaymentRepository,
+            ScheduledPaymentTimer scheduledPaymentTimer,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.scheduled-payments.recurring.lead:10m}") Duration lead,
+            @Value("${app.scheduled-payments.recurring.batch-size:500}") int batchSize
+    ) {
+        this(ruleRepository, scheduledPaymentRepository, scheduledPaymentTimer,
+                transactionManager, lead, batchSize, Clock.systemUTC());
+    }
+
+    public RecurringPaymentMaterializer(
+            RecurringPaymentRuleRepository ruleRepository,
+            ScheduledPaymentRepository scheduledPaymentRepository,
+            ScheduledPaymentTimer scheduledPaymentTimer,
+            PlatformTransactionManager transactionManager,
+            Duration lead,
+            int batchSize,
+            Clock clock
+    ) {
+        if (batchSize <= 0 || lead.isNegative()) {
+            throw new IllegalArgumentException(
+                    "app.scheduled-payments.recurring.batch-size must be positive and lead not negative");
+        }
+        this.ruleRepository = ruleRepository;
+        this.scheduledPaymentRepository = scheduledPaymentRepository;
+        this.scheduledPaymentTimer = scheduledPaymentTimer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lead = lead;
+        this.batchSize = batchSize;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${app.scheduled-payments.recurring.interval-ms:60000}")
+    public void materializeDue() {
+        int materialized;
+        do {
+            try {
+                Integer count = transactionTemplate.execute(s -> materializeBatch(clock.instant()));
+                materialized = count == null ? 0 : count;
+            } catch (DataAccessException e) {
+                // rolled back; the rules are still due next time
+                log.warn("Materializing recurring payments failed: {}", e.getMessage());
+                return;
+            }
+        } while (materialized == batchSize);
+    }
+
+    private int materializeBatch(Instant now) {
+        List<RecurringPaymentRule> rules = ruleRepository.findDue(
+                RecurringRuleStatus.ACTIVE, now.plus(lead), PageRequest.of(0, batchSize));
+
+        for (RecurringPaymentRule rule : rules) {
+            Instant at = rule.getNextRunAt();
+
+            ScheduledPayment payment = new ScheduledPayment();
+            payment.setSender(rule.getSender());
+            payment.setReceiver(rule.getReceiver());
+            payment.setAmount(rule.getAmount());
+            payment.setScheduledAt(at);
+            payment.setStatus(TransactionStatus.PENDING);
+            payment.setExecuted(false);
+            payment.setCreatedAt(now);
+            payment.setRule(rule);
+
+            ScheduledPayment saved = scheduledPaymentRepository.save(payment);
+            scheduledPaymentTimer.schedule(saved.getId(), at);
+
+            // past occurrences are skipped, not replayed
+            Instant next = Recurrence.after(rule, at.isAfter(now) ? at : now);
+            rule.setNextRunAt(next);
+            if (next == null) {
+                rule.setStatus(RecurringRuleStatus.COMPLETED);
+            }
+        }
+        if (!rules.isEmpty()) {
+            log.debug("Materialized {} recurring payment occurrence(s)", rules.size());
+        }
+        return rules.size();
+    }
+}
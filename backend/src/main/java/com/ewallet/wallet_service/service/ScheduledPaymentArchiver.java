@@ -0,0 +1,132 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.entity.ScheduledPayment;
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.repository.ScheduledPaymentArchiveRepository;
+import com.ewallet.wallet_service.repository.ScheduledPaymentRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Moves finished scheduled payments (SUCCESS, or FAILED including
+ * cancelled) to scheduled_payment_archive once they were scheduled more
+ * than app.scheduled-payments.archive.retention ago.
+ *
+ * scheduled_payment then holds only pending payments and recent history,
+ * so the claim scan, the wheel load and each user's list stay
+ * proportional to live payments rather than to everything ever scheduled.
+ * The pending scans themselves only touch pending entries of idx_sp_due
+ * (executed, status, scheduled_at); archiving keeps the table, its other
+ * indexes and the buffer pool small as well.
+ *
+ * Runs daily (archive.cron) in batches of archive.batch-size rows, one
+ * transaction each: copy with one INSERT ... SELECT, then delete. Rows are
+ * taken FOR UPDATE SKIP LOCKED, so replicas running the job at the same
+ * time split the work.
+ */
+@Service
+@Slf4j
+public class ScheduledPaymentArchiver {
+
+    private static final List<TransactionStatus> DONE =
+            List.of(TransactionStatus.SUCCESS, TransactionStatus.FAILED);
+
+    private final ScheduledPaymentRepository scheduledPaymentRepository;
+    private final ScheduledPaymentArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int batchSize;
+    private final Clock clock;
+
+    @Autowired
+    public ScheduledPaymentArchiver(
+            ScheduledPaymentRepository scheduledPaymentRepository,
+            ScheduledPaymentArchiveRepository archiveRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.scheduled-payments.archive.retention:30d}") Duration retention,
+            @Value("${app.scheduled-payments.archive.batch-size:1000}") int batchSize
+    ) {
+        this(scheduledPaymentRepository, archiveRepository, transactionManager,
+                retention, batchSize, Clock.systemUTC());
+    }
+
+    public ScheduledPaymentArchiver(
+            ScheduledPaymentRepository scheduledPaymentRepository,
+            ScheduledPaymentArchiveRepository archiveRepository,
+            PlatformTransactionManager transactionManager,
+            Duration retention,
+            int batchSize,
+            Clock clock
+    ) {
+        if (batchSize <= 0 || retention.isNegative()) {
+            throw new IllegalArgumentException(
+                    "app.scheduled-payments.archive.batch-size must be positive and retention not negative");
+        }
+        this.scheduledPaymentRepository = scheduledPaymentRepository;
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.clock = clock;
+    }
+
+    @Scheduled(cron = "${app.scheduled-payments.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        Instant now = clock.instant();
+        Instant cutoff = now.minus(retention);
+
+        long total = 0;
+        // one status at a time, so each batch is one range of idx_sp_done
+        for (TransactionStatus status : DONE) {
+            int moved;
+            do {
+                try {
+                    Integer count = transactionTemplate.execute(s -> archiveBatch(status, cutoff, now));
+                    moved = count == null ? 0 : count;
+                } catch (DataAccessException | IllegalStateException e) {
+                    // rolled back: nothing half-moved, the rest waits for the next run
+                    log.warn("Archiving scheduled payments failed after {} row(s): {}", total, e.getMessage());
+                    return;
+                }
+                total += moved;
+            } while (moved == batchSize);
+        }
+
+        if (total > 0) {
+            log.info("Archived {} scheduled payment(s) scheduled before {}", total, cutoff);
+        }
+    }
+
+    private int archiveBatch(TransactionStatus status, Instant cutoff, Instant now) {
+        List<Long> ids = scheduledPaymentRepository
+                .findArchivable(status, cutoff, PageRequest.of(0, batchSize))
+                .stream()
+                .map(ScheduledPayment::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        int copied = archiveRepository.copyFromScheduledPayments(ids, now);
+        if (copied != ids.size()) {
+            // should not happen under the row locks; never delete what was not copied
+            throw new IllegalStateException("Archived " + copied + " of " + ids.size() + " scheduled payments");
+        }
+        scheduledPaymentRepository.deleteByIdIn(ids);
+        return ids.size();
+    }
+}
@@ -0,0 +1,283 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.entity.*;
+import com.ewallet.wallet_service.event.TransactionStatusChangedEvent;
+import com.ewallet.wallet_service.repository.ScheduledPaymentRepository;
+import com.ewallet.wallet_service.repository.WalletRepository;
+import com.ewallet.wallet_service.service.util.WalletLockManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a group of claimed scheduled payments of one sender in a single
+ * transaction (ScheduledPaymentExecutor in BY_SENDER mode).
+ *
+ * The per-payment path (ScheduledPaymentProcessingService) costs one
+ * transaction, two wallet locks and a commit per status change for every
+ * payment. A payroll run of one sender then serialises on the sender's
+ * wallet row. Here the group's payment rows and all its wallets are locked
+ * once, the debits and credits are applied in memory in due order, the
+ * wallet and payment rows are written back by Hibernate's batched flush
+ * (hibernate.jdbc.batch_size) and the transactions rows are inserted in
+ * one JDBC batch. Audit rows go through AuditLogService as usual (already
+ * batched by AuditLogWriter).
+ *
+ * Failures stay per payment: insufficient balance, a missing wallet or a
+ * transfer to the sender's own wallet fail that payment only, exactly as
+ * in the per-payment path, and later payments of the group still run
+ * against the balance left. The group commits as a whole, so skipping the
+ * intermediate INITIATED / PENDING commits of the per-payment path cannot
+ * expose a half-done transfer. If the group itself fails (a database
+ * error), everything rolls back and executeGroup() throws; the caller then
+ * runs the payments one by one.
+ *
+ * Status events, audit rows and balance pushes are only emitted after the
+ * commit.
+ */
+@Service
+@Slf4j
+public class ScheduledPaymentBatchProcessor {
+
+    private static final String INSERT_TX_SQL = """
+            INSERT INTO transactions
+                (from_wallet_id, to_wallet_id, amount, timestamp, status)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final ScheduledPaymentRepository scheduledPaymentRepository;
+    private final WalletRepository walletRepository;
+    private final WalletLockManager walletLockManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditLogService auditLogService;
+    private final BalanceWebSocketService balanceWebSocketService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public ScheduledPaymentBatchProcessor(
+            ScheduledPaymentRepository scheduledPaymentRepository,
+            WalletRepository walletRepository,
+            WalletLockManager walletLockManager,
+            JdbcTemplate jdbcTemplate,
+            AuditLogService auditLogService,
+            BalanceWebSocketService balanceWebSocketService,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.scheduledPaymentRepository = scheduledPaymentRepository;
+        this.walletRepository = walletRepository;
+        this.walletLockManager = walletLockManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.auditLogService = auditLogService;
+        this.balanceWebSocketService = balanceWebSocketService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // like executeClaimed: never joins a caller's transaction
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Runs those of paymentIds that are still pending, due and claimed by
+     * owner, in one transaction. Returns the ids that were skipped (see
+     * ScheduledPaymentProcessingService.executeClaimed for when a payment
+     * is skipped).
+     *
+     * @throws RuntimeException if the group rolled back; none of it ran
+     */
+    public List<Long> executeGroup(List<Long> paymentIds, String owner) {
+
+        Settlement settlement = transactionTemplate.execute(s -> settle(paymentIds, owner));
+        if (settlement == null) {
+            return List.copyOf(paymentIds);
+        }
+
+        // committed: now tell everyone else
+        for (Transaction tx : settlement.transactions) {
+            eventPublisher.publishEvent(
+                    TransactionStatusChangedEvent.of(tx, TransactionStatus.INITIATED, null));
+            eventPublisher.publishEvent(
+                    TransactionStatusChangedEvent.of(tx, tx.getStatus(), TransactionStatus.INITIATED));
+        }
+        for (AuditEntry entry : settlement.audits) {
+            auditLogService.log(entry.user(), "SCHEDULED_TRANSFER", entry.status(),
+                    entry.oldBalance(), entry.newBalance());
+        }
+        settlement.balances.forEach(balanceWebSocketService::publishBalance);
+
+        return settlement.skipped;
+    }
+
+    // =============================
+    // SETTLEMENT (inside the transaction)
+    // =============================
+    private Settlement settle(List<Long> paymentIds, String owner) {
+
+        Instant now = Instant.now();
+        Settlement settlement = new Settlement();
+
+        List<ScheduledPayment> payments = new ArrayList<>();
+        Set<Long> runnable = new HashSet<>();
+        for (ScheduledPayment payment : scheduledPaymentRepository.findAllByIdForUpdate(paymentIds)) {
+            if (ScheduledPaymentProcessingService.isRunnable(payment, owner, now)) {
+                payments.add(payment);
+                runnable.add(payment.getId());
+            }
+        }
+        for (Long id : paymentIds) {
+            if (!runnable.contains(id)) {
+                settlement.skipped.add(id);
+            }
+        }
+        if (payments.isEmpty()) {
+            return settlement;
+        }
+
+        Set<Long> userIds = new HashSet<>();
+        for (ScheduledPayment payment : payments) {
+            userIds.add(payment.getSender().getId());
+            userIds.add(payment.getReceiver().getUser().getId());
+        }
+        Map<Long, Wallet> walletByUser = walletRepository.findAllByUserIdIn(userIds).stream()
+                .collect(Collectors.toMap(w -> w.getUser().getId(), Function.identity()));
+
+        // every wallet of the group once, ascending id, held until commit
+        try (WalletLockManager.WalletLock ignored =
+                     walletLockManager.lock(walletByUser.values().toArray(Wallet[]::new))) {
+
+            for (ScheduledPayment payment : payments) {
+                apply(payment, walletByUser, now, settlement);
+            }
+        }
+
+        insertTransactions(settlement.transactions);
+        return settlement;
+    }
+
+    private void apply(ScheduledPayment payment, Map<Long, Wallet> walletByUser,
+                       Instant now, Settlement settlement) {
+
+        Wallet senderWallet = walletByUser.get(payment.getSender().getId());
+        Wallet receiverWallet = walletByUser.get(payment.getReceiver().getUser().getId());
+
+        if (senderWallet == null || receiverWallet == null) {
+            // no transactions row, as in the per-payment path
+            finish(payment, TransactionStatus.FAILED,
+                    senderWallet == null ? "Sender wallet not found" : "Receiver wallet not found", now);
+            return;
+        }
+
+        BigDecimal amount = payment.getAmount();
+        BigDecimal senderOldBalance = senderWallet.getBalance();
+
+        Transaction tx = new Transaction();
+        tx.setFromWallet(senderWallet);
+        tx.setToWallet(receiverWallet);
+        tx.setAmount(amount);
+        tx.setTimestamp(now);
+        settlement.transactions.add(tx);
+        settlement.audit(senderWallet.getUser(), "INITIATED", senderOldBalance, senderOldBalance);
+
+        String failure = null;
+        if (senderWallet.getId().equals(receiverWallet.getId())) {
+            failure = "Cannot transfer to same wallet";
+        } else if (senderOldBalance.compareTo(amount) < 0) {
+            failure = "Insufficient balance";
+        }
+
+        if (failure != null) {
+            tx.setStatus(TransactionStatus.FAILED);
+            settlement.audit(senderWallet.getUser(), "FAILED", senderOldBalance, senderOldBalance);
+            finish(payment, TransactionStatus.FAILED, failure, now);
+            return;
+        }
+
+        senderWallet.setBalance(senderOldBalance.subtract(amount));
+        receiverWallet.setBalance(receiverWallet.getBalance().add(amount));
+
+        tx.setStatus(TransactionStatus.SUCCESS);
+        settlement.audit(senderWallet.getUser(), "PENDING", senderOldBalance, senderOldBalance);
+        settlement.audit(senderWallet.getUser(), "SUCCESS", senderOldBalance, senderWallet.getBalance());
+        settlement.balances.put(senderWallet.getId(), senderWallet.getBalance());
+        settlement.balances.put(receiverWallet.getId(), receiverWallet.getBalance());
+
+        finish(payment, TransactionStatus.SUCCESS, null, now);
+    }
+
+    // managed entity: written back by the batched flush at commit
+    private static void finish(ScheduledPayment payment, TransactionStatus status,
+                               String failureReason, Instant now) {
+        payment.setStatus(status);
+        payment.setFailureReason(failureReason);
+        payment.setExecuted(true);
+        payment.setExecutedAt(now);
+    }
+
+    // One JDBC batch on the transaction's connection; the generated ids go back onto the rows
+    private void insertTransactions(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_TX_SQL, new String[] {"id"})) {
+                Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+                for (Transaction tx : transactions) {
+                    ps.setLong(1, tx.getFromWallet().getId());
+                    ps.setLong(2, tx.getToWallet().getId());
+                    ps.setBigDecimal(3, tx.getAmount());
+                    ps.setTimestamp(4, Timestamp.from(tx.getTimestamp()), utc);
+                    ps.setString(5, tx.getStatus().name());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (int i = 0; i < transactions.size() && keys.next(); i++) {
+                        transactions.get(i).setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    // =============================
+    // RESULT
+    // =============================
+    private record AuditEntry(User user, String status, BigDecimal oldBalance, BigDecimal newBalance) {
+    }
+
+    private static final class Settlement {
+        private final List<Long> skipped = new ArrayList<>();
+        private final List<Transaction> transactions = new ArrayList<>();
+        private final List<AuditEntry> audits = new ArrayList<>();
+        // wallet id -> balance after the group
+        private final Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+
+        private void audit(User user, String status, BigDecimal oldBalance, BigDecimal newBalance) {
+            audits.add(new AuditEntry(user, status, oldBalance, newBalance));
+        }
+    }
+}
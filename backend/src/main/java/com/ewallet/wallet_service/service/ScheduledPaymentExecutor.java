@@ -1,42 +1,362 @@
 package com.ewallet.wallet_service.service;
 
 import com.ewallet.wallet_service.entity.ScheduledPayment;
-import com.ewallet.wallet_service.repository.ScheduledPaymentRepository;
 import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.exception.ServiceBusyException;
+import com.ewallet.wallet_service.repository.ScheduledPaymentRepository;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Runs due scheduled payments; safe to run on any number of instances.
+ *
+ * Payments are normally started on time by ScheduledPaymentTimer through
+ * fire(). The poll below is the reconciliation sweep that catches whatever
+ * the timer did not fire (payments created on another node inside this
+ * node's loaded window, failed runs, expired claims, the backlog after a
+ * restart).
+ *
+ * Every app.scheduled-payments.poll-interval-ms a node claims up to
+ * batch-size due rows in one short transaction: the rows are selected
+ * FOR UPDATE SKIP LOCKED, so concurrent claimers get disjoint sets, and
+ * stamped with this node's id and a lease (claimedBy / claimExpiresAt).
+ * The batch then runs on a fixed pool of app.scheduled-payments.workers
+ * threads, one transaction per payment (execution-mode PER_PAYMENT) or per
+ * group of up to group-size payments of the same sender (BY_SENDER, see
+ * ScheduledPaymentBatchProcessor; one task per sender, its groups in
+ * turn). A group that rolls back is retried one payment at a time. While
+ * it runs the lease of every
+ * unfinished payment is renewed every lease / 3; when it is done any claim
+ * left (skipped or failed to run) is released. A full batch is followed
+ * straight away by the next one, so a backlog drains at pool speed rather
+ * than one batch per poll.
+ *
+ * If a node dies its claims lapse after the lease and another node picks
+ * the payments up. Exactly-once does not depend on the lease: a payment is
+ * executed under its row lock and only while it is still unexecuted and
+ * claimed by the executing node (see
+ * ScheduledPaymentProcessingService.executeClaimed).
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ScheduledPaymentExecutor {
 
+    public enum ExecutionMode { PER_PAYMENT, BY_SENDER }
+
     private final ScheduledPaymentRepository scheduledPaymentRepository;
     private final ScheduledPaymentProcessingService processingService;
+    private final ScheduledPaymentBatchProcessor batchProcessor;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final String nodeId;
+    private final int batchSize;
+    private final Duration lease;
+    private final ExecutionMode executionMode;
+    private final int groupSize;
+
+    private volatile boolean running = true;
+
+    public ScheduledPaymentExecutor(
+            ScheduledPaymentRepository scheduledPaymentRepository,
+            ScheduledPaymentProcessingService processingService,
+            ScheduledPaymentBatchProcessor batchProcessor,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.scheduled-payments.node-id:${HOSTNAME:node}}") String nodeName,
+            @Value("${app.scheduled-payments.workers:8}") int workers,
+            @Value("${app.scheduled-payments.batch-size:200}") int batchSize,
+            @Value("${app.scheduled-payments.lease:2m}") Duration lease,
+            @Value("${app.scheduled-payments.execution-mode:PER_PAYMENT}") ExecutionMode executionMode,
+            @Value("${app.scheduled-payments.group-size:100}") int groupSize
+    ) {
+        if (workers <= 0 || batchSize <= 0 || groupSize <= 0 || lease.isNegative() || lease.isZero()) {
+            throw new IllegalArgumentException(
+                    "app.scheduled-payments.workers, batch-size, group-size and lease must be positive");
+        }
+        this.scheduledPaymentRepository = scheduledPaymentRepository;
+        this.processingService = processingService;
+        this.batchProcessor = batchProcessor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // unique per process, so a restarted node never mistakes its predecessor's claims for its own
+        this.nodeId = nodeName + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.executionMode = executionMode;
+        this.groupSize = groupSize;
+
+        AtomicInteger sequence = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "scheduled-payment-" + sequence.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
 
-    // FIX: was 60000 (1 minute) — payments could be up to 60s late.
-    // Now runs every 10s. Safe because findPendingPayments() only returns
-    // unexecuted PENDING rows so the same payment never runs twice.
-    @Scheduled(fixedRate = 10000)
+    @Scheduled(fixedDelayString = "${app.scheduled-payments.poll-interval-ms:60000}")
     public void processScheduledPayments() {
 
-        List<ScheduledPayment> pendingPayments =
-                scheduledPaymentRepository
-                        .findPendingPayments(Instant.now(),  TransactionStatus.PENDING);
+        List<Long> batch;
+        do {
+            batch = claimBatch();
+
+            if (!batch.isEmpty()) {
+                log.info("Processing {} scheduled payment(s) on {}", batch.size(), nodeId);
+                runBatch(batch);
+            }
+        } while (running && batch.size() == batchSize);
+    }
+
+    /**
+     * Runs the given payments now, without waiting for the next poll (used
+     * by ScheduledPaymentTimer). Only ids still due and unclaimed are
+     * claimed; the rest are skipped. Returns at once; the claim and the
+     * payments run on the worker pool.
+     */
+    public void fire(Collection<Long> ids) {
+        if (!running || ids.isEmpty()) {
+            return;
+        }
+        List<Long> batch = List.copyOf(ids);
+        try {
+            workers.execute(() -> runFired(batch));
+        } catch (RejectedExecutionException e) {
+            // shutting down; the payments stay pending for the next node or start
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // =============================
+    // CLAIM / RENEW / RELEASE
+    // =============================
+    private List<Long> claimBatch() {
+        Instant now = Instant.now();
+        try {
+            List<Long> ids = transactionTemplate.execute(s -> {
+                List<Long> claimable = scheduledPaymentRepository
+                        .findClaimable(now, TransactionStatus.PENDING, PageRequest.of(0, batchSize))
+                        .stream()
+                        .map(ScheduledPayment::getId)
+                        .toList();
+                if (!claimable.isEmpty()) {
+                    scheduledPaymentRepository.claim(claimable, nodeId, now.plus(lease));
+                }
+                return claimable;
+            });
+            return ids == null ? List.of() : ids;
+        } catch (DataAccessException e) {
+            log.warn("Claiming scheduled payments failed: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void renew(Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> snapshot = new ArrayList<>(ids);
+            transactionTemplate.executeWithoutResult(s ->
+                    scheduledPaymentRepository.renewClaims(snapshot, nodeId, Instant.now().plus(lease)));
+        } catch (DataAccessException e) {
+            // the row lock still prevents a double run if the lease lapses
+            log.warn("Renewing scheduled payment leases failed: {}", e.getMessage());
+        }
+    }
+
+    private void release(List<Long> ids) {
+        try {
+            transactionTemplate.executeWithoutResult(s ->
+                    scheduledPaymentRepository.releaseClaims(ids, nodeId));
+        } catch (DataAccessException e) {
+            // left to expire
+            log.warn("Releasing scheduled payment leases failed: {}", e.getMessage());
+        }
+    }
+
+    // =============================
+    // EXECUTION
+    // =============================
+    private void runBatch(List<Long> ids) {
+        Set<Long> unfinished = ConcurrentHashMap.newKeySet();
+        unfinished.addAll(ids);
 
-        if (!pendingPayments.isEmpty()) {
-            log.info("Processing {} scheduled payment(s)", pendingPayments.size());
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (List<Long> task : tasks(ids)) {
+                futures.add(workers.submit(() -> {
+                    try {
+                        runTask(task);
+                    } finally {
+                        task.forEach(unfinished::remove);
+                    }
+                }));
+            }
+            awaitRenewing(futures, unfinished);
+        } finally {
+            release(ids);
         }
+    }
+
+    private void runFired(List<Long> ids) {
+        Instant now = Instant.now();
+        Integer claimed;
+        try {
+            claimed = transactionTemplate.execute(s -> scheduledPaymentRepository.claimIfDue(
+                    ids, TransactionStatus.PENDING, nodeId, now, now.plus(lease)));
+        } catch (DataAccessException e) {
+            // the next sweep picks them up
+            log.warn("Claiming fired scheduled payments failed: {}", e.getMessage());
+            return;
+        }
+        if (claimed != null && claimed == 0) {
+            return; // all taken by other nodes, or no longer due
+        }
+
+        for (List<Long> task : tasks(ids)) {
+            try {
+                workers.execute(() -> {
+                    List<Long> notRun = runTask(task);
+                    if (!notRun.isEmpty()) {
+                        // skipped or rolled back: drop our claim (no-op if another node holds it)
+                        release(notRun);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                return; // shutting down; our claims lapse after the lease
+            }
+        }
+    }
+
+    // One task per payment, or per sender in BY_SENDER mode
+    private List<List<Long>> tasks(List<Long> ids) {
+        if (executionMode == ExecutionMode.PER_PAYMENT || ids.size() == 1) {
+            return ids.stream().map(List::of).toList();
+        }
+        Map<Long, List<Long>> bySender = new LinkedHashMap<>();
+        try {
+            for (Object[] row : scheduledPaymentRepository.findSenderIds(ids)) {
+                bySender.computeIfAbsent((Long) row[1], k -> new ArrayList<>()).add((Long) row[0]);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Grouping scheduled payments by sender failed: {}", e.getMessage());
+            return ids.stream().map(List::of).toList();
+        }
+        return List.copyOf(bySender.values());
+    }
+
+    // Returns the ids that did not run on this node
+    private List<Long> runTask(List<Long> ids) {
+        if (ids.size() == 1) {
+            return execute(ids.get(0)) ? List.of() : ids;
+        }
+        List<Long> notRun = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += groupSize) {
+            notRun.addAll(executeGroup(ids.subList(i, Math.min(i + groupSize, ids.size()))));
+        }
+        return notRun;
+    }
+
+    private List<Long> executeGroup(List<Long> ids) {
+        if (!running) {
+            return ids;
+        }
+        try {
+            return batchProcessor.executeGroup(ids, nodeId);
+        } catch (ServiceBusyException e) {
+            // one by one would wait on the same wallets
+            log.info("Scheduled payment group of {} found a wallet busy, retried on a later poll", ids.size());
+            return ids;
+        } catch (RuntimeException e) {
+            log.warn("Scheduled payment group of {} rolled back, running one by one: {}",
+                    ids.size(), e.getMessage());
+            List<Long> notRun = new ArrayList<>();
+            for (Long id : ids) {
+                if (!execute(id)) {
+                    notRun.add(id);
+                }
+            }
+            return notRun;
+        }
+    }
+
+    // true if the payment ran (successfully or not) on this node
+    private boolean execute(Long id) {
+        if (!running) {
+            return false;
+        }
+        try {
+            return processingService.executeClaimed(id, nodeId);
+        } catch (ServiceBusyException e) {
+            log.info("Scheduled payment {} found a wallet busy, retried on a later poll", id);
+            return false;
+        } catch (RuntimeException e) {
+            // rolled back: still unexecuted, released and retried on a later poll
+            log.error("Scheduled payment {} could not be run: {}", id, e.getMessage());
+            return false;
+        }
+    }
+
+    private void awaitRenewing(List<Future<?>> futures, Set<Long> unfinished) {
+        long renewEveryMs = Math.max(1, lease.toMillis() / 3);
+        long nextRenewal = System.currentTimeMillis() + renewEveryMs;
+
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get(Math.max(1, nextRenewal - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    renew(unfinished);
+                    nextRenewal = System.currentTimeMillis() + renewEveryMs;
+                } catch (ExecutionException e) {
+                    break; // logged by execute()
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
 
-        for (ScheduledPayment payment : pendingPayments) {
-            processingService.executeSinglePayment(payment);
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.shutdown();
+        try {
+            // payments already started finish; the rest are released by their batch
+            workers.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
-}
\ No newline at end of file
+}
@@ -2,7 +2,9 @@ package com.ewallet.wallet_service.service;
 
 import com.ewallet.wallet_service.entity.*;
 import com.ewallet.wallet_service.exception.InsufficientBalanceException;
+import com.ewallet.wallet_service.exception.ServiceBusyException;
 import com.ewallet.wallet_service.repository.*;
+import com.ewallet.wallet_service.service.util.WalletLockManager;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +28,41 @@ private final TransactionRepository transactionRepository;
     private final AuditLogService auditLogService;
     private final BalanceWebSocketService balanceWebSocketService;
     private final TransactionStatusService statusService;
+    private final WalletLockManager walletLockManager;
+
+    /**
+     * Runs a payment claimed by owner (see ScheduledPaymentExecutor), holding
+     * the payment row lock until commit. Returns false without running it if
+     * the payment was executed, cancelled, moved into the future or claimed
+     * by another node since — so even a lease that expired mid-batch cannot
+     * make a payment run twice.
+     *
+     * @throws ServiceBusyException if a wallet stayed locked past
+     *                              app.wallet.lock-wait; nothing is marked
+     *                              executed and the next poll retries it
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean executeClaimed(Long paymentId, String owner) {
+
+        ScheduledPayment payment = scheduledPaymentRepository
+                .findByIdForUpdate(paymentId)
+                .orElse(null);
+
+        if (payment == null || !isRunnable(payment, owner, Instant.now())) {
+            return false;
+        }
+
+        executeSinglePayment(payment);
+        return true;
+    }
+
+    // Still pending, due and claimed by owner (checked under the row lock)
+    static boolean isRunnable(ScheduledPayment payment, String owner, Instant now) {
+        return !payment.isExecuted()
+                && payment.getStatus() == TransactionStatus.PENDING
+                && !payment.getScheduledAt().isAfter(now)
+                && owner.equals(payment.getClaimedBy());
+    }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
 public void executeSinglePayment(ScheduledPayment payment) {
@@ -43,7 +80,6 @@ public void executeSinglePayment(ScheduledPayment payment) {
                 .orElseThrow(() -> new RuntimeException("Receiver wallet not found"));
 
         BigDecimal amount = payment.getAmount();
-        BigDecimal senderOldBalance = senderWallet.getBalance();
 
         tx = new Transaction();
         tx.setFromWallet(senderWallet);
@@ -54,47 +90,64 @@ public void executeSinglePayment(ScheduledPayment payment) {
         // 🔹 INITIATED
         statusService.updateStatus(tx, TransactionStatus.INITIATED);
         auditLogService.log(senderWallet.getUser(), "SCHEDULED_TRANSFER", "INITIATED",
-                senderOldBalance, senderOldBalance);
+                senderWallet.getBalance(), senderWallet.getBalance());
 
         // 🔹 Validation
         if (senderWallet.getId().equals(receiverWallet.getId())) {
             statusService.updateStatus(tx, TransactionStatus.FAILED);
             auditLogService.log(senderWallet.getUser(), "SCHEDULED_TRANSFER", "FAILED",
-                    senderOldBalance, senderOldBalance);
+                    senderWallet.getBalance(), senderWallet.getBalance());
             throw new IllegalArgumentException("Cannot transfer to same wallet");
         }
 
-        if (senderWallet.getBalance().compareTo(amount) < 0) {
-            statusService.updateStatus(tx, TransactionStatus.FAILED);
-            auditLogService.log(senderWallet.getUser(), "SCHEDULED_TRANSFER", "FAILED",
-                    senderOldBalance, senderOldBalance);
-            throw new InsufficientBalanceException("Insufficient balance");
-        }
+        // 🔹 Lock both wallets (ascending id, held until commit) — the
+        // scheduler races with interactive transfers on the same wallets
+        try (WalletLockManager.WalletLock ignored =
+                     walletLockManager.lock(senderWallet, receiverWallet)) {
+
+            BigDecimal senderOldBalance = senderWallet.getBalance();
 
-        // 🔹 PENDING
-        statusService.updateStatus(tx, TransactionStatus.PENDING);
-        auditLogService.log(senderWallet.getUser(), "SCHEDULED_TRANSFER", "PENDING",
-                senderOldBalance, senderOldBalance);
+            if (senderWallet.getBalance().compareTo(amount) < 0) {
+                statusService.updateStatus(tx, TransactionStatus.FAILED);
+                auditLogService.log(senderWallet.getUser(), "SCHEDULED_TRANSFER", "FAILED",
+                        senderOldBalance, senderOldBalance);
+                throw new InsufficientBalanceException("Insufficient balance");
+            }
 
-        // 🔹 Balance Update
-        senderWallet.setBalance(senderWallet.getBalance().subtract(amount));
-        receiverWallet.setBalance(receiverWallet.getBalance().add(amount));
+            // 🔹 PENDING
+            statusService.updateStatus(tx, TransactionStatus.PENDING);
+            auditLogService.log(senderWallet.getUser(), "SCHEDULED_TRANSFER", "PENDING",
+                    senderOldBalance, senderOldBalance);
+
+            // 🔹 Balance Update
+            senderWallet.setBalance(senderWallet.getBalance().subtract(amount));
+            receiverWallet.setBalance(receiverWallet.getBalance().add(amount));
 
-        walletRepository.save(senderWallet);
-        walletRepository.save(receiverWallet);
+            walletRepository.save(senderWallet);
+            walletRepository.save(receiverWallet);
 
-        // 🔹 SUCCESS
-        statusService.updateStatus(tx, TransactionStatus.SUCCESS);
-        auditLogService.log(senderWallet.getUser(), "SCHEDULED_TRANSFER", "SUCCESS",
-                senderOldBalance, senderWallet.getBalance());
+            // 🔹 SUCCESS
+            statusService.updateStatus(tx, TransactionStatus.SUCCESS);
+            auditLogService.log(senderWallet.getUser(), "SCHEDULED_TRANSFER", "SUCCESS",
+                    senderOldBalance, senderWallet.getBalance());
 
-        balanceWebSocketService.publishBalance(senderWallet.getId(), senderWallet.getBalance());
-        balanceWebSocketService.publishBalance(receiverWallet.getId(), receiverWallet.getBalance());
+            balanceWebSocketService.publishBalance(senderWallet.getId(), senderWallet.getBalance());
+            balanceWebSocketService.publishBalance(receiverWallet.getId(), receiverWallet.getBalance());
+        }
 
         payment.setExecuted(true);
         payment.setStatus(TransactionStatus.SUCCESS);
         payment.setExecutedAt(Instant.now());
 
+    } catch (ServiceBusyException e) {
+
+        // momentary contention, not a failed payment: this attempt's
+        // transaction row is closed, the payment itself rolls back
+        if (tx != null) {
+            statusService.updateStatus(tx, TransactionStatus.FAILED);
+        }
+        throw e;
+
     } catch (Exception e) {
 
         if (tx != null) {
@@ -1,18 +1,28 @@
 package com.ewallet.wallet_service.service;
 
+import com.ewallet.wallet_service.dto.request.RecurringScheduleRequest;
+import com.ewallet.wallet_service.entity.RecurrenceFrequency;
+import com.ewallet.wallet_service.entity.RecurringPaymentRule;
+import com.ewallet.wallet_service.entity.RecurringRuleStatus;
 import com.ewallet.wallet_service.entity.ScheduledPayment;
 import com.ewallet.wallet_service.entity.TransactionStatus;
 import com.ewallet.wallet_service.entity.User;
 import com.ewallet.wallet_service.entity.VirtualPaymentAddress;
+import com.ewallet.wallet_service.exception.InvalidRequestException;
+import com.ewallet.wallet_service.exception.ResourceNotFoundException;
+import com.ewallet.wallet_service.repository.RecurringPaymentRuleRepository;
 import com.ewallet.wallet_service.repository.ScheduledPaymentRepository;
 import com.ewallet.wallet_service.repository.UserRepository;
 import com.ewallet.wallet_service.repository.VirtualPaymentAddressRepository;
+import com.ewallet.wallet_service.service.util.Recurrence;
 
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 
@@ -23,6 +33,16 @@ public class ScheduledPaymentService {
     private final ScheduledPaymentRepository scheduledPaymentRepository;
     private final UserRepository userRepository;
     private final VirtualPaymentAddressRepository vpaRepository;
+    private final ScheduledPaymentTimer scheduledPaymentTimer;
+    private final RecurringPaymentRuleRepository recurringRuleRepository;
+
+    // RecurringPaymentMaterializer's pass interval and lead: a cron rule
+    // may not fire more often than the larger of the two
+    @Value("${app.scheduled-payments.recurring.interval-ms:60000}")
+    private long recurringIntervalMs = 60000;
+
+    @Value("${app.scheduled-payments.recurring.lead:10m}")
+    private Duration recurringLead = Duration.ofMinutes(10);
 
     @Transactional
     public ScheduledPayment updateSchedule(
@@ -32,8 +52,9 @@ public class ScheduledPaymentService {
             Instant scheduledAt
     ) {
 
+        // row lock: an executor may be running this payment right now
         ScheduledPayment payment = scheduledPaymentRepository
-                .findById(id)
+                .findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Schedule not found"));
 
         if (!payment.getSender().getEmail().equals(email)) {
@@ -54,7 +75,9 @@ public class ScheduledPaymentService {
         // instantly, making the countdown appear broken.
         payment.setCreatedAt(Instant.now());
 
-        return scheduledPaymentRepository.save(payment);
+        ScheduledPayment saved = scheduledPaymentRepository.save(payment);
+        scheduledPaymentTimer.schedule(saved.getId(), saved.getScheduledAt());
+        return saved;
     }
 
     public ScheduledPayment createSchedule(
@@ -80,7 +103,9 @@ public class ScheduledPaymentService {
         payment.setExecuted(false);
         payment.setCreatedAt(Instant.now());
 
-        return scheduledPaymentRepository.save(payment);
+        ScheduledPayment saved = scheduledPaymentRepository.save(payment);
+        scheduledPaymentTimer.schedule(saved.getId(), saved.getScheduledAt());
+        return saved;
     }
 
     public List<ScheduledPayment> getUserScheduledPayments(String email) {
@@ -91,10 +116,12 @@ public class ScheduledPaymentService {
         return scheduledPaymentRepository.findBySender(user);
     }
 
+    @Transactional
     public void cancelSchedule(Long scheduleId, String email) {
 
+        // row lock: an executor may be running this payment right now
         ScheduledPayment payment =
-                scheduledPaymentRepository.findById(scheduleId)
+                scheduledPaymentRepository.findByIdForUpdate(scheduleId)
                         .orElseThrow(() -> new RuntimeException("Schedule not found"));
 
         if (!payment.getSender().getEmail().equals(email)) {
@@ -111,5 +138,164 @@ public class ScheduledPaymentService {
         payment.setStatus(TransactionStatus.FAILED);
         payment.setFailureReason("Cancelled by user");
         scheduledPaymentRepository.save(payment);
+        scheduledPaymentTimer.cancel(scheduleId);
+    }
+
+    // =============================
+    // RECURRING SCHEDULES
+    // Stored as one rule each; RecurringPaymentMaterializer turns the next
+    // occurrence into a ScheduledPayment shortly before it is due.
+    // =============================
+
+    @Transactional
+    public RecurringPaymentRule createRecurringSchedule(String senderEmail, RecurringScheduleRequest request) {
+
+        User sender = userRepository.findByEmail(senderEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        VirtualPaymentAddress receiver = vpaRepository.findByUpiId(request.getReceiverUpiId())
+                .orElseThrow(() -> new ResourceNotFoundException("Receiver not found"));
+
+        if (receiver.getUser().getId().equals(sender.getId())) {
+            throw new InvalidRequestException("Cannot schedule a recurring payment to yourself");
+        }
+
+        RecurringPaymentRule rule = new RecurringPaymentRule();
+        rule.setSender(sender);
+        rule.setReceiver(receiver);
+        rule.setCreatedAt(Instant.now());
+        applyRecurrence(rule, request);
+
+        return recurringRuleRepository.save(rule);
+    }
+
+    /**
+     * Replaces amount and recurrence. An occurrence already materialized
+     * is withdrawn and comes back under the new terms; a paused rule stays
+     * paused.
+     */
+    @Transactional
+    public RecurringPaymentRule updateRecurringSchedule(Long ruleId, String email, RecurringScheduleRequest request) {
+
+        RecurringPaymentRule rule = lockOwnRule(ruleId, email);
+        if (rule.getStatus() == RecurringRuleStatus.CANCELLED) {
+            throw new InvalidRequestException("Recurring schedule is cancelled");
+        }
+
+        withdrawPendingOccurrences(rule, "Recurring schedule changed");
+        applyRecurrence(rule, request);
+        if (rule.getStatus() == RecurringRuleStatus.COMPLETED) {
+            rule.setStatus(RecurringRuleStatus.ACTIVE);
+        }
+        return recurringRuleRepository.save(rule);
+    }
+
+    @Transactional
+    public RecurringPaymentRule pauseRecurringSchedule(Long ruleId, String email) {
+
+        RecurringPaymentRule rule = lockOwnRule(ruleId, email);
+        if (rule.getStatus() != RecurringRuleStatus.ACTIVE) {
+            throw new InvalidRequestException("Only an active recurring schedule can be paused");
+        }
+
+        withdrawPendingOccurrences(rule, "Recurring schedule paused");
+        rule.setStatus(RecurringRuleStatus.PAUSED);
+        return recurringRuleRepository.save(rule);
+    }
+
+    // Continues with the first occurrence from now; those missed while paused are skipped
+    @Transactional
+    public RecurringPaymentRule resumeRecurringSchedule(Long ruleId, String email) {
+
+        RecurringPaymentRule rule = lockOwnRule(ruleId, email);
+        if (rule.getStatus() != RecurringRuleStatus.PAUSED) {
+            throw new InvalidRequestException("Only a paused recurring schedule can be resumed");
+        }
+
+        Instant next = Recurrence.firstAtOrAfter(rule, Instant.now());
+        rule.setNextRunAt(next);
+        rule.setStatus(next == null ? RecurringRuleStatus.COMPLETED : RecurringRuleStatus.ACTIVE);
+        return recurringRuleRepository.save(rule);
+    }
+
+    @Transactional
+    public void cancelRecurringSchedule(Long ruleId, String email) {
+
+        RecurringPaymentRule rule = lockOwnRule(ruleId, email);
+
+        withdrawPendingOccurrences(rule, "Recurring schedule cancelled");
+        rule.setStatus(RecurringRuleStatus.CANCELLED);
+        rule.setNextRunAt(null);
+        recurringRuleRepository.save(rule);
+    }
+
+    public List<RecurringPaymentRule> getUserRecurringSchedules(String email) {
+
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        return recurringRuleRepository.findBySender(user);
+    }
+
+    // row lock: the materializer may be advancing this rule right now
+    private RecurringPaymentRule lockOwnRule(Long ruleId, String email) {
+
+        RecurringPaymentRule rule = recurringRuleRepository.findByIdForUpdate(ruleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Recurring schedule not found"));
+
+        if (!rule.getSender().getEmail().equals(email)) {
+            // someone else's rule: indistinguishable from a missing one
+            throw new ResourceNotFoundException("Recurring schedule not found");
+        }
+        return rule;
+    }
+
+    private void applyRecurrence(RecurringPaymentRule rule, RecurringScheduleRequest request) {
+
+        if (request.getAmount() == null || request.getAmount().signum() <= 0) {
+            throw new InvalidRequestException("Amount must be positive");
+        }
+        if (request.getFrequency() == null) {
+            throw new InvalidRequestException("Frequency is required");
+        }
+
+        Instant now = Instant.now();
+        String zone = request.getZone() == null ? "UTC" : request.getZone();
+        Duration minSpacing = Duration.ofMillis(recurringIntervalMs);
+        if (recurringLead.compareTo(minSpacing) > 0) {
+            minSpacing = recurringLead;
+        }
+        Recurrence.validate(request.getFrequency(), request.getCronExpression(), zone, minSpacing);
+
+        Instant startAt = request.getStartAt() == null ? now : request.getStartAt();
+        if (request.getEndAt() != null && request.getEndAt().isBefore(startAt)) {
+            throw new InvalidRequestException("End must not be before start");
+        }
+
+        rule.setAmount(request.getAmount());
+        rule.setFrequency(request.getFrequency());
+        rule.setCronExpression(
+                request.getFrequency() == RecurrenceFrequency.CRON ? request.getCronExpression() : null);
+        rule.setZone(zone);
+        rule.setStartAt(startAt);
+        rule.setEndAt(request.getEndAt());
+
+        Instant next = Recurrence.firstAtOrAfter(rule, now);
+        if (next == null) {
+            throw new InvalidRequestException("Recurring schedule has no future occurrence");
+        }
+        rule.setNextRunAt(next);
+    }
+
+    // The materialized, not yet executed occurrence (if any) is cancelled like a one-off payment
+    private void withdrawPendingOccurrences(RecurringPaymentRule rule, String reason) {
+
+        for (ScheduledPayment payment
+                : scheduledPaymentRepository.findPendingByRuleForUpdate(rule.getId(), TransactionStatus.PENDING)) {
+            payment.setStatus(TransactionStatus.FAILED);
+            payment.setFailureReason(reason);
+            scheduledPaymentRepository.save(payment);
+            scheduledPaymentTimer.cancel(payment.getId());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,203 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.repository.ScheduledPaymentRepository;
+import com.ewallet.wallet_service.service.util.TimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires scheduled payments at their scheduledAt instead of at the next
+ * poll.
+ *
+ * Pending payments due within app.scheduled-payments.wheel.horizon are
+ * kept in a TimingWheel ticking every tick-ms; a ticker thread hands
+ * whatever came due to ScheduledPaymentExecutor.fire(), so a payment
+ * starts within about one tick of its time. The wheel is filled
+ * incrementally: every load-interval-ms the payments due between the end
+ * of the last load and now + horizon are read (at most max-entries in the
+ * wheel; the rest come with a later load). ScheduledPaymentService keeps
+ * it current on create, edit and cancel, after commit.
+ *
+ * The wheel only speeds things up. Firing re-checks the payment in the
+ * database, so a stale entry (edited or cancelled on another node) fires
+ * into nothing; a missing one is caught by the executor's sweep.
+ */
+@Service
+@Slf4j
+public class ScheduledPaymentTimer {
+
+    private final ScheduledPaymentRepository scheduledPaymentRepository;
+    private final ScheduledPaymentExecutor executor;
+    private final Clock clock;
+    private final long tickMillis;
+    private final Duration horizon;
+    private final int maxEntries;
+    private final TimingWheel<Long> wheel;
+
+    // payments due up to here have been loaded
+    private volatile Instant loadedUntil;
+    private ScheduledExecutorService ticker;
+
+    @Autowired
+    public ScheduledPaymentTimer(
+            ScheduledPaymentRepository scheduledPaymentRepository,
+            ScheduledPaymentExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${app.scheduled-payments.wheel.tick-ms:100}") long tickMillis,
+            @Value("${app.scheduled-payments.wheel.horizon:5m}") Duration horizon,
+            @Value("${app.scheduled-payments.wheel.max-entries:100000}") int maxEntries
+    ) {
+        this(scheduledPaymentRepository, executor, meterRegistry, tickMillis, horizon, maxEntries, Clock.systemUTC());
+    }
+
+    public ScheduledPaymentTimer(
+            ScheduledPaymentRepository scheduledPaymentRepository,
+            ScheduledPaymentExecutor executor,
+            MeterRegistry meterRegistry,
+            long tickMillis,
+            Duration horizon,
+            int maxEntries,
+            Clock clock
+    ) {
+        if (tickMillis <= 0 || maxEntries <= 0 || horizon.isNegative() || horizon.isZero()) {
+            throw new IllegalArgumentException(
+                    "app.scheduled-payments.wheel.tick-ms, horizon and max-entries must be positive");
+        }
+        this.scheduledPaymentRepository = scheduledPaymentRepository;
+        this.executor = executor;
+        this.clock = clock;
+        this.tickMillis = tickMillis;
+        this.horizon = horizon;
+        this.maxEntries = maxEntries;
+        // one rotation covers the horizon, so each entry is looked at about once
+        int slots = (int) Math.min(1 << 20, Math.max(1, horizon.toMillis() / tickMillis));
+        this.wheel = new TimingWheel<>(tickMillis, slots, clock.millis());
+        this.loadedUntil = clock.instant();
+
+        Gauge.builder("scheduled.payments.wheel.size", wheel, TimingWheel::size)
+                .description("Scheduled payments waiting in the timing wheel")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "scheduled-payment-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    void tick() {
+        try {
+            List<Long> due = wheel.advance(clock.millis());
+            if (!due.isEmpty()) {
+                executor.fire(due);
+            }
+        } catch (RuntimeException e) {
+            // never let an exception cancel the fixed-rate task
+            log.error("Scheduled payment timer tick failed", e);
+        }
+    }
+
+    // =============================
+    // LOADING
+    // =============================
+    @Scheduled(fixedDelayString = "${app.scheduled-payments.wheel.load-interval-ms:30000}")
+    public void loadUpcoming() {
+        int room = maxEntries - wheel.size();
+        if (room <= 0) {
+            return;
+        }
+        Instant from = loadedUntil;
+        Instant to = clock.instant().plus(horizon);
+        if (!to.isAfter(from)) {
+            return;
+        }
+
+        List<Object[]> rows;
+        try {
+            rows = scheduledPaymentRepository.findUpcoming(
+                    TransactionStatus.PENDING, from, to, PageRequest.of(0, room));
+        } catch (DataAccessException e) {
+            log.warn("Loading upcoming scheduled payments failed: {}", e.getMessage());
+            return;
+        }
+
+        for (Object[] row : rows) {
+            wheel.schedule((Long) row[0], ((Instant) row[1]).toEpochMilli());
+        }
+        // a full page may have stopped short of to; continue after the last row next time
+        // (rows tied with it at the page boundary are left to the sweep)
+        loadedUntil = rows.size() == room ? (Instant) rows.get(rows.size() - 1)[1] : to;
+    }
+
+    // =============================
+    // UPDATES FROM ScheduledPaymentService
+    // =============================
+
+    /**
+     * Adds or moves a pending payment, once the current transaction (if
+     * any) commits. Payments beyond the loaded window are left to a later
+     * load.
+     */
+    public void schedule(Long paymentId, Instant scheduledAt) {
+        afterCommit(() -> {
+            if (!scheduledAt.isAfter(loadedUntil) && wheel.size() < maxEntries) {
+                wheel.schedule(paymentId, scheduledAt.toEpochMilli());
+            } else {
+                wheel.cancel(paymentId);
+            }
+        });
+    }
+
+    public void cancel(Long paymentId) {
+        afterCommit(() -> wheel.cancel(paymentId));
+    }
+
+    int size() {
+        return wheel.size();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                });
+    }
+}
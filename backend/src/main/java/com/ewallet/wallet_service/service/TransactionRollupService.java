@@ -0,0 +1,646 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.dto.response.TransactionTimeSeriesResponse;
+import com.ewallet.wallet_service.entity.RollupProgress;
+import com.ewallet.wallet_service.entity.TransactionRollup;
+import com.ewallet.wallet_service.entity.TransactionRollup.Granularity;
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.event.TransactionStatusChangedEvent;
+import com.ewallet.wallet_service.exception.InvalidRequestException;
+import com.ewallet.wallet_service.repository.RollupProgressRepository;
+import com.ewallet.wallet_service.repository.TransactionRepository;
+import com.ewallet.wallet_service.repository.TransactionRollupRepository;
+import com.ewallet.wallet_service.service.util.HyperLogLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Maintains the transaction_rollups MINUTE / HOUR / DAY buckets behind the
+ * admin time-series charts, and answers range queries from them.
+ *
+ * Pipeline:
+ *   1. status events update in-memory MINUTE buckets (bucketed by the
+ *      transfer's creation time); every app.analytics.rollup.flush-interval-ms
+ *      the changes not yet written are merged into the table under a row lock
+ *   2. HOUR buckets are re-derived from their 60 MINUTE rows, and DAY
+ *      buckets from their 24 HOUR rows, whenever a flush touched them
+ *   3. reconcile: the last app.analytics.rollup.reconcile-window of MINUTE
+ *      buckets is recounted from transactions (covers the stale-transfer
+ *      sweep, which publishes no events, and changes lost in a crash);
+ *      expired MINUTE / HOUR buckets are purged
+ *   4. on start, a background thread backfills history hour by hour from
+ *      the rollup_progress marker (the first transfer on the first start)
+ *      up to now; hours older than the MINUTE retention get HOUR rows
+ *      only. Each hour is recounted under the marker's row lock and moves
+ *      the marker in the same transaction, so a failed or interrupted
+ *      backfill resumes where it stopped, replicas take turns instead of
+ *      inserting the same rows, and downtime is filled in on restart.
+ *      Reconcile keeps the marker at its recounted edge while running.
+ *
+ * Charts read at most app.analytics.rollup.max-points rows, whatever the
+ * range, and see new transfers within one flush interval (HOUR and DAY
+ * within one derive interval).
+ */
+@Service
+@Slf4j
+public class TransactionRollupService {
+
+    // a MINUTE bucket stays in memory this long after it closes, for late events
+    private static final Duration MINUTE_GRACE = Duration.ofMinutes(2);
+
+    // rollup_progress row of the transactions backfill
+    static final String BACKFILL = "transactions";
+
+    private final TransactionRollupRepository rollupRepository;
+    private final RollupProgressRepository progressRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    // MINUTE buckets changed on this instance, keyed by bucket start
+    private final Map<Instant, Bucket> minutes = new ConcurrentHashMap<>();
+
+    // HOUR buckets whose MINUTE rows changed since they were last derived
+    private final Set<Instant> dirtyHours = ConcurrentHashMap.newKeySet();
+
+    // flush, reconcile and backfill; never taken on the event path
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Value("${app.analytics.rollup.reconcile-window:15m}")
+    private Duration reconcileWindow = Duration.ofMinutes(15);
+
+    @Value("${app.analytics.rollup.minute-retention:7d}")
+    private Duration minuteRetention = Duration.ofDays(7);
+
+    @Value("${app.analytics.rollup.hour-retention:400d}")
+    private Duration hourRetention = Duration.ofDays(400);
+
+    @Value("${app.analytics.rollup.max-points:1500}")
+    private int maxPoints = 1500;
+
+    @Autowired
+    public TransactionRollupService(
+            TransactionRollupRepository rollupRepository,
+            RollupProgressRepository progressRepository,
+            TransactionRepository transactionRepository,
+            PlatformTransactionManager transactionManager
+    ) {
+        this(rollupRepository, progressRepository, transactionRepository, transactionManager, Clock.systemUTC());
+    }
+
+    public TransactionRollupService(
+            TransactionRollupRepository rollupRepository,
+            RollupProgressRepository progressRepository,
+            TransactionRepository transactionRepository,
+            PlatformTransactionManager transactionManager,
+            Clock clock
+    ) {
+        this.rollupRepository = rollupRepository;
+        this.progressRepository = progressRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    // =============================
+    // 1. EVENTS -> MINUTE BUCKETS
+    // =============================
+    @EventListener
+    public void onStatusChanged(TransactionStatusChangedEvent event) {
+        if (event.timestamp() == null || event.status() == event.previousStatus()) {
+            return;
+        }
+        minutes.compute(Granularity.MINUTE.truncate(event.timestamp()), (minute, b) -> {
+            Bucket bucket = (b != null) ? b : new Bucket();
+            bucket.apply(event);
+            return bucket;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.rollup.flush-interval-ms:5000}")
+    public void flush() {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            Instant evictBefore = clock.instant().minus(MINUTE_GRACE);
+            for (Instant minute : minutes.keySet()) {
+                flushMinute(minute);
+                // closed and fully written: later events for it start a new bucket
+                minutes.computeIfPresent(minute, (k, b) ->
+                        k.plus(Granularity.MINUTE.duration()).isBefore(evictBefore) && b.pending().isEmpty()
+                                ? null : b);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushMinute(Instant minute) {
+        Delta[] taken = new Delta[1];
+        minutes.computeIfPresent(minute, (k, b) -> {
+            taken[0] = b.pending();
+            return b;
+        });
+        Delta delta = taken[0];
+        if (delta == null || delta.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(s -> {
+                TransactionRollup row = rollupRepository.findForUpdate(Granularity.MINUTE, minute)
+                        .orElseGet(() -> new TransactionRollup(Granularity.MINUTE, minute));
+                delta.addTo(row);
+                row.setUpdatedAt(clock.instant());
+                rollupRepository.save(row);
+            });
+        } catch (DataAccessException | TransactionException e) {
+            // not marked written; goes out with the next flush
+            log.warn("Rollup flush for {} failed: {}", minute, e.getMessage());
+            return;
+        }
+
+        minutes.computeIfPresent(minute, (k, b) -> {
+            b.written(delta);
+            return b;
+        });
+        dirtyHours.add(Granularity.HOUR.truncate(minute));
+    }
+
+    // =============================
+    // 2. HOUR / DAY DERIVATION
+    // =============================
+    @Scheduled(fixedDelayString = "${app.analytics.rollup.derive-interval-ms:60000}")
+    public void deriveRollups() {
+        Set<Instant> days = new TreeSet<>();
+
+        for (Instant hour : List.copyOf(dirtyHours)) {
+            dirtyHours.remove(hour);
+            try {
+                transactionTemplate.executeWithoutResult(s -> derive(Granularity.HOUR, hour));
+                days.add(Granularity.DAY.truncate(hour));
+            } catch (DataAccessException | TransactionException e) {
+                dirtyHours.add(hour);
+                log.warn("Rollup derivation for hour {} failed: {}", hour, e.getMessage());
+            }
+        }
+
+        for (Instant day : days) {
+            try {
+                transactionTemplate.executeWithoutResult(s -> derive(Granularity.DAY, day));
+            } catch (DataAccessException | TransactionException e) {
+                // re-derives the hour, then the day, next run
+                dirtyHours.add(day);
+                log.warn("Rollup derivation for day {} failed: {}", day, e.getMessage());
+            }
+        }
+    }
+
+    // Overwrites a HOUR (DAY) row with the sum of its MINUTE (HOUR) rows
+    private void derive(Granularity target, Instant start) {
+        Granularity source = target == Granularity.DAY ? Granularity.HOUR : Granularity.MINUTE;
+        List<TransactionRollup> parts = rollupRepository.findRange(source, start, start.plus(target.duration()));
+        if (parts.isEmpty() && !rollupRepository.existsById(new TransactionRollup.Key(target, start))) {
+            return; // no empty rows for quiet periods
+        }
+        Acc total = new Acc();
+        parts.forEach(total::add);
+        save(target, start, total);
+    }
+
+    // =============================
+    // 3. RECONCILE / RETENTION
+    // =============================
+    @Scheduled(
+            initialDelayString = "${app.analytics.rollup.reconcile-interval-ms:300000}",
+            fixedDelayString = "${app.analytics.rollup.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        Instant now = clock.instant();
+        lock.lock();
+        try {
+            // the open minute stays event-driven
+            Instant to = Granularity.MINUTE.truncate(now);
+            recount(to.minus(reconcileWindow), to);
+            transactionTemplate.executeWithoutResult(s -> advanceBackfillMarker(to.minus(reconcileWindow), to));
+
+            transactionTemplate.executeWithoutResult(s -> {
+                rollupRepository.deleteOlderThan(Granularity.MINUTE, now.minus(minuteRetention));
+                rollupRepository.deleteOlderThan(Granularity.HOUR, now.minus(hourRetention));
+            });
+        } catch (DataAccessException | TransactionException e) {
+            log.error("Rollup reconcile failed: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+        deriveRollups();
+    }
+
+    // =============================
+    // 4. STARTUP BACKFILL
+    // =============================
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        // may take a while on a long history; the rollups fill in behind it
+        Thread backfill = new Thread(this::backfill, "rollup-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    /**
+     * Recounts from the backfill marker up to now, one hour per call to
+     * backfillHour; stops on the first failure, the next start resumes.
+     */
+    public void backfill() {
+        Instant first = transactionRepository.findFirstTimestamp();
+        if (first == null) {
+            return;
+        }
+        Instant firstHour = Granularity.HOUR.truncate(first);
+        Instant to = Granularity.MINUTE.truncate(clock.instant());
+
+        int hours = 0;
+        while (true) {
+            Instant done;
+            lock.lock();
+            try {
+                done = transactionTemplate.execute(s -> backfillHour(firstHour, to));
+            } catch (DataAccessException | TransactionException e) {
+                // includes losing the race to create the marker: the other instance carries on
+                log.warn("Rollup backfill stopped after {} hour(s): {}", hours, e.getMessage());
+                break;
+            } finally {
+                lock.unlock();
+            }
+            if (done == null) {
+                break;
+            }
+            if (hours++ == 0) {
+                log.info("Backfilling transaction rollups up to {}", to);
+            }
+        }
+
+        deriveRollups();
+        if (hours > 0) {
+            log.info("Transaction rollup backfill done: {} hour(s)", hours);
+        }
+    }
+
+    // Recounts the next hour after the marker and moves the marker past it,
+    // under its row lock. Returns the new marker, or null if already at to.
+    private Instant backfillHour(Instant firstHour, Instant to) {
+        RollupProgress progress = progressRepository.findForUpdate(BACKFILL)
+                .orElseGet(() -> new RollupProgress(BACKFILL, firstHour, clock.instant()));
+
+        Instant from = progress.getBackfilledTo();
+        if (!from.isBefore(to)) {
+            return null;
+        }
+        if (from.isBefore(clock.instant().minus(minuteRetention))) {
+            // an old hour is written as one HOUR row: recount all of it, not the rest
+            from = Granularity.HOUR.truncate(from);
+        }
+        Instant next = Granularity.HOUR.truncate(from).plus(Granularity.HOUR.duration());
+        Instant chunkTo = next.isBefore(to) ? next : to;
+
+        recount(from, chunkTo);
+
+        progress.setBackfilledTo(chunkTo);
+        progress.setUpdatedAt(clock.instant());
+        progressRepository.save(progress);
+        return chunkTo;
+    }
+
+    // Reconcile recounted [from, to): if that joins up with the marker, the marker moves to to
+    private void advanceBackfillMarker(Instant from, Instant to) {
+        progressRepository.findForUpdate(BACKFILL).ifPresent(progress -> {
+            Instant marker = progress.getBackfilledTo();
+            if (!marker.isBefore(from) && marker.isBefore(to)) {
+                progress.setBackfilledTo(to);
+                progress.setUpdatedAt(clock.instant());
+            }
+        });
+    }
+
+    /**
+     * Rebuilds MINUTE buckets in [from, to) from transactions, one hour per
+     * database transaction, and marks their hours for derivation. Hours
+     * past the MINUTE retention get their HOUR row directly.
+     */
+    private void recount(Instant from, Instant to) {
+        Instant minuteCutoff = clock.instant().minus(minuteRetention);
+
+        // this instance's unwritten changes in the range are part of the recount
+        for (Instant minute : minutes.keySet()) {
+            if (!minute.isBefore(from) && minute.isBefore(to)) {
+                minutes.computeIfPresent(minute, (k, b) -> {
+                    b.written(b.pending());
+                    return b;
+                });
+            }
+        }
+
+        Set<Instant> oldDays = new TreeSet<>();
+        for (Instant hour = Granularity.HOUR.truncate(from); hour.isBefore(to); hour = hour.plus(Granularity.HOUR.duration())) {
+            Instant chunkFrom = hour.isBefore(from) ? from : hour;
+            Instant next = hour.plus(Granularity.HOUR.duration());
+            Instant chunkTo = next.isBefore(to) ? next : to;
+            boolean keepMinutes = !hour.isBefore(minuteCutoff);
+            Instant hourStart = hour;
+
+            Boolean changed = transactionTemplate.execute(s -> {
+                Map<Instant, Acc> counted = new TreeMap<>();
+                for (Object[] row : transactionRepository.findRollupRows(chunkFrom, chunkTo)) {
+                    counted.computeIfAbsent(Granularity.MINUTE.truncate((Instant) row[0]), m -> new Acc())
+                            .add((Long) row[1], (TransactionStatus) row[2], (BigDecimal) row[3]);
+                }
+
+                if (keepMinutes) {
+                    // minutes that no longer have transfers go back to zero
+                    for (TransactionRollup existing : rollupRepository.findRange(Granularity.MINUTE, chunkFrom, chunkTo)) {
+                        counted.putIfAbsent(existing.getBucketStart(), new Acc());
+                    }
+                    counted.forEach((minute, acc) -> save(Granularity.MINUTE, minute, acc));
+                } else if (!counted.isEmpty()) {
+                    Acc total = new Acc();
+                    counted.values().forEach(total::add);
+                    save(Granularity.HOUR, hourStart, total);
+                }
+                return !counted.isEmpty();
+            });
+
+            if (Boolean.TRUE.equals(changed)) {
+                if (keepMinutes) {
+                    dirtyHours.add(hour);
+                } else {
+                    oldDays.add(Granularity.DAY.truncate(hour));
+                }
+            }
+        }
+
+        for (Instant day : oldDays) {
+            transactionTemplate.executeWithoutResult(s -> derive(Granularity.DAY, day));
+        }
+    }
+
+    private void save(Granularity granularity, Instant start, Acc acc) {
+        TransactionRollup row = rollupRepository.findById(new TransactionRollup.Key(granularity, start))
+                .orElseGet(() -> new TransactionRollup(granularity, start));
+        acc.writeTo(row);
+        row.setUpdatedAt(clock.instant());
+        rollupRepository.save(row);
+    }
+
+    // =============================
+    // QUERIES
+    // =============================
+
+    /**
+     * Buckets covering [from, to), gaps filled with zeros. Without a
+     * granularity, the finest one that is still retained for from and
+     * fits max-points is used.
+     */
+    public TransactionTimeSeriesResponse timeSeries(Instant from, Instant to, Granularity granularity) {
+        if (!from.isBefore(to)) {
+            throw new InvalidRequestException("from must be before to");
+        }
+        Granularity g = granularity != null ? granularity : pickGranularity(from, to);
+
+        Instant retainedFrom = retainedFrom(g);
+        if (retainedFrom != null && from.isBefore(retainedFrom)) {
+            throw new InvalidRequestException(g + " buckets are only kept from " + retainedFrom);
+        }
+
+        Instant start = g.truncate(from);
+        long points = points(g, from, to);
+        if (points > maxPoints) {
+            throw new InvalidRequestException("Range needs " + points + " " + g
+                    + " points, at most " + maxPoints + " allowed; use a coarser granularity");
+        }
+
+        Map<Instant, TransactionRollup> rows = new HashMap<>();
+        for (TransactionRollup row : rollupRepository.findRange(g, start, to)) {
+            rows.put(row.getBucketStart(), row);
+        }
+
+        List<TransactionTimeSeriesResponse.Point> series = new ArrayList<>();
+        Acc total = new Acc();
+        for (Instant bucket = start; bucket.isBefore(to); bucket = bucket.plus(g.duration())) {
+            TransactionRollup row = rows.get(bucket);
+            if (row == null) {
+                series.add(new TransactionTimeSeriesResponse.Point(bucket, 0, 0, 0, BigDecimal.ZERO, 0));
+                continue;
+            }
+            total.add(row);
+            series.add(new TransactionTimeSeriesResponse.Point(
+                    bucket,
+                    row.getTxCount(),
+                    row.getSuccessCount(),
+                    row.getFailedCount(),
+                    row.getVolume(),
+                    row.getDistinctSenders()));
+        }
+
+        return new TransactionTimeSeriesResponse(
+                g.name(), start, to, series,
+                total.txCount, total.volume, total.senders.estimate());
+    }
+
+    /** Today's (UTC) DAY bucket; lags by at most one derive interval. */
+    public TransactionRollup today() {
+        Instant day = Granularity.DAY.truncate(clock.instant());
+        return rollupRepository.findById(new TransactionRollup.Key(Granularity.DAY, day))
+                .orElseGet(() -> new TransactionRollup(Granularity.DAY, day));
+    }
+
+    private Granularity pickGranularity(Instant from, Instant to) {
+        for (Granularity g : Granularity.values()) {
+            Instant retainedFrom = retainedFrom(g);
+            if ((retainedFrom == null || !from.isBefore(retainedFrom)) && points(g, from, to) <= maxPoints) {
+                return g;
+            }
+        }
+        return Granularity.DAY;
+    }
+
+    private static long points(Granularity g, Instant from, Instant to) {
+        long seconds = Duration.between(g.truncate(from), to).toSeconds();
+        long step = g.duration().toSeconds();
+        return (seconds + step - 1) / step;
+    }
+
+    private Instant retainedFrom(Granularity g) {
+        return switch (g) {
+            case MINUTE -> clock.instant().minus(minuteRetention);
+            case HOUR -> clock.instant().minus(hourRetention);
+            case DAY -> null;
+        };
+    }
+
+    int bufferedMinutes() {
+        return minutes.size();
+    }
+
+    // =============================
+    // ACCUMULATORS
+    // =============================
+
+    /** Absolute figures of one bucket, built from rows or transfers. */
+    private static final class Acc {
+
+        long txCount;
+        long successCount;
+        long failedCount;
+        BigDecimal volume = BigDecimal.ZERO;
+        final HyperLogLog senders = new HyperLogLog();
+
+        void add(Long senderWalletId, TransactionStatus status, BigDecimal amount) {
+            txCount++;
+            if (senderWalletId != null) {
+                senders.add(senderWalletId);
+            }
+            if (status == TransactionStatus.SUCCESS) {
+                successCount++;
+                volume = volume.add(amount);
+            } else if (status == TransactionStatus.FAILED) {
+                failedCount++;
+            }
+        }
+
+        void add(TransactionRollup row) {
+            txCount += row.getTxCount();
+            successCount += row.getSuccessCount();
+            failedCount += row.getFailedCount();
+            volume = volume.add(row.getVolume());
+            senders.merge(HyperLogLog.fromBytes(row.getSenderSketch()));
+        }
+
+        void add(Acc other) {
+            txCount += other.txCount;
+            successCount += other.successCount;
+            failedCount += other.failedCount;
+            volume = volume.add(other.volume);
+            senders.merge(other.senders);
+        }
+
+        void writeTo(TransactionRollup row) {
+            row.setTxCount(txCount);
+            row.setSuccessCount(successCount);
+            row.setFailedCount(failedCount);
+            row.setVolume(volume);
+            row.setSenderSketch(senders.toBytes());
+            row.setDistinctSenders(senders.estimate());
+        }
+    }
+
+    /**
+     * In-memory MINUTE bucket: everything seen on this instance, and how
+     * much of it is already in the table. Only touched inside
+     * ConcurrentHashMap.compute, which serialises access per bucket.
+     */
+    private static final class Bucket {
+
+        private long txCount;
+        private long successCount;
+        private long failedCount;
+        private BigDecimal volume = BigDecimal.ZERO;
+        private final HyperLogLog senders = new HyperLogLog();
+        private long sendersVersion;
+
+        private long writtenTx;
+        private long writtenSuccess;
+        private long writtenFailed;
+        private BigDecimal writtenVolume = BigDecimal.ZERO;
+        private long writtenSendersVersion;
+
+        void apply(TransactionStatusChangedEvent event) {
+            BigDecimal amount = event.amount() != null ? event.amount() : BigDecimal.ZERO;
+
+            TransactionStatus previous = event.previousStatus();
+            if (previous == null) {
+                txCount++;
+                if (event.fromWalletId() != null) {
+                    senders.add(event.fromWalletId());
+                    sendersVersion++;
+                }
+            } else if (previous == TransactionStatus.SUCCESS) {
+                successCount--;
+                volume = volume.subtract(amount);
+            } else if (previous == TransactionStatus.FAILED) {
+                failedCount--;
+            }
+
+            if (event.status() == TransactionStatus.SUCCESS) {
+                successCount++;
+                volume = volume.add(amount);
+            } else if (event.status() == TransactionStatus.FAILED) {
+                failedCount++;
+            }
+        }
+
+        Delta pending() {
+            boolean sketchChanged = sendersVersion != writtenSendersVersion;
+            return new Delta(
+                    txCount - writtenTx,
+                    successCount - writtenSuccess,
+                    failedCount - writtenFailed,
+                    volume.subtract(writtenVolume),
+                    sketchChanged ? senders.copy() : null,
+                    sendersVersion);
+        }
+
+        void written(Delta delta) {
+            writtenTx += delta.txCount();
+            writtenSuccess += delta.successCount();
+            writtenFailed += delta.failedCount();
+            writtenVolume = writtenVolume.add(delta.volume());
+            writtenSendersVersion = Math.max(writtenSendersVersion, delta.sendersVersion());
+        }
+    }
+
+    /** Unwritten part of a Bucket, as taken at one moment. */
+    private record Delta(long txCount, long successCount, long failedCount, BigDecimal volume,
+                         HyperLogLog senders, long sendersVersion) {
+
+        boolean isEmpty() {
+            return txCount == 0 && successCount == 0 && failedCount == 0
+                    && volume.signum() == 0 && senders == null;
+        }
+
+        void addTo(TransactionRollup row) {
+            row.setTxCount(row.getTxCount() + txCount);
+            row.setSuccessCount(row.getSuccessCount() + successCount);
+            row.setFailedCount(row.getFailedCount() + failedCount);
+            row.setVolume(row.getVolume().add(volume));
+            if (senders != null) {
+                HyperLogLog merged = HyperLogLog.fromBytes(row.getSenderSketch());
+                merged.merge(senders);
+                row.setSenderSketch(merged.toBytes());
+                row.setDistinctSenders(merged.estimate());
+            }
+        }
+    }
+}
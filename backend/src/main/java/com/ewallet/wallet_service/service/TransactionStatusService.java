@@ -2,28 +2,185 @@ package com.ewallet.wallet_service.service;
 
 import com.ewallet.wallet_service.entity.Transaction;
 import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.event.TransactionStatusChangedEvent;
 import com.ewallet.wallet_service.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the INITIATED → PENDING → SUCCESS / FAILED lifecycle of a transfer.
+ *
+ * PER_STATE (original behaviour): every status is its own REQUIRES_NEW
+ * commit, so a successful transfer costs three status commits on top of
+ * the business transaction.
+ *
+ * JOURNALED: only what must survive a rollback or crash is committed
+ * separately —
+ *   INITIATED  committed immediately (crash-recovery marker)
+ *   PENDING    kept in memory only
+ *   SUCCESS    written by the caller's transaction, just before it commits,
+ *              so it lands atomically with the balance change
+ *   FAILED     committed immediately (the caller is about to roll back)
+ *
+ * A transfer that dies between INITIATED and its terminal state is left
+ * INITIATED (or PENDING in PER_STATE mode) and is marked FAILED by the
+ * recovery sweep.
+ *
+ * Every change is published as a TransactionStatusChangedEvent.
+ */
 @Service
+@Slf4j
 public class TransactionStatusService {
 
+    public enum Mode { PER_STATE, JOURNALED }
+
+    private static final EnumSet<TransactionStatus> NON_TERMINAL =
+            EnumSet.of(TransactionStatus.INITIATED, TransactionStatus.PENDING);
+
     private final TransactionRepository transactionRepository;
+    private final TransactionTemplate requiresNew;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // In-flight statuses of transfers running on this instance
+    private final Map<Long, TransactionStatus> inFlight = new ConcurrentHashMap<>();
 
-    public TransactionStatusService(TransactionRepository transactionRepository) {
+    @Value("${app.transaction.status-mode:PER_STATE}")
+    private Mode mode = Mode.PER_STATE;
+
+    @Value("${app.transaction.recovery-after-ms:300000}")
+    private long recoveryAfterMs = 300000;
+
+    public TransactionStatusService(
+            TransactionRepository transactionRepository,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher
+    ) {
         this.transactionRepository = transactionRepository;
+        this.eventPublisher = eventPublisher;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void updateStatus(Transaction tx, TransactionStatus status) {
+        // an unsaved transfer has no previous status (the entity default is not one)
+        TransactionStatus previous = tx.getId() == null ? null : tx.getStatus();
+        record(tx, status);
+        eventPublisher.publishEvent(TransactionStatusChangedEvent.of(tx, status, previous));
+    }
+
+    private void record(Transaction tx, TransactionStatus status) {
+        if (mode == Mode.PER_STATE) {
+            commitNow(tx, status);
+            return;
+        }
+
+        switch (status) {
+            case INITIATED -> {
+                commitNow(tx, status);
+                track(tx);
+            }
+            case PENDING -> {
+                tx.setStatus(status);
+                track(tx);
+            }
+            case SUCCESS -> {
+                tx.setStatus(status);
+                track(tx);
+                writeWithCaller(tx);
+            }
+            case FAILED -> {
+                commitNow(tx, status);
+                inFlight.remove(tx.getId());
+            }
+        }
     }
 
     /**
-     * REQUIRES_NEW starts a brand new database transaction.
-     * Even if the main transfer fails and rolls back, 
-     * this status update will be COMMITTED to the database.
+     * Latest known status: the in-memory one while the transfer is still
+     * running on this instance, otherwise the stored one.
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void updateStatus(Transaction tx, TransactionStatus status) {
-        tx.setStatus(status);
-        transactionRepository.saveAndFlush(tx);
+    public Optional<TransactionStatus> currentStatus(Long txId) {
+        TransactionStatus status = inFlight.get(txId);
+        if (status != null) {
+            return Optional.of(status);
+        }
+        return transactionRepository.findById(txId).map(Transaction::getStatus);
+    }
+
+    // =============================
+    // CRASH RECOVERY
+    // =============================
+    @Scheduled(fixedDelayString = "${app.transaction.recovery-interval-ms:60000}")
+    public void failStaleTransactions() {
+        Instant cutoff = Instant.now().minusMillis(recoveryAfterMs);
+
+        Integer failed = requiresNew.execute(s ->
+                transactionRepository.failStaleTransactions(NON_TERMINAL, cutoff));
+
+        if (failed != null && failed > 0) {
+            log.warn("Marked {} stale transaction(s) older than {} as FAILED", failed, cutoff);
+        }
+    }
+
+    // REQUIRES_NEW: committed even if the caller rolls back
+    private void commitNow(Transaction tx, TransactionStatus status) {
+        requiresNew.executeWithoutResult(s -> {
+            tx.setStatus(status);
+            transactionRepository.saveAndFlush(tx);
+        });
+    }
+
+    private void writeWithCaller(Transaction tx) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            commitNow(tx, tx.getStatus());
+            inFlight.remove(tx.getId());
+            return;
+        }
+
+        // Deferred to beforeCommit: nothing touches the row (and no row
+        // lock is held) if the caller fails after this point and records
+        // FAILED in its own transaction.
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        if (tx.getStatus() == TransactionStatus.SUCCESS) {
+                            transactionRepository.updateStatus(tx.getId(), TransactionStatus.SUCCESS);
+                        }
+                    }
+                });
+    }
+
+    private void track(Transaction tx) {
+        Long id = tx.getId();
+        if (id == null) {
+            return;
+        }
+
+        boolean first = inFlight.put(id, tx.getStatus()) == null;
+
+        if (first && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            inFlight.remove(id);
+                        }
+                    });
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,37 +1,139 @@
 package com.ewallet.wallet_service.service;
 
-import com.ewallet.wallet_service.entity.VirtualPaymentAddress;
-import com.ewallet.wallet_service.entity.Wallet;
 import com.ewallet.wallet_service.exception.ResourceNotFoundException;
 import com.ewallet.wallet_service.repository.VirtualPaymentAddressRepository;
-import com.ewallet.wallet_service.repository.WalletRepository;
+import com.ewallet.wallet_service.service.util.ReadThrough;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves a UPI ID to the receiving wallet id.
+ *
+ * Mappings are cached (Caffeine, size-bounded, app.upi.resolver.cache.*):
+ * a hit is a memory lookup, a miss is one joined query. Unknown IDs are
+ * cached too, for the shorter negative-ttl, so repeated typos and probes
+ * don't reach the database.
+ *
+ * Anything that creates, deactivates or re-points a VPA must call
+ * invalidate(). That only clears this instance; other instances pick the
+ * change up when their entry expires (ttl / negative-ttl).
+ *
+ * Misses load through ReadThrough; a load that overlaps an invalidate()
+ * is returned but not cached.
+ *
+ * Hit, miss and eviction counts are published as cache.* meters with
+ * cache=upi.resolver.
+ */
 @Service
 public class UpiResolverService {
 
+    private static final String CACHE_NAME = "upi.resolver";
+
     private final VirtualPaymentAddressRepository vpaRepository;
-    private final WalletRepository walletRepository;
+    private final Cache<String, UpiTarget> cache;
+
+    // bumped by every invalidation; a load only caches if it saw no bump
+    private final AtomicLong invalidations = new AtomicLong();
 
     public UpiResolverService(
             VirtualPaymentAddressRepository vpaRepository,
-            WalletRepository walletRepository
+            MeterRegistry meterRegistry,
+            @Value("${app.upi.resolver.cache.max-size:100000}") long maxSize,
+            @Value("${app.upi.resolver.cache.ttl:10m}") Duration ttl,
+            @Value("${app.upi.resolver.cache.negative-ttl:30s}") Duration negativeTtl
     ) {
         this.vpaRepository = vpaRepository;
-        this.walletRepository = walletRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TargetExpiry(ttl, negativeTtl))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * @throws ResourceNotFoundException if the UPI ID is unknown or
+     *         inactive, or its owner has no wallet
+     */
+    public Long resolveWalletId(String upiId) {
+
+        UpiTarget target = ReadThrough.get(cache, upiId, this::load, invalidations::get);
+
+        if (!target.known() || !target.active()) {
+            throw new ResourceNotFoundException("Invalid or inactive UPI ID");
+        }
+        if (target.walletId() == null) {
+            throw new ResourceNotFoundException("Wallet not found for UPI ID");
+        }
+        return target.walletId();
+    }
+
+    /**
+     * Drops the cached mapping for upiId, after the current transaction
+     * commits if there is one (so a concurrent miss cannot re-cache the old
+     * row).
+     */
+    public void invalidate(String upiId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(upiId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        evict(upiId);
+                    }
+                });
+    }
+
+    private void evict(String upiId) {
+        invalidations.incrementAndGet();
+        cache.invalidate(upiId);
+    }
+
+    private UpiTarget load(String upiId) {
+        List<Object[]> rows = vpaRepository.findResolution(upiId);
+        if (rows.isEmpty()) {
+            return UpiTarget.UNKNOWN;
+        }
+        Object[] row = rows.get(0);
+        return new UpiTarget(true, (Long) row[0], (Boolean) row[1]);
     }
 
-    public Wallet resolveToWallet(String upiId) {
+    // walletId is null when the VPA's owner has no wallet
+    private record UpiTarget(boolean known, Long walletId, boolean active) {
+
+        static final UpiTarget UNKNOWN = new UpiTarget(false, null, false);
+    }
+
+    private record TargetExpiry(Duration ttl, Duration negativeTtl) implements Expiry<String, UpiTarget> {
+
+        @Override
+        public long expireAfterCreate(String key, UpiTarget value, long currentTime) {
+            return (value.known() ? ttl : negativeTtl).toNanos();
+        }
 
-        VirtualPaymentAddress vpa = vpaRepository
-                .findByUpiId(upiId)
-                .filter(VirtualPaymentAddress::isActive)
-                .orElseThrow(() ->
-                        new ResourceNotFoundException("Invalid or inactive UPI ID"));
+        @Override
+        public long expireAfterUpdate(String key, UpiTarget value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
 
-        return walletRepository
-                .findByUserId(vpa.getUser().getId())
-                .orElseThrow(() ->
-                        new ResourceNotFoundException("Wallet not found for UPI ID"));
+        @Override
+        public long expireAfterRead(String key, UpiTarget value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -1,10 +1,10 @@
 package com.ewallet.wallet_service.service;
 
-import com.ewallet.wallet_service.dto.response.TransactionResponse;
+import com.ewallet.wallet_service.dto.request.TransactionHistoryFilter;
+import com.ewallet.wallet_service.dto.response.TransactionHistoryPage;
 import com.ewallet.wallet_service.dto.response.WalletResponse;
 
 import java.math.BigDecimal;
-import java.util.List;
 
 public interface WalletService {
 
@@ -12,7 +12,7 @@ public interface WalletService {
 
     Object transfer(Long toWalletId, BigDecimal amount, String pin, String otp);
 
-    List<TransactionResponse> getMyTransactionHistory();
+    TransactionHistoryPage getMyTransactionHistory(TransactionHistoryFilter filter);
 
     void updateTransactionPin(String newPin);
 }
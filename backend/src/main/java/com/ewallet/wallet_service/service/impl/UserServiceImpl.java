@@ -11,7 +11,10 @@ import com.ewallet.wallet_service.repository.UserRepository;
 import com.ewallet.wallet_service.repository.VirtualPaymentAddressRepository;
 import com.ewallet.wallet_service.repository.WalletRepository;
 import com.ewallet.wallet_service.security.JwtUtil;
+import com.ewallet.wallet_service.security.PinVerifier;
+import com.ewallet.wallet_service.service.AdminMetricsStore;
 import com.ewallet.wallet_service.service.AuditLogService;
+import com.ewallet.wallet_service.service.UpiResolverService;
 import com.ewallet.wallet_service.service.UserService;
 import com.ewallet.wallet_service.service.util.UpiIdGenerator;
 import lombok.RequiredArgsConstructor;
@@ -39,6 +42,9 @@ public class UserServiceImpl implements UserService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuditLogService auditLogService;
+    private final AdminMetricsStore metricsStore;
+    private final UpiResolverService upiResolverService;
+    private final PinVerifier pinVerifier;
 
     // =============================
     // ADMIN CREDENTIALS (FROM ENV)
@@ -83,10 +89,11 @@ public class UserServiceImpl implements UserService {
         user.setEmail(request.getEmail());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         user.setTransactionPin(
-                passwordEncoder.encode(request.getTransactionPin())
+                pinVerifier.encode(request.getTransactionPin())
         );
 
         userRepository.save(user);
+        metricsStore.recordUserRegistered();
 
         // -------- WALLET --------
         Wallet wallet = new Wallet();
@@ -107,6 +114,8 @@ public class UserServiceImpl implements UserService {
         vpa.setUpiId(upiId);
         vpa.setUser(user);
         vpaRepository.save(vpa);
+        // clears a cached "unknown" for this ID
+        upiResolverService.invalidate(upiId);
 
         log.info("User created successfully: {}", user.getEmail());
     }
@@ -173,6 +182,13 @@ public class UserServiceImpl implements UserService {
             );
         }
 
+        // cost or scheme changed since this hash was written
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            userRepository.save(user);
+            log.info("Password rehashed for user: {}", user.getEmail());
+        }
+
         auditLogService.log(
                 user,
                 "LOGIN",
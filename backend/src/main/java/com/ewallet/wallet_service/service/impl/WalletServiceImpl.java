@@ -1,40 +1,53 @@
 package com.ewallet.wallet_service.service.impl;
 
+import com.ewallet.wallet_service.dto.projection.TransactionView;
+import com.ewallet.wallet_service.dto.request.TransactionHistoryFilter;
+import com.ewallet.wallet_service.dto.response.TransactionHistoryPage;
 import com.ewallet.wallet_service.dto.response.TransactionResponse;
 import com.ewallet.wallet_service.dto.response.WalletResponse;
 import com.ewallet.wallet_service.entity.Transaction;
 import com.ewallet.wallet_service.entity.User;
 import com.ewallet.wallet_service.entity.Wallet;
-import com.ewallet.wallet_service.entity.VirtualPaymentAddress;
 import com.ewallet.wallet_service.exception.InsufficientBalanceException;
 import com.ewallet.wallet_service.exception.ResourceNotFoundException;
 import com.ewallet.wallet_service.repository.TransactionRepository;
 import com.ewallet.wallet_service.repository.VirtualPaymentAddressRepository;
 import com.ewallet.wallet_service.repository.UserRepository;
 import com.ewallet.wallet_service.repository.WalletRepository;
+import com.ewallet.wallet_service.security.AuthenticatedUser;
+import com.ewallet.wallet_service.security.PinVerifier;
 import com.ewallet.wallet_service.service.AuditLogService;
 import com.ewallet.wallet_service.service.BalanceWebSocketService;
 import com.ewallet.wallet_service.service.WalletService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 //fraud engine modules
 import com.ewallet.wallet_service.fraud.model.FraudContext;
 import com.ewallet.wallet_service.fraud.service.FraudDecision;
 import com.ewallet.wallet_service.fraud.model.FraudResult;
 import com.ewallet.wallet_service.fraud.service.FraudDetectionService;
+import com.ewallet.wallet_service.fraud.service.FraudPolicyService;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
 import com.ewallet.wallet_service.entity.TransactionStatus;
 import com.ewallet.wallet_service.service.TransactionStatusService;
+import com.ewallet.wallet_service.service.util.KeysetCursor;
 import com.ewallet.wallet_service.service.util.OtpService;
+import com.ewallet.wallet_service.service.util.WalletLockManager;
 import com.ewallet.wallet_service.dto.response.OtpResponse;
 import com.ewallet.wallet_service.exception.InvalidRequestException;
 
@@ -56,7 +69,31 @@ public class WalletServiceImpl implements WalletService {
     private final FraudDetectionService fraudDetectionService;
     private final TransactionStatusService statusService; 
     private final OtpService otpService;
-    private final PasswordEncoder passwordEncoder; 
+    private final PinVerifier pinVerifier;
+    private final WalletLockManager walletLockManager;
+    private final FraudPolicyService fraudPolicyService;
+
+    /**
+     * How balances are moved once a transfer is authorised:
+     * LOCKING - lock both wallets, update the entities in Java
+     * ATOMIC  - conditional single-statement UPDATEs, no entity writes
+     */
+    public enum TransferMode { LOCKING, ATOMIC }
+
+    @Value("${app.wallet.transfer-mode:LOCKING}")
+    private TransferMode transferMode = TransferMode.LOCKING;
+
+    @Value("${app.wallet.history.default-page-size:50}")
+    private int historyDefaultPageSize = 50;
+
+    @Value("${app.wallet.history.max-page-size:200}")
+    private int historyMaxPageSize = 200;
+
+    private record BalanceChange(
+            BigDecimal senderBefore,
+            BigDecimal senderAfter,
+            BigDecimal receiverAfter
+    ) {}
     
 
     public WalletServiceImpl(
@@ -68,8 +105,10 @@ public class WalletServiceImpl implements WalletService {
             FraudDetectionService fraudDetectionService,
             TransactionStatusService statusService,
             OtpService otpService,
-            PasswordEncoder passwordEncoder,
-            VirtualPaymentAddressRepository vpaRepository
+            PinVerifier pinVerifier,
+            VirtualPaymentAddressRepository vpaRepository,
+            WalletLockManager walletLockManager,
+            FraudPolicyService fraudPolicyService
     ) {
         this.walletRepository = walletRepository;
         this.transactionRepository = transactionRepository;
@@ -79,8 +118,10 @@ public class WalletServiceImpl implements WalletService {
         this.fraudDetectionService = fraudDetectionService;
         this.statusService = statusService;
         this.otpService = otpService;
-        this.passwordEncoder = passwordEncoder; 
+        this.pinVerifier = pinVerifier;
         this.vpaRepository = vpaRepository;
+        this.walletLockManager = walletLockManager;
+        this.fraudPolicyService = fraudPolicyService;
     }
 
     // =============================
@@ -88,6 +129,12 @@ public class WalletServiceImpl implements WalletService {
     // =============================
     private Wallet getCurrentUserWallet() {
 
+        AuthenticatedUser principal = AuthenticatedUser.current();
+        if (principal != null && principal.walletId() != null) {
+            return walletRepository.findById(principal.walletId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
+        }
+
         String email = SecurityContextHolder
                 .getContext()
                 .getAuthentication()
@@ -135,11 +182,8 @@ public class WalletServiceImpl implements WalletService {
                 toWalletId,
                 amount);
 
-        // 1. PIN VERIFICATION
-        if (user.getTransactionPin() == null || !passwordEncoder.matches(pin, user.getTransactionPin())) {
-                log.warn("Invalid PIN attempt for user: {}", user.getEmail());
-                throw new IllegalArgumentException("Invalid Transaction PIN");
-        }
+        // 1. PIN VERIFICATION (attempt-limited, see PinVerifier)
+        pinVerifier.verify(user, pin);
 
         // 2. PREVENT SELF-TRANSFER ===
         if (sender.getId().equals(toWalletId)) {
@@ -224,8 +268,8 @@ public class WalletServiceImpl implements WalletService {
         }
 
         // 4. OTP AUTHORIZATION (Challenge Gate)
-        // Only ask for OTP if Risk > 30 OR amount is high
-        if (fraudResult.getRiskScore() > 30 || amount.compareTo(new BigDecimal("1000")) > 0) {
+        // Only ask for OTP if risk or amount is above the policy's OTP band
+        if (fraudPolicyService.current().requiresOtp(fraudResult.getRiskScore(), amount)) {
             log.warn("Medium risk transaction detected. userId={}, riskScore={}, amount={}",
                 user.getId(),
                 fraudResult.getRiskScore(),
@@ -256,35 +300,22 @@ public class WalletServiceImpl implements WalletService {
         //     try { Thread.sleep(10000); } catch (InterruptedException e) { } // To check status in DB
 
         try {
-            // HIGHLIGHT: 2. Validation
-            if (sender.getBalance().compareTo(amount) < 0) {
-                // This status persists even though we throw an exception next
-                statusService.updateStatus(tx, TransactionStatus.FAILED); 
-                throw new InsufficientBalanceException("Insufficient balance");
-            }
-
-           // HIGHLIGHT: 3. PENDING
-            statusService.updateStatus(tx, TransactionStatus.PENDING);
-            log.info(">>> STATUS: PENDING.");
-            // try { Thread.sleep(10000); } catch (InterruptedException e) { } // To check status in DB
-
-            // HIGHLIGHT: 4. Execution (Balance Update) // ACID section
-            sender.setBalance(sender.getBalance().subtract(amount));
-            receiver.setBalance(receiver.getBalance().add(amount));
-            
-            walletRepository.save(sender);
-            walletRepository.save(receiver);
+            // HIGHLIGHT: 2-4. Validation, PENDING and balance update
+            BalanceChange balances = (transferMode == TransferMode.ATOMIC)
+                    ? moveFundsAtomically(tx, sender.getId(), receiver.getId(), amount)
+                    : moveFundsUnderLock(tx, sender, receiver, amount);
 
             // HIGHLIGHT: 5. SUCCESS
             statusService.updateStatus(tx, TransactionStatus.SUCCESS);
             log.info(">>> STATUS: SUCCESS.");
 
             // Notifications // AUDIT LOGS
-            auditLogService.log(sender.getUser(), "TRANSFER", "SUCCESS", senderOldBal, sender.getBalance());
+            auditLogService.log(sender.getUser(), "TRANSFER", "SUCCESS",
+                    balances.senderBefore(), balances.senderAfter());
              
             // REAL-TIME UPDATES
-            balanceWebSocketService.publishBalance(sender.getId(), sender.getBalance());
-            balanceWebSocketService.publishBalance(receiver.getId(), receiver.getBalance());
+            balanceWebSocketService.publishBalance(sender.getId(), balances.senderAfter());
+            balanceWebSocketService.publishBalance(receiver.getId(), balances.receiverAfter());
 
             return "SUCCESS";
 
@@ -301,6 +332,94 @@ public class WalletServiceImpl implements WalletService {
         }
     }
 
+    // =============================
+    // BALANCE UPDATE: LOCKING MODE
+    // =============================
+    // Wallets are locked in ascending id order (striped lock + row lock)
+    // and held until commit, so concurrent transfers touching the same
+    // wallet are serialised instead of overwriting each other's balance.
+    private BalanceChange moveFundsUnderLock(
+            Transaction tx,
+            Wallet sender,
+            Wallet receiver,
+            BigDecimal amount
+    ) {
+        try (WalletLockManager.WalletLock ignored =
+                     walletLockManager.lock(sender, receiver)) {
+
+            // Validation (balance re-read under the lock)
+            BigDecimal senderBefore = sender.getBalance();
+            if (senderBefore.compareTo(amount) < 0) {
+                // This status persists even though we throw an exception next
+                statusService.updateStatus(tx, TransactionStatus.FAILED); 
+                throw new InsufficientBalanceException("Insufficient balance");
+            }
+
+            statusService.updateStatus(tx, TransactionStatus.PENDING);
+            log.info(">>> STATUS: PENDING.");
+            // try { Thread.sleep(10000); } catch (InterruptedException e) { } // To check status in DB
+
+            // ACID section
+            sender.setBalance(senderBefore.subtract(amount));
+            receiver.setBalance(receiver.getBalance().add(amount));
+
+            walletRepository.save(sender);
+            walletRepository.save(receiver);
+
+            return new BalanceChange(senderBefore, sender.getBalance(), receiver.getBalance());
+        }
+    }
+
+    // =============================
+    // BALANCE UPDATE: ATOMIC MODE
+    // =============================
+    // One conditional UPDATE per wallet; the balance check is part of the
+    // debit statement, so there is nothing to read-modify-write and the
+    // row lock is only taken by the UPDATE itself.
+    private BalanceChange moveFundsAtomically(
+            Transaction tx,
+            Long senderId,
+            Long receiverId,
+            BigDecimal amount
+    ) {
+        statusService.updateStatus(tx, TransactionStatus.PENDING);
+        log.info(">>> STATUS: PENDING.");
+
+        // Same ascending-id order as WalletLockManager, so two opposite
+        // transfers cannot deadlock on the row locks the UPDATEs take.
+        boolean debited;
+        if (senderId < receiverId) {
+            debited = walletRepository.debitIfSufficient(senderId, amount) == 1;
+            if (debited) {
+                creditOrThrow(receiverId, amount);
+            }
+        } else {
+            creditOrThrow(receiverId, amount);
+            debited = walletRepository.debitIfSufficient(senderId, amount) == 1;
+        }
+
+        if (!debited) {
+            // A credit already applied is rolled back with the exception
+            statusService.updateStatus(tx, TransactionStatus.FAILED);
+            throw new InsufficientBalanceException("Insufficient balance");
+        }
+
+        BigDecimal senderAfter = walletRepository.findBalanceById(senderId);
+        BigDecimal receiverAfter = walletRepository.findBalanceById(receiverId);
+
+        return new BalanceChange(
+                senderAfter == null ? null : senderAfter.add(amount),
+                senderAfter,
+                receiverAfter
+        );
+    }
+
+    private void creditOrThrow(Long walletId, BigDecimal amount) {
+        if (walletRepository.credit(walletId, amount) != 1) {
+            throw new ResourceNotFoundException("Receiver wallet not found");
+        }
+    }
+
     // =============================
     // SINGLE PIN UPDATE LOGIC
     // =============================
@@ -317,7 +436,7 @@ public class WalletServiceImpl implements WalletService {
         }
 
         // Hash the PIN before saving
-        user.setTransactionPin(passwordEncoder.encode(newPin));
+        user.setTransactionPin(pinVerifier.encode(newPin));
         userRepository.save(user);
     
         log.info("Transaction PIN updated successfully for user: {}", email);
@@ -328,35 +447,107 @@ public class WalletServiceImpl implements WalletService {
      // =============================
         @Override
         @Transactional(readOnly = true)
-        public List<TransactionResponse> getMyTransactionHistory() {
-                Wallet wallet = getCurrentUserWallet();
-                List<Transaction> transactions = transactionRepository
-                .findByFromWalletIdOrToWalletIdOrderByTimestampDesc(wallet.getId(), wallet.getId());
-
-                return transactions.stream().map(tx -> {
-                boolean isDebit = tx.getFromWallet().getId().equals(wallet.getId());
-                String fromUpi = vpaRepository.findByUserId(tx.getFromWallet().getUser().getId())
-                        .map(VirtualPaymentAddress::getUpiId)
-                        .orElseGet(() -> formatUpiFromName(tx.getFromWallet().getUser().getName()));
-                
-                String toUpi = vpaRepository.findByUserId(tx.getToWallet().getUser().getId())
-                        .map(VirtualPaymentAddress::getUpiId)
-                        .orElseGet(() -> formatUpiFromName(tx.getToWallet().getUser().getName()));
-                        
+        public TransactionHistoryPage getMyTransactionHistory(TransactionHistoryFilter filter) {
+                AuthenticatedUser principal = AuthenticatedUser.current();
+                Long walletId = principal != null && principal.walletId() != null
+                        ? principal.walletId()
+                        : getCurrentUserWallet().getId();
+
+                int limit = resolvePageSize(filter.getLimit());
+                KeysetCursor cursor = KeysetCursor.decode(filter.getCursor());
+                Collection<TransactionStatus> statuses = filter.getStatus() != null
+                        ? List.of(filter.getStatus())
+                        : EnumSet.allOf(TransactionStatus.class);
+                Instant from = filter.getFrom() != null ? filter.getFrom() : Instant.EPOCH;
+                Instant to = filter.getTo() != null ? filter.getTo() : HISTORY_END;
+                String direction = filter.getDirection();
+                if (direction != null && !direction.equals("DEBIT") && !direction.equals("CREDIT")) {
+                        throw new InvalidRequestException("direction must be DEBIT or CREDIT");
+                }
+
+                // one extra row tells whether another page exists
+                Pageable page = PageRequest.of(0, limit + 1);
+                List<TransactionView> sent = "CREDIT".equals(direction) ? List.of()
+                        : transactionRepository.findSentPage(walletId, statuses, from, to,
+                                cursor.timestamp(), cursor.id(), page);
+                List<TransactionView> received = "DEBIT".equals(direction) ? List.of()
+                        : transactionRepository.findReceivedPage(walletId, statuses, from, to,
+                                cursor.timestamp(), cursor.id(), page);
+
+                List<TransactionView> merged = mergeNewestFirst(sent, received, limit + 1);
+                boolean hasMore = merged.size() > limit;
+                List<TransactionView> transactions = hasMore ? merged.subList(0, limit) : merged;
+
+                // rows already carry names and UPI ids: no lookups per row
+                List<TransactionResponse> items = transactions.stream().map(tx -> {
+                boolean isDebit = tx.fromWalletId().equals(walletId);
+                String fromUpi = tx.fromUpi() != null ? tx.fromUpi() : formatUpiFromName(tx.fromUserName());
+                String toUpi = tx.toUpi() != null ? tx.toUpi() : formatUpiFromName(tx.toUserName());
+
                 return new TransactionResponse(
-                    tx.getId(),
+                    tx.id(),
                     isDebit ? "DEBIT" : "CREDIT",
-                    tx.getAmount(),
-                    isDebit ? tx.getToWallet().getId() : tx.getFromWallet().getId(),
+                    tx.amount(),
+                    isDebit ? tx.toWalletId() : tx.fromWalletId(),
                     
-                    tx.getTimestamp(),
-                    tx.getStatus().name(), // HIGHLIGHT: Returns the Enum name
+                    tx.timestamp(),
+                    tx.status().name(), // HIGHLIGHT: Returns the Enum name
                     fromUpi, 
                     toUpi    
                 );
                 }).toList();
+
+                String nextCursor = null;
+                if (hasMore) {
+                        TransactionView last = transactions.get(transactions.size() - 1);
+                        nextCursor = new KeysetCursor(last.timestamp(), last.id()).encode();
+                }
+                return new TransactionHistoryPage(items, nextCursor);
         }
-        
+
+        private int resolvePageSize(Integer requested) {
+                if (requested == null) {
+                        return historyDefaultPageSize;
+                }
+                if (requested < 1) {
+                        throw new InvalidRequestException("limit must be at least 1");
+                }
+                return Math.min(requested, historyMaxPageSize);
+        }
+
+        // Both inputs are already (timestamp DESC, id DESC); a self-transfer
+        // shows up on both sides and is kept once.
+        private static List<TransactionView> mergeNewestFirst(List<TransactionView> a, List<TransactionView> b, int max) {
+                List<TransactionView> out = new ArrayList<>(Math.min(max, a.size() + b.size()));
+                int i = 0;
+                int j = 0;
+                while (out.size() < max && (i < a.size() || j < b.size())) {
+                        TransactionView next;
+                        if (j >= b.size()) {
+                                next = a.get(i++);
+                        } else if (i >= a.size()) {
+                                next = b.get(j++);
+                        } else {
+                                TransactionView x = a.get(i);
+                                TransactionView y = b.get(j);
+                                int cmp = NEWEST_FIRST.compare(x, y);
+                                if (cmp == 0) {
+                                        j++; // same row on both sides
+                                }
+                                next = cmp <= 0 ? a.get(i++) : b.get(j++);
+                        }
+                        out.add(next);
+                }
+                return out;
+        }
+
+        private static final Instant HISTORY_END = Instant.parse("9999-12-31T23:59:59Z");
+
+        private static final Comparator<TransactionView> NEWEST_FIRST =
+                Comparator.comparing(TransactionView::timestamp)
+                        .thenComparing(TransactionView::id)
+                        .reversed();
+
         private String formatUpiFromName(String name) {
                 if (name == null || name.isEmpty()) {
                 return "user@koshpay";
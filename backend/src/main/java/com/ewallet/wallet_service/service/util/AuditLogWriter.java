@@ -0,0 +1,168 @@
+package com.ewallet.wallet_service.service.util;
+
+import com.ewallet.wallet_service.entity.AuditLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background writer for audit_logs.
+ *
+ * Callers only enqueue into a bounded in-memory buffer (BatchingQueue); a
+ * single writer thread drains it and inserts rows with JDBC batches (one
+ * transaction per batch). A batch is written once it is full or once the
+ * oldest queued row has waited for the linger time.
+ *
+ * When the buffer is full the overflow policy decides:
+ *   BLOCK        wait up to block-timeout for space, then drop
+ *   DROP         drop the row immediately
+ *   CALLER_RUNS  write the row synchronously on the calling thread
+ *
+ * On shutdown the writer stops taking new work, drains the buffer and
+ * writes what is left before the DataSource goes away.
+ */
+@Component
+@Slf4j
+public class AuditLogWriter {
+
+    public enum OverflowPolicy { BLOCK, DROP, CALLER_RUNS }
+
+    private static final String INSERT_SQL = """
+            INSERT INTO audit_logs
+                (user_id, username, action_type, status, old_balance, new_balance, timestamp)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BatchingQueue<AuditLog> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMs;
+    private final long shutdownTimeoutMs;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    public AuditLogWriter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.audit.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.audit.batch-size:200}") int batchSize,
+            @Value("${app.audit.linger-ms:50}") long lingerMs,
+            @Value("${app.audit.overflow-policy:CALLER_RUNS}") OverflowPolicy overflowPolicy,
+            @Value("${app.audit.block-timeout-ms:1000}") long blockTimeoutMs,
+            @Value("${app.audit.shutdown-timeout-ms:10000}") long shutdownTimeoutMs
+    ) {
+        if (queueCapacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("app.audit.queue-capacity and app.audit.batch-size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Own transaction: never joins (or rolls back with) a caller's transaction
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new BatchingQueue<>("audit-log-writer", queueCapacity, batchSize, lingerMs, this::write);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        // whatever the writer did not get to (or everything, if it never ran)
+        int flushed = queue.stop(shutdownTimeoutMs);
+
+        log.info("Audit log writer stopped. flushedOnShutdown={}, dropped={}",
+                flushed, dropped.get());
+    }
+
+    /**
+     * Queues one row. Never throws; see the class comment for what
+     * happens when the buffer is full.
+     */
+    public void enqueue(AuditLog audit) {
+        if (!queue.isRunning()) {
+            // shutting down (or never started): no writer left to drain the queue
+            write(List.of(audit));
+            return;
+        }
+
+        if (queue.offer(audit)) {
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    if (!queue.offer(audit, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        drop(audit);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    drop(audit);
+                }
+            }
+            case DROP -> drop(audit);
+            case CALLER_RUNS -> write(List.of(audit));
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void write(List<AuditLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+
+            transactionTemplate.executeWithoutResult(s ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, audit) -> {
+                        ps.setObject(1, audit.getUserId(), Types.BIGINT);
+                        ps.setString(2, audit.getUsername());
+                        ps.setString(3, audit.getActionType());
+                        ps.setString(4, audit.getStatus());
+                        ps.setBigDecimal(5, audit.getOldBalance());
+                        ps.setBigDecimal(6, audit.getNewBalance());
+                        ps.setTimestamp(7, Timestamp.from(audit.getTimestamp()), utc);
+                    }));
+
+            log.debug("Audit batch written: size={}", batch.size());
+
+        } catch (Exception e) {
+            // 🔒 FAIL-SAFE: same contract as before — audit must never break core logic
+            dropped.addAndGet(batch.size());
+            log.error("Failed to write {} audit log(s) (dropped)", batch.size(), e);
+        }
+    }
+
+    private void drop(AuditLog audit) {
+        long total = dropped.incrementAndGet();
+        log.warn("Audit queue full, dropped: user={}, action={}, status={}, totalDropped={}",
+                audit.getUsername(), audit.getActionType(), audit.getStatus(), total);
+    }
+}
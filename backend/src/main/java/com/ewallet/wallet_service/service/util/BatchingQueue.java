@@ -0,0 +1,127 @@
+package com.ewallet.wallet_service.service.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bounded in-memory queue drained by one daemon thread in batches. A batch
+ * is handed to the writer once it holds batchSize items or once its first
+ * item has waited lingerMs.
+ *
+ * The writer runs on that thread and must not throw; what it does with a
+ * batch it cannot write (drop, retry, remember for a later sweep) is up to
+ * the owner. stop() ends the thread and writes what is left on the caller.
+ *
+ * Used by AuditLogWriter and AdminTransactionProjector.
+ */
+public final class BatchingQueue<T> {
+
+    private final String threadName;
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+    private final long lingerMs;
+    private final Consumer<List<T>> writer;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public BatchingQueue(String threadName, int capacity, int batchSize, long lingerMs, Consumer<List<T>> writer) {
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException(threadName + ": queue capacity and batch size must be positive");
+        }
+        this.threadName = threadName;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.writer = writer;
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops taking work, waits up to timeoutMs for the thread and writes
+     * the rest on the calling thread.
+     *
+     * @return items written here rather than by the thread
+     */
+    public int stop(long timeoutMs) {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(timeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<T> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int i = 0; i < rest.size(); i += batchSize) {
+            writer.accept(rest.subList(i, Math.min(i + batchSize, rest.size())));
+        }
+        return rest.size();
+    }
+
+    // false before start() and once stop() began: nothing would drain the queue
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean offer(T item) {
+        return queue.offer(item);
+    }
+
+    public boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.offer(item, timeout, unit);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<T> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(lingerMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                writer.accept(batch);
+
+            } catch (InterruptedException e) {
+                // stop() drains what is left
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ewallet.wallet_service.service.util;
+
+import com.ewallet.wallet_service.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in a (timestamp DESC, id DESC) ordered listing: the last row of
+ * the previous page. The next page is every row strictly "after" it, which
+ * an index on (..., timestamp, id) answers with a range scan, however deep
+ * into the history the page is.
+ *
+ * Encoded as an opaque URL-safe token so clients don't build cursors
+ * themselves.
+ */
+public record KeysetCursor(Instant timestamp, Long id) {
+
+    /** Sorts before every real row: the first page. */
+    public static final KeysetCursor START = new KeysetCursor(Instant.parse("9999-12-31T23:59:59Z"), Long.MAX_VALUE);
+
+    public String encode() {
+        String raw = timestamp.getEpochSecond() + ":" + timestamp.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @throws InvalidRequestException if the token was not produced by encode()
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            String[] parts = raw.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException();
+            }
+            Instant timestamp = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new KeysetCursor(timestamp, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | java.time.DateTimeException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ewallet.wallet_service.service.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through for Caffeine caches whose loader queries the database.
+ *
+ * A miss loads outside the cache, not through Cache.get(key, loader): that
+ * loader runs under a map lock, which would pin a virtual thread to its
+ * carrier for the whole query. Concurrent misses on one key may therefore
+ * each load.
+ *
+ * Used by UpiResolverService and IdentityCache.
+ */
+public final class ReadThrough {
+
+    private ReadThrough() {
+    }
+
+    /**
+     * Cached value for key, or loader's result (cached unless null).
+     */
+    public static <K, V> V get(Cache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        return get(cache, key, loader, () -> 0);
+    }
+
+    /**
+     * As above, but a load is only cached if generation did not change
+     * while it ran, so a load that overlaps an invalidation is returned
+     * without re-caching the old row.
+     */
+    public static <K, V> V get(Cache<K, V> cache, K key, Function<? super K, ? extends V> loader,
+                               LongSupplier generation) {
+        V value = cache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        long seen = generation.getAsLong();
+        value = loader.apply(key);
+        if (value != null && generation.getAsLong() == seen) {
+            cache.put(key, value);
+        }
+        return value;
+    }
+}
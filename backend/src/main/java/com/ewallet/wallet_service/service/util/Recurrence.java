@@ -0,0 +1,110 @@
+package com.ewallet.wallet_service.service.util;
+
+import com.ewallet.wallet_service.entity.RecurrenceFrequency;
+import com.ewallet.wallet_service.entity.RecurringPaymentRule;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Occurrence arithmetic of a RecurringPaymentRule.
+ *
+ * DAILY, WEEKLY and MONTHLY occurrences are startAt plus k days, weeks or
+ * months in the rule's zone, always counted from startAt rather than from
+ * the previous occurrence: a monthly rule started on the 31st runs on the
+ * 30th in April and on the 31st again in May, and a daily 09:00 rule stays
+ * at 09:00 local time across DST changes. CRON occurrences are those of the
+ * expression at or after startAt.
+ */
+public final class Recurrence {
+
+    // consecutive cron occurrences checked against the minimum spacing
+    private static final int CRON_SAMPLE = 256;
+
+    private Recurrence() {
+    }
+
+    /**
+     * First occurrence at or after from (never before startAt), or null if
+     * there is none (past endAt, or a cron expression that never fires).
+     */
+    public static Instant firstAtOrAfter(RecurringPaymentRule rule, Instant from) {
+        Instant start = rule.getStartAt();
+        Instant next = from.isAfter(start)
+                ? nextAfter(rule, from.minusNanos(1))
+                : nextAfter(rule, start.minusNanos(1));
+        return next != null && rule.getEndAt() != null && next.isAfter(rule.getEndAt()) ? null : next;
+    }
+
+    /**
+     * First occurrence strictly after after, or null if there is none.
+     */
+    public static Instant after(RecurringPaymentRule rule, Instant after) {
+        return firstAtOrAfter(rule, after.plusNanos(1));
+    }
+
+    /**
+     * A cron expression must also leave at least minSpacing between
+     * consecutive occurrences (checked over the next CRON_SAMPLE of them):
+     * each rule has one occurrence materialized at a time, so a faster
+     * cadence would silently skip occurrences.
+     *
+     * @throws IllegalArgumentException if zone or cron expression is unusable
+     */
+    public static void validate(
+            RecurrenceFrequency frequency, String cronExpression, String zone, Duration minSpacing) {
+        ZoneId zoneId;
+        try {
+            zoneId = ZoneId.of(zone);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown time zone: " + zone);
+        }
+        if (frequency != RecurrenceFrequency.CRON) {
+            return;
+        }
+        if (!CronExpression.isValidExpression(cronExpression)) {
+            throw new IllegalArgumentException("Invalid cron expression: " + cronExpression);
+        }
+
+        CronExpression cron = CronExpression.parse(cronExpression);
+        ZonedDateTime at = cron.next(ZonedDateTime.now(zoneId));
+        for (int i = 0; at != null && i < CRON_SAMPLE; i++) {
+            ZonedDateTime next = cron.next(at);
+            if (next != null && Duration.between(at, next).compareTo(minSpacing) < 0) {
+                throw new IllegalArgumentException("Cron expression fires more often than once every "
+                        + minSpacing.toSeconds() + "s: " + cronExpression);
+            }
+            at = next;
+        }
+    }
+
+    private static Instant nextAfter(RecurringPaymentRule rule, Instant after) {
+        ZoneId zone = ZoneId.of(rule.getZone());
+        ZonedDateTime start = rule.getStartAt().atZone(zone);
+
+        if (rule.getFrequency() == RecurrenceFrequency.CRON) {
+            ZonedDateTime next = CronExpression.parse(rule.getCronExpression()).next(after.atZone(zone));
+            return next == null ? null : next.toInstant();
+        }
+
+        ChronoUnit unit = switch (rule.getFrequency()) {
+            case DAILY -> ChronoUnit.DAYS;
+            case WEEKLY -> ChronoUnit.WEEKS;
+            default -> ChronoUnit.MONTHS;
+        };
+        // estimate, then step to the first occurrence past after
+        long k = Math.max(0, unit.between(start, after.atZone(zone)));
+        while (k > 0 && start.plus(k - 1, unit).toInstant().isAfter(after)) {
+            k--;
+        }
+        while (!start.plus(k, unit).toInstant().isAfter(after)) {
+            k++;
+        }
+        return start.plus(k, unit).toInstant();
+    }
+}
@@ -0,0 +1,156 @@
+package com.ewallet.wallet_service.service.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hashed timing wheel: keys with a deadline, handed back by advance() once
+ * the deadline has passed.
+ *
+ * Time is cut into ticks of tickMillis; a key sits in the slot for its
+ * deadline tick (modulo the slot count), so schedule and cancel are O(1)
+ * and advance() only looks at the slots for the ticks that passed. A slot
+ * may also hold keys due a whole rotation (or more) later; they stay until
+ * their deadline. Size the wheel so one rotation covers the scheduling
+ * horizon and each key is looked at about once.
+ *
+ * A key is due in the first advance() at or after its deadline — never
+ * early, and late by at most the advance interval.
+ *
+ * Thread-safe; every operation takes one short lock and never blocks
+ * inside it.
+ */
+public final class TimingWheel<K> {
+
+    private final long startMillis;
+    private final long tickMillis;
+    private final int mask;
+    private final List<Map<K, Long>> slots;
+    // key -> index of the slot holding it
+    private final Map<K, Integer> slotOf = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // next tick to process
+    private long currentTick;
+
+    /**
+     * @param slotCount rounded up to a power of two
+     */
+    public TimingWheel(long tickMillis, int slotCount, long startMillis) {
+        if (tickMillis <= 0 || slotCount <= 0) {
+            throw new IllegalArgumentException("tickMillis and slotCount must be positive");
+        }
+        int size = Integer.highestOneBit(slotCount);
+        if (size < slotCount) {
+            size <<= 1;
+        }
+        this.startMillis = startMillis;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(null);
+        }
+    }
+
+    /**
+     * Adds key, or moves it if already scheduled. A deadline in the past
+     * makes it due at the next advance().
+     */
+    public void schedule(K key, long deadlineMillis) {
+        lock.lock();
+        try {
+            remove(key);
+
+            long tick = Math.max(ceilDiv(deadlineMillis - startMillis, tickMillis), currentTick);
+            int index = (int) (tick & mask);
+            Map<K, Long> slot = slots.get(index);
+            if (slot == null) {
+                slot = new HashMap<>();
+                slots.set(index, slot);
+            }
+            slot.put(key, deadlineMillis);
+            slotOf.put(key, index);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true if key was scheduled
+     */
+    public boolean cancel(K key) {
+        lock.lock();
+        try {
+            return remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the wheel to nowMillis and removes and returns every key whose
+     * deadline is at or before it.
+     */
+    public List<K> advance(long nowMillis) {
+        List<K> due = new ArrayList<>();
+        lock.lock();
+        try {
+            long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+            if (targetTick < currentTick) {
+                return due;
+            }
+            // after a long stall one pass over every slot is enough
+            long ticks = Math.min(targetTick - currentTick + 1, slots.size());
+            for (long t = currentTick; t < currentTick + ticks; t++) {
+                collect((int) (t & mask), nowMillis, due);
+            }
+            currentTick = targetTick + 1;
+        } finally {
+            lock.unlock();
+        }
+        return due;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return slotOf.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void collect(int index, long nowMillis, List<K> due) {
+        Map<K, Long> slot = slots.get(index);
+        if (slot == null) {
+            return;
+        }
+        Iterator<Map.Entry<K, Long>> it = slot.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Long> entry = it.next();
+            if (entry.getValue() <= nowMillis) {
+                due.add(entry.getKey());
+                slotOf.remove(entry.getKey());
+                it.remove();
+            }
+        }
+    }
+
+    private boolean remove(K key) {
+        Integer index = slotOf.remove(key);
+        if (index == null) {
+            return false;
+        }
+        slots.get(index).remove(key);
+        return true;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+}
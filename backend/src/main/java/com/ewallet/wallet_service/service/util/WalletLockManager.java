@@ -0,0 +1,170 @@
+package com.ewallet.wallet_service.service.util;
+
+import com.ewallet.wallet_service.entity.Wallet;
+import com.ewallet.wallet_service.exception.ServiceBusyException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serialises balance changes per wallet.
+ *
+ * Two layers, always taken in the same order so concurrent transfers
+ * can never deadlock each other:
+ *   1. an in-process striped lock table keyed by wallet id
+ *      (stripes acquired in ascending stripe index)
+ *   2. a row lock (SELECT ... FOR UPDATE) on every wallet,
+ *      acquired in ascending wallet id
+ *
+ * Layer 1 queues hot-wallet traffic inside the JVM so requests do not
+ * pile up on the database row lock; layer 2 keeps other instances and
+ * the scheduler honest.
+ *
+ * Callers already hold a pooled connection while they wait for a stripe,
+ * and the holder keeps its stripes until commit, during which it may need
+ * further connections (REQUIRES_NEW status and audit writes). An unbounded
+ * wait on a hot wallet could therefore take the whole pool; the wait is
+ * capped at app.wallet.lock-wait and then fails with ServiceBusyException
+ * (503), which releases the waiter's connection.
+ */
+@Component
+public class WalletLockManager {
+
+    private final EntityManager entityManager;
+    private final ReentrantLock[] stripes;
+    private final long lockWaitNanos;
+
+    public WalletLockManager(
+            EntityManager entityManager,
+            @Value("${app.wallet.lock-stripes:1024}") int stripeCount,
+            @Value("${app.wallet.lock-wait:2s}") Duration lockWait
+    ) {
+        if (stripeCount <= 0 || lockWait.isNegative()) {
+            throw new IllegalArgumentException(
+                    "app.wallet.lock-stripes must be positive and app.wallet.lock-wait not negative");
+        }
+        this.entityManager = entityManager;
+        this.lockWaitNanos = lockWait.toNanos();
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks the given wallets for a balance change and re-reads their
+     * balances under the row lock.
+     *
+     * Inside a Spring transaction the locks are released after commit or
+     * rollback (closing the handle only schedules the release); without a
+     * transaction they are released when the handle is closed.
+     *
+     * @throws ServiceBusyException if the stripes are not free within
+     *                              app.wallet.lock-wait
+     */
+    public WalletLock lock(Wallet... wallets) {
+
+        Wallet[] ordered = Arrays.stream(wallets)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted(Comparator.comparing(Wallet::getId))
+                .toArray(Wallet[]::new);
+
+        ReentrantLock[] held = acquireStripes(ordered);
+
+        try {
+            for (Wallet wallet : ordered) {
+                // refresh, not find: the wallet may already be managed with a
+                // balance read before the lock was taken
+                entityManager.refresh(wallet, LockModeType.PESSIMISTIC_WRITE);
+            }
+        } catch (RuntimeException e) {
+            release(held);
+            throw e;
+        }
+
+        return new WalletLock(held);
+    }
+
+    private ReentrantLock[] acquireStripes(Wallet[] ordered) {
+
+        int[] indexes = Arrays.stream(ordered)
+                .mapToInt(w -> stripeIndex(w.getId()))
+                .distinct()
+                .sorted()
+                .toArray();
+
+        ReentrantLock[] held = new ReentrantLock[indexes.length];
+        long deadline = System.nanoTime() + lockWaitNanos;
+        for (int i = 0; i < indexes.length; i++) {
+            ReentrantLock stripe = stripes[indexes[i]];
+            boolean acquired;
+            try {
+                acquired = stripe.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            if (!acquired) {
+                release(Arrays.copyOf(held, i));
+                throw new ServiceBusyException("Wallet is busy, please retry shortly");
+            }
+            held[i] = stripe;
+        }
+        return held;
+    }
+
+    private int stripeIndex(Long walletId) {
+        return Math.floorMod(Long.hashCode(walletId), stripes.length);
+    }
+
+    private static void release(ReentrantLock[] held) {
+        for (int i = held.length - 1; i >= 0; i--) {
+            held[i].unlock();
+        }
+    }
+
+    /**
+     * Handle returned by {@link #lock(Wallet...)}; use with try-with-resources.
+     */
+    public static final class WalletLock implements AutoCloseable {
+
+        private final ReentrantLock[] held;
+        private boolean closed;
+
+        private WalletLock(ReentrantLock[] held) {
+            this.held = held;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                // keep other threads out until the new balances are committed
+                TransactionSynchronizationManager.registerSynchronization(
+                        new TransactionSynchronization() {
+                            @Override
+                            public void afterCompletion(int status) {
+                                release(held);
+                            }
+                        });
+            } else {
+                release(held);
+            }
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package com.ewallet.wallet_service.websocket;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.*;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // With spring.threads.virtual.enabled the STOMP channels follow the web layer onto virtual threads
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.websocket.virtual-pool-size:256}")
+    private int virtualPoolSize = 256;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Client subscribes here
@@ -24,4 +34,29 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
             .setAllowedOriginPatterns("*")
             .withSockJS();
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.taskExecutor(virtualExecutor("ws-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.taskExecutor(virtualExecutor("ws-outbound-"));
+        }
+    }
+
+    // Bounded like the default channel pools, but a session blocked on a slow socket no longer holds a platform thread
+    private ThreadPoolTaskExecutor virtualExecutor(String namePrefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setVirtualThreads(true);
+        executor.setCorePoolSize(virtualPoolSize);
+        executor.setMaxPoolSize(virtualPoolSize);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix(namePrefix);
+        return executor;
+    }
 }
@@ -1,6 +1,8 @@
 package com.ewallet.wallet_service.config;
 
 import com.ewallet.wallet_service.repository.AdminRepository;
+import com.ewallet.wallet_service.security.CredentialHashExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -17,7 +19,7 @@ class ConfigTest {
     void testSecurityBeansConfig() throws Exception {
         SecurityBeansConfig config = new SecurityBeansConfig();
         
-        assertNotNull(config.passwordEncoder());
+        assertNotNull(config.passwordEncoder(mock(CredentialHashExecutor.class), new SimpleMeterRegistry(), 10));
         AuthenticationConfiguration authConfig = mock(AuthenticationConfiguration.class);
         config.authenticationManager(authConfig);
         verify(authConfig, times(1)).getAuthenticationManager();
@@ -1,11 +1,18 @@
 package com.ewallet.wallet_service.controller;
 
+import com.ewallet.wallet_service.dto.request.AdminTransactionFilter;
+import com.ewallet.wallet_service.dto.request.AuditLogFilter;
+import com.ewallet.wallet_service.dto.response.AdminTransactionResponse;
+import com.ewallet.wallet_service.dto.response.AuditLogResponse;
+import com.ewallet.wallet_service.dto.response.TransactionTimeSeriesResponse;
+import com.ewallet.wallet_service.entity.TransactionRollup.Granularity;
 import com.ewallet.wallet_service.service.AdminAnalyticsService;
-import com.ewallet.wallet_service.repository.TransactionRepository;
-import com.ewallet.wallet_service.repository.AuditLogRepository;
-import com.ewallet.wallet_service.repository.VirtualPaymentAddressRepository;
+import com.ewallet.wallet_service.service.AdminTransactionQueryService;
+import com.ewallet.wallet_service.service.AuditLogQueryService;
+import com.ewallet.wallet_service.security.IdentityCache;
 import com.ewallet.wallet_service.security.JwtUtil;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -13,7 +20,10 @@ import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfi
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -23,35 +33,110 @@ class AdminControllerTest {
 
     @Autowired private MockMvc mockMvc;
     @MockBean private JwtUtil jwtUtil;
+    @MockBean private IdentityCache identityCache;
     @MockBean private AdminAnalyticsService analyticsService;
-    @MockBean private TransactionRepository transactionRepository;
-    @MockBean private AuditLogRepository auditLogRepository;
-    @MockBean private VirtualPaymentAddressRepository vpaRepository;
+    @MockBean private AdminTransactionQueryService transactionQueryService;
+    @MockBean private AuditLogQueryService auditLogQueryService;
 
     @Test
     void getSummary_Success() throws Exception {
         mockMvc.perform(get("/api/admin/summary")).andExpect(status().isOk());
     }
 
+    @Test
+    void getTimeSeries_PassesRangeAndGranularity() throws Exception {
+        java.time.Instant from = java.time.Instant.parse("2024-03-10T00:00:00Z");
+        java.time.Instant to = java.time.Instant.parse("2024-03-11T00:00:00Z");
+        when(analyticsService.getTimeSeries(from, to, Granularity.HOUR))
+                .thenReturn(new TransactionTimeSeriesResponse(
+                        "HOUR", from, to, List.of(), 0, java.math.BigDecimal.ZERO, 0));
+
+        mockMvc.perform(get("/api/admin/analytics/timeseries")
+                        .param("from", "2024-03-10T00:00:00Z")
+                        .param("to", "2024-03-11T00:00:00Z")
+                        .param("granularity", "HOUR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity").value("HOUR"));
+
+        verify(analyticsService).getTimeSeries(eq(from), eq(to), eq(Granularity.HOUR));
+    }
+
     @Test
     void testGetAllTransactions_FullCoverage() throws Exception {
-        com.ewallet.wallet_service.entity.User user = new com.ewallet.wallet_service.entity.User();
-        user.setId(1L);
-        
-        com.ewallet.wallet_service.entity.Wallet wallet = new com.ewallet.wallet_service.entity.Wallet();
-        wallet.setUser(user);
+        AdminTransactionResponse tx = new AdminTransactionResponse(
+                1L, "N/A", "jane@koshpay",
+                java.math.BigDecimal.TEN, "SUCCESS", java.time.Instant.now());
 
-        com.ewallet.wallet_service.entity.Transaction tx = new com.ewallet.wallet_service.entity.Transaction();
-        tx.setFromWallet(wallet);
-        tx.setToWallet(wallet);
-        tx.setAmount(java.math.BigDecimal.TEN);
-        tx.setStatus(com.ewallet.wallet_service.entity.TransactionStatus.SUCCESS);
+        when(transactionQueryService.search(any()))
+                .thenReturn(new AdminTransactionQueryService.Page(List.of(tx), "next"));
 
-        when(transactionRepository.findAll()).thenReturn(List.of(tx));
-        when(vpaRepository.findByUserId(any())).thenReturn(java.util.Optional.empty());
+        mockMvc.perform(get("/api/admin/transactions")
+                        .param("status", "SUCCESS")
+                        .param("minAmount", "5")
+                        .param("upiId", "jane@koshpay")
+                        .param("sort", "AMOUNT")
+                        .param("order", "ASC"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$[0].fromUpiId").value("N/A"))
+                .andExpect(jsonPath("$[0].toUpiId").value("jane@koshpay"));
+
+        ArgumentCaptor<AdminTransactionFilter> filter = ArgumentCaptor.forClass(AdminTransactionFilter.class);
+        verify(transactionQueryService).search(filter.capture());
+        assertEquals(com.ewallet.wallet_service.entity.TransactionStatus.SUCCESS, filter.getValue().getStatus());
+        assertEquals(new java.math.BigDecimal("5"), filter.getValue().getMinAmount());
+        assertEquals("jane@koshpay", filter.getValue().getUpiId());
+        assertEquals(AdminTransactionFilter.SortField.AMOUNT, filter.getValue().getSort());
+        assertEquals(AdminTransactionFilter.SortOrder.ASC, filter.getValue().getOrder());
+    }
+
+    @Test
+    void testGetAllTransactions_LastPageHasNoCursor() throws Exception {
+        when(transactionQueryService.search(any()))
+                .thenReturn(new AdminTransactionQueryService.Page(List.of(), null));
 
         mockMvc.perform(get("/api/admin/transactions"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].fromUpiId").value("N/A"));
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void testGetAuditLogs_FiltersCursorAndEstimate() throws Exception {
+        AuditLogResponse entry = new AuditLogResponse(
+                7L, 3L, "jane@test.com", "TRANSFER", "FAILURE",
+                java.math.BigDecimal.TEN, java.math.BigDecimal.TEN, java.time.Instant.now());
+
+        when(auditLogQueryService.search(any()))
+                .thenReturn(new AuditLogQueryService.Page(List.of(entry), "next", 10000L, false));
+
+        mockMvc.perform(get("/api/admin/audit-logs")
+                        .param("userId", "3")
+                        .param("actionType", "TRANSFER")
+                        .param("from", "2024-01-01T00:00:00Z")
+                        .param("count", "ESTIMATE"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(header().string("X-Total-Count", "10000"))
+                .andExpect(header().string("X-Total-Count-Exact", "false"))
+                .andExpect(jsonPath("$[0].username").value("jane@test.com"))
+                .andExpect(jsonPath("$[0].status").value("FAILURE"));
+
+        ArgumentCaptor<AuditLogFilter> filter = ArgumentCaptor.forClass(AuditLogFilter.class);
+        verify(auditLogQueryService).search(filter.capture());
+        assertEquals(3L, filter.getValue().getUserId());
+        assertEquals("TRANSFER", filter.getValue().getActionType());
+        assertEquals(java.time.Instant.parse("2024-01-01T00:00:00Z"), filter.getValue().getFrom());
+        assertEquals(AuditLogFilter.CountMode.ESTIMATE, filter.getValue().getCount());
+    }
+
+    @Test
+    void testGetAuditLogs_NoCountRequested() throws Exception {
+        when(auditLogQueryService.search(any()))
+                .thenReturn(new AuditLogQueryService.Page(List.of(), null, null, false));
+
+        mockMvc.perform(get("/api/admin/audit-logs"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(header().doesNotExist("X-Total-Count"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package com.ewallet.wallet_service.controller;
+
+import com.ewallet.wallet_service.service.AdminExportService;
+import com.ewallet.wallet_service.service.AdminExportService.Format;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class AdminExportControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private AdminExportService exportService;
+
+    @InjectMocks
+    private AdminExportController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        this.mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void testExportTransactions_CsvStreamed() throws Exception {
+        when(exportService.exportTransactions(any(), eq(Format.CSV), eq(false), any(), any()))
+                .thenAnswer(inv -> {
+                    OutputStream out = inv.getArgument(0);
+                    out.write("id,amount\r\n1,10.00\r\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        MvcResult async = mockMvc.perform(get("/api/admin/export/transactions"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(async))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions.csv\""))
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(content().string("id,amount\r\n1,10.00\r\n"));
+    }
+
+    @Test
+    void testExportAuditLogs_NdjsonGzipWithRange() throws Exception {
+        MvcResult async = mockMvc.perform(get("/api/admin/export/audit-logs")
+                        .param("format", "NDJSON")
+                        .param("gzip", "true")
+                        .param("from", "2024-01-01T00:00:00Z"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(async))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"audit-logs.ndjson.gz\""))
+                .andExpect(content().contentType("application/gzip"));
+
+        verify(exportService).exportAuditLogs(any(), eq(Format.NDJSON), eq(true),
+                eq(Instant.parse("2024-01-01T00:00:00Z")), isNull());
+    }
+}
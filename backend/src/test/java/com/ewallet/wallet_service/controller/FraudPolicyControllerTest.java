@@ -0,0 +1,54 @@
+package com.ewallet.wallet_service.controller;
+
+import com.ewallet.wallet_service.exception.GlobalExceptionHandler;
+import com.ewallet.wallet_service.exception.InvalidRequestException;
+import com.ewallet.wallet_service.fraud.model.FraudPolicy;
+import com.ewallet.wallet_service.fraud.service.FraudPolicyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class FraudPolicyControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private FraudPolicyService fraudPolicyService;
+
+    @InjectMocks
+    private FraudPolicyController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        this.mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void testGetActivePolicy() throws Exception {
+        when(fraudPolicyService.current()).thenReturn(FraudPolicy.defaults());
+
+        mockMvc.perform(get("/api/admin/fraud-policy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.blockScore").value(70))
+                .andExpect(jsonPath("$.highAmountThreshold").value(10000));
+    }
+
+    @Test
+    void testReload_Rejected() throws Exception {
+        when(fraudPolicyService.reload()).thenThrow(new InvalidRequestException("Fraud policy rejected: bad"));
+
+        mockMvc.perform(post("/api/admin/fraud-policy/reload"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -2,6 +2,7 @@ package com.ewallet.wallet_service.controller;
 
 import com.ewallet.wallet_service.service.ScheduledPaymentService;
 import com.ewallet.wallet_service.entity.TransactionStatus; // Import your Enum
+import com.ewallet.wallet_service.security.IdentityCache;
 import com.ewallet.wallet_service.security.JwtUtil;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +22,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq; 
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath; 
 
@@ -29,6 +31,7 @@ class ScheduledPaymentControllerTest {
 
     @Autowired private MockMvc mockMvc;
     @MockBean private JwtUtil jwtUtil;
+    @MockBean private IdentityCache identityCache;
     @MockBean private ScheduledPaymentService scheduledPaymentService;
 
     @Test
@@ -69,4 +72,62 @@ class ScheduledPaymentControllerTest {
                 .andExpect(jsonPath("$.id").value(100))
                 .andExpect(jsonPath("$.amount").value(100));
     }
-}
\ No newline at end of file
+
+    private static com.ewallet.wallet_service.entity.RecurringPaymentRule recurringRule() {
+        com.ewallet.wallet_service.entity.RecurringPaymentRule rule = new com.ewallet.wallet_service.entity.RecurringPaymentRule();
+        rule.setId(7L);
+        rule.setAmount(BigDecimal.valueOf(500));
+        rule.setFrequency(com.ewallet.wallet_service.entity.RecurrenceFrequency.MONTHLY);
+        rule.setStartAt(Instant.parse("2026-01-01T09:00:00Z"));
+        rule.setNextRunAt(Instant.parse("2026-02-01T09:00:00Z"));
+
+        com.ewallet.wallet_service.entity.VirtualPaymentAddress receiver = new com.ewallet.wallet_service.entity.VirtualPaymentAddress();
+        receiver.setUpiId("landlord@upi");
+        rule.setReceiver(receiver);
+        return rule;
+    }
+
+    @Test
+    void testCreateRecurringSchedule() throws Exception {
+        Authentication auth = new UsernamePasswordAuthenticationToken("test@test.com", "password");
+        when(scheduledPaymentService.createRecurringSchedule(eq("test@test.com"), any()))
+                .thenReturn(recurringRule());
+
+        String json = "{\"receiverUpiId\":\"landlord@upi\", \"amount\":500, \"frequency\":\"MONTHLY\", \"startAt\":\"2026-01-01T09:00:00Z\"}";
+
+        mockMvc.perform(post("/api/scheduled-payments/recurring")
+                .principal(auth)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.frequency").value("MONTHLY"))
+                .andExpect(jsonPath("$.receiverUpiId").value("landlord@upi"));
+    }
+
+    @Test
+    void testPauseRecurringSchedule() throws Exception {
+        Authentication auth = new UsernamePasswordAuthenticationToken("test@test.com", "password");
+        com.ewallet.wallet_service.entity.RecurringPaymentRule rule = recurringRule();
+        rule.setStatus(com.ewallet.wallet_service.entity.RecurringRuleStatus.PAUSED);
+        when(scheduledPaymentService.pauseRecurringSchedule(7L, "test@test.com")).thenReturn(rule);
+
+        mockMvc.perform(post("/api/scheduled-payments/recurring/7/pause").principal(auth))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PAUSED"));
+    }
+
+    @Test
+    void testUpdateRecurringSchedule() throws Exception {
+        Authentication auth = new UsernamePasswordAuthenticationToken("test@test.com", "password");
+        when(scheduledPaymentService.updateRecurringSchedule(eq(7L), eq("test@test.com"), any()))
+                .thenReturn(recurringRule());
+
+        mockMvc.perform(put("/api/scheduled-payments/recurring/7")
+                .principal(auth)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":500, \"frequency\":\"MONTHLY\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(500));
+    }
+}
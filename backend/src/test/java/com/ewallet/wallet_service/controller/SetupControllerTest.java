@@ -1,6 +1,7 @@
 package com.ewallet.wallet_service.controller;
 
 import com.ewallet.wallet_service.service.UserService;
+import com.ewallet.wallet_service.security.IdentityCache;
 import com.ewallet.wallet_service.security.JwtUtil;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +23,7 @@ class SetupControllerTest {
 
     @MockBean private UserService userService;
     @MockBean private JwtUtil jwtUtil;
+    @MockBean private IdentityCache identityCache;
 
     @Test
     void createUser_Success() throws Exception {
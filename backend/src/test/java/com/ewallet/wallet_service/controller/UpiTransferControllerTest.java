@@ -1,7 +1,6 @@
 package com.ewallet.wallet_service.controller;
 
 import com.ewallet.wallet_service.dto.response.OtpResponse;
-import com.ewallet.wallet_service.entity.Wallet;
 import com.ewallet.wallet_service.service.UpiResolverService;
 import com.ewallet.wallet_service.service.WalletService;
 import org.junit.jupiter.api.BeforeEach;
@@ -36,8 +35,7 @@ class UpiTransferControllerTest {
 
     @Test
     void testTransferSuccess() throws Exception {
-        Wallet wallet = new Wallet(); wallet.setId(1L);
-        when(upiResolverService.resolveToWallet(any())).thenReturn(wallet);
+        when(upiResolverService.resolveWalletId(any())).thenReturn(1L);
         when(walletService.transfer(any(), any(), any(), any())).thenReturn("Success");
 
         String json = "{\"toUpiId\":\"dest@upi\", \"amount\":10, \"pin\":\"1234\"}";
@@ -51,9 +49,7 @@ class UpiTransferControllerTest {
 
   @Test
 void testTransferRequiresOtp() throws Exception {
-    Wallet wallet = new Wallet(); 
-    wallet.setId(1L);
-    when(upiResolverService.resolveToWallet(any())).thenReturn(wallet);
+    when(upiResolverService.resolveWalletId(any())).thenReturn(1L);
     
     OtpResponse mockOtp = new OtpResponse("123456", "Sent", "PENDING");
     when(walletService.transfer(any(), any(), any(), any())).thenReturn(mockOtp);
@@ -69,8 +65,7 @@ void testTransferRequiresOtp() throws Exception {
 
 @Test
 void testTransferSuccess_StringResponse() throws Exception {
-    Wallet wallet = new Wallet(); wallet.setId(1L);
-    when(upiResolverService.resolveToWallet(any())).thenReturn(wallet);
+    when(upiResolverService.resolveWalletId(any())).thenReturn(1L);
     when(walletService.transfer(any(), any(), any(), any())).thenReturn("Success");
 
     String json = "{\"toUpiId\":\"dest@upi\", \"amount\":10, \"pin\":\"1234\"}";
@@ -84,8 +79,7 @@ void testTransferSuccess_StringResponse() throws Exception {
 
 @Test
 void testTransferSuccess_OtpResponse() throws Exception {
-    Wallet wallet = new Wallet(); wallet.setId(1L);
-    when(upiResolverService.resolveToWallet(any())).thenReturn(wallet);
+    when(upiResolverService.resolveWalletId(any())).thenReturn(1L);
     
     OtpResponse otp = new OtpResponse("123456", "Pending", "Verify");
     when(walletService.transfer(any(), any(), any(), any())).thenReturn(otp);
@@ -1,9 +1,13 @@
 package com.ewallet.wallet_service.controller;
 
+import com.ewallet.wallet_service.dto.request.TransactionHistoryFilter;
+import com.ewallet.wallet_service.dto.response.TransactionHistoryPage;
 import com.ewallet.wallet_service.dto.response.WalletResponse;
+import com.ewallet.wallet_service.entity.TransactionStatus;
 import com.ewallet.wallet_service.service.WalletService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -11,9 +15,13 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -45,11 +53,36 @@ class WalletControllerTest {
         tx.setAmount(BigDecimal.valueOf(100.0));
         tx.setStatus("COMPLETED");
 
-        when(walletService.getMyTransactionHistory()).thenReturn(List.of(tx));
+        when(walletService.getMyTransactionHistory(any()))
+                .thenReturn(new TransactionHistoryPage(List.of(tx), null));
 
         mockMvc.perform(get("/api/wallet/transactions"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].amount").value(100.0));
+                .andExpect(jsonPath("$[0].amount").value(100.0))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void testGetMyTransactions_PagedWithFilters() throws Exception {
+        when(walletService.getMyTransactionHistory(any()))
+                .thenReturn(new TransactionHistoryPage(Collections.emptyList(), "next"));
+
+        mockMvc.perform(get("/api/wallet/transactions")
+                        .param("direction", "CREDIT")
+                        .param("status", "SUCCESS")
+                        .param("from", "2024-01-01T00:00:00Z")
+                        .param("limit", "20")
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"));
+
+        ArgumentCaptor<TransactionHistoryFilter> filter = ArgumentCaptor.forClass(TransactionHistoryFilter.class);
+        verify(walletService).getMyTransactionHistory(filter.capture());
+        assertEquals("CREDIT", filter.getValue().getDirection());
+        assertEquals(TransactionStatus.SUCCESS, filter.getValue().getStatus());
+        assertEquals(Instant.parse("2024-01-01T00:00:00Z"), filter.getValue().getFrom());
+        assertEquals(20, filter.getValue().getLimit());
+        assertEquals("abc", filter.getValue().getCursor());
     }
 
     @Test
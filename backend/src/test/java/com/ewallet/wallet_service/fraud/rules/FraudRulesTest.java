@@ -1,24 +1,36 @@
 package com.ewallet.wallet_service.fraud;
 
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.event.TransactionStatusChangedEvent;
 import com.ewallet.wallet_service.fraud.model.FraudContext;
+import com.ewallet.wallet_service.fraud.model.FraudPolicy;
 import com.ewallet.wallet_service.fraud.rules.*;
+import com.ewallet.wallet_service.fraud.service.PayeeIndex;
+import com.ewallet.wallet_service.fraud.service.VelocityTracker;
 import com.ewallet.wallet_service.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Properties;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class FraudRulesTest {
 
+    private static final FraudPolicy DEFAULT_POLICY = FraudPolicy.defaults();
+
     @Mock
     private TransactionRepository transactionRepository;
 
@@ -26,9 +38,9 @@ class FraudRulesTest {
     void testHighAmountRule() {
         HighAmountRule rule = new HighAmountRule();
 
-        assertTrue(rule.isTriggered(new FraudContext(1L, 2L, new BigDecimal("10001"))));
-        assertFalse(rule.isTriggered(new FraudContext(1L, 2L, new BigDecimal("5000"))));
-        assertEquals(70, rule.riskPoints());
+        assertTrue(rule.isTriggered(new FraudContext(1L, 2L, new BigDecimal("10001")), DEFAULT_POLICY));
+        assertFalse(rule.isTriggered(new FraudContext(1L, 2L, new BigDecimal("5000")), DEFAULT_POLICY));
+        assertEquals(70, rule.riskPoints(DEFAULT_POLICY));
     }
 
     @Test
@@ -38,49 +50,238 @@ class FraudRulesTest {
         // 90% drain of balance 100 -> should trigger (threshold = 80%)
         FraudContext highDrain = new FraudContext(1L, 2L, new BigDecimal("90"));
         highDrain.setCurrentBalance(new BigDecimal("100"));
-        assertTrue(rule.isTriggered(highDrain));
+        assertTrue(rule.isTriggered(highDrain, DEFAULT_POLICY));
 
         // 10% drain -> should NOT trigger
         FraudContext lowDrain = new FraudContext(1L, 2L, new BigDecimal("10"));
         lowDrain.setCurrentBalance(new BigDecimal("100"));
-        assertFalse(rule.isTriggered(lowDrain));
+        assertFalse(rule.isTriggered(lowDrain, DEFAULT_POLICY));
 
         // Null balance -> safe fail
         FraudContext nullBalance = new FraudContext(1L, 2L, new BigDecimal("50"));
-        assertFalse(rule.isTriggered(nullBalance));
+        assertFalse(rule.isTriggered(nullBalance, DEFAULT_POLICY));
 
-        assertEquals(40, rule.riskPoints());
+        assertEquals(40, rule.riskPoints(DEFAULT_POLICY));
     }
 
     @Test
     void testNewPayeeRule() {
-        NewPayeeRule rule = new NewPayeeRule(transactionRepository);
+        // index not loaded yet: falls back to the database
+        NewPayeeRule rule = new NewPayeeRule(payeeIndex(false));
 
-        when(transactionRepository.existsByFromWalletIdAndToWalletId(1L, 2L))
+        when(transactionRepository.existsByFromWalletIdAndToWalletIdAndStatus(1L, 2L, TransactionStatus.SUCCESS))
                 .thenReturn(false);
-        assertTrue(rule.isTriggered(new FraudContext(1L, 2L, BigDecimal.TEN)));
+        assertTrue(rule.isTriggered(new FraudContext(1L, 2L, BigDecimal.TEN), DEFAULT_POLICY));
+
+        when(transactionRepository.existsByFromWalletIdAndToWalletIdAndStatus(1L, 3L, TransactionStatus.SUCCESS))
+                .thenReturn(true);
+        assertFalse(rule.isTriggered(new FraudContext(1L, 3L, BigDecimal.TEN), DEFAULT_POLICY));
+
+        assertEquals(40, rule.riskPoints(DEFAULT_POLICY));
+    }
+
+    @Test
+    void testNewPayeeRule_LoadedIndexAnswersFromMemory() {
+        when(transactionRepository.findDistinctPayeePairs(TransactionStatus.SUCCESS))
+                .thenReturn(List.<Object[]>of(new Object[] { 1L, 2L }, new Object[] { 1L, 5L }));
+
+        PayeeIndex index = payeeIndex(false);
+        index.load();
+        NewPayeeRule rule = new NewPayeeRule(index);
 
-        when(transactionRepository.existsByFromWalletIdAndToWalletId(1L, 3L))
+        assertFalse(rule.isTriggered(new FraudContext(1L, 2L, BigDecimal.TEN), DEFAULT_POLICY));
+        assertFalse(rule.isTriggered(new FraudContext(1L, 5L, BigDecimal.TEN), DEFAULT_POLICY));
+        assertTrue(rule.isTriggered(new FraudContext(1L, 3L, BigDecimal.TEN), DEFAULT_POLICY));
+        assertTrue(rule.isTriggered(new FraudContext(9L, 2L, BigDecimal.TEN), DEFAULT_POLICY));
+
+        // successful transfer commits -> known from now on
+        index.onStatusChanged(new TransactionStatusChangedEvent(
+                10L, 1L, 3L, BigDecimal.TEN, Instant.now(), TransactionStatus.SUCCESS, TransactionStatus.PENDING));
+        assertFalse(rule.isTriggered(new FraudContext(1L, 3L, BigDecimal.TEN), DEFAULT_POLICY));
+
+        verify(transactionRepository, never()).existsByFromWalletIdAndToWalletIdAndStatus(any(), any(), any());
+        assertTrue(index.estimatedMemoryBytes() > 0);
+    }
+
+    @Test
+    void testNewPayeeRule_ConfirmMissesAgainstDatabase() {
+        PayeeIndex index = payeeIndex(true);
+        index.load();
+
+        when(transactionRepository.existsByFromWalletIdAndToWalletIdAndStatus(1L, 2L, TransactionStatus.SUCCESS))
                 .thenReturn(true);
-        assertFalse(rule.isTriggered(new FraudContext(1L, 3L, BigDecimal.TEN)));
 
-        assertEquals(40, rule.riskPoints());
+        assertTrue(index.hasPaidBefore(1L, 2L));
+        // learned: no second query
+        assertTrue(index.hasPaidBefore(1L, 2L));
+        verify(transactionRepository, times(1))
+                .existsByFromWalletIdAndToWalletIdAndStatus(1L, 2L, TransactionStatus.SUCCESS);
+    }
+
+    @Test
+    void testPayeeIndex_RefreshLearnsOtherInstancesTransfers() {
+        PayeeIndex index = payeeIndex(false);
+        Instant loadedAround = Instant.now();
+        index.load();
+        assertFalse(index.hasPaidBefore(1L, 7L));
+
+        // 1 -> 7 succeeded on another instance
+        when(transactionRepository.findDistinctPayeePairsSince(eq(TransactionStatus.SUCCESS), any()))
+                .thenReturn(List.<Object[]>of(new Object[] { 1L, 7L }));
+        index.refresh();
+
+        assertTrue(index.hasPaidBefore(1L, 7L));
+        // re-read from before the load, by the overlap
+        verify(transactionRepository).findDistinctPayeePairsSince(eq(TransactionStatus.SUCCESS),
+                argThat(since -> !since.isBefore(loadedAround.minus(Duration.ofMinutes(5)))
+                        && !since.isAfter(Instant.now().minus(Duration.ofMinutes(5)))));
+        verify(transactionRepository, never()).existsByFromWalletIdAndToWalletIdAndStatus(any(), any(), any());
+    }
+
+    @Test
+    void testPayeeIndex_BloomFalsePositiveRateStaysNearTarget() {
+        PayeeIndex index = new PayeeIndex(transactionRepository, new SimpleMeterRegistry(), 10_000, 0.01, false);
+        index.load();
+
+        for (long i = 0; i < 10_000; i++) {
+            index.add(i, i + 1);
+        }
+        for (long i = 0; i < 10_000; i++) {
+            assertFalse(index.hasPaidBefore(i, i + 2));
+        }
+
+        assertTrue(index.observedFalsePositiveRate() < 0.05);
+        assertTrue(index.expectedFalsePositiveRate() < 0.02);
+    }
+
+    private static FraudPolicy velocityPolicy(String limits) {
+        Properties properties = new Properties();
+        properties.setProperty("velocity.limits", limits);
+        return FraudPolicy.compile(properties, Duration.ofHours(1), "test");
+    }
+
+    private PayeeIndex payeeIndex(boolean confirmMisses) {
+        return new PayeeIndex(transactionRepository, new SimpleMeterRegistry(), 1_000, 0.01, confirmMisses);
     }
 
     @Test
     void testTransactionVelocityRule() {
-        TransactionVelocityRule rule = new TransactionVelocityRule(transactionRepository);
+        Clock clock = Clock.fixed(Instant.parse("2024-01-01T10:30:00Z"), ZoneOffset.UTC);
+        VelocityTracker tracker = new VelocityTracker(transactionRepository, Duration.ofHours(1), clock);
+        FraudPolicy policy = velocityPolicy("10m:5");
+        TransactionVelocityRule rule = new TransactionVelocityRule(tracker);
 
         FraudContext context = new FraudContext(1L, 2L, BigDecimal.TEN);
         context.setFromWalletId(1L);
 
-        when(transactionRepository.countByFromWallet_IdAndTimestampAfter(eq(1L), any(Instant.class)))
-                .thenReturn(5L);
-        assertTrue(rule.isTriggered(context));
+        for (int i = 0; i < 2; i++) {
+            tracker.record(1L, clock.instant().minusSeconds(60));
+        }
+        assertFalse(rule.isTriggered(context, policy));
+
+        for (int i = 0; i < 3; i++) {
+            tracker.record(1L, clock.instant().minusSeconds(120));
+        }
+        assertTrue(rule.isTriggered(context, policy));
+        assertEquals(80, rule.riskPoints(policy));
+    }
+
+    @Test
+    void testTransactionVelocityRule_MultipleWindows() {
+        Clock clock = Clock.fixed(Instant.parse("2024-01-01T10:30:00Z"), ZoneOffset.UTC);
+        VelocityTracker tracker = new VelocityTracker(transactionRepository, Duration.ofHours(1), clock);
+        FraudPolicy policy = velocityPolicy("1m:3,1h:20");
+        TransactionVelocityRule rule = new TransactionVelocityRule(tracker);
+
+        FraudContext context = new FraudContext(1L, 2L, BigDecimal.TEN);
+
+        // 3 in the current minute -> the 4th breaches 1m:3
+        for (int i = 0; i < 3; i++) {
+            tracker.record(1L, clock.instant());
+        }
+        assertTrue(rule.isTriggered(context, policy));
+
+        // spread over the hour: 1m window is fine, 1h window is not
+        FraudContext other = new FraudContext(7L, 2L, BigDecimal.TEN);
+        for (int i = 0; i < 20; i++) {
+            tracker.record(7L, clock.instant().minusSeconds(120L * (i + 1)));
+        }
+        assertEquals(0, tracker.count(7L, Duration.ofMinutes(1)));
+        assertTrue(rule.isTriggered(other, policy));
+    }
+
+    @Test
+    void testVelocityTracker_IgnoresTransfersOutsideWindow() {
+        Clock clock = Clock.fixed(Instant.parse("2024-01-01T10:30:00Z"), ZoneOffset.UTC);
+        VelocityTracker tracker = new VelocityTracker(transactionRepository, Duration.ofMinutes(10), clock);
+
+        tracker.record(1L, clock.instant().minus(Duration.ofMinutes(30)));
+        tracker.record(1L, clock.instant().minus(Duration.ofMinutes(5)));
+
+        assertEquals(1, tracker.count(1L, Duration.ofMinutes(10)));
+        assertEquals(0, tracker.count(2L, Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void testVelocityTracker_OldestMinuteCountsInFull() {
+        Clock clock = Clock.fixed(Instant.parse("2024-01-01T10:10:58Z"), ZoneOffset.UTC);
+        VelocityTracker tracker = new VelocityTracker(transactionRepository, Duration.ofHours(1), clock);
+
+        // 10:00:59 is inside the last 10 minutes, in a bucket only 2s of which are
+        for (int i = 0; i < 5; i++) {
+            tracker.record(1L, Instant.parse("2024-01-01T10:00:59Z"));
+        }
+        // a minute before that: outside any 10m window
+        tracker.record(1L, Instant.parse("2024-01-01T09:59:30Z"));
+
+        assertEquals(5, tracker.count(1L, Duration.ofMinutes(10)));
+        assertEquals(6, tracker.count(1L, Duration.ofMinutes(11)));
+    }
+
+    @Test
+    void testFraudPolicy_ThresholdsComeFromPolicy() {
+        Properties properties = new Properties();
+        properties.setProperty("high-amount.threshold", "500");
+        properties.setProperty("high-amount.points", "25");
+        FraudPolicy policy = FraudPolicy.compile(properties, Duration.ofHours(1), "test");
+
+        HighAmountRule rule = new HighAmountRule();
+
+        assertTrue(rule.isTriggered(new FraudContext(1L, 2L, new BigDecimal("501")), policy));
+        assertEquals(25, rule.riskPoints(policy));
+    }
+
+    @Test
+    void testFraudPolicy_RejectsInvalidValues() {
+        Properties badRatio = new Properties();
+        badRatio.setProperty("wallet-drain.ratio", "1.5");
+        assertThrows(IllegalArgumentException.class,
+                () -> FraudPolicy.compile(badRatio, Duration.ofHours(1), "test"));
+
+        Properties tooLong = new Properties();
+        tooLong.setProperty("velocity.limits", "2h:50");
+        assertThrows(IllegalArgumentException.class,
+                () -> FraudPolicy.compile(tooLong, Duration.ofHours(1), "test"));
+
+        for (String limits : List.of(":5", "m:5", "10m:0", "0m:5", "10m:-1", "10x:5")) {
+            Properties badLimit = new Properties();
+            badLimit.setProperty("velocity.limits", limits);
+            assertThrows(IllegalArgumentException.class,
+                    () -> FraudPolicy.compile(badLimit, Duration.ofHours(1), "test"), limits);
+        }
+
+        Properties notANumber = new Properties();
+        notANumber.setProperty("decision.block-score", "seventy");
+        assertThrows(IllegalArgumentException.class,
+                () -> FraudPolicy.compile(notANumber, Duration.ofHours(1), "test"));
+    }
+
+    @Test
+    void testFraudPolicy_OtpGate() {
+        FraudPolicy policy = FraudPolicy.defaults();
 
-        when(transactionRepository.countByFromWallet_IdAndTimestampAfter(eq(1L), any(Instant.class)))
-                .thenReturn(2L);
-        assertFalse(rule.isTriggered(context));
-        assertEquals(80, rule.riskPoints());
+        assertFalse(policy.requiresOtp(30, new BigDecimal("1000")));
+        assertTrue(policy.requiresOtp(31, BigDecimal.TEN));
+        assertTrue(policy.requiresOtp(0, new BigDecimal("1000.01")));
     }
 }
@@ -2,36 +2,44 @@ package com.ewallet.wallet_service.fraud;
 
 import com.ewallet.wallet_service.fraud.model.*;
 import com.ewallet.wallet_service.fraud.service.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class FraudDetectionServiceTest {
 
+    private static final FraudPolicyService POLICY = new FraudPolicyService(FraudPolicy.defaults());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
     private FraudDetectionService fraudDetectionService;
     private FraudRule rule1;
     private FraudRule rule2;
 
     @BeforeEach
     void setUp() {
-        rule1 = mock(FraudRule.class);
-        rule2 = mock(FraudRule.class);
-        fraudDetectionService = new FraudDetectionService(List.of(rule1, rule2));
+        // CALLS_REAL_METHODS: keep the costClass()/requiresIo() defaults
+        rule1 = mock(FraudRule.class, CALLS_REAL_METHODS);
+        rule2 = mock(FraudRule.class, CALLS_REAL_METHODS);
+        fraudDetectionService = new FraudDetectionService(List.of(rule1, rule2), POLICY, meterRegistry);
     }
 
     @Test
     void evaluate_ShouldBlock_WhenScoreIs70() {
         FraudContext context = new FraudContext(1L, 2L, new BigDecimal("1000"));
-        when(rule1.isTriggered(any())).thenReturn(true);
-        when(rule1.riskPoints()).thenReturn(40);
-        when(rule2.isTriggered(any())).thenReturn(true);
-        when(rule2.riskPoints()).thenReturn(30);
+        when(rule1.isTriggered(any(), any())).thenReturn(true);
+        when(rule1.riskPoints(any())).thenReturn(40);
+        when(rule2.isTriggered(any(), any())).thenReturn(true);
+        when(rule2.riskPoints(any())).thenReturn(30);
 
         FraudResult result = fraudDetectionService.evaluate(context);
 
@@ -42,13 +50,151 @@ class FraudDetectionServiceTest {
     @Test
     void evaluate_ShouldAllow_WhenScoreIsBelow70() {
         FraudContext context = new FraudContext(1L, 2L, new BigDecimal("1000"));
-        when(rule1.isTriggered(any())).thenReturn(true);
-        when(rule1.riskPoints()).thenReturn(40);
-        when(rule2.isTriggered(any())).thenReturn(false);
+        when(rule1.isTriggered(any(), any())).thenReturn(true);
+        when(rule1.riskPoints(any())).thenReturn(40);
+        when(rule2.isTriggered(any(), any())).thenReturn(false);
 
         FraudResult result = fraudDetectionService.evaluate(context);
 
         assertEquals(FraudDecision.ALLOW, result.getDecision());
         assertEquals(40, result.getRiskScore());
     }
+
+    @Test
+    void evaluate_ShouldShortCircuit_OnceBlockIsCertain() {
+        FraudContext context = new FraudContext(1L, 2L, new BigDecimal("1000"));
+        when(rule1.isTriggered(any(), any())).thenReturn(true);
+        when(rule1.riskPoints(any())).thenReturn(80);
+
+        FraudResult result = fraudDetectionService.evaluate(context);
+
+        assertEquals(FraudDecision.BLOCK, result.getDecision());
+        verify(rule2, never()).isTriggered(any(), any());
+    }
+
+    @Test
+    void evaluate_ShouldRunCheapRulesFirst() {
+        FraudRule expensive = mock(FraudRule.class, CALLS_REAL_METHODS);
+        when(expensive.costClass()).thenReturn(FraudRule.CostClass.EXPENSIVE);
+        when(rule1.isTriggered(any(), any())).thenReturn(true);
+        when(rule1.riskPoints(any())).thenReturn(90);
+
+        // listed first, but skipped: the cheap rule already decides BLOCK
+        FraudDetectionService service = new FraudDetectionService(List.of(expensive, rule1), POLICY, meterRegistry);
+        FraudResult result = service.evaluate(new FraudContext(1L, 2L, BigDecimal.TEN));
+
+        assertEquals(FraudDecision.BLOCK, result.getDecision());
+        verify(expensive, never()).isTriggered(any(), any());
+    }
+
+    @Test
+    void evaluate_AllRulesSeeOnePolicySnapshot() {
+        FraudPolicyService policyService = mock(FraudPolicyService.class);
+        FraudPolicy snapshot = FraudPolicy.defaults();
+        when(policyService.current()).thenReturn(snapshot);
+        when(rule1.isTriggered(any(), any())).thenReturn(true);
+        when(rule2.isTriggered(any(), any())).thenReturn(true);
+
+        new FraudDetectionService(List.of(rule1, rule2), policyService, meterRegistry)
+                .evaluate(new FraudContext(1L, 2L, BigDecimal.TEN));
+
+        verify(policyService, times(1)).current();
+        verify(rule1).isTriggered(any(), same(snapshot));
+        verify(rule2).riskPoints(same(snapshot));
+    }
+
+    @Test
+    void evaluate_IoRulesRunConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        FraudRule io1 = new LatchRule(bothStarted, 20);
+        FraudRule io2 = new LatchRule(bothStarted, 20);
+
+        FraudDetectionService service = new FraudDetectionService(List.of(io1, io2), POLICY, meterRegistry);
+        ReflectionTestUtils.setField(service, "ioExecution", FraudDetectionService.IoExecution.PARALLEL);
+        ReflectionTestUtils.setField(service, "ruleTimeoutMs", 2000L);
+
+        // each rule waits for the other to start: only passes if run in parallel
+        FraudResult result = service.evaluate(new FraudContext(1L, 2L, BigDecimal.TEN));
+
+        assertEquals(40, result.getRiskScore());
+        assertEquals(2, result.getTriggeredRules().size());
+    }
+
+    @Test
+    void evaluate_TimedOutIoRule_FollowsFailurePolicy() {
+        // latch never reaches zero: the rule blocks until cancelled
+        FraudRule hanging = new LatchRule(new CountDownLatch(2), 50);
+
+        FraudDetectionService service = new FraudDetectionService(List.of(hanging), POLICY, meterRegistry);
+        ReflectionTestUtils.setField(service, "ioExecution", FraudDetectionService.IoExecution.PARALLEL);
+        ReflectionTestUtils.setField(service, "ruleTimeoutMs", 50L);
+
+        assertEquals(0, service.evaluate(new FraudContext(1L, 2L, BigDecimal.TEN)).getRiskScore());
+        assertEquals(1, meterRegistry.counter("fraud.rule.failures",
+                "rule", "LatchRule", "reason", "timeout", "outcome", "skipped").count());
+
+        ReflectionTestUtils.setField(service, "failurePolicy", FraudDetectionService.FailurePolicy.FAIL_CLOSED);
+        FraudResult closed = service.evaluate(new FraudContext(1L, 2L, BigDecimal.TEN));
+        assertEquals(50, closed.getRiskScore());
+
+        service.shutdown();
+    }
+
+    @Test
+    void evaluate_IoRulesRunOnCallerThreadByDefault() {
+        Thread caller = Thread.currentThread();
+        FraudRule io = mock(FraudRule.class, CALLS_REAL_METHODS);
+        when(io.requiresIo()).thenReturn(true);
+        when(io.isTriggered(any(), any())).thenAnswer(inv -> Thread.currentThread() == caller);
+        when(io.riskPoints(any())).thenReturn(30);
+
+        FraudResult result = new FraudDetectionService(List.of(io), POLICY, meterRegistry)
+                .evaluate(new FraudContext(1L, 2L, BigDecimal.TEN));
+
+        // same thread = same transaction and connection as the transfer
+        assertEquals(30, result.getRiskScore());
+    }
+
+    @Test
+    void evaluate_FailedRule_IsCountedEvenWhenIgnored() {
+        when(rule1.isTriggered(any(), any())).thenThrow(new IllegalStateException("db down"));
+
+        assertEquals(0, fraudDetectionService.evaluate(new FraudContext(1L, 2L, BigDecimal.TEN)).getRiskScore());
+
+        assertEquals(1, meterRegistry.get("fraud.rule.failures")
+                .tag("reason", "error").tag("outcome", "skipped").counter().count());
+    }
+
+    /** I/O rule that counts down, then waits until the latch opens. */
+    private static final class LatchRule implements FraudRule {
+
+        private final CountDownLatch latch;
+        private final int points;
+
+        LatchRule(CountDownLatch latch, int points) {
+            this.latch = latch;
+            this.points = points;
+        }
+
+        @Override
+        public boolean isTriggered(FraudContext context, FraudPolicy policy) {
+            latch.countDown();
+            try {
+                return latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public int riskPoints(FraudPolicy policy) {
+            return points;
+        }
+
+        @Override
+        public boolean requiresIo() {
+            return true;
+        }
+    }
 }
\ No newline at end of file
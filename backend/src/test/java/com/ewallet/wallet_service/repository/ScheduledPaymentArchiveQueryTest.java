@@ -0,0 +1,114 @@
+package com.ewallet.wallet_service.repository;
+
+import com.ewallet.wallet_service.entity.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Queries of ScheduledPaymentArchiver.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+class ScheduledPaymentArchiveQueryTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T00:00:00Z");
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private ScheduledPaymentRepository repository;
+    @Autowired private ScheduledPaymentArchiveRepository archiveRepository;
+
+    private User sender;
+    private VirtualPaymentAddress receiver;
+
+    @BeforeEach
+    void setUp() {
+        sender = new User();
+        sender.setName("Alice");
+        sender.setEmail("alice@test.com");
+        sender.setPassword("hash");
+        entityManager.persist(sender);
+
+        User receiverUser = new User();
+        receiverUser.setName("Bob");
+        receiverUser.setEmail("bob@test.com");
+        receiverUser.setPassword("hash");
+        entityManager.persist(receiverUser);
+
+        receiver = new VirtualPaymentAddress();
+        receiver.setUser(receiverUser);
+        receiver.setUpiId("bob@koshpay");
+        entityManager.persist(receiver);
+    }
+
+    @Test
+    void findArchivable_OnlyOldFinishedPayments() {
+        ScheduledPayment oldSuccess = persist(NOW.minusSeconds(86400 * 40), TransactionStatus.SUCCESS, true);
+        ScheduledPayment oldCancelled = persist(NOW.minusSeconds(86400 * 35), TransactionStatus.FAILED, false);
+        persist(NOW.minusSeconds(86400 * 40), TransactionStatus.PENDING, false);  // overdue, still live
+        persist(NOW.minusSeconds(86400), TransactionStatus.SUCCESS, true);        // within retention
+        entityManager.flush();
+
+        assertEquals(List.of(oldSuccess.getId()), archivable(TransactionStatus.SUCCESS));
+        assertEquals(List.of(oldCancelled.getId()), archivable(TransactionStatus.FAILED));
+    }
+
+    @Test
+    void findArchivable_OldestScheduledFirst() {
+        ScheduledPayment newer = persist(NOW.minusSeconds(86400 * 35), TransactionStatus.SUCCESS, true);
+        ScheduledPayment older = persist(NOW.minusSeconds(86400 * 40), TransactionStatus.SUCCESS, true);
+        entityManager.flush();
+
+        assertEquals(List.of(older.getId(), newer.getId()), archivable(TransactionStatus.SUCCESS));
+    }
+
+    private List<Long> archivable(TransactionStatus status) {
+        return repository.findArchivable(status, NOW.minusSeconds(86400 * 30), PageRequest.of(0, 10))
+                .stream().map(ScheduledPayment::getId).toList();
+    }
+
+    @Test
+    void copyThenDelete_MovesRowsToArchive() {
+        ScheduledPayment done = persist(NOW.minusSeconds(86400 * 40), TransactionStatus.FAILED, true);
+        done.setFailureReason("Insufficient balance");
+        done.setExecutedAt(NOW.minusSeconds(86400 * 40));
+        entityManager.flush();
+        Long id = done.getId();
+
+        int copied = archiveRepository.copyFromScheduledPayments(List.of(id), NOW);
+        repository.deleteByIdIn(List.of(id));
+        entityManager.clear();
+
+        assertEquals(1, copied);
+        assertTrue(repository.findById(id).isEmpty());
+        ScheduledPaymentArchive archived = archiveRepository.findById(id).orElseThrow();
+        assertEquals(sender.getId(), archived.getSenderId());
+        assertEquals(receiver.getId(), archived.getReceiverVpaId());
+        assertEquals(TransactionStatus.FAILED, archived.getStatus());
+        assertEquals("Insufficient balance", archived.getFailureReason());
+        assertTrue(archived.isExecuted());
+        assertEquals(NOW, archived.getArchivedAt());
+    }
+
+    private ScheduledPayment persist(Instant scheduledAt, TransactionStatus status, boolean executed) {
+        ScheduledPayment payment = new ScheduledPayment();
+        payment.setSender(sender);
+        payment.setReceiver(receiver);
+        payment.setAmount(BigDecimal.TEN);
+        payment.setScheduledAt(scheduledAt);
+        payment.setStatus(status);
+        payment.setExecuted(executed);
+        payment.setCreatedAt(scheduledAt.minusSeconds(3600));
+        return entityManager.persist(payment);
+    }
+}
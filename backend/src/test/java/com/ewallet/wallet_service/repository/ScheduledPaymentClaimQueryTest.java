@@ -0,0 +1,129 @@
+package com.ewallet.wallet_service.repository;
+
+import com.ewallet.wallet_service.entity.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Claim and wheel-loading queries of ScheduledPaymentExecutor and
+ * ScheduledPaymentTimer.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+class ScheduledPaymentClaimQueryTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T12:00:00Z");
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private ScheduledPaymentRepository repository;
+
+    private User sender;
+    private VirtualPaymentAddress receiver;
+
+    @BeforeEach
+    void setUp() {
+        sender = persistUser("Alice", "alice@test.com");
+        User receiverUser = persistUser("Bob", "bob@test.com");
+
+        receiver = new VirtualPaymentAddress();
+        receiver.setUser(receiverUser);
+        receiver.setUpiId("bob@koshpay");
+        entityManager.persist(receiver);
+    }
+
+    @Test
+    void findClaimable_SkipsLiveLeasesAndFuturePayments() {
+        ScheduledPayment due = persist(NOW.minusSeconds(60), null, null);
+        ScheduledPayment expiredLease = persist(NOW.minusSeconds(30), "node-b", NOW.minusSeconds(1));
+        persist(NOW.minusSeconds(20), "node-b", NOW.plusSeconds(60));
+        persist(NOW.plusSeconds(60), null, null);
+        ScheduledPayment executed = persist(NOW.minusSeconds(90), null, null);
+        executed.setExecuted(true);
+        entityManager.flush();
+
+        List<Long> ids = repository.findClaimable(NOW, TransactionStatus.PENDING, PageRequest.of(0, 10))
+                .stream().map(ScheduledPayment::getId).toList();
+
+        assertEquals(List.of(due.getId(), expiredLease.getId()), ids);
+    }
+
+    @Test
+    void claimIfDue_OnlyTakesFreeDuePayments() {
+        ScheduledPayment free = persist(NOW.minusSeconds(1), null, null);
+        ScheduledPayment taken = persist(NOW.minusSeconds(1), "node-b", NOW.plusSeconds(60));
+        ScheduledPayment early = persist(NOW.plusSeconds(1), null, null);
+        entityManager.flush();
+
+        int claimed = repository.claimIfDue(List.of(free.getId(), taken.getId(), early.getId()),
+                TransactionStatus.PENDING, "node-a", NOW, NOW.plusSeconds(120));
+        entityManager.clear();
+
+        assertEquals(1, claimed);
+        assertEquals("node-a", repository.findById(free.getId()).orElseThrow().getClaimedBy());
+        assertEquals("node-b", repository.findById(taken.getId()).orElseThrow().getClaimedBy());
+        assertNull(repository.findById(early.getId()).orElseThrow().getClaimedBy());
+    }
+
+    @Test
+    void releaseClaims_LeavesOtherOwnersAlone() {
+        ScheduledPayment mine = persist(NOW, "node-a", NOW.plusSeconds(60));
+        ScheduledPayment theirs = persist(NOW, "node-b", NOW.plusSeconds(60));
+        entityManager.flush();
+
+        repository.releaseClaims(List.of(mine.getId(), theirs.getId()), "node-a");
+        entityManager.clear();
+
+        assertNull(repository.findById(mine.getId()).orElseThrow().getClaimedBy());
+        assertEquals("node-b", repository.findById(theirs.getId()).orElseThrow().getClaimedBy());
+    }
+
+    @Test
+    void findUpcoming_ReturnsWindowSoonestFirst() {
+        ScheduledPayment later = persist(NOW.plusSeconds(120), null, null);
+        ScheduledPayment sooner = persist(NOW.plusSeconds(10), null, null);
+        persist(NOW, null, null);                     // at from: already loaded
+        persist(NOW.plusSeconds(600), null, null);    // beyond to
+        entityManager.flush();
+
+        List<Object[]> rows = repository.findUpcoming(
+                TransactionStatus.PENDING, NOW, NOW.plusSeconds(300), PageRequest.of(0, 10));
+
+        assertEquals(2, rows.size());
+        assertEquals(sooner.getId(), rows.get(0)[0]);
+        assertEquals(NOW.plusSeconds(10), rows.get(0)[1]);
+        assertEquals(later.getId(), rows.get(1)[0]);
+    }
+
+    private ScheduledPayment persist(Instant scheduledAt, String claimedBy, Instant claimExpiresAt) {
+        ScheduledPayment payment = new ScheduledPayment();
+        payment.setSender(sender);
+        payment.setReceiver(receiver);
+        payment.setAmount(BigDecimal.TEN);
+        payment.setScheduledAt(scheduledAt);
+        payment.setStatus(TransactionStatus.PENDING);
+        payment.setCreatedAt(NOW.minusSeconds(3600));
+        payment.setClaimedBy(claimedBy);
+        payment.setClaimExpiresAt(claimExpiresAt);
+        return entityManager.persist(payment);
+    }
+
+    private User persistUser(String name, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPassword("hash");
+        return entityManager.persist(user);
+    }
+}
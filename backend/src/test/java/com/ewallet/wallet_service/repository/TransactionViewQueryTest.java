@@ -0,0 +1,142 @@
+package com.ewallet.wallet_service.repository;
+
+import com.ewallet.wallet_service.dto.projection.TransactionView;
+import com.ewallet.wallet_service.entity.*;
+import com.ewallet.wallet_service.service.util.KeysetCursor;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The listing projections must cost one statement per page, however many
+ * rows the page holds (no per-row wallet/user/VPA loads).
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class TransactionViewQueryTest {
+
+    private static final int TRANSFERS = 60;
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private TransactionRepository transactionRepository;
+
+    private Wallet alice;
+
+    @BeforeEach
+    void setUp() {
+        User aliceUser = persistUser("Alice", "alice@test.com");
+        User bobUser = persistUser("Bob", "bob@test.com");
+        alice = persistWallet(aliceUser);
+        Wallet bob = persistWallet(bobUser);
+
+        // Bob has no VPA: his side must come back null, not fail the join
+        VirtualPaymentAddress vpa = new VirtualPaymentAddress();
+        vpa.setUser(aliceUser);
+        vpa.setUpiId("alice@koshpay");
+        entityManager.persist(vpa);
+
+        Instant base = Instant.parse("2024-01-01T00:00:00Z");
+        for (int i = 0; i < TRANSFERS; i++) {
+            Transaction tx = new Transaction();
+            tx.setFromWallet(i % 2 == 0 ? alice : bob);
+            tx.setToWallet(i % 2 == 0 ? bob : alice);
+            tx.setAmount(BigDecimal.TEN);
+            tx.setTimestamp(base.plusSeconds(i));
+            entityManager.persist(tx);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics().clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 10, 30 })
+    void historyPage_IsOneStatementForAnyPageSize(int pageSize) {
+        List<TransactionView> page = transactionRepository.findSentPage(
+                alice.getId(),
+                EnumSet.allOf(TransactionStatus.class),
+                Instant.EPOCH,
+                KeysetCursor.START.timestamp(),
+                KeysetCursor.START.timestamp(),
+                KeysetCursor.START.id(),
+                PageRequest.of(0, pageSize));
+
+        assertEquals(pageSize, page.size());
+        assertEquals(1, statistics().getPrepareStatementCount());
+
+        TransactionView newest = page.get(0);
+        assertEquals(Instant.parse("2024-01-01T00:00:58Z"), newest.timestamp());
+        assertEquals("Alice", newest.fromUserName());
+        assertEquals("alice@koshpay", newest.fromUpi());
+        assertEquals("Bob", newest.toUserName());
+        assertNull(newest.toUpi());
+    }
+
+    @Test
+    void historyPage_ContinuesAfterCursor() {
+        List<TransactionView> first = transactionRepository.findReceivedPage(
+                alice.getId(), EnumSet.allOf(TransactionStatus.class),
+                Instant.EPOCH, KeysetCursor.START.timestamp(),
+                KeysetCursor.START.timestamp(), KeysetCursor.START.id(),
+                PageRequest.of(0, 10));
+        TransactionView last = first.get(first.size() - 1);
+
+        List<TransactionView> second = transactionRepository.findReceivedPage(
+                alice.getId(), EnumSet.allOf(TransactionStatus.class),
+                Instant.EPOCH, KeysetCursor.START.timestamp(),
+                last.timestamp(), last.id(),
+                PageRequest.of(0, 10));
+
+        assertEquals(10, second.size());
+        assertTrue(second.get(0).timestamp().isBefore(last.timestamp()));
+        assertTrue(second.stream().noneMatch(v -> first.stream().anyMatch(f -> f.id().equals(v.id()))));
+    }
+
+    @Test
+    void readModelCatchUpBatch_IsOneStatement() {
+        List<TransactionView> batch = transactionRepository.findUnprojectedViewsAfterId(0L, PageRequest.of(0, TRANSFERS));
+
+        assertEquals(TRANSFERS, batch.size());
+        assertEquals(1, statistics().getPrepareStatementCount());
+        assertTrue(batch.get(0).id() < batch.get(1).id());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private User persistUser(String name, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPassword("hash");
+        return entityManager.persist(user);
+    }
+
+    private Wallet persistWallet(User user) {
+        Wallet wallet = new Wallet();
+        wallet.setUser(user);
+        wallet.setBalance(BigDecimal.ZERO);
+        return entityManager.persist(wallet);
+    }
+}
@@ -0,0 +1,138 @@
+package com.ewallet.wallet_service.security;
+
+import com.ewallet.wallet_service.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredentialEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CredentialHashExecutor executor = new CredentialHashExecutor(meterRegistry, 2, 10);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    private CredentialEncoder encoder(CredentialEncoder.Scheme scheme, int workFactor) {
+        return new CredentialEncoder("test", scheme, workFactor, "pepper", executor, meterRegistry);
+    }
+
+    @Test
+    void bcrypt_EncodesAtConfiguredCost() {
+        CredentialEncoder encoder = encoder(CredentialEncoder.Scheme.BCRYPT, 5);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(hash.startsWith("$2a$05$"));
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+        assertEquals(1, meterRegistry.get("credentials.hash").tag("op", "encode").timer().count());
+    }
+
+    @Test
+    void bcrypt_CostChangeRequestsRehash() {
+        String oldHash = new BCryptPasswordEncoder(4).encode("secret");
+        CredentialEncoder encoder = encoder(CredentialEncoder.Scheme.BCRYPT, 5);
+
+        assertTrue(encoder.matches("secret", oldHash));
+        assertTrue(encoder.upgradeEncoding(oldHash));
+    }
+
+    @Test
+    void pbkdf2_IsSaltedAndVersioned() {
+        CredentialEncoder encoder = encoder(CredentialEncoder.Scheme.PBKDF2, 1000);
+
+        String first = encoder.encode("1234");
+        String second = encoder.encode("1234");
+
+        assertTrue(first.startsWith("{pbkdf2:1000}"));
+        assertNotEquals(first, second);
+        assertTrue(encoder.matches("1234", first));
+        assertFalse(encoder.matches("1235", first));
+        assertFalse(encoder.upgradeEncoding(first));
+    }
+
+    @Test
+    void pbkdf2_ReadsLegacyBcryptAndOtherIterations() {
+        String legacy = new BCryptPasswordEncoder(4).encode("1234");
+        String older = encoder(CredentialEncoder.Scheme.PBKDF2, 500).encode("1234");
+        CredentialEncoder encoder = encoder(CredentialEncoder.Scheme.PBKDF2, 1000);
+
+        assertTrue(encoder.matches("1234", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+        assertTrue(encoder.matches("1234", older));
+        assertTrue(encoder.upgradeEncoding(older));
+    }
+
+    @Test
+    void pbkdf2_WrongPepperDoesNotMatch() {
+        String hash = encoder(CredentialEncoder.Scheme.PBKDF2, 1000).encode("1234");
+        CredentialEncoder otherPepper = new CredentialEncoder(
+                "test", CredentialEncoder.Scheme.PBKDF2, 1000, "other", executor, meterRegistry);
+
+        assertFalse(otherPepper.matches("1234", hash));
+    }
+
+    @Test
+    void pbkdf2_RequiresPepper() {
+        assertThrows(IllegalArgumentException.class, () -> new CredentialEncoder(
+                "test", CredentialEncoder.Scheme.PBKDF2, 1000, " ", executor, meterRegistry));
+    }
+
+    @Test
+    void matches_RejectsGarbage() {
+        CredentialEncoder encoder = encoder(CredentialEncoder.Scheme.PBKDF2, 1000);
+
+        assertFalse(encoder.matches("1234", null));
+        assertFalse(encoder.matches("1234", "plain"));
+        assertFalse(encoder.matches("1234", "{pbkdf2:abc}00"));
+        assertFalse(encoder.matches("1234", "{pbkdf2:999999999}00"));
+    }
+
+    @Test
+    void executor_RejectsWhenQueueFull() throws Exception {
+        CredentialHashExecutor tiny = new CredentialHashExecutor(new SimpleMeterRegistry(), 1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Thread busy = new Thread(() -> tiny.call(() -> {
+                running.countDown();
+                await(release);
+                return null;
+            }));
+            busy.start();
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            Thread queued = new Thread(() -> tiny.call(() -> null));
+            queued.start();
+            while (queued.getState() != Thread.State.WAITING) {
+                Thread.onSpinWait();
+            }
+
+            assertThrows(ServiceBusyException.class, () -> tiny.call(() -> null));
+
+            release.countDown();
+            busy.join();
+            queued.join();
+        } finally {
+            tiny.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.ewallet.wallet_service.security;
+
+import com.ewallet.wallet_service.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IdentityCacheTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final IdentityCache cache =
+            new IdentityCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
+    @Test
+    void get_LoadsOnceThenServesFromMemory() {
+        when(userRepository.findIdentity("user@test.com"))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "User", 10L, "user@koshpay"}));
+
+        AuthenticatedUser first = cache.get("user@test.com");
+        AuthenticatedUser second = cache.get("user@test.com");
+
+        assertEquals(new AuthenticatedUser(1L, "user@test.com", "User", 10L, "user@koshpay"), first);
+        assertSame(first, second);
+        verify(userRepository, times(1)).findIdentity("user@test.com");
+    }
+
+    @Test
+    void get_UnknownEmailIsNotCached() {
+        when(userRepository.findIdentity("ghost@test.com")).thenReturn(List.of());
+
+        assertNull(cache.get("ghost@test.com"));
+        assertNull(cache.get("ghost@test.com"));
+
+        verify(userRepository, times(2)).findIdentity("ghost@test.com");
+    }
+}
@@ -7,16 +7,22 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.time.Instant;
+import java.util.Optional;
+
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 class JwtFilterTest {
 
     @Mock private JwtUtil jwtUtil;
+    @Mock private IdentityCache identityCache;
     @Mock private HttpServletRequest request;
     @Mock private HttpServletResponse response;
     @Mock private FilterChain filterChain;
@@ -42,9 +48,8 @@ class JwtFilterTest {
         String token = "good_token";
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtil.isTokenValid(token)).thenReturn(true);
-        when(jwtUtil.extractEmail(token)).thenReturn("user@test.com");
-        when(jwtUtil.extractRole(token)).thenReturn("ROLE_USER");
+        when(jwtUtil.verify(token)).thenReturn(Optional.of(
+                new JwtClaims("user@test.com", "ROLE_USER", Instant.now().plusSeconds(60))));
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
@@ -52,12 +57,46 @@ class JwtFilterTest {
         verify(securityContext).setAuthentication(any());
     }
 
+    @Test
+    void testUserToken_InstallsResolvedPrincipal() throws Exception {
+        String token = "good_token";
+        AuthenticatedUser user = new AuthenticatedUser(1L, "user@test.com", "User", 10L, "user@koshpay");
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtil.verify(token)).thenReturn(Optional.of(
+                new JwtClaims("user@test.com", "ROLE_USER", Instant.now().plusSeconds(60))));
+        when(identityCache.get("user@test.com")).thenReturn(user);
+
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        ArgumentCaptor<Authentication> auth = ArgumentCaptor.forClass(Authentication.class);
+        verify(securityContext).setAuthentication(auth.capture());
+        assertSame(user, auth.getValue().getPrincipal());
+        assertEquals("user@test.com", auth.getValue().getName());
+    }
+
+    @Test
+    void testAdminToken_KeepsEmailPrincipal() throws Exception {
+        String token = "admin_token";
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtil.verify(token)).thenReturn(Optional.of(
+                new JwtClaims("admin@test.com", "ROLE_SUPER_ADMIN", Instant.now().plusSeconds(60))));
+
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        ArgumentCaptor<Authentication> auth = ArgumentCaptor.forClass(Authentication.class);
+        verify(securityContext).setAuthentication(auth.capture());
+        assertEquals("admin@test.com", auth.getValue().getPrincipal());
+        verifyNoInteractions(identityCache);
+    }
+
     @Test
     void testInvalidToken_NoAuthentication() throws Exception {
         String token = "bad_token";
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtil.isTokenValid(token)).thenReturn(false);
+        when(jwtUtil.verify(token)).thenReturn(Optional.empty());
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
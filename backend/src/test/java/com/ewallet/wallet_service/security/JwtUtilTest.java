@@ -1,7 +1,14 @@
 package com.ewallet.wallet_service.security;
 
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class JwtUtilTest {
@@ -20,14 +27,58 @@ class JwtUtilTest {
         String token = jwtUtil.generateToken(testEmail, testRole);
         
         assertNotNull(token);
-        assertTrue(jwtUtil.isTokenValid(token));
-        assertEquals(testEmail, jwtUtil.extractEmail(token));
-        assertEquals(testRole, jwtUtil.extractRole(token));
+        JwtClaims claims = jwtUtil.verify(token).orElseThrow();
+        assertEquals(testEmail, claims.email());
+        assertEquals(testRole, claims.role());
+    }
+
+    @Test
+    void testVerify_CachedResultMatchesFirstParse() {
+        String token = jwtUtil.generateToken(testEmail, testRole);
+
+        JwtClaims first = jwtUtil.verify(token).orElseThrow();
+        JwtClaims second = jwtUtil.verify(token).orElseThrow();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void testVerify_WithoutCache() {
+        JwtUtil uncached = new JwtUtil(0, Duration.ofMinutes(5));
+        String token = uncached.generateToken(testEmail, testRole);
+
+        assertEquals(testEmail, uncached.verify(token).orElseThrow().email());
+    }
+
+    @Test
+    void testVerify_InvalidToken() {
+        assertTrue(jwtUtil.verify("invalid.token.here").isEmpty());
+        assertTrue(jwtUtil.verify(null).isEmpty());
     }
 
     @Test
-    void testIsTokenValid_InvalidToken() {
-        assertFalse(jwtUtil.isTokenValid("invalid.token.here"));
-        assertFalse(jwtUtil.isTokenValid(null));
+    void testVerify_TamperedTokenRejectedAfterValidOneCached() {
+        String token = jwtUtil.generateToken(testEmail, testRole);
+        jwtUtil.verify(token);
+
+        String[] parts = token.split("\\.");
+        String forged = Jwts.builder().setSubject("attacker@koshpay.com").claim("role", "ROLE_SUPER_ADMIN")
+                .signWith(Keys.hmacShaKeyFor("another_secret_key_1234567890123456789".getBytes()),
+                        SignatureAlgorithm.HS256)
+                .compact().split("\\.")[1];
+
+        assertTrue(jwtUtil.verify(parts[0] + "." + forged + "." + parts[2]).isEmpty());
+    }
+
+    @Test
+    void testVerify_ExpiredToken() {
+        String expired = Jwts.builder()
+                .setSubject(testEmail)
+                .claim("role", testRole)
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(jwtUtil.signingKey(), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertTrue(jwtUtil.verify(expired).isEmpty());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+package com.ewallet.wallet_service.security;
+
+import com.ewallet.wallet_service.entity.User;
+import com.ewallet.wallet_service.exception.InvalidRequestException;
+import com.ewallet.wallet_service.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PinVerifierTest {
+
+    private PasswordEncoder pinEncoder;
+    private UserRepository userRepository;
+    private PinVerifier pinVerifier;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        pinEncoder = mock(PasswordEncoder.class);
+        userRepository = mock(UserRepository.class);
+        pinVerifier = new PinVerifier(pinEncoder, userRepository, mock(PlatformTransactionManager.class));
+
+        user = new User();
+        user.setId(1L);
+        user.setTransactionPin("stored");
+
+        when(userRepository.reservePinAttempt(eq(1L), eq(5), any(), any())).thenReturn(1);
+    }
+
+    @Test
+    void verify_CorrectPin() {
+        when(pinEncoder.matches("1234", "stored")).thenReturn(true);
+
+        pinVerifier.verify(user, "1234");
+
+        // the reserved attempt is given back
+        InOrder order = inOrder(userRepository);
+        order.verify(userRepository).reservePinAttempt(eq(1L), eq(5), any(), any());
+        order.verify(userRepository).resetPinFailures(1L);
+        assertEquals("stored", user.getTransactionPin());
+    }
+
+    @Test
+    void verify_WrongPinCountedOutsideTransfer() {
+        when(pinEncoder.matches("0000", "stored")).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> pinVerifier.verify(user, "0000"));
+
+        verify(userRepository).reservePinAttempt(eq(1L), eq(5), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(userRepository, never()).resetPinFailures(any());
+    }
+
+    @Test
+    void verify_AttemptRefusedByDatabaseIsNeverHashed() {
+        // another request locked the PIN after this user row was read
+        when(userRepository.reservePinAttempt(eq(1L), eq(5), any(), any())).thenReturn(0);
+
+        assertThrows(InvalidRequestException.class, () -> pinVerifier.verify(user, "1234"));
+
+        verifyNoInteractions(pinEncoder);
+    }
+
+    @Test
+    void verify_LockedPinRejectedWithoutHashing() {
+        user.setPinLockedUntil(LocalDateTime.now().plusMinutes(5));
+
+        assertThrows(InvalidRequestException.class, () -> pinVerifier.verify(user, "1234"));
+
+        verifyNoInteractions(pinEncoder);
+        verify(userRepository, never()).reservePinAttempt(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void verify_SuccessResetsFailures() {
+        user.setPinFailedAttempts(3);
+        user.setPinLockedUntil(LocalDateTime.now().minusMinutes(1));
+        when(pinEncoder.matches("1234", "stored")).thenReturn(true);
+
+        pinVerifier.verify(user, "1234");
+
+        verify(userRepository).resetPinFailures(1L);
+        assertEquals(0, user.getPinFailedAttempts());
+        assertNull(user.getPinLockedUntil());
+    }
+
+    @Test
+    void verify_RehashesOutdatedPin() {
+        when(pinEncoder.matches("1234", "stored")).thenReturn(true);
+        when(pinEncoder.upgradeEncoding("stored")).thenReturn(true);
+        when(pinEncoder.encode("1234")).thenReturn("rehashed");
+
+        pinVerifier.verify(user, "1234");
+
+        assertEquals("rehashed", user.getTransactionPin());
+    }
+}
@@ -1,45 +1,38 @@
 package com.ewallet.wallet_service.service;
 
+import com.ewallet.wallet_service.dto.response.AdminAnalyticsResponse;
 import com.ewallet.wallet_service.dto.response.AdminSummaryResponse;
 import com.ewallet.wallet_service.dto.response.TransactionStatusDistributionResponse;
-import com.ewallet.wallet_service.entity.TransactionStatus;
-import com.ewallet.wallet_service.repository.AuditLogRepository;
-import com.ewallet.wallet_service.repository.TransactionRepository;
-import com.ewallet.wallet_service.repository.UserRepository;
+import com.ewallet.wallet_service.entity.TransactionRollup;
+import com.ewallet.wallet_service.service.AdminMetricsStore.Metric;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class AdminAnalyticsServiceTest {
 
-    private UserRepository userRepository;
-    private TransactionRepository transactionRepository;
-    private AuditLogRepository auditLogRepository;
+    private AdminMetricsStore metricsStore;
+    private TransactionRollupService rollupService;
     private AdminAnalyticsService adminAnalyticsService;
 
     @BeforeEach
     void setUp() {
-        userRepository = mock(UserRepository.class);
-        transactionRepository = mock(TransactionRepository.class);
-        auditLogRepository = mock(AuditLogRepository.class);
-        
-        adminAnalyticsService = new AdminAnalyticsService(
-            userRepository, 
-            transactionRepository, 
-            auditLogRepository
-        );
+        metricsStore = mock(AdminMetricsStore.class);
+        rollupService = mock(TransactionRollupService.class);
+        adminAnalyticsService = new AdminAnalyticsService(metricsStore, rollupService);
     }
 
     @Test
     void getSummary_Success() {
-        when(userRepository.count()).thenReturn(100L);
-        when(transactionRepository.count()).thenReturn(500L);
-        when(transactionRepository.sumSuccessfulTransactionVolume()).thenReturn(new BigDecimal("50000.00"));
-        when(auditLogRepository.countByActionTypeAndStatus("TRANSFER", "FRAUD_BLOCK")).thenReturn(5L);
+        when(metricsStore.count(Metric.USERS)).thenReturn(100L);
+        when(metricsStore.count(Metric.TRANSACTIONS)).thenReturn(500L);
+        when(metricsStore.value(Metric.SUCCESS_VOLUME)).thenReturn(new BigDecimal("50000.00"));
+        when(metricsStore.count(Metric.FRAUD_BLOCKED)).thenReturn(5L);
 
         AdminSummaryResponse summary = adminAnalyticsService.getSummary();
 
@@ -47,15 +40,15 @@ class AdminAnalyticsServiceTest {
         assertEquals(100L, summary.getTotalUsers());
         assertEquals(500L, summary.getTotalTransactions());
         assertEquals(new BigDecimal("50000.00"), summary.getTotalVolume());
-        assertEquals(5L, summary.getFraudBlockedCount()); 
+        assertEquals(5L, summary.getFraudBlockedCount());
     }
 
     @Test
     void getStatusDistribution_Success() {
-        when(transactionRepository.countByStatus(TransactionStatus.INITIATED)).thenReturn(10L);
-        when(transactionRepository.countByStatus(TransactionStatus.PENDING)).thenReturn(20L);
-        when(transactionRepository.countByStatus(TransactionStatus.SUCCESS)).thenReturn(100L);
-        when(transactionRepository.countByStatus(TransactionStatus.FAILED)).thenReturn(5L);
+        when(metricsStore.count(Metric.INITIATED)).thenReturn(10L);
+        when(metricsStore.count(Metric.PENDING)).thenReturn(20L);
+        when(metricsStore.count(Metric.SUCCESS)).thenReturn(100L);
+        when(metricsStore.count(Metric.FAILED)).thenReturn(5L);
 
         TransactionStatusDistributionResponse distribution = adminAnalyticsService.getStatusDistribution();
 
@@ -64,4 +57,19 @@ class AdminAnalyticsServiceTest {
         assertEquals(100L, distribution.getSuccess());
         assertEquals(5L, distribution.getFailed());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAnalytics_TodayFromDayRollup() {
+        TransactionRollup today = new TransactionRollup(TransactionRollup.Granularity.DAY, Instant.parse("2024-03-10T00:00:00Z"));
+        today.setTxCount(7);
+        today.setVolume(new BigDecimal("70.00"));
+        when(rollupService.today()).thenReturn(today);
+        when(metricsStore.count(Metric.TRANSACTIONS)).thenReturn(500L);
+
+        AdminAnalyticsResponse analytics = adminAnalyticsService.getAnalytics();
+
+        assertEquals(500L, analytics.getTotalTransactions());
+        assertEquals(7L, analytics.getTodayTransactions());
+        assertEquals(new BigDecimal("70.00"), analytics.getTodayVolume());
+    }
+}
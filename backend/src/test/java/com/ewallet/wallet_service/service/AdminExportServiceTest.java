@@ -0,0 +1,148 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.entity.*;
+import com.ewallet.wallet_service.service.AdminExportService.Format;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// NON_KEYWORDS: the tables have a column named "timestamp", which H2
+// reserves by default but MySQL/PostgreSQL accept unquoted
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:export;NON_KEYWORDS=TIMESTAMP",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AdminExportService.class)
+class AdminExportServiceTest {
+
+    private static final Instant BASE = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private AdminExportService exportService;
+
+    private Wallet alice;
+    private Wallet bob;
+
+    @BeforeEach
+    void setUp() {
+        User aliceUser = persistUser("Alice", "alice@test.com");
+        User bobUser = persistUser("Bob", "bob@test.com");
+        alice = persistWallet(aliceUser);
+        bob = persistWallet(bobUser);
+
+        VirtualPaymentAddress vpa = new VirtualPaymentAddress();
+        vpa.setUser(aliceUser);
+        vpa.setUpiId("alice@koshpay");
+        entityManager.persist(vpa);
+
+        for (int i = 0; i < 3; i++) {
+            Transaction tx = new Transaction();
+            tx.setFromWallet(alice);
+            tx.setToWallet(bob);
+            tx.setAmount(new BigDecimal("10.50"));
+            tx.setTimestamp(BASE.plusSeconds(60L * i));
+            entityManager.persist(tx);
+        }
+
+        AuditLog audit = new AuditLog();
+        audit.setUsername("ops, \"night\" shift");
+        audit.setActionType("TRANSFER");
+        audit.setStatus("SUCCESS");
+        audit.setTimestamp(BASE);
+        entityManager.persist(audit);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void transactionsCsv_HeaderThenOneLinePerRow() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportTransactions(out, Format.CSV, false, null, null);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, rows);
+        assertEquals(4, lines.length);
+        assertEquals("id,from_wallet_id,to_wallet_id,from_upi_id,to_upi_id,amount,status,timestamp", lines[0]);
+        assertTrue(lines[1].endsWith(",alice@koshpay,,10.50,SUCCESS,2024-01-01T00:00:00Z"), lines[1]);
+    }
+
+    @Test
+    void transactionsNdjsonGzip_RangeFiltered() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportTransactions(out, Format.NDJSON, true,
+                BASE.plusSeconds(60), BASE.plusSeconds(120));
+
+        byte[] raw;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            raw = in.readAllBytes();
+        }
+        String[] lines = new String(raw, StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(1, rows);
+        assertEquals(1, lines.length);
+        JsonNode row = new ObjectMapper().readTree(lines[0]);
+        assertEquals(alice.getId(), row.get("from_wallet_id").asLong());
+        assertEquals(bob.getId(), row.get("to_wallet_id").asLong());
+        assertTrue(row.get("to_upi_id").isNull());
+        assertEquals(new BigDecimal("10.50"), row.get("amount").decimalValue());
+        assertEquals("2024-01-01T00:01:00Z", row.get("timestamp").asText());
+    }
+
+    @Test
+    void auditLogsCsv_QuotesSpecialCharacters() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportAuditLogs(out, Format.CSV, false, null, null);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains(",\"ops, \"\"night\"\" shift\",TRANSFER,SUCCESS,"), lines[1]);
+    }
+
+    @Test
+    void emptyRange_WritesNothing() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportAuditLogs(out, Format.CSV, false, BASE.plusSeconds(3600), null);
+
+        assertEquals(0, rows);
+        assertEquals(0, out.size());
+    }
+
+    private User persistUser(String name, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPassword("hash");
+        return entityManager.persist(user);
+    }
+
+    private Wallet persistWallet(User user) {
+        Wallet wallet = new Wallet();
+        wallet.setUser(user);
+        wallet.setBalance(BigDecimal.ZERO);
+        return entityManager.persist(wallet);
+    }
+}
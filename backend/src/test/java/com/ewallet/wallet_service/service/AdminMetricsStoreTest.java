@@ -0,0 +1,216 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.entity.AdminMetric;
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.event.TransactionStatusChangedEvent;
+import com.ewallet.wallet_service.repository.AdminMetricRepository;
+import com.ewallet.wallet_service.repository.AuditLogRepository;
+import com.ewallet.wallet_service.repository.TransactionRepository;
+import com.ewallet.wallet_service.repository.UserRepository;
+import com.ewallet.wallet_service.service.AdminMetricsStore.Metric;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AdminMetricsStoreTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final AuditLogRepository auditLogRepository = mock(AuditLogRepository.class);
+    private final AdminMetricRepository metricRepository = mock(AdminMetricRepository.class);
+
+    // admin_metrics, shared with "other instances"
+    private final Map<String, BigDecimal> table = new ConcurrentHashMap<>();
+
+    private AdminMetricsStore store;
+
+    @BeforeEach
+    void setUp() {
+        when(metricRepository.save(any())).thenAnswer(inv -> {
+            AdminMetric row = inv.getArgument(0);
+            table.put(row.getName(), row.getValue());
+            return row;
+        });
+        when(metricRepository.increment(anyString(), any(), any())).thenAnswer(inv -> {
+            table.merge(inv.getArgument(0), inv.getArgument(1), BigDecimal::add);
+            return 1;
+        });
+        when(metricRepository.findAll()).thenAnswer(inv -> {
+            List<AdminMetric> rows = new ArrayList<>();
+            table.forEach((name, value) -> rows.add(new AdminMetric(name, value, Instant.now())));
+            return rows;
+        });
+
+        when(userRepository.count()).thenReturn(3L);
+        when(auditLogRepository.countByActionTypeAndStatus("TRANSFER", "FRAUD_BLOCK")).thenReturn(1L);
+        when(transactionRepository.findStatusTotals()).thenReturn(List.of(
+                new Object[] { TransactionStatus.SUCCESS, 2L, new BigDecimal("30.00") },
+                new Object[] { TransactionStatus.FAILED, 1L, new BigDecimal("5.00") }));
+
+        store = new AdminMetricsStore(userRepository, transactionRepository, auditLogRepository,
+                metricRepository, mock(PlatformTransactionManager.class));
+        store.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rebuild_RecountsFromSourceTables() {
+        assertEquals(3, store.count(Metric.USERS));
+        assertEquals(3, store.count(Metric.TRANSACTIONS));
+        assertEquals(2, store.count(Metric.SUCCESS));
+        assertEquals(1, store.count(Metric.FAILED));
+        assertEquals(0, store.count(Metric.PENDING));
+        assertEquals(1, store.count(Metric.FRAUD_BLOCKED));
+        assertEquals(new BigDecimal("30.00"), store.value(Metric.SUCCESS_VOLUME));
+        assertEquals(new BigDecimal("30.00"), table.get("SUCCESS_VOLUME"));
+    }
+
+    @Test
+    void statusTransitions_MoveCountsWithoutQueries() {
+        clearInvocations(transactionRepository);
+
+        store.onStatusChanged(event(TransactionStatus.INITIATED, null));
+        assertEquals(4, store.count(Metric.TRANSACTIONS));
+        assertEquals(1, store.count(Metric.INITIATED));
+
+        store.onStatusChanged(event(TransactionStatus.PENDING, TransactionStatus.INITIATED));
+        store.onStatusChanged(event(TransactionStatus.SUCCESS, TransactionStatus.PENDING));
+        assertEquals(0, store.count(Metric.INITIATED));
+        assertEquals(0, store.count(Metric.PENDING));
+        assertEquals(3, store.count(Metric.SUCCESS));
+        assertEquals(new BigDecimal("40.00"), store.value(Metric.SUCCESS_VOLUME));
+
+        // caller rolled back after SUCCESS
+        store.onStatusChanged(event(TransactionStatus.FAILED, TransactionStatus.SUCCESS));
+        assertEquals(2, store.count(Metric.SUCCESS));
+        assertEquals(2, store.count(Metric.FAILED));
+        assertEquals(new BigDecimal("30.00"), store.value(Metric.SUCCESS_VOLUME));
+        assertEquals(4, store.count(Metric.TRANSACTIONS));
+
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void success_CountedOnlyOnceTheCallerCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        store.onStatusChanged(event(TransactionStatus.SUCCESS, TransactionStatus.PENDING));
+        assertEquals(2, store.count(Metric.SUCCESS));
+        assertEquals(new BigDecimal("30.00"), store.value(Metric.SUCCESS_VOLUME));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(3, store.count(Metric.SUCCESS));
+        assertEquals(new BigDecimal("40.00"), store.value(Metric.SUCCESS_VOLUME));
+    }
+
+    @Test
+    void success_RolledBackIsNeverCounted() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        store.onStatusChanged(event(TransactionStatus.SUCCESS, TransactionStatus.PENDING));
+        // FAILED is recorded before the caller rolls back
+        store.onStatusChanged(event(TransactionStatus.FAILED, TransactionStatus.SUCCESS));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(2, store.count(Metric.SUCCESS));
+        assertEquals(2, store.count(Metric.FAILED));
+        assertEquals(new BigDecimal("30.00"), store.value(Metric.SUCCESS_VOLUME));
+    }
+
+    @Test
+    void usersAndFraudBlocks() {
+        store.recordUserRegistered();
+        store.recordAudit("TRANSFER", "FRAUD_BLOCK");
+        store.recordAudit("TRANSFER", "SUCCESS");
+
+        assertEquals(4, store.count(Metric.USERS));
+        assertEquals(2, store.count(Metric.FRAUD_BLOCKED));
+    }
+
+    @Test
+    void flush_AddsOnlyNewChangesAndPicksUpOtherInstances() {
+        store.onStatusChanged(event(TransactionStatus.INITIATED, null));
+        store.flush();
+
+        assertEquals(new BigDecimal("4"), table.get("TRANSACTIONS"));
+        assertEquals(4, store.count(Metric.TRANSACTIONS));
+
+        // nothing new: no updates, no double counting
+        clearInvocations(metricRepository);
+        store.flush();
+        verify(metricRepository, never()).increment(anyString(), any(), any());
+        assertEquals(4, store.count(Metric.TRANSACTIONS));
+
+        // another instance flushed two transfers
+        table.merge("TRANSACTIONS", BigDecimal.valueOf(2), BigDecimal::add);
+        store.flush();
+        assertEquals(6, store.count(Metric.TRANSACTIONS));
+    }
+
+    @Test
+    void reconcile_CorrectsDrift() {
+        // stale sweep failed a transfer in bulk, no event
+        store.onStatusChanged(event(TransactionStatus.INITIATED, null));
+        when(transactionRepository.findStatusTotals()).thenReturn(List.of(
+                new Object[] { TransactionStatus.SUCCESS, 2L, new BigDecimal("30.00") },
+                new Object[] { TransactionStatus.FAILED, 2L, new BigDecimal("15.00") }));
+
+        store.reconcile();
+
+        assertEquals(0, store.count(Metric.INITIATED));
+        assertEquals(2, store.count(Metric.FAILED));
+        assertEquals(4, store.count(Metric.TRANSACTIONS));
+        assertEquals(new BigDecimal("2"), table.get("FAILED"));
+
+        // later changes still add on top
+        store.onStatusChanged(event(TransactionStatus.INITIATED, null));
+        assertEquals(5, store.count(Metric.TRANSACTIONS));
+    }
+
+    @Test
+    void reconcile_KeepsAFlushCommittedMeanwhile() {
+        // another instance flushes two transfers that are not in this recount
+        when(transactionRepository.findStatusTotals()).thenAnswer(inv -> {
+            table.merge("TRANSACTIONS", BigDecimal.valueOf(2), BigDecimal::add);
+            return List.<Object[]>of(
+                    new Object[] { TransactionStatus.SUCCESS, 2L, new BigDecimal("30.00") },
+                    new Object[] { TransactionStatus.FAILED, 1L, new BigDecimal("5.00") });
+        });
+
+        store.reconcile();
+
+        assertEquals(new BigDecimal("5"), table.get("TRANSACTIONS"));
+        assertEquals(5, store.count(Metric.TRANSACTIONS));
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(status));
+    }
+
+    private static TransactionStatusChangedEvent event(TransactionStatus status, TransactionStatus previous) {
+        return new TransactionStatusChangedEvent(
+                99L, 1L, 2L, new BigDecimal("10.00"), Instant.now(), status, previous);
+    }
+}
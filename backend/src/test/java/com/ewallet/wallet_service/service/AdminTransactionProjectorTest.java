@@ -0,0 +1,262 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.dto.projection.TransactionView;
+import com.ewallet.wallet_service.entity.AdminTransactionRecord;
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.event.TransactionStatusChangedEvent;
+import com.ewallet.wallet_service.repository.AdminTransactionRecordRepository;
+import com.ewallet.wallet_service.repository.TransactionRepository;
+import com.ewallet.wallet_service.repository.VirtualPaymentAddressRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdminTransactionProjectorTest {
+
+    @Mock private AdminTransactionRecordRepository recordRepository;
+    @Mock private TransactionRepository transactionRepository;
+    @Mock private VirtualPaymentAddressRepository vpaRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private AdminTransactionProjector projector;
+
+    @BeforeEach
+    void setUp() {
+        // writer thread not started: events are written on the calling thread
+        projector = new AdminTransactionProjector(
+                recordRepository, transactionRepository, vpaRepository, transactionManager, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void initiated_InsertsRecordWithUpiIds() {
+        when(recordRepository.findAllById(Set.of(1L))).thenReturn(List.of());
+        when(vpaRepository.findUpiIdsByWalletIds(Set.of(10L, 20L)))
+                .thenReturn(List.<Object[]>of(new Object[] { 10L, "alice@koshpay" }));
+
+        projector.onStatusChanged(event(1L, TransactionStatus.INITIATED));
+
+        AdminTransactionRecord saved = savedRecords().get(0);
+        assertEquals(1L, saved.getTransactionId());
+        assertEquals("alice@koshpay", saved.getFromUpiId());
+        assertNull(saved.getToUpiId());
+        assertEquals(TransactionStatus.INITIATED, saved.getStatus());
+        assertTrue(saved.isNew());
+    }
+
+    @Test
+    void laterStatus_OnlyUpdatesStatus() {
+        AdminTransactionRecord existing = record(1L, TransactionStatus.INITIATED);
+        when(recordRepository.findAllById(Set.of(1L))).thenReturn(List.of(existing));
+
+        projector.onStatusChanged(event(1L, TransactionStatus.FAILED));
+
+        assertEquals(TransactionStatus.FAILED, existing.getStatus());
+        verify(recordRepository, never()).saveAll(any());
+        verifyNoInteractions(vpaRepository);
+    }
+
+    @Test
+    void batch_KeepsLatestEventPerTransferAndResolvesUpiIdsOnce() {
+        AdminTransactionRecord existing = record(1L, TransactionStatus.INITIATED);
+        when(recordRepository.findAllById(Set.of(1L, 2L, 3L))).thenReturn(List.of(existing));
+        when(vpaRepository.findUpiIdsByWalletIds(Set.of(10L, 20L))).thenReturn(List.of());
+
+        projector.apply(List.of(
+                event(1L, TransactionStatus.PENDING),
+                event(2L, TransactionStatus.INITIATED),
+                event(1L, TransactionStatus.SUCCESS),
+                event(3L, TransactionStatus.INITIATED),
+                event(2L, TransactionStatus.FAILED)));
+
+        assertEquals(TransactionStatus.SUCCESS, existing.getStatus());
+        List<AdminTransactionRecord> saved = savedRecords();
+        assertEquals(List.of(2L, 3L), saved.stream().map(AdminTransactionRecord::getTransactionId).toList());
+        assertEquals(TransactionStatus.FAILED, saved.get(0).getStatus());
+        verify(vpaRepository, times(1)).findUpiIdsByWalletIds(any());
+    }
+
+    @Test
+    void staleEvent_NeverMovesSettledRowBack() {
+        AdminTransactionRecord settled = record(1L, TransactionStatus.SUCCESS);
+        when(recordRepository.findAllById(Set.of(1L))).thenReturn(List.of(settled));
+
+        projector.apply(List.of(event(1L, TransactionStatus.PENDING)));
+
+        assertEquals(TransactionStatus.SUCCESS, settled.getStatus());
+    }
+
+    @Test
+    void startedWriter_TakesEventsOffTheCallingThread() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        when(recordRepository.findAllById(any())).thenAnswer(inv -> {
+            written.countDown();
+            return List.of(record(1L, TransactionStatus.INITIATED));
+        });
+
+        projector.start();
+        try {
+            projector.onStatusChanged(event(1L, TransactionStatus.FAILED));
+            assertTrue(written.await(5, TimeUnit.SECONDS));
+        } finally {
+            projector.stop();
+        }
+    }
+
+    @Test
+    void success_IsDeferredUntilCallerCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        when(recordRepository.findAllById(Set.of(1L))).thenReturn(List.of(record(1L, TransactionStatus.PENDING)));
+
+        projector.onStatusChanged(event(1L, TransactionStatus.SUCCESS));
+        verifyNoInteractions(recordRepository);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(TransactionSynchronization::afterCommit);
+
+        verify(recordRepository).findAllById(Set.of(1L));
+    }
+
+    @Test
+    void success_RolledBack_NeverProjected() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        projector.onStatusChanged(event(1L, TransactionStatus.SUCCESS));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(recordRepository);
+    }
+
+    @Test
+    void projectionFailure_DoesNotPropagate() {
+        when(recordRepository.findAllById(any())).thenThrow(new RuntimeException("db down"));
+
+        assertDoesNotThrow(() -> projector.onStatusChanged(event(1L, TransactionStatus.INITIATED)));
+    }
+
+    @Test
+    void failedBatch_IsRetriedOnTheWriterThread() throws Exception {
+        ReflectionTestUtils.setField(projector, "retryBackoffMs", 1L);
+        CountDownLatch written = new CountDownLatch(1);
+        AdminTransactionRecord existing = record(1L, TransactionStatus.INITIATED);
+        when(recordRepository.findAllById(any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenAnswer(inv -> {
+                    written.countDown();
+                    return List.of(existing);
+                });
+
+        projector.start();
+        try {
+            projector.onStatusChanged(event(1L, TransactionStatus.FAILED));
+            assertTrue(written.await(5, TimeUnit.SECONDS));
+        } finally {
+            projector.stop();
+        }
+        assertEquals(TransactionStatus.FAILED, existing.getStatus());
+    }
+
+    @Test
+    void catchUp_ProjectsTransfersWithoutRow() {
+        when(transactionRepository.findUnprojectedViewsAfterId(eq(0L), any())).thenReturn(List.of(view(3L), view(8L)));
+        when(transactionRepository.findUnprojectedViewsAfterId(eq(8L), any())).thenReturn(List.of());
+        // 3 was inserted by the writer thread after the anti-join read
+        when(recordRepository.findAllById(List.of(3L, 8L))).thenReturn(List.of(record(3L, TransactionStatus.SUCCESS)));
+
+        projector.catchUp();
+
+        List<AdminTransactionRecord> saved = savedRecords();
+        assertEquals(List.of(8L), saved.stream().map(AdminTransactionRecord::getTransactionId).toList());
+        assertEquals("alice@koshpay", saved.get(0).getFromUpiId());
+    }
+
+    @Test
+    void catchUp_FailureNeverFailsStartup_ReconcileRedoesIt() {
+        when(transactionRepository.findUnprojectedViewsAfterId(eq(0L), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(List.of());
+
+        assertDoesNotThrow(() -> projector.catchUp());
+        projector.reconcile();
+
+        verify(transactionRepository, times(2)).findUnprojectedViewsAfterId(eq(0L), any());
+    }
+
+    @Test
+    void unwrittenEvent_IsFilledInByNextReconcile() {
+        when(recordRepository.findAllById(any())).thenThrow(new RuntimeException("db down"));
+        projector.onStatusChanged(event(5L, TransactionStatus.INITIATED));
+
+        projector.reconcile();
+
+        verify(transactionRepository).findUnprojectedViewsAfterId(eq(4L), any());
+        // remembered once, swept once
+        projector.reconcile();
+        verify(transactionRepository, times(1)).findUnprojectedViewsAfterId(anyLong(), any());
+    }
+
+    @Test
+    void reconcile_SettlesRowsFromSourceOfTruth() {
+        when(recordRepository.findUnsettledIds(any(), any(), any())).thenReturn(List.of(1L, 2L));
+        when(transactionRepository.findStatusesByIds(List.of(1L, 2L))).thenReturn(List.of(
+                new Object[] { 1L, TransactionStatus.FAILED },
+                new Object[] { 2L, TransactionStatus.INITIATED }));
+
+        projector.reconcile();
+
+        verify(recordRepository).updateStatus(eq(1L), eq(TransactionStatus.FAILED), any());
+        verify(recordRepository, never()).updateStatus(eq(2L), any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AdminTransactionRecord> savedRecords() {
+        ArgumentCaptor<List<AdminTransactionRecord>> saved = ArgumentCaptor.forClass(List.class);
+        verify(recordRepository).saveAll(saved.capture());
+        return saved.getValue();
+    }
+
+    private static TransactionView view(Long id) {
+        return new TransactionView(
+                id, 10L, 20L, "Alice", "alice@koshpay", "Bob", null,
+                BigDecimal.TEN, Instant.now(), TransactionStatus.SUCCESS);
+    }
+
+    private static AdminTransactionRecord record(Long transactionId, TransactionStatus status) {
+        AdminTransactionRecord record = new AdminTransactionRecord();
+        record.setTransactionId(transactionId);
+        record.setStatus(status);
+        return record;
+    }
+
+    private static TransactionStatusChangedEvent event(Long transactionId, TransactionStatus status) {
+        return new TransactionStatusChangedEvent(transactionId, 10L, 20L, BigDecimal.TEN, Instant.now(), status, null);
+    }
+}
@@ -0,0 +1,134 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.dto.request.AdminTransactionFilter;
+import com.ewallet.wallet_service.dto.request.AdminTransactionFilter.SortField;
+import com.ewallet.wallet_service.dto.request.AdminTransactionFilter.SortOrder;
+import com.ewallet.wallet_service.dto.response.AdminTransactionResponse;
+import com.ewallet.wallet_service.entity.AdminTransactionRecord;
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.exception.InvalidRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+@Import(AdminTransactionQueryService.class)
+class AdminTransactionQueryServiceTest {
+
+    private static final Instant BASE = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private AdminTransactionQueryService queryService;
+
+    @BeforeEach
+    void setUp() {
+        // ids 1..40, one second apart; amounts cycle 10..50, so amount
+        // sorting needs the id tie-breaker
+        for (long id = 1; id <= 40; id++) {
+            AdminTransactionRecord record = new AdminTransactionRecord();
+            record.setTransactionId(id);
+            record.setFromWalletId(id % 2 == 0 ? 1L : 2L);
+            record.setToWalletId(id % 2 == 0 ? 2L : 1L);
+            record.setFromUpiId(id % 2 == 0 ? "alice@koshpay" : null);
+            record.setToUpiId(id % 2 == 0 ? null : "alice@koshpay");
+            record.setAmount(BigDecimal.valueOf(10 * (id % 5 + 1)));
+            record.setStatus(id % 4 == 0 ? TransactionStatus.FAILED : TransactionStatus.SUCCESS);
+            record.setTimestamp(BASE.plusSeconds(id));
+            record.setUpdatedAt(BASE);
+            entityManager.persist(record);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void defaultSort_NewestFirst_KeysetPagesCoverEverythingOnce() {
+        AdminTransactionFilter filter = new AdminTransactionFilter();
+        filter.setLimit(15);
+
+        List<Long> seen = collectAllPages(filter);
+
+        assertEquals(40, seen.size());
+        assertEquals(40L, seen.get(0));
+        assertEquals(1L, seen.get(39));
+    }
+
+    @Test
+    void amountSort_TiesBrokenById_NoRowSkippedOrRepeated() {
+        AdminTransactionFilter filter = new AdminTransactionFilter();
+        filter.setSort(SortField.AMOUNT);
+        filter.setOrder(SortOrder.ASC);
+        filter.setLimit(7);
+
+        List<Long> seen = collectAllPages(filter);
+
+        assertEquals(40, seen.size());
+        assertEquals(40, seen.stream().distinct().count());
+        // amount 10 rows first: ids 5, 10, ..., 40
+        assertEquals(List.of(5L, 10L, 15L, 20L, 25L, 30L, 35L), seen.subList(0, 7));
+    }
+
+    @Test
+    void filters_AreCombined() {
+        AdminTransactionFilter filter = new AdminTransactionFilter();
+        filter.setStatus(TransactionStatus.FAILED);
+        filter.setUpiId("alice@koshpay");
+        filter.setMinAmount(new BigDecimal("20"));
+        filter.setFrom(BASE.plusSeconds(10));
+        filter.setTo(BASE.plusSeconds(30));
+
+        List<AdminTransactionResponse> items = queryService.search(filter).items();
+
+        // FAILED = ids divisible by 4; in [10, 30): 12, 16, 20, 24, 28; amount >= 20 drops 20
+        assertEquals(List.of(28L, 24L, 16L, 12L),
+                items.stream().map(AdminTransactionResponse::getTransactionId).toList());
+        assertEquals("N/A", items.get(0).getToUpiId());
+    }
+
+    @Test
+    void walletFilter_MatchesEitherSide() {
+        AdminTransactionFilter filter = new AdminTransactionFilter();
+        filter.setWalletId(1L);
+        filter.setLimit(100);
+
+        assertEquals(40, queryService.search(filter).items().size());
+    }
+
+    @Test
+    void cursorFromAnotherSort_IsRejected() {
+        AdminTransactionFilter filter = new AdminTransactionFilter();
+        filter.setLimit(5);
+        String cursor = queryService.search(filter).nextCursor();
+
+        AdminTransactionFilter other = new AdminTransactionFilter();
+        other.setSort(SortField.AMOUNT);
+        other.setCursor(cursor);
+
+        assertThrows(InvalidRequestException.class, () -> queryService.search(other));
+    }
+
+    private List<Long> collectAllPages(AdminTransactionFilter filter) {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            filter.setCursor(cursor);
+            AdminTransactionQueryService.Page page = queryService.search(filter);
+            page.items().forEach(i -> seen.add(i.getTransactionId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return seen;
+    }
+}
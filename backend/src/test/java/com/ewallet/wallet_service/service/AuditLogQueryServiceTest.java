@@ -0,0 +1,145 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.dto.request.AuditLogFilter;
+import com.ewallet.wallet_service.dto.request.AuditLogFilter.CountMode;
+import com.ewallet.wallet_service.dto.response.AuditLogResponse;
+import com.ewallet.wallet_service.entity.AuditLog;
+import com.ewallet.wallet_service.exception.InvalidRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+        "app.admin.audit-logs.count-cap=5"
+})
+@Import(AuditLogQueryService.class)
+class AuditLogQueryServiceTest {
+
+    private static final Instant BASE = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private AuditLogQueryService queryService;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // 30 rows, two per second so the keyset needs the id tie-breaker;
+        // users 1..3, every third row a LOGIN, every fourth a FAILURE
+        for (int i = 0; i < 30; i++) {
+            AuditLog log = new AuditLog();
+            log.setUserId((long) (i % 3 + 1));
+            log.setUsername("user" + (i % 3 + 1));
+            log.setActionType(i % 3 == 0 ? "LOGIN" : "TRANSFER");
+            log.setStatus(i % 4 == 0 ? "FAILURE" : "SUCCESS");
+            log.setTimestamp(BASE.plusSeconds(i / 2));
+            ids.add(entityManager.persist(log).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void pagesAreNewestFirstAndCoverEverythingOnce() {
+        AuditLogFilter filter = new AuditLogFilter();
+        filter.setLimit(7);
+
+        List<Long> seen = new ArrayList<>();
+        AuditLogQueryService.Page page;
+        do {
+            page = queryService.search(filter);
+            page.items().forEach(e -> seen.add(e.getId()));
+            filter.setCursor(page.nextCursor());
+        } while (page.nextCursor() != null);
+
+        List<Long> expected = new ArrayList<>(ids);
+        expected.sort((a, b) -> Long.compare(b, a));
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void filtersCombine() {
+        AuditLogFilter filter = new AuditLogFilter();
+        filter.setUserId(1L);
+        filter.setActionType("LOGIN");
+        filter.setStatus("FAILURE");
+        filter.setFrom(BASE.plusSeconds(2));
+        filter.setTo(BASE.plusSeconds(12));
+
+        List<AuditLogResponse> items = queryService.search(filter).items();
+
+        // i % 3 == 0 and i % 4 == 0 -> i in {0, 12, 24}; 4 <= i < 24 leaves 12
+        assertEquals(List.of(ids.get(12)), items.stream().map(AuditLogResponse::getId).toList());
+        assertEquals("user1", items.get(0).getUsername());
+    }
+
+    @Test
+    void noCountByDefault() {
+        AuditLogQueryService.Page page = queryService.search(new AuditLogFilter());
+
+        assertNull(page.totalCount());
+    }
+
+    @Test
+    void estimate_SinglePageIsExact() {
+        AuditLogFilter filter = new AuditLogFilter();
+        filter.setUserId(2L);
+        filter.setCount(CountMode.ESTIMATE);
+
+        AuditLogQueryService.Page page = queryService.search(filter);
+
+        assertEquals(10L, page.totalCount());
+        assertTrue(page.totalExact());
+    }
+
+    @Test
+    void estimate_CappedWhenManyMatch() {
+        AuditLogFilter filter = new AuditLogFilter();
+        filter.setActionType("TRANSFER");
+        filter.setLimit(3);
+        filter.setCount(CountMode.ESTIMATE);
+
+        AuditLogQueryService.Page page = queryService.search(filter);
+
+        assertEquals(3, page.items().size());
+        assertEquals(5L, page.totalCount());
+        assertFalse(page.totalExact());
+    }
+
+    @Test
+    void estimate_ExactWhenUnderCap() {
+        AuditLogFilter filter = new AuditLogFilter();
+        filter.setUserId(3L);
+        filter.setStatus("FAILURE");
+        filter.setLimit(1);
+        filter.setCount(CountMode.ESTIMATE);
+
+        AuditLogQueryService.Page page = queryService.search(filter);
+
+        // i % 3 == 2 and i % 4 == 0 -> i in {8, 20}
+        assertEquals(2L, page.totalCount());
+        assertTrue(page.totalExact());
+    }
+
+    @Test
+    void invalidCursorAndLimitAreRejected() {
+        AuditLogFilter badCursor = new AuditLogFilter();
+        badCursor.setCursor("not-a-cursor");
+        assertThrows(InvalidRequestException.class, () -> queryService.search(badCursor));
+
+        AuditLogFilter badLimit = new AuditLogFilter();
+        badLimit.setLimit(0);
+        assertThrows(InvalidRequestException.class, () -> queryService.search(badLimit));
+    }
+}
@@ -2,15 +2,17 @@ package com.ewallet.wallet_service.service;
 
 import com.ewallet.wallet_service.entity.AuditLog;
 import com.ewallet.wallet_service.entity.User;
-import com.ewallet.wallet_service.repository.AuditLogRepository;
+import com.ewallet.wallet_service.service.util.AuditLogWriter;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mockito;
+import org.mockito.ArgumentCaptor;
 import java.math.BigDecimal;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class AuditLogServiceTest {
-    private final AuditLogRepository repository = mock(AuditLogRepository.class);
-    private final AuditLogService service = new AuditLogService(repository);
+    private final AuditLogWriter writer = mock(AuditLogWriter.class);
+    private final AdminMetricsStore metricsStore = mock(AdminMetricsStore.class);
+    private final AuditLogService service = new AuditLogService(writer, metricsStore);
 
     @Test
     void testLogWithUser() {
@@ -18,18 +20,29 @@ class AuditLogServiceTest {
         user.setId(1L);
         user.setEmail("test@koshpay.com");
         service.log(user, "LOGIN", "SUCCESS", BigDecimal.ZERO, BigDecimal.ZERO);
-        verify(repository).save(any(AuditLog.class));
+
+        ArgumentCaptor<AuditLog> captor = ArgumentCaptor.forClass(AuditLog.class);
+        verify(writer).enqueue(captor.capture());
+        assertEquals(1L, captor.getValue().getUserId());
+        assertEquals("test@koshpay.com", captor.getValue().getUsername());
+        assertNotNull(captor.getValue().getTimestamp());
+    }
+
+    @Test
+    void testLogFeedsDashboardMetrics() {
+        service.log(null, "TRANSFER", "FRAUD_BLOCK", BigDecimal.TEN, BigDecimal.TEN);
+        verify(metricsStore).recordAudit("TRANSFER", "FRAUD_BLOCK");
     }
 
     @Test
     void testLogWithNullUser() {
         service.log(null, "LOGIN", "SUCCESS", BigDecimal.ZERO, BigDecimal.ZERO);
-        verify(repository).save(any(AuditLog.class));
+        verify(writer).enqueue(argThat(a -> "Unknown".equals(a.getUsername())));
     }
 
     @Test
     void testLogExceptionHandling() {
-        doThrow(new RuntimeException("DB Down")).when(repository).save(any());
+        doThrow(new RuntimeException("Queue broken")).when(writer).enqueue(any());
         service.log(null, "LOGIN", "SUCCESS", BigDecimal.ZERO, BigDecimal.ZERO);
     }
-}
\ No newline at end of file
+}
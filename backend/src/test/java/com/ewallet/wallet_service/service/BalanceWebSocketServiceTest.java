@@ -2,6 +2,8 @@ package com.ewallet.wallet_service.service;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.math.BigDecimal;
 import static org.mockito.Mockito.*;
 
@@ -13,4 +15,23 @@ class BalanceWebSocketServiceTest {
         service.publishBalance(100L, BigDecimal.valueOf(500.50));
         verify(template).convertAndSend(eq("/topic/wallet/100"), any(Object.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPublishBalanceWaitsForCommit() {
+        SimpMessagingTemplate template = mock(SimpMessagingTemplate.class);
+        BalanceWebSocketService service = new BalanceWebSocketService(template);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.publishBalance(100L, BigDecimal.valueOf(500.50));
+            verifyNoInteractions(template);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(template).convertAndSend(eq("/topic/wallet/100"), any(Object.class));
+    }
+}
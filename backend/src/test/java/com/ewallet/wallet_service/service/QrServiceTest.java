@@ -4,6 +4,7 @@ import com.ewallet.wallet_service.entity.User;
 import com.ewallet.wallet_service.entity.VirtualPaymentAddress;
 import com.ewallet.wallet_service.repository.UserRepository;
 import com.ewallet.wallet_service.repository.VirtualPaymentAddressRepository;
+import com.ewallet.wallet_service.security.AuthenticatedUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.Authentication;
@@ -50,4 +51,19 @@ class QrServiceTest {
         assertTrue(payload.contains("pn=John+Doe"));
         assertTrue(payload.contains("am=100.00"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void generateQrPayload_FromResolvedPrincipal() {
+        Authentication auth = mock(Authentication.class);
+        when(auth.getPrincipal()).thenReturn(
+                new AuthenticatedUser(1L, "user@koshpay.com", "John Doe", 10L, "john@koshpay"));
+        SecurityContext securityContext = mock(SecurityContext.class);
+        when(securityContext.getAuthentication()).thenReturn(auth);
+        SecurityContextHolder.setContext(securityContext);
+
+        String payload = qrService.generateQrPayload(null);
+
+        assertEquals("upi://pay?pa=john@koshpay&pn=John+Doe&cu=INR", payload);
+        verifyNoInteractions(userRepository, vpaRepository);
+    }
+}
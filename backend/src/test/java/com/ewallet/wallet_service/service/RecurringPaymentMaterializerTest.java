@@ -0,0 +1,109 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.entity.*;
+import com.ewallet.wallet_service.repository.RecurringPaymentRuleRepository;
+import com.ewallet.wallet_service.repository.ScheduledPaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecurringPaymentMaterializerTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-10T08:55:00Z");
+
+    private final RecurringPaymentRuleRepository ruleRepository = mock(RecurringPaymentRuleRepository.class);
+    private final ScheduledPaymentRepository scheduledPaymentRepository = mock(ScheduledPaymentRepository.class);
+    private final ScheduledPaymentTimer timer = mock(ScheduledPaymentTimer.class);
+    private RecurringPaymentMaterializer materializer;
+
+    @BeforeEach
+    void setUp() {
+        materializer = new RecurringPaymentMaterializer(ruleRepository, scheduledPaymentRepository, timer,
+                mock(PlatformTransactionManager.class), Duration.ofMinutes(10), 2,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        when(scheduledPaymentRepository.save(any())).thenAnswer(i -> {
+            ScheduledPayment payment = i.getArgument(0);
+            payment.setId(500L);
+            return payment;
+        });
+    }
+
+    private static RecurringPaymentRule dailyAtNine(Instant nextRunAt) {
+        RecurringPaymentRule rule = new RecurringPaymentRule();
+        rule.setId(1L);
+        rule.setSender(new User());
+        rule.setReceiver(new VirtualPaymentAddress());
+        rule.setAmount(new BigDecimal("250"));
+        rule.setFrequency(RecurrenceFrequency.DAILY);
+        rule.setStartAt(Instant.parse("2024-01-01T09:00:00Z"));
+        rule.setNextRunAt(nextRunAt);
+        return rule;
+    }
+
+    @Test
+    void materializesNextOccurrenceAndAdvancesRule() {
+        RecurringPaymentRule rule = dailyAtNine(Instant.parse("2024-01-10T09:00:00Z"));
+        when(ruleRepository.findDue(eq(RecurringRuleStatus.ACTIVE), eq(NOW.plus(Duration.ofMinutes(10))), any()))
+                .thenReturn(List.of(rule));
+
+        materializer.materializeDue();
+
+        ArgumentCaptor<ScheduledPayment> saved = ArgumentCaptor.forClass(ScheduledPayment.class);
+        verify(scheduledPaymentRepository).save(saved.capture());
+        assertEquals(Instant.parse("2024-01-10T09:00:00Z"), saved.getValue().getScheduledAt());
+        assertEquals(TransactionStatus.PENDING, saved.getValue().getStatus());
+        assertEquals(new BigDecimal("250"), saved.getValue().getAmount());
+        assertSame(rule, saved.getValue().getRule());
+        verify(timer).schedule(500L, Instant.parse("2024-01-10T09:00:00Z"));
+
+        assertEquals(Instant.parse("2024-01-11T09:00:00Z"), rule.getNextRunAt());
+        assertEquals(RecurringRuleStatus.ACTIVE, rule.getStatus());
+    }
+
+    @Test
+    void overdueRuleRunsOnceAndSkipsMissedOccurrences() {
+        // down since the 5th: one catch-up payment, then tomorrow
+        RecurringPaymentRule rule = dailyAtNine(Instant.parse("2024-01-05T09:00:00Z"));
+        when(ruleRepository.findDue(any(), any(), any())).thenReturn(List.of(rule));
+
+        materializer.materializeDue();
+
+        verify(scheduledPaymentRepository, times(1)).save(any());
+        assertEquals(Instant.parse("2024-01-10T09:00:00Z"), rule.getNextRunAt());
+    }
+
+    @Test
+    void ruleCompletesAfterLastOccurrence() {
+        RecurringPaymentRule rule = dailyAtNine(Instant.parse("2024-01-10T09:00:00Z"));
+        rule.setEndAt(Instant.parse("2024-01-10T09:00:00Z"));
+        when(ruleRepository.findDue(any(), any(), any())).thenReturn(List.of(rule));
+
+        materializer.materializeDue();
+
+        assertNull(rule.getNextRunAt());
+        assertEquals(RecurringRuleStatus.COMPLETED, rule.getStatus());
+    }
+
+    @Test
+    void fullBatchLoadsAgain() {
+        when(ruleRepository.findDue(any(), any(), any()))
+                .thenReturn(List.of(dailyAtNine(NOW.plusSeconds(60)), dailyAtNine(NOW.plusSeconds(60))))
+                .thenReturn(List.of());
+
+        materializer.materializeDue();
+
+        verify(ruleRepository, times(2)).findDue(any(), any(), any());
+    }
+}
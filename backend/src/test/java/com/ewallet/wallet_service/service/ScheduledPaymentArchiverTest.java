@@ -0,0 +1,76 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.entity.ScheduledPayment;
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.repository.ScheduledPaymentArchiveRepository;
+import com.ewallet.wallet_service.repository.ScheduledPaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ScheduledPaymentArchiverTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T03:30:00Z");
+
+    private final ScheduledPaymentRepository repo = mock(ScheduledPaymentRepository.class);
+    private final ScheduledPaymentArchiveRepository archiveRepo = mock(ScheduledPaymentArchiveRepository.class);
+    private final ScheduledPaymentArchiver archiver = new ScheduledPaymentArchiver(repo, archiveRepo,
+            mock(PlatformTransactionManager.class), Duration.ofDays(30), 2, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    private static ScheduledPayment payment(long id) {
+        ScheduledPayment payment = new ScheduledPayment();
+        payment.setId(id);
+        return payment;
+    }
+
+    @Test
+    void movesFinishedPaymentsOlderThanRetention() {
+        when(repo.findArchivable(eq(TransactionStatus.SUCCESS), eq(NOW.minus(Duration.ofDays(30))), any()))
+                .thenReturn(List.of(payment(1), payment(2)))
+                .thenReturn(List.of(payment(3)));
+        when(repo.findArchivable(eq(TransactionStatus.FAILED), eq(NOW.minus(Duration.ofDays(30))), any()))
+                .thenReturn(List.of(payment(4)));
+        when(archiveRepo.copyFromScheduledPayments(any(), eq(NOW)))
+                .thenAnswer(i -> ((List<?>) i.getArgument(0)).size());
+
+        archiver.archive();
+
+        verify(archiveRepo).copyFromScheduledPayments(List.of(1L, 2L), NOW);
+        verify(repo).deleteByIdIn(List.of(1L, 2L));
+        verify(archiveRepo).copyFromScheduledPayments(List.of(3L), NOW);
+        verify(repo).deleteByIdIn(List.of(3L));
+        verify(archiveRepo).copyFromScheduledPayments(List.of(4L), NOW);
+        verify(repo).deleteByIdIn(List.of(4L));
+    }
+
+    @Test
+    void nothingToArchive() {
+        when(repo.findArchivable(any(), any(), any())).thenReturn(List.of());
+
+        archiver.archive();
+
+        verifyNoInteractions(archiveRepo);
+        verify(repo, never()).deleteByIdIn(any());
+        verify(repo).findArchivable(eq(TransactionStatus.SUCCESS), any(), any());
+        verify(repo).findArchivable(eq(TransactionStatus.FAILED), any(), any());
+    }
+
+    @Test
+    void neverDeletesWhatWasNotCopied() {
+        when(repo.findArchivable(any(), any(), any())).thenReturn(List.of(payment(1), payment(2)));
+        when(archiveRepo.copyFromScheduledPayments(any(), any())).thenReturn(1);
+
+        archiver.archive();
+
+        verify(repo, never()).deleteByIdIn(any());
+        verify(repo, times(1)).findArchivable(any(), any(), any());
+    }
+}
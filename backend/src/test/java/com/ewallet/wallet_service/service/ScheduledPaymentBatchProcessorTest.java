@@ -0,0 +1,185 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.entity.*;
+import com.ewallet.wallet_service.event.TransactionStatusChangedEvent;
+import com.ewallet.wallet_service.repository.ScheduledPaymentRepository;
+import com.ewallet.wallet_service.repository.WalletRepository;
+import com.ewallet.wallet_service.service.util.WalletLockManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ScheduledPaymentBatchProcessorTest {
+
+    private static final String NODE = "node-a";
+
+    private final ScheduledPaymentRepository scheduledPaymentRepository = mock(ScheduledPaymentRepository.class);
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final WalletLockManager walletLockManager = mock(WalletLockManager.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AuditLogService auditLogService = mock(AuditLogService.class);
+    private final BalanceWebSocketService balanceWebSocketService = mock(BalanceWebSocketService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+
+    private ScheduledPaymentBatchProcessor processor;
+
+    private User sender;
+    private Wallet senderWallet;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        processor = new ScheduledPaymentBatchProcessor(scheduledPaymentRepository, walletRepository,
+                walletLockManager, jdbcTemplate, auditLogService, balanceWebSocketService,
+                eventPublisher, mock(PlatformTransactionManager.class));
+
+        sender = user(1L);
+        senderWallet = wallet(10L, sender, "300");
+
+        // the insert batch hands back ids 100, 101, ...
+        Connection connection = mock(Connection.class);
+        ResultSet keys = mock(ResultSet.class);
+        when(connection.prepareStatement(anyString(), any(String[].class))).thenReturn(statement);
+        when(statement.getGeneratedKeys()).thenReturn(keys);
+        when(keys.next()).thenReturn(true);
+        when(keys.getLong(1)).thenReturn(100L, 101L, 102L);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(inv ->
+                inv.getArgument(0, ConnectionCallback.class).doInConnection(connection));
+    }
+
+    @Test
+    void executeGroup_DebitsSenderOnceForEveryPayment() throws Exception {
+        Wallet bob = wallet(20L, user(2L), "0");
+        Wallet carol = wallet(30L, user(3L), "0");
+        ScheduledPayment first = payment(1L, bob, "100");
+        ScheduledPayment second = payment(2L, carol, "150");
+        givenGroup(List.of(first, second), senderWallet, bob, carol);
+
+        List<Long> skipped = processor.executeGroup(List.of(1L, 2L), NODE);
+
+        assertTrue(skipped.isEmpty());
+        assertEquals(new BigDecimal("50"), senderWallet.getBalance());
+        assertEquals(new BigDecimal("100"), bob.getBalance());
+        assertEquals(new BigDecimal("150"), carol.getBalance());
+        assertEquals(TransactionStatus.SUCCESS, first.getStatus());
+        assertTrue(second.isExecuted());
+
+        verify(walletLockManager, times(1)).lock(any(Wallet[].class));
+        verify(statement, times(2)).addBatch();
+        verify(statement).executeBatch();
+        verify(balanceWebSocketService).publishBalance(10L, new BigDecimal("50"));
+        verify(eventPublisher, times(4)).publishEvent(any(TransactionStatusChangedEvent.class));
+        verify(eventPublisher).publishEvent(new TransactionStatusChangedEvent(101L, 10L, 30L,
+                new BigDecimal("150"), second.getExecutedAt(), TransactionStatus.SUCCESS, TransactionStatus.INITIATED));
+    }
+
+    @Test
+    void executeGroup_InsufficientBalanceFailsOnlyThatPayment() {
+        Wallet bob = wallet(20L, user(2L), "0");
+        ScheduledPayment big = payment(1L, bob, "250");
+        ScheduledPayment tooMuch = payment(2L, bob, "100");
+        ScheduledPayment small = payment(3L, bob, "50");
+        givenGroup(List.of(big, tooMuch, small), senderWallet, bob);
+
+        processor.executeGroup(List.of(1L, 2L, 3L), NODE);
+
+        assertEquals(TransactionStatus.SUCCESS, big.getStatus());
+        assertEquals(TransactionStatus.FAILED, tooMuch.getStatus());
+        assertEquals("Insufficient balance", tooMuch.getFailureReason());
+        assertTrue(tooMuch.isExecuted());
+        assertEquals(TransactionStatus.SUCCESS, small.getStatus());
+        assertEquals(BigDecimal.ZERO, senderWallet.getBalance().stripTrailingZeros());
+        verify(auditLogService).log(sender, "SCHEDULED_TRANSFER", "FAILED",
+                new BigDecimal("50"), new BigDecimal("50"));
+    }
+
+    @Test
+    void executeGroup_MissingReceiverWalletWritesNoTransaction() {
+        ScheduledPayment orphan = payment(1L, null, "10");
+        orphan.getReceiver().setUser(user(9L));
+        givenGroup(List.of(orphan), senderWallet);
+
+        processor.executeGroup(List.of(1L), NODE);
+
+        assertEquals(TransactionStatus.FAILED, orphan.getStatus());
+        assertEquals("Receiver wallet not found", orphan.getFailureReason());
+        verifyNoInteractions(jdbcTemplate, eventPublisher);
+    }
+
+    @Test
+    void executeGroup_SkipsPaymentsNoLongerClaimed() {
+        Wallet bob = wallet(20L, user(2L), "0");
+        ScheduledPayment mine = payment(1L, bob, "10");
+        ScheduledPayment taken = payment(2L, bob, "10");
+        taken.setClaimedBy("node-b");
+        givenGroup(List.of(mine, taken), senderWallet, bob);
+
+        List<Long> skipped = processor.executeGroup(List.of(1L, 2L, 3L), NODE);
+
+        assertEquals(List.of(2L, 3L), skipped);
+        assertFalse(taken.isExecuted());
+        assertEquals(TransactionStatus.PENDING, taken.getStatus());
+    }
+
+    @Test
+    void executeGroup_RollbackPublishesNothing() {
+        Wallet bob = wallet(20L, user(2L), "0");
+        givenGroup(List.of(payment(1L, bob, "10")), senderWallet, bob);
+        doThrow(new IllegalStateException("connection reset"))
+                .when(jdbcTemplate).execute(any(ConnectionCallback.class));
+
+        assertThrows(IllegalStateException.class, () -> processor.executeGroup(List.of(1L), NODE));
+
+        verifyNoInteractions(eventPublisher, auditLogService, balanceWebSocketService);
+    }
+
+    private void givenGroup(List<ScheduledPayment> payments, Wallet... wallets) {
+        when(scheduledPaymentRepository.findAllByIdForUpdate(any())).thenReturn(payments);
+        when(walletRepository.findAllByUserIdIn(any())).thenReturn(List.of(wallets));
+    }
+
+    private ScheduledPayment payment(Long id, Wallet receiver, String amount) {
+        VirtualPaymentAddress vpa = new VirtualPaymentAddress();
+        if (receiver != null) {
+            vpa.setUser(receiver.getUser());
+        }
+
+        ScheduledPayment payment = new ScheduledPayment();
+        payment.setId(id);
+        payment.setSender(sender);
+        payment.setReceiver(vpa);
+        payment.setAmount(new BigDecimal(amount));
+        payment.setScheduledAt(Instant.now().minusSeconds(60));
+        payment.setStatus(TransactionStatus.PENDING);
+        payment.setClaimedBy(NODE);
+        return payment;
+    }
+
+    private static Wallet wallet(Long id, User user, String balance) {
+        Wallet wallet = new Wallet();
+        wallet.setId(id);
+        wallet.setUser(user);
+        wallet.setBalance(new BigDecimal(balance));
+        return wallet;
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
@@ -1,21 +1,163 @@
 package com.ewallet.wallet_service.service;
 
 import com.ewallet.wallet_service.entity.ScheduledPayment;
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.exception.ServiceBusyException;
 import com.ewallet.wallet_service.repository.ScheduledPaymentRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
 import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class ScheduledPaymentExecutorTest {
+
+    private final ScheduledPaymentRepository repo = mock(ScheduledPaymentRepository.class);
+    private final ScheduledPaymentProcessingService proc = mock(ScheduledPaymentProcessingService.class);
+    private final ScheduledPaymentBatchProcessor batch = mock(ScheduledPaymentBatchProcessor.class);
+    private ScheduledPaymentExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    private ScheduledPaymentExecutor executor(int batchSize) {
+        return executor(batchSize, ScheduledPaymentExecutor.ExecutionMode.PER_PAYMENT, 100);
+    }
+
+    private ScheduledPaymentExecutor executor(int batchSize, ScheduledPaymentExecutor.ExecutionMode mode, int groupSize) {
+        executor = new ScheduledPaymentExecutor(repo, proc, batch, mock(PlatformTransactionManager.class),
+                "test", 2, batchSize, Duration.ofMinutes(2), mode, groupSize);
+        return executor;
+    }
+
+    private static ScheduledPayment payment(long id) {
+        ScheduledPayment payment = new ScheduledPayment();
+        payment.setId(id);
+        return payment;
+    }
+
     @Test
     void testProcessLoop() {
-        ScheduledPaymentRepository repo = mock(ScheduledPaymentRepository.class);
-        ScheduledPaymentProcessingService proc = mock(ScheduledPaymentProcessingService.class);
-        ScheduledPaymentExecutor executor = new ScheduledPaymentExecutor(repo, proc);
+        ScheduledPaymentExecutor executor = executor(10);
+        String node = executor.getNodeId();
+        when(repo.findClaimable(any(), eq(TransactionStatus.PENDING), any()))
+                .thenReturn(List.of(payment(1), payment(2)));
+
+        executor.processScheduledPayments();
+
+        verify(repo).claim(eq(List.of(1L, 2L)), eq(node), any());
+        verify(proc).executeClaimed(1L, node);
+        verify(proc).executeClaimed(2L, node);
+        verify(repo).releaseClaims(List.of(1L, 2L), node);
+    }
+
+    @Test
+    void testNothingDue() {
+        ScheduledPaymentExecutor executor = executor(10);
+        when(repo.findClaimable(any(), any(), any())).thenReturn(List.of());
+
+        executor.processScheduledPayments();
+
+        verify(repo, never()).claim(any(), any(), any());
+        verifyNoInteractions(proc);
+    }
+
+    @Test
+    void testFullBatchClaimsAgain() {
+        ScheduledPaymentExecutor executor = executor(2);
+        when(repo.findClaimable(any(), any(), any()))
+                .thenReturn(List.of(payment(1), payment(2)))
+                .thenReturn(List.of(payment(3)));
+
+        executor.processScheduledPayments();
+
+        verify(repo, times(2)).findClaimable(any(), any(), any());
+        verify(proc, times(3)).executeClaimed(anyLong(), eq(executor.getNodeId()));
+    }
+
+    @Test
+    void testFailedPaymentDoesNotStopBatch() {
+        ScheduledPaymentExecutor executor = executor(10);
+        String node = executor.getNodeId();
+        when(repo.findClaimable(any(), any(), any())).thenReturn(List.of(payment(1), payment(2)));
+        when(proc.executeClaimed(1L, node)).thenThrow(new IllegalStateException("deadlock"));
+
+        executor.processScheduledPayments();
+
+        verify(proc).executeClaimed(2L, node);
+        verify(repo).releaseClaims(List.of(1L, 2L), node);
+    }
+
+    @Test
+    void testNodeIdsAreUniquePerProcess() {
+        ScheduledPaymentExecutor other = new ScheduledPaymentExecutor(repo, proc, batch,
+                mock(PlatformTransactionManager.class), "test", 1, 1, Duration.ofMinutes(2),
+                ScheduledPaymentExecutor.ExecutionMode.PER_PAYMENT, 100);
+        try {
+            assertTrue(executor(10).getNodeId().startsWith("test-"));
+            assertNotEquals(executor.getNodeId(), other.getNodeId());
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    @Test
+    void testBySenderRunsOneGroupPerSender() {
+        ScheduledPaymentExecutor executor = executor(10, ScheduledPaymentExecutor.ExecutionMode.BY_SENDER, 2);
+        String node = executor.getNodeId();
+        when(repo.findClaimable(any(), any(), any()))
+                .thenReturn(List.of(payment(1), payment(2), payment(3), payment(4)));
+        when(repo.findSenderIds(List.of(1L, 2L, 3L, 4L))).thenReturn(List.of(
+                new Object[] {1L, 7L}, new Object[] {3L, 7L}, new Object[] {4L, 7L},
+                new Object[] {2L, 8L}));
+        when(batch.executeGroup(any(), eq(node))).thenReturn(List.of());
 
-        when(repo.findPendingPayments(any())).thenReturn(List.of(new ScheduledPayment()));
         executor.processScheduledPayments();
-        
-        verify(proc, times(1)).executeSinglePayment(any());
+
+        // sender 7 split at group-size; sender 8 alone goes the per-payment way
+        verify(batch).executeGroup(List.of(1L, 3L), node);
+        verify(batch).executeGroup(List.of(4L), node);
+        verify(proc).executeClaimed(2L, node);
+        verify(repo).releaseClaims(List.of(1L, 2L, 3L, 4L), node);
+    }
+
+    @Test
+    void testRolledBackGroupRunsOneByOne() {
+        ScheduledPaymentExecutor executor = executor(10, ScheduledPaymentExecutor.ExecutionMode.BY_SENDER, 100);
+        String node = executor.getNodeId();
+        when(repo.findClaimable(any(), any(), any())).thenReturn(List.of(payment(1), payment(2)));
+        when(repo.findSenderIds(any())).thenReturn(List.of(new Object[] {1L, 7L}, new Object[] {2L, 7L}));
+        when(batch.executeGroup(List.of(1L, 2L), node)).thenThrow(new IllegalStateException("deadlock"));
+
+        executor.processScheduledPayments();
+
+        verify(proc).executeClaimed(1L, node);
+        verify(proc).executeClaimed(2L, node);
+    }
+
+    @Test
+    void testBusyWalletReleasesPaymentsForTheNextPoll() {
+        ScheduledPaymentExecutor executor = executor(10, ScheduledPaymentExecutor.ExecutionMode.BY_SENDER, 100);
+        String node = executor.getNodeId();
+        when(repo.findClaimable(any(), any(), any()))
+                .thenReturn(List.of(payment(1), payment(2), payment(3)));
+        when(repo.findSenderIds(any())).thenReturn(List.of(
+                new Object[] {1L, 7L}, new Object[] {2L, 7L}, new Object[] {3L, 8L}));
+        when(batch.executeGroup(List.of(1L, 2L), node)).thenThrow(new ServiceBusyException("busy"));
+        when(proc.executeClaimed(3L, node)).thenThrow(new ServiceBusyException("busy"));
+
+        executor.processScheduledPayments();
+
+        // no one-by-one retry against the same busy wallets
+        verify(proc, never()).executeClaimed(1L, node);
+        verify(proc, never()).executeClaimed(2L, node);
+        verify(repo).releaseClaims(List.of(1L, 2L, 3L), node);
     }
-}
\ No newline at end of file
+}
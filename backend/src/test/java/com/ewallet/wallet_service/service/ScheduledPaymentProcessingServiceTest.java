@@ -1,7 +1,9 @@
 package com.ewallet.wallet_service.service;
 
 import com.ewallet.wallet_service.entity.*;
+import com.ewallet.wallet_service.exception.ServiceBusyException;
 import com.ewallet.wallet_service.repository.*;
+import com.ewallet.wallet_service.service.util.WalletLockManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -9,6 +11,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,6 +26,7 @@ class ScheduledPaymentProcessingServiceTest {
     @Mock private AuditLogService auditLogService;
     @Mock private BalanceWebSocketService balanceWebSocketService;
     @Mock private TransactionStatusService statusService;
+    @Mock private WalletLockManager walletLockManager;
 
     @InjectMocks
     private ScheduledPaymentProcessingService service;
@@ -86,4 +90,71 @@ class ScheduledPaymentProcessingServiceTest {
         assertEquals(TransactionStatus.FAILED, payment.getStatus());
         verify(scheduledPaymentRepository).save(payment);
     }
-}
\ No newline at end of file
+
+    @Test
+    void executeClaimed_shouldRunPaymentClaimedByOwner() {
+
+        ScheduledPayment payment =
+                createPayment(new BigDecimal("1000"), new BigDecimal("200"));
+        payment.setStatus(TransactionStatus.PENDING);
+        payment.setScheduledAt(Instant.now().minusSeconds(5));
+        payment.setClaimedBy("node-a");
+        when(scheduledPaymentRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(payment));
+
+        assertTrue(service.executeClaimed(5L, "node-a"));
+
+        assertTrue(payment.isExecuted());
+        assertEquals(TransactionStatus.SUCCESS, payment.getStatus());
+    }
+
+    @Test
+    void executeClaimed_shouldSkipPaymentClaimedByAnotherNode() {
+
+        ScheduledPayment payment = new ScheduledPayment();
+        payment.setStatus(TransactionStatus.PENDING);
+        payment.setScheduledAt(Instant.now().minusSeconds(5));
+        payment.setClaimedBy("node-b");
+        when(scheduledPaymentRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(payment));
+
+        assertFalse(service.executeClaimed(5L, "node-a"));
+
+        verifyNoInteractions(walletRepository, statusService);
+        verify(scheduledPaymentRepository, never()).save(any());
+    }
+
+    @Test
+    void executeClaimed_shouldSkipAlreadyExecutedPayment() {
+
+        ScheduledPayment payment = new ScheduledPayment();
+        payment.setStatus(TransactionStatus.SUCCESS);
+        payment.setExecuted(true);
+        payment.setScheduledAt(Instant.now().minusSeconds(5));
+        payment.setClaimedBy("node-a");
+        when(scheduledPaymentRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(payment));
+
+        assertFalse(service.executeClaimed(5L, "node-a"));
+
+        verifyNoInteractions(walletRepository, statusService);
+    }
+
+    @Test
+    void executeClaimed_busyWallet_isLeftPendingForTheNextPoll() {
+
+        ScheduledPayment payment =
+                createPayment(new BigDecimal("1000"), new BigDecimal("200"));
+        payment.setStatus(TransactionStatus.PENDING);
+        payment.setScheduledAt(Instant.now().minusSeconds(5));
+        payment.setClaimedBy("node-a");
+        when(scheduledPaymentRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(payment));
+        when(walletLockManager.lock(any(), any()))
+                .thenThrow(new ServiceBusyException("Wallet is busy, please retry shortly"));
+
+        assertThrows(ServiceBusyException.class, () -> service.executeClaimed(5L, "node-a"));
+
+        assertFalse(payment.isExecuted());
+        assertEquals(TransactionStatus.PENDING, payment.getStatus());
+        assertNull(payment.getFailureReason());
+        verify(statusService).updateStatus(any(), eq(TransactionStatus.FAILED));
+        verify(scheduledPaymentRepository, never()).save(any());
+    }
+}
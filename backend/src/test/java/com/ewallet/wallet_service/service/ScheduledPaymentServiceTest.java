@@ -1,6 +1,10 @@
 package com.ewallet.wallet_service.service;
 
+import com.ewallet.wallet_service.dto.request.RecurringScheduleRequest;
 import com.ewallet.wallet_service.entity.*;
+import com.ewallet.wallet_service.exception.InvalidRequestException;
+import com.ewallet.wallet_service.exception.ResourceNotFoundException;
+import com.ewallet.wallet_service.repository.RecurringPaymentRuleRepository;
 import com.ewallet.wallet_service.repository.ScheduledPaymentRepository;
 import com.ewallet.wallet_service.repository.UserRepository;
 import com.ewallet.wallet_service.repository.VirtualPaymentAddressRepository;
@@ -26,6 +30,8 @@ class ScheduledPaymentServiceTest {
     @Mock private ScheduledPaymentRepository scheduledPaymentRepository;
     @Mock private UserRepository userRepository;
     @Mock private VirtualPaymentAddressRepository vpaRepository;
+    @Mock private ScheduledPaymentTimer scheduledPaymentTimer;
+    @Mock private RecurringPaymentRuleRepository recurringRuleRepository;
 
     @InjectMocks private ScheduledPaymentService scheduledPaymentService;
 
@@ -37,10 +43,15 @@ class ScheduledPaymentServiceTest {
     @BeforeEach
     void setUp() {
         testUser = new User();
+        testUser.setId(1L);
         testUser.setEmail(email);
 
+        User receiverUser = new User();
+        receiverUser.setId(2L);
+
         testVpa = new VirtualPaymentAddress();
         testVpa.setUpiId("receiver@upi");
+        testVpa.setUser(receiverUser);
 
         testPayment = new ScheduledPayment();
         testPayment.setId(1L);
@@ -73,18 +84,19 @@ class ScheduledPaymentServiceTest {
 
     @Test
     void updateSchedule_Success() {
-        when(scheduledPaymentRepository.findById(1L)).thenReturn(Optional.of(testPayment));
+        when(scheduledPaymentRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testPayment));
         when(scheduledPaymentRepository.save(any())).thenReturn(testPayment);
 
         ScheduledPayment updated = scheduledPaymentService.updateSchedule(1L, email, new BigDecimal("500"), Instant.now());
 
         assertEquals(new BigDecimal("500"), updated.getAmount());
         verify(scheduledPaymentRepository).save(testPayment);
+        verify(scheduledPaymentTimer).schedule(1L, updated.getScheduledAt());
     }
 
     @Test
     void updateSchedule_Throws_WhenUnauthorized() {
-        when(scheduledPaymentRepository.findById(1L)).thenReturn(Optional.of(testPayment));
+        when(scheduledPaymentRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testPayment));
         assertThrows(RuntimeException.class, () -> 
             scheduledPaymentService.updateSchedule(1L, "wrong@email.com", BigDecimal.TEN, Instant.now()));
     }
@@ -92,7 +104,7 @@ class ScheduledPaymentServiceTest {
     @Test
     void updateSchedule_Throws_WhenAlreadyExecuted() {
         testPayment.setExecuted(true);
-        when(scheduledPaymentRepository.findById(1L)).thenReturn(Optional.of(testPayment));
+        when(scheduledPaymentRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testPayment));
         
         assertThrows(RuntimeException.class, () -> 
             scheduledPaymentService.updateSchedule(1L, email, BigDecimal.TEN, Instant.now()));
@@ -100,18 +112,19 @@ class ScheduledPaymentServiceTest {
 
     @Test
     void cancelSchedule_Success() {
-        when(scheduledPaymentRepository.findById(1L)).thenReturn(Optional.of(testPayment));
+        when(scheduledPaymentRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testPayment));
 
         scheduledPaymentService.cancelSchedule(1L, email);
 
         assertEquals(TransactionStatus.FAILED, testPayment.getStatus());
         assertEquals("Cancelled by user", testPayment.getFailureReason());
         verify(scheduledPaymentRepository).save(testPayment);
+        verify(scheduledPaymentTimer).cancel(1L);
     }
 
     @Test
     void cancelSchedule_Throws_WhenNotFound() {
-        when(scheduledPaymentRepository.findById(99L)).thenReturn(Optional.empty());
+        when(scheduledPaymentRepository.findByIdForUpdate(99L)).thenReturn(Optional.empty());
         assertThrows(RuntimeException.class, () -> scheduledPaymentService.cancelSchedule(99L, email));
     }
 
@@ -125,4 +138,141 @@ class ScheduledPaymentServiceTest {
         assertFalse(result.isEmpty());
         assertEquals(1, result.size());
     }
-}
\ No newline at end of file
+
+    // =============================
+    // RECURRING SCHEDULES
+    // =============================
+
+    private RecurringScheduleRequest dailyRequest() {
+        RecurringScheduleRequest request = new RecurringScheduleRequest();
+        request.setReceiverUpiId("receiver@upi");
+        request.setAmount(new BigDecimal("100"));
+        request.setFrequency(RecurrenceFrequency.DAILY);
+        request.setStartAt(Instant.now().plusSeconds(3600));
+        return request;
+    }
+
+    private RecurringPaymentRule activeRule() {
+        RecurringPaymentRule rule = new RecurringPaymentRule();
+        rule.setId(5L);
+        rule.setSender(testUser);
+        rule.setReceiver(testVpa);
+        rule.setAmount(new BigDecimal("100"));
+        rule.setFrequency(RecurrenceFrequency.DAILY);
+        rule.setStartAt(Instant.now().minusSeconds(86400 * 3));
+        rule.setNextRunAt(Instant.now().plusSeconds(600));
+        return rule;
+    }
+
+    @Test
+    void createRecurringSchedule_FirstRunIsStart() {
+        RecurringScheduleRequest request = dailyRequest();
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(testUser));
+        when(vpaRepository.findByUpiId("receiver@upi")).thenReturn(Optional.of(testVpa));
+        when(recurringRuleRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+        RecurringPaymentRule rule = scheduledPaymentService.createRecurringSchedule(email, request);
+
+        assertEquals(request.getStartAt(), rule.getNextRunAt());
+        assertEquals(RecurringRuleStatus.ACTIVE, rule.getStatus());
+        assertEquals("UTC", rule.getZone());
+        verifyNoInteractions(scheduledPaymentRepository);
+    }
+
+    @Test
+    void createRecurringSchedule_RejectsBadCron() {
+        RecurringScheduleRequest request = dailyRequest();
+        request.setFrequency(RecurrenceFrequency.CRON);
+        request.setCronExpression("sometimes");
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(testUser));
+        when(vpaRepository.findByUpiId("receiver@upi")).thenReturn(Optional.of(testVpa));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> scheduledPaymentService.createRecurringSchedule(email, request));
+        verify(recurringRuleRepository, never()).save(any());
+    }
+
+    @Test
+    void createRecurringSchedule_RejectsCronFasterThanMaterializer() {
+        RecurringScheduleRequest request = dailyRequest();
+        request.setFrequency(RecurrenceFrequency.CRON);
+        // every minute: faster than the default 10m lead
+        request.setCronExpression("0 * * * * *");
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(testUser));
+        when(vpaRepository.findByUpiId("receiver@upi")).thenReturn(Optional.of(testVpa));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> scheduledPaymentService.createRecurringSchedule(email, request));
+        verify(recurringRuleRepository, never()).save(any());
+    }
+
+    @Test
+    void createRecurringSchedule_RejectsOwnVpa() {
+        testVpa.setUser(testUser);
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(testUser));
+        when(vpaRepository.findByUpiId("receiver@upi")).thenReturn(Optional.of(testVpa));
+
+        assertThrows(InvalidRequestException.class,
+                () -> scheduledPaymentService.createRecurringSchedule(email, dailyRequest()));
+        verify(recurringRuleRepository, never()).save(any());
+    }
+
+    @Test
+    void pauseRecurringSchedule_WithdrawsMaterializedOccurrence() {
+        RecurringPaymentRule rule = activeRule();
+        when(recurringRuleRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(rule));
+        when(scheduledPaymentRepository.findPendingByRuleForUpdate(5L, TransactionStatus.PENDING))
+                .thenReturn(List.of(testPayment));
+        when(recurringRuleRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+        RecurringPaymentRule paused = scheduledPaymentService.pauseRecurringSchedule(5L, email);
+
+        assertEquals(RecurringRuleStatus.PAUSED, paused.getStatus());
+        assertEquals(TransactionStatus.FAILED, testPayment.getStatus());
+        assertEquals("Recurring schedule paused", testPayment.getFailureReason());
+        verify(scheduledPaymentTimer).cancel(1L);
+    }
+
+    @Test
+    void resumeRecurringSchedule_SkipsOccurrencesMissedWhilePaused() {
+        RecurringPaymentRule rule = activeRule();
+        rule.setStatus(RecurringRuleStatus.PAUSED);
+        rule.setNextRunAt(rule.getStartAt());
+        when(recurringRuleRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(rule));
+        when(recurringRuleRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+        RecurringPaymentRule resumed = scheduledPaymentService.resumeRecurringSchedule(5L, email);
+
+        assertEquals(RecurringRuleStatus.ACTIVE, resumed.getStatus());
+        assertTrue(resumed.getNextRunAt().isAfter(Instant.now().minusSeconds(1)));
+    }
+
+    @Test
+    void resumeRecurringSchedule_Throws_WhenActive() {
+        when(recurringRuleRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(activeRule()));
+
+        assertThrows(InvalidRequestException.class,
+                () -> scheduledPaymentService.resumeRecurringSchedule(5L, email));
+    }
+
+    @Test
+    void updateRecurringSchedule_Throws_ForOtherUsersRule() {
+        when(recurringRuleRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(activeRule()));
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> scheduledPaymentService.updateRecurringSchedule(5L, "wrong@email.com", dailyRequest()));
+        verifyNoInteractions(scheduledPaymentRepository);
+    }
+
+    @Test
+    void cancelRecurringSchedule_EndsRule() {
+        RecurringPaymentRule rule = activeRule();
+        when(recurringRuleRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(rule));
+
+        scheduledPaymentService.cancelRecurringSchedule(5L, email);
+
+        assertEquals(RecurringRuleStatus.CANCELLED, rule.getStatus());
+        assertNull(rule.getNextRunAt());
+        verify(recurringRuleRepository).save(rule);
+    }
+}
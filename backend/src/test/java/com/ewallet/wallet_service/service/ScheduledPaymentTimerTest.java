@@ -0,0 +1,87 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.repository.ScheduledPaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ScheduledPaymentTimerTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T12:00:00Z");
+
+    private final ScheduledPaymentRepository repo = mock(ScheduledPaymentRepository.class);
+    private final ScheduledPaymentExecutor executor = mock(ScheduledPaymentExecutor.class);
+    private final AtomicReference<Instant> now = new AtomicReference<>(START);
+    private ScheduledPaymentTimer timer;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = new Clock() {
+            @Override public ZoneOffset getZone() { return ZoneOffset.UTC; }
+            @Override public Clock withZone(ZoneId zone) { return this; }
+            @Override public Instant instant() { return now.get(); }
+        };
+        timer = new ScheduledPaymentTimer(repo, executor, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(5), 1000, clock);
+    }
+
+    @Test
+    void loadedPaymentFiresAtItsTime() {
+        when(repo.findUpcoming(eq(TransactionStatus.PENDING), eq(START), eq(START.plus(Duration.ofMinutes(5))), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{7L, START.plusMillis(1500)}));
+
+        timer.loadUpcoming();
+
+        now.set(START.plusMillis(1400));
+        timer.tick();
+        verifyNoInteractions(executor);
+
+        now.set(START.plusMillis(1500));
+        timer.tick();
+        verify(executor).fire(List.of(7L));
+    }
+
+    @Test
+    void nextLoadStartsWhereTheLastEnded() {
+        when(repo.findUpcoming(any(), any(), any(), any())).thenReturn(List.of());
+
+        timer.loadUpcoming();
+        now.set(START.plusSeconds(30));
+        timer.loadUpcoming();
+
+        verify(repo).findUpcoming(TransactionStatus.PENDING,
+                START.plus(Duration.ofMinutes(5)),
+                START.plusSeconds(30).plus(Duration.ofMinutes(5)),
+                PageRequest.of(0, 1000));
+    }
+
+    @Test
+    void scheduleInsideWindowIsFiredAndCancelRemoves() {
+        when(repo.findUpcoming(any(), any(), any(), any())).thenReturn(List.of());
+        timer.loadUpcoming();
+
+        timer.schedule(1L, START.plusSeconds(10));
+        timer.schedule(2L, START.plusSeconds(10));
+        timer.schedule(3L, START.plus(Duration.ofMinutes(30))); // beyond the window
+        timer.cancel(2L);
+        assertEquals(1, timer.size());
+
+        now.set(START.plusSeconds(10));
+        timer.tick();
+        verify(executor).fire(List.of(1L));
+    }
+}
@@ -0,0 +1,249 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.dto.response.TransactionTimeSeriesResponse;
+import com.ewallet.wallet_service.entity.*;
+import com.ewallet.wallet_service.entity.TransactionRollup.Granularity;
+import com.ewallet.wallet_service.event.TransactionStatusChangedEvent;
+import com.ewallet.wallet_service.exception.InvalidRequestException;
+import com.ewallet.wallet_service.repository.RollupProgressRepository;
+import com.ewallet.wallet_service.repository.TransactionRepository;
+import com.ewallet.wallet_service.repository.TransactionRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+class TransactionRollupServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-10T12:30:20Z");
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private TransactionRollupRepository rollupRepository;
+    @Autowired private RollupProgressRepository progressRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionRollupService service;
+    private Wallet alice;
+    private Wallet bob;
+
+    @BeforeEach
+    void setUp() {
+        service = new TransactionRollupService(rollupRepository, progressRepository, transactionRepository, transactionManager,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        alice = persistWallet("alice@test.com");
+        bob = persistWallet("bob@test.com");
+    }
+
+    @Test
+    void events_FlushToMinuteThenDeriveHourAndDay() {
+        Instant t1 = Instant.parse("2024-03-10T12:05:10Z");
+        Instant t2 = Instant.parse("2024-03-10T12:05:40Z");
+        Instant t3 = Instant.parse("2024-03-10T12:20:00Z");
+
+        transfer(1L, alice, t1, "10.00", TransactionStatus.SUCCESS);
+        transfer(2L, bob, t2, "5.00", TransactionStatus.FAILED);
+        transfer(3L, alice, t3, "7.50", TransactionStatus.SUCCESS);
+
+        service.flush();
+        service.deriveRollups();
+
+        TransactionRollup minute = rollupRepository.findById(
+                new TransactionRollup.Key(Granularity.MINUTE, Instant.parse("2024-03-10T12:05:00Z"))).orElseThrow();
+        assertEquals(2, minute.getTxCount());
+        assertEquals(1, minute.getSuccessCount());
+        assertEquals(1, minute.getFailedCount());
+        assertEquals(0, new BigDecimal("10.00").compareTo(minute.getVolume()));
+        assertEquals(2, minute.getDistinctSenders());
+
+        TransactionRollup hour = rollupRepository.findById(
+                new TransactionRollup.Key(Granularity.HOUR, Instant.parse("2024-03-10T12:00:00Z"))).orElseThrow();
+        assertEquals(3, hour.getTxCount());
+        assertEquals(0, new BigDecimal("17.50").compareTo(hour.getVolume()));
+        assertEquals(2, hour.getDistinctSenders());
+
+        TransactionRollup day = service.today();
+        assertEquals(3, day.getTxCount());
+        assertEquals(2, day.getSuccessCount());
+    }
+
+    @Test
+    void secondFlush_WritesOnlyNewChanges() {
+        Instant t = Instant.parse("2024-03-10T12:29:00Z");
+        transfer(1L, alice, t, "10.00", TransactionStatus.SUCCESS);
+        service.flush();
+        service.flush();
+
+        // rolled back after SUCCESS
+        service.onStatusChanged(event(1L, alice, t, "10.00", TransactionStatus.FAILED, TransactionStatus.SUCCESS));
+        service.flush();
+
+        TransactionRollup minute = rollupRepository.findById(
+                new TransactionRollup.Key(Granularity.MINUTE, t)).orElseThrow();
+        assertEquals(1, minute.getTxCount());
+        assertEquals(0, minute.getSuccessCount());
+        assertEquals(1, minute.getFailedCount());
+        assertEquals(0, BigDecimal.ZERO.compareTo(minute.getVolume()));
+    }
+
+    @Test
+    void flush_EvictsClosedMinutes() {
+        transfer(1L, alice, NOW.minus(Duration.ofMinutes(10)), "1.00", TransactionStatus.SUCCESS);
+        transfer(2L, alice, NOW, "1.00", TransactionStatus.SUCCESS);
+
+        service.flush();
+
+        // the open minute stays for late events
+        assertEquals(1, service.bufferedMinutes());
+    }
+
+    @Test
+    void reconcile_RecountsFromTransactions() {
+        // failed by the stale sweep, which publishes nothing
+        Instant t = Instant.parse("2024-03-10T12:25:30Z");
+        service.onStatusChanged(event(1L, alice, t, "3.00", TransactionStatus.INITIATED, null));
+        service.flush();
+        persistTransaction(alice, bob, t, "3.00", TransactionStatus.FAILED);
+
+        service.reconcile();
+
+        TransactionRollup minute = rollupRepository.findById(
+                new TransactionRollup.Key(Granularity.MINUTE, Instant.parse("2024-03-10T12:25:00Z"))).orElseThrow();
+        assertEquals(1, minute.getTxCount());
+        assertEquals(1, minute.getFailedCount());
+
+        TransactionRollup hour = rollupRepository.findById(
+                new TransactionRollup.Key(Granularity.HOUR, Instant.parse("2024-03-10T12:00:00Z"))).orElseThrow();
+        assertEquals(1, hour.getFailedCount());
+    }
+
+    @Test
+    void backfill_BuildsHistoryFromTransactions() {
+        // older than the MINUTE retention: HOUR and DAY rows only
+        persistTransaction(alice, bob, Instant.parse("2024-01-15T08:10:00Z"), "4.00", TransactionStatus.SUCCESS);
+        persistTransaction(bob, alice, Instant.parse("2024-01-15T09:45:00Z"), "6.00", TransactionStatus.SUCCESS);
+        persistTransaction(alice, bob, Instant.parse("2024-03-10T11:59:00Z"), "1.00", TransactionStatus.SUCCESS);
+
+        service.backfill();
+
+        assertTrue(rollupRepository.findRange(Granularity.MINUTE,
+                Instant.parse("2024-01-15T00:00:00Z"), Instant.parse("2024-01-16T00:00:00Z")).isEmpty());
+
+        TransactionRollup oldDay = rollupRepository.findById(
+                new TransactionRollup.Key(Granularity.DAY, Instant.parse("2024-01-15T00:00:00Z"))).orElseThrow();
+        assertEquals(2, oldDay.getTxCount());
+        assertEquals(0, new BigDecimal("10.00").compareTo(oldDay.getVolume()));
+        assertEquals(2, oldDay.getDistinctSenders());
+
+        assertTrue(rollupRepository.findById(
+                new TransactionRollup.Key(Granularity.MINUTE, Instant.parse("2024-03-10T11:59:00Z"))).isPresent());
+        assertEquals(1, service.today().getTxCount());
+        assertEquals(Instant.parse("2024-03-10T12:30:00Z"),
+                progressRepository.findById(TransactionRollupService.BACKFILL).orElseThrow().getBackfilledTo());
+    }
+
+    @Test
+    void backfill_ResumesFromMarker() {
+        // an earlier run got as far as 11:00
+        progressRepository.save(new RollupProgress(
+                TransactionRollupService.BACKFILL, Instant.parse("2024-03-10T11:00:00Z"), NOW));
+        persistTransaction(alice, bob, Instant.parse("2024-03-09T10:00:00Z"), "4.00", TransactionStatus.SUCCESS);
+        persistTransaction(alice, bob, Instant.parse("2024-03-10T11:59:00Z"), "1.00", TransactionStatus.SUCCESS);
+
+        service.backfill();
+
+        assertFalse(rollupRepository.findById(
+                new TransactionRollup.Key(Granularity.HOUR, Instant.parse("2024-03-09T10:00:00Z"))).isPresent());
+        assertEquals(1, service.today().getTxCount());
+
+        // caught up: nothing left to do
+        persistTransaction(alice, bob, Instant.parse("2024-03-10T11:58:00Z"), "2.00", TransactionStatus.SUCCESS);
+        service.backfill();
+        assertEquals(1, service.today().getTxCount());
+    }
+
+    @Test
+    void timeSeries_FillsGapsAndMergesDistinctSenders() {
+        transfer(1L, alice, Instant.parse("2024-03-10T10:15:00Z"), "2.00", TransactionStatus.SUCCESS);
+        transfer(2L, alice, Instant.parse("2024-03-10T12:15:00Z"), "3.00", TransactionStatus.SUCCESS);
+        transfer(3L, bob, Instant.parse("2024-03-10T12:16:00Z"), "4.00", TransactionStatus.SUCCESS);
+        service.flush();
+        service.deriveRollups();
+
+        TransactionTimeSeriesResponse series = service.timeSeries(
+                Instant.parse("2024-03-10T10:00:00Z"), Instant.parse("2024-03-10T13:00:00Z"), Granularity.HOUR);
+
+        assertEquals("HOUR", series.getGranularity());
+        assertEquals(3, series.getPoints().size());
+        assertEquals(1, series.getPoints().get(0).getCount());
+        assertEquals(0, series.getPoints().get(1).getCount());
+        assertEquals(2, series.getPoints().get(2).getCount());
+        assertEquals(3, series.getTotalCount());
+        assertEquals(0, new BigDecimal("9.00").compareTo(series.getTotalVolume()));
+        // alice in two buckets counts once
+        assertEquals(2, series.getDistinctSenders());
+    }
+
+    @Test
+    void timeSeries_PicksGranularityAndRejectsHugeRanges() {
+        assertEquals("MINUTE", service.timeSeries(NOW.minus(Duration.ofHours(1)), NOW, null).getGranularity());
+        assertEquals("HOUR", service.timeSeries(NOW.minus(Duration.ofDays(30)), NOW, null).getGranularity());
+        assertEquals("DAY", service.timeSeries(NOW.minus(Duration.ofDays(900)), NOW, null).getGranularity());
+
+        assertThrows(InvalidRequestException.class,
+                () -> service.timeSeries(NOW.minus(Duration.ofDays(3)), NOW, Granularity.MINUTE));
+        assertThrows(InvalidRequestException.class,
+                () -> service.timeSeries(NOW.minus(Duration.ofDays(30)), NOW, Granularity.MINUTE));
+        assertThrows(InvalidRequestException.class,
+                () -> service.timeSeries(NOW, NOW, Granularity.HOUR));
+    }
+
+    // INITIATED -> terminal status, as TransactionStatusService publishes it
+    private void transfer(Long id, Wallet from, Instant at, String amount, TransactionStatus terminal) {
+        service.onStatusChanged(event(id, from, at, amount, TransactionStatus.INITIATED, null));
+        service.onStatusChanged(event(id, from, at, amount, terminal, TransactionStatus.INITIATED));
+    }
+
+    private TransactionStatusChangedEvent event(Long id, Wallet from, Instant at, String amount,
+                                                TransactionStatus status, TransactionStatus previous) {
+        return new TransactionStatusChangedEvent(id, from.getId(), null, new BigDecimal(amount), at, status, previous);
+    }
+
+    private void persistTransaction(Wallet from, Wallet to, Instant at, String amount, TransactionStatus status) {
+        Transaction tx = new Transaction();
+        tx.setFromWallet(from);
+        tx.setToWallet(to);
+        tx.setAmount(new BigDecimal(amount));
+        tx.setTimestamp(at);
+        tx.setStatus(status);
+        entityManager.persist(tx);
+        entityManager.flush();
+    }
+
+    private Wallet persistWallet(String email) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setPassword("hash");
+        entityManager.persist(user);
+
+        Wallet wallet = new Wallet();
+        wallet.setUser(user);
+        wallet.setBalance(BigDecimal.ZERO);
+        return entityManager.persist(wallet);
+    }
+}
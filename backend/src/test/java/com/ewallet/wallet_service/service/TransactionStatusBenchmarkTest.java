@@ -0,0 +1,136 @@
+package com.ewallet.wallet_service.service;
+
+import com.ewallet.wallet_service.entity.Transaction;
+import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Commits per transfer of the status pipeline, PER_STATE vs JOURNALED.
+ *
+ * The transaction manager is a stand-in that counts commits; the latency
+ * this saves is measured by TransactionStatusBenchmark in src/jmh.
+ */
+class TransactionStatusBenchmarkTest {
+
+    private static final int TRANSFERS = 100;
+
+    @Test
+    void journaledMode_needsFewerCommitsPerTransfer() {
+
+        double perState = commitsPerTransfer(TransactionStatusService.Mode.PER_STATE);
+        double journaled = commitsPerTransfer(TransactionStatusService.Mode.JOURNALED);
+
+        // business tx + INITIATED + PENDING + SUCCESS
+        assertEquals(4.0, perState);
+        // business tx (incl. SUCCESS) + INITIATED
+        assertEquals(2.0, journaled);
+        assertEquals(2.0, perState / journaled);
+    }
+
+    private double commitsPerTransfer(TransactionStatusService.Mode mode) {
+
+        CountingTransactionManager txManager = new CountingTransactionManager();
+
+        AtomicLong ids = new AtomicLong();
+        TransactionRepository repository = mock(TransactionRepository.class, withSettings().stubOnly());
+        when(repository.saveAndFlush(any())).thenAnswer(inv -> {
+            Transaction tx = inv.getArgument(0);
+            if (tx.getId() == null) {
+                tx.setId(ids.incrementAndGet());
+            }
+            return tx;
+        });
+
+        TransactionStatusService statusService = new TransactionStatusService(repository, txManager, event -> { });
+        ReflectionTestUtils.setField(statusService, "mode", mode);
+
+        TransactionTemplate business = new TransactionTemplate(txManager);
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            transfer(business, statusService);
+        }
+        return (double) txManager.commits.get() / TRANSFERS;
+    }
+
+    // Same status sequence as WalletServiceImpl.transfer on the happy path
+    // (audit rows go through AuditLogWriter and no longer commit inline)
+    private void transfer(
+            TransactionTemplate business,
+            TransactionStatusService statusService
+    ) {
+        business.executeWithoutResult(s -> {
+            Transaction tx = new Transaction();
+            tx.setAmount(BigDecimal.TEN);
+            tx.setTimestamp(Instant.now());
+
+            statusService.updateStatus(tx, TransactionStatus.INITIATED);
+            statusService.updateStatus(tx, TransactionStatus.PENDING);
+            statusService.updateStatus(tx, TransactionStatus.SUCCESS);
+        });
+    }
+
+    /**
+     * Single-threaded transaction manager that supports REQUIRED and
+     * REQUIRES_NEW (suspend / resume) and counts commits.
+     */
+    private static final class CountingTransactionManager extends AbstractPlatformTransactionManager {
+
+        private final AtomicInteger commits = new AtomicInteger();
+        private boolean active;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return active;
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            active = true;
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            active = false;
+            return Boolean.TRUE;
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+            active = true;
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            active = false;
+        }
+    }
+}
@@ -2,13 +2,24 @@ package com.ewallet.wallet_service.service;
 
 import com.ewallet.wallet_service.entity.Transaction;
 import com.ewallet.wallet_service.entity.TransactionStatus;
+import com.ewallet.wallet_service.event.TransactionStatusChangedEvent;
 import com.ewallet.wallet_service.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -17,9 +28,23 @@ class TransactionStatusServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TransactionStatusService service;
 
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
     @Test
     void updateStatus_shouldSetStatusAndSave() {
         Transaction tx = new Transaction();
@@ -27,5 +52,81 @@ class TransactionStatusServiceTest {
         service.updateStatus(tx, TransactionStatus.SUCCESS);
 
         verify(transactionRepository).saveAndFlush(tx);
+        verify(eventPublisher).publishEvent(
+                new TransactionStatusChangedEvent(null, null, null, null, null, TransactionStatus.SUCCESS, null));
+    }
+
+    // ===================== JOURNALED MODE =====================
+
+    @Test
+    void journaled_pendingIsNotWritten() {
+        journaled();
+        Transaction tx = new Transaction();
+        tx.setId(1L);
+
+        service.updateStatus(tx, TransactionStatus.PENDING);
+
+        assertEquals(TransactionStatus.PENDING, tx.getStatus());
+        assertEquals(Optional.of(TransactionStatus.PENDING), service.currentStatus(1L));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void journaled_successIsWrittenByCallerBeforeCommit() {
+        journaled();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        Transaction tx = new Transaction();
+        tx.setId(1L);
+
+        service.updateStatus(tx, TransactionStatus.SUCCESS);
+        verify(transactionRepository, never()).saveAndFlush(any());
+        verify(transactionRepository, never()).updateStatus(any(), any());
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.beforeCommit(false));
+
+        verify(transactionRepository).updateStatus(1L, TransactionStatus.SUCCESS);
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    void journaled_failedAfterSuccessSkipsDeferredWrite() {
+        journaled();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        Transaction tx = new Transaction();
+        tx.setId(1L);
+
+        service.updateStatus(tx, TransactionStatus.SUCCESS);
+        service.updateStatus(tx, TransactionStatus.FAILED);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.beforeCommit(false));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(transactionRepository).saveAndFlush(tx);
+        verify(transactionRepository, never()).updateStatus(any(), any());
+        assertEquals(TransactionStatus.FAILED, tx.getStatus());
+    }
+
+    @Test
+    void failStaleTransactions_marksInitiatedAndPendingFailed() {
+        when(transactionRepository.failStaleTransactions(anyCollection(), any())).thenReturn(2);
+
+        service.failStaleTransactions();
+
+        verify(transactionRepository).failStaleTransactions(
+                argThat(statuses -> statuses.contains(TransactionStatus.INITIATED)
+                        && statuses.contains(TransactionStatus.PENDING)
+                        && statuses.size() == 2),
+                any());
+    }
+
+    private void journaled() {
+        ReflectionTestUtils.setField(service, "mode", TransactionStatusService.Mode.JOURNALED);
     }
 }
@@ -1,33 +1,90 @@
 package com.ewallet.wallet_service.service;
 
-import com.ewallet.wallet_service.entity.*;
 import com.ewallet.wallet_service.repository.*;
 import com.ewallet.wallet_service.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
-import java.util.Optional;
+import java.time.Duration;
+import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class UpiResolverServiceTest {
     private final VirtualPaymentAddressRepository vpaRepo = mock(VirtualPaymentAddressRepository.class);
-    private final WalletRepository walletRepo = mock(WalletRepository.class);
-    private final UpiResolverService service = new UpiResolverService(vpaRepo, walletRepo);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UpiResolverService service = new UpiResolverService(
+            vpaRepo, meterRegistry, 100, Duration.ofMinutes(10), Duration.ofSeconds(30));
 
     @Test
     void testResolveSuccess() {
-        User user = new User(); user.setId(1L);
-        VirtualPaymentAddress vpa = new VirtualPaymentAddress();
-        vpa.setUser(user); vpa.setActive(true);
-        
-        when(vpaRepo.findByUpiId("test@upi")).thenReturn(Optional.of(vpa));
-        when(walletRepo.findByUserId(1L)).thenReturn(Optional.of(new Wallet()));
-        
-        assertNotNull(service.resolveToWallet("test@upi"));
+        when(vpaRepo.findResolution("test@upi")).thenReturn(List.<Object[]>of(new Object[]{7L, true}));
+
+        assertEquals(7L, service.resolveWalletId("test@upi"));
     }
 
     @Test
     void testResolveNotFound() {
-        when(vpaRepo.findByUpiId(any())).thenReturn(Optional.empty());
-        assertThrows(ResourceNotFoundException.class, () -> service.resolveToWallet("wrong@upi"));
+        when(vpaRepo.findResolution(any())).thenReturn(List.of());
+        assertThrows(ResourceNotFoundException.class, () -> service.resolveWalletId("wrong@upi"));
+    }
+
+    @Test
+    void testResolveInactive() {
+        when(vpaRepo.findResolution("old@upi")).thenReturn(List.<Object[]>of(new Object[]{7L, false}));
+        assertThrows(ResourceNotFoundException.class, () -> service.resolveWalletId("old@upi"));
+    }
+
+    @Test
+    void testResolveWithoutWallet() {
+        when(vpaRepo.findResolution("nowallet@upi")).thenReturn(List.<Object[]>of(new Object[]{null, true}));
+        ResourceNotFoundException e = assertThrows(ResourceNotFoundException.class,
+                () -> service.resolveWalletId("nowallet@upi"));
+        assertEquals("Wallet not found for UPI ID", e.getMessage());
+    }
+
+    @Test
+    void testRepeatedResolveServedFromCache() {
+        when(vpaRepo.findResolution("shop@upi")).thenReturn(List.<Object[]>of(new Object[]{7L, true}));
+
+        service.resolveWalletId("shop@upi");
+        service.resolveWalletId("shop@upi");
+        service.resolveWalletId("shop@upi");
+
+        verify(vpaRepo, times(1)).findResolution("shop@upi");
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "upi.resolver").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "upi.resolver").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void testInvalidateReloadsUnknownId() {
+        when(vpaRepo.findResolution("new@upi"))
+                .thenReturn(List.of())
+                .thenReturn(List.<Object[]>of(new Object[]{9L, true}));
+
+        assertThrows(ResourceNotFoundException.class, () -> service.resolveWalletId("new@upi"));
+        // unknown is cached until invalidated
+        assertThrows(ResourceNotFoundException.class, () -> service.resolveWalletId("new@upi"));
+
+        service.invalidate("new@upi");
+
+        assertEquals(9L, service.resolveWalletId("new@upi"));
+        verify(vpaRepo, times(2)).findResolution("new@upi");
+    }
+
+    @Test
+    void testLoadOverlappingInvalidateIsNotCached() {
+        when(vpaRepo.findResolution("moved@upi"))
+                .thenAnswer(inv -> {
+                    // the VPA is re-pointed while this (old) row is being read
+                    service.invalidate("moved@upi");
+                    return List.<Object[]>of(new Object[]{7L, true});
+                })
+                .thenReturn(List.<Object[]>of(new Object[]{8L, true}));
+
+        assertEquals(7L, service.resolveWalletId("moved@upi"));
+        assertEquals(8L, service.resolveWalletId("moved@upi"));
+        verify(vpaRepo, times(2)).findResolution("moved@upi");
     }
-}
\ No newline at end of file
+}
@@ -6,7 +6,10 @@ import com.ewallet.wallet_service.entity.Wallet;
 import com.ewallet.wallet_service.repository.*;
 import com.ewallet.wallet_service.service.impl.WalletServiceImpl;
 import com.ewallet.wallet_service.service.util.OtpService;
+import com.ewallet.wallet_service.service.util.WalletLockManager;
 import com.ewallet.wallet_service.fraud.service.FraudDetectionService;
+import com.ewallet.wallet_service.fraud.service.FraudPolicyService;
+import com.ewallet.wallet_service.security.PinVerifier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -15,7 +18,6 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -34,7 +36,9 @@ class WalletServiceTest {
     @Mock private FraudDetectionService fraudService;
     @Mock private TransactionStatusService statusService;
     @Mock private OtpService otpService;
-    @Mock private PasswordEncoder encoder;
+    @Mock private PinVerifier pinVerifier;
+    @Mock private WalletLockManager lockManager;
+    @Mock private FraudPolicyService fraudPolicyService;
     @Mock private SecurityContext securityContext;
     @Mock private Authentication authentication;
 
@@ -57,6 +61,7 @@ class WalletServiceTest {
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(senderUser));
         when(walletRepository.findByUserId(any())).thenReturn(Optional.of(senderWallet));
         when(walletRepository.findById(999L)).thenReturn(Optional.empty());
+        doThrow(new IllegalArgumentException("Invalid Transaction PIN")).when(pinVerifier).verify(any(), any());
 
         assertThrows(IllegalArgumentException.class, () -> {
             walletService.transfer(999L, BigDecimal.TEN, "1234", null);
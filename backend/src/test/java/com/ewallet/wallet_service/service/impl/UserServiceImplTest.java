@@ -9,7 +9,10 @@ import com.ewallet.wallet_service.repository.UserRepository;
 import com.ewallet.wallet_service.repository.VirtualPaymentAddressRepository;
 import com.ewallet.wallet_service.repository.WalletRepository;
 import com.ewallet.wallet_service.security.JwtUtil;
+import com.ewallet.wallet_service.security.PinVerifier;
+import com.ewallet.wallet_service.service.AdminMetricsStore;
 import com.ewallet.wallet_service.service.AuditLogService;
+import com.ewallet.wallet_service.service.UpiResolverService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -34,7 +37,10 @@ class UserServiceImplTest {
     @Mock private VirtualPaymentAddressRepository vpaRepository;
     @Mock private PasswordEncoder passwordEncoder;
     @Mock private JwtUtil jwtUtil;
+    @Mock private UpiResolverService upiResolverService;
+    @Mock private PinVerifier pinVerifier;
     @Mock private AuditLogService auditLogService;
+    @Mock private AdminMetricsStore metricsStore;
 
     @InjectMocks
     private UserServiceImpl userService;
@@ -135,6 +141,8 @@ class UserServiceImplTest {
         verify(userRepository).save(any());
         verify(walletRepository).save(any());
         verify(vpaRepository).save(any());
+        verify(metricsStore).recordUserRegistered();
+        verify(upiResolverService).invalidate(anyString());
     }
 
     @Test
@@ -306,11 +314,12 @@ class UserServiceImplTest {
 
         when(userRepository.findByEmail(any())).thenReturn(Optional.empty());
         when(passwordEncoder.encode("rawPass")).thenReturn("encodedLoginPass");
-        when(passwordEncoder.encode("9999")).thenReturn("encodedPin");
+        when(pinVerifier.encode("9999")).thenReturn("encodedPin");
         when(vpaRepository.existsByUpiId(any())).thenReturn(false);
 
         userService.createUser(request);
 
-        verify(passwordEncoder, times(2)).encode(any());
+        verify(passwordEncoder).encode("rawPass");
+        verify(pinVerifier).encode("9999");
     }
 }
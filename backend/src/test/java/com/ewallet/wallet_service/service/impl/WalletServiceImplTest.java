@@ -1,16 +1,24 @@
 package com.ewallet.wallet_service.service.impl;
 
+import com.ewallet.wallet_service.dto.projection.TransactionView;
+import com.ewallet.wallet_service.dto.request.TransactionHistoryFilter;
 import com.ewallet.wallet_service.dto.response.OtpResponse;
+import com.ewallet.wallet_service.dto.response.TransactionHistoryPage;
 import com.ewallet.wallet_service.dto.response.TransactionResponse;
 import com.ewallet.wallet_service.dto.response.WalletResponse;
 import com.ewallet.wallet_service.entity.*;
 import com.ewallet.wallet_service.exception.*;
+import com.ewallet.wallet_service.fraud.model.FraudPolicy;
 import com.ewallet.wallet_service.fraud.model.FraudResult;
 import com.ewallet.wallet_service.fraud.service.FraudDecision;
 import com.ewallet.wallet_service.fraud.service.FraudDetectionService;
+import com.ewallet.wallet_service.fraud.service.FraudPolicyService;
 import com.ewallet.wallet_service.repository.*;
+import com.ewallet.wallet_service.security.PinVerifier;
 import com.ewallet.wallet_service.service.*;
+import com.ewallet.wallet_service.service.util.KeysetCursor;
 import com.ewallet.wallet_service.service.util.OtpService;
+import com.ewallet.wallet_service.service.util.WalletLockManager;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +26,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -25,6 +35,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class WalletServiceImplTest {
@@ -39,6 +50,7 @@ class WalletServiceImplTest {
     private TransactionStatusService statusService;
     private OtpService otpService;
     private PasswordEncoder encoder;
+    private WalletLockManager lockManager;
     private WalletServiceImpl walletService;
 
     @BeforeEach
@@ -53,10 +65,14 @@ class WalletServiceImplTest {
         statusService = mock(TransactionStatusService.class);
         otpService = mock(OtpService.class);
         encoder = mock(PasswordEncoder.class);
+        lockManager = mock(WalletLockManager.class);
 
         walletService = new WalletServiceImpl(
                 walletRepo, txRepo, userRepo, wsService, auditService,
-                fraudService, statusService, otpService, encoder, vpaRepo
+                fraudService, statusService, otpService,
+                new PinVerifier(encoder, userRepo, mock(PlatformTransactionManager.class)), vpaRepo,
+                lockManager,
+                new FraudPolicyService(FraudPolicy.defaults())
         );
 
         SecurityContext context = mock(SecurityContext.class);
@@ -242,22 +258,164 @@ class WalletServiceImplTest {
         wallet.setId(10L);
         wallet.setUser(user);
 
-        Transaction tx = new Transaction();
-        tx.setId(1L);
-        tx.setAmount(new BigDecimal("100"));
-        tx.setFromWallet(wallet);
-        tx.setToWallet(wallet);
-        tx.setTimestamp(Instant.now());
-        tx.setStatus(TransactionStatus.SUCCESS);
+        TransactionView tx = historyView(1L, wallet, wallet, Instant.now());
 
         when(userRepo.findByEmail(any())).thenReturn(Optional.of(user));
         when(walletRepo.findByUserId(1L)).thenReturn(Optional.of(wallet));
-        when(txRepo.findByFromWalletIdOrToWalletIdOrderByTimestampDesc(10L, 10L))
+        when(txRepo.findSentPage(eq(10L), any(), any(), any(), any(), any(), any()))
                 .thenReturn(List.of(tx));
+        when(txRepo.findReceivedPage(eq(10L), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(tx));
+
+        TransactionHistoryPage history = walletService.getMyTransactionHistory(new TransactionHistoryFilter());
+
+        // self-transfer is returned by both sides but listed once
+        assertEquals(1, history.getItems().size());
+        assertNull(history.getNextCursor());
+    }
+
+    @Test
+    void testGetMyTransactionHistory_UsesJoinedUpiIds() {
+        User user = new User();
+        user.setId(1L);
+
+        Wallet wallet = new Wallet();
+        wallet.setId(10L);
+        wallet.setUser(user);
+
+        TransactionView tx = new TransactionView(
+                1L, 20L, 10L,
+                "Jane", "jane@koshpay",
+                "John", "john.d@koshpay",
+                BigDecimal.TEN, Instant.now(), TransactionStatus.PENDING);
+
+        when(userRepo.findByEmail(any())).thenReturn(Optional.of(user));
+        when(walletRepo.findByUserId(1L)).thenReturn(Optional.of(wallet));
+        when(txRepo.findReceivedPage(eq(10L), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(tx));
+
+        TransactionResponse response = walletService
+                .getMyTransactionHistory(new TransactionHistoryFilter()).getItems().get(0);
+
+        assertEquals("CREDIT", response.getType());
+        assertEquals(20L, response.getCounterpartyWalletId());
+        assertEquals("jane@koshpay", response.getFromUpi());
+        assertEquals("john.d@koshpay", response.getToUpi());
+        assertEquals("PENDING", response.getStatus());
+        verifyNoInteractions(vpaRepo);
+    }
+
+    @Test
+    void testGetMyTransactionHistory_KeysetPages() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("John");
+
+        User other = new User();
+        other.setId(2L);
+        other.setName("Jane");
+
+        Wallet wallet = new Wallet();
+        wallet.setId(10L);
+        wallet.setUser(user);
+
+        Wallet otherWallet = new Wallet();
+        otherWallet.setId(20L);
+        otherWallet.setUser(other);
+
+        Instant now = Instant.parse("2024-01-01T12:00:00Z");
+        TransactionView sent1 = historyView(5L, wallet, otherWallet, now);
+        TransactionView received = historyView(4L, otherWallet, wallet, now.minusSeconds(10));
+        TransactionView sent2 = historyView(3L, wallet, otherWallet, now.minusSeconds(20));
+
+        when(userRepo.findByEmail(any())).thenReturn(Optional.of(user));
+        when(walletRepo.findByUserId(1L)).thenReturn(Optional.of(wallet));
+        when(txRepo.findSentPage(eq(10L), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(sent1, sent2));
+        when(txRepo.findReceivedPage(eq(10L), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(received));
+
+        TransactionHistoryFilter filter = new TransactionHistoryFilter();
+        filter.setLimit(2);
+        TransactionHistoryPage page = walletService.getMyTransactionHistory(filter);
+
+        assertEquals(List.of(5L, 4L), page.getItems().stream().map(TransactionResponse::getTransactionId).toList());
+        assertEquals("DEBIT", page.getItems().get(0).getType());
+        assertEquals("CREDIT", page.getItems().get(1).getType());
+
+        KeysetCursor cursor = KeysetCursor.decode(page.getNextCursor());
+        assertEquals(received.timestamp(), cursor.timestamp());
+        assertEquals(4L, cursor.id());
+
+        // the next page starts strictly after the cursor row
+        walletService.getMyTransactionHistory(withCursor(page.getNextCursor()));
+        verify(txRepo).findSentPage(eq(10L), any(), any(), any(),
+                eq(received.timestamp()), eq(4L), any());
+    }
+
+    @Test
+    void testGetMyTransactionHistory_DirectionAndStatusFilters() {
+        User user = new User();
+        user.setId(1L);
+
+        Wallet wallet = new Wallet();
+        wallet.setId(10L);
+        wallet.setUser(user);
+
+        when(userRepo.findByEmail(any())).thenReturn(Optional.of(user));
+        when(walletRepo.findByUserId(1L)).thenReturn(Optional.of(wallet));
+
+        TransactionHistoryFilter filter = new TransactionHistoryFilter();
+        filter.setDirection("DEBIT");
+        filter.setStatus(TransactionStatus.FAILED);
+
+        TransactionHistoryPage page = walletService.getMyTransactionHistory(filter);
+
+        assertTrue(page.getItems().isEmpty());
+        verify(txRepo).findSentPage(eq(10L), eq(List.of(TransactionStatus.FAILED)),
+                any(), any(), any(), any(), any());
+        verify(txRepo, never()).findReceivedPage(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetMyTransactionHistory_InvalidParameters() {
+        User user = new User();
+        user.setId(1L);
+
+        Wallet wallet = new Wallet();
+        wallet.setId(10L);
+        wallet.setUser(user);
+
+        when(userRepo.findByEmail(any())).thenReturn(Optional.of(user));
+        when(walletRepo.findByUserId(1L)).thenReturn(Optional.of(wallet));
+
+        TransactionHistoryFilter badDirection = new TransactionHistoryFilter();
+        badDirection.setDirection("SIDEWAYS");
+        assertThrows(InvalidRequestException.class,
+                () -> walletService.getMyTransactionHistory(badDirection));
+
+        TransactionHistoryFilter badLimit = new TransactionHistoryFilter();
+        badLimit.setLimit(0);
+        assertThrows(InvalidRequestException.class,
+                () -> walletService.getMyTransactionHistory(badLimit));
 
-        List<TransactionResponse> history = walletService.getMyTransactionHistory();
+        assertThrows(InvalidRequestException.class,
+                () -> walletService.getMyTransactionHistory(withCursor("not-a-cursor")));
+    }
 
-        assertEquals(1, history.size());
+    private static TransactionHistoryFilter withCursor(String cursor) {
+        TransactionHistoryFilter filter = new TransactionHistoryFilter();
+        filter.setCursor(cursor);
+        return filter;
+    }
+
+    // no VPA on either side
+    private static TransactionView historyView(Long id, Wallet from, Wallet to, Instant timestamp) {
+        return new TransactionView(
+                id, from.getId(), to.getId(),
+                from.getUser().getName(), null,
+                to.getUser().getName(), null,
+                BigDecimal.TEN, timestamp, TransactionStatus.SUCCESS);
     }
 
     @Test
@@ -369,22 +527,15 @@ class WalletServiceImplTest {
         wallet.setId(10L);
         wallet.setUser(user);
 
-        Transaction tx = new Transaction();
-        tx.setId(1L);
-        tx.setAmount(BigDecimal.TEN);
-        tx.setFromWallet(wallet);
-        tx.setToWallet(wallet);
-        tx.setTimestamp(Instant.now());
-        tx.setStatus(TransactionStatus.SUCCESS);
+        TransactionView tx = historyView(1L, wallet, wallet, Instant.now());
 
         when(userRepo.findByEmail(any())).thenReturn(Optional.of(user));
         when(walletRepo.findByUserId(any())).thenReturn(Optional.of(wallet));
-        when(txRepo.findByFromWalletIdOrToWalletIdOrderByTimestampDesc(any(), any()))
+        when(txRepo.findSentPage(any(), any(), any(), any(), any(), any(), any()))
                    .thenReturn(List.of(tx));
-        when(vpaRepo.findByUserId(any())).thenReturn(Optional.empty());
 
         List<TransactionResponse> result =
-                walletService.getMyTransactionHistory();
+                walletService.getMyTransactionHistory(new TransactionHistoryFilter()).getItems();
         assertEquals("user@koshpay", result.get(0).getFromUpi());
     }
 
@@ -432,22 +583,15 @@ class WalletServiceImplTest {
         wallet.setId(10L);
         wallet.setUser(user);
 
-        Transaction tx = new Transaction();
-        tx.setId(1L);
-        tx.setAmount(BigDecimal.TEN);
-        tx.setFromWallet(wallet);
-        tx.setToWallet(wallet);
-        tx.setTimestamp(Instant.now());
-        tx.setStatus(TransactionStatus.SUCCESS);
+        TransactionView tx = historyView(1L, wallet, wallet, Instant.now());
 
         when(userRepo.findByEmail(any())).thenReturn(Optional.of(user));
         when(walletRepo.findByUserId(any())).thenReturn(Optional.of(wallet));
-        when(txRepo.findByFromWalletIdOrToWalletIdOrderByTimestampDesc(any(), any()))
+        when(txRepo.findSentPage(any(), any(), any(), any(), any(), any(), any()))
                    .thenReturn(List.of(tx));
-        when(vpaRepo.findByUserId(any())).thenReturn(Optional.empty());
 
         List<TransactionResponse> result =
-                walletService.getMyTransactionHistory();
+                walletService.getMyTransactionHistory(new TransactionHistoryFilter()).getItems();
 
         assertEquals("johndoe@koshpay", result.get(0).getFromUpi());
     }
@@ -486,4 +630,63 @@ class WalletServiceImplTest {
                         null
                 ));
     }
+
+    // ===================== ATOMIC MODE =====================
+
+    private Wallet stubAtomicTransfer(BigDecimal senderBalance) {
+        User user = new User();
+        user.setId(1L);
+        user.setTransactionPin("hash");
+
+        Wallet sender = new Wallet();
+        sender.setId(10L);
+        sender.setUser(user);
+        sender.setBalance(senderBalance);
+
+        Wallet receiver = new Wallet();
+        receiver.setId(20L);
+        receiver.setBalance(BigDecimal.ZERO);
+
+        when(userRepo.findByEmail(any())).thenReturn(Optional.of(user));
+        when(walletRepo.findByUserId(any())).thenReturn(Optional.of(sender));
+        when(walletRepo.findById(20L)).thenReturn(Optional.of(receiver));
+        when(encoder.matches(any(), any())).thenReturn(true);
+        when(fraudService.evaluate(any()))
+                .thenReturn(new FraudResult(20, FraudDecision.ALLOW, List.of()));
+
+        ReflectionTestUtils.setField(walletService, "transferMode",
+                WalletServiceImpl.TransferMode.ATOMIC);
+        return sender;
+    }
+
+    @Test
+    void testTransfer_AtomicMode_UsesConditionalUpdates() {
+        stubAtomicTransfer(new BigDecimal("1000"));
+        when(walletRepo.debitIfSufficient(10L, new BigDecimal("100"))).thenReturn(1);
+        when(walletRepo.credit(20L, new BigDecimal("100"))).thenReturn(1);
+        when(walletRepo.findBalanceById(10L)).thenReturn(new BigDecimal("900"));
+        when(walletRepo.findBalanceById(20L)).thenReturn(new BigDecimal("100"));
+
+        Object result = walletService.transfer(20L, new BigDecimal("100"), "1234", null);
+
+        assertEquals("SUCCESS", result);
+        verify(walletRepo, never()).save(any());
+        verifyNoInteractions(lockManager);
+        verify(wsService).publishBalance(10L, new BigDecimal("900"));
+        verify(wsService).publishBalance(20L, new BigDecimal("100"));
+        verify(statusService).updateStatus(any(), eq(TransactionStatus.SUCCESS));
+    }
+
+    @Test
+    void testTransfer_AtomicMode_DebitRejected() {
+        stubAtomicTransfer(new BigDecimal("1000"));
+        when(walletRepo.debitIfSufficient(10L, new BigDecimal("100"))).thenReturn(0);
+
+        assertThrows(InsufficientBalanceException.class,
+                () -> walletService.transfer(20L, new BigDecimal("100"), "1234", null));
+
+        // sender id < receiver id: debit goes first, so nothing is credited
+        verify(walletRepo, never()).credit(any(), any());
+        verify(statusService, atLeastOnce()).updateStatus(any(), eq(TransactionStatus.FAILED));
+    }
 }
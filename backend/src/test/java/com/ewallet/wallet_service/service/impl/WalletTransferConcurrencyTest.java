@@ -0,0 +1,182 @@
+package com.ewallet.wallet_service.service.impl;
+
+import com.ewallet.wallet_service.entity.User;
+import com.ewallet.wallet_service.entity.Wallet;
+import com.ewallet.wallet_service.exception.InsufficientBalanceException;
+import com.ewallet.wallet_service.fraud.model.FraudPolicy;
+import com.ewallet.wallet_service.fraud.model.FraudResult;
+import com.ewallet.wallet_service.fraud.service.FraudDecision;
+import com.ewallet.wallet_service.fraud.service.FraudDetectionService;
+import com.ewallet.wallet_service.fraud.service.FraudPolicyService;
+import com.ewallet.wallet_service.repository.*;
+import com.ewallet.wallet_service.security.PinVerifier;
+import com.ewallet.wallet_service.service.AuditLogService;
+import com.ewallet.wallet_service.service.BalanceWebSocketService;
+import com.ewallet.wallet_service.service.TransactionStatusService;
+import com.ewallet.wallet_service.service.util.OtpService;
+import com.ewallet.wallet_service.service.util.WalletLockManager;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Stress test for the transfer locking: thousands of parallel transfers
+ * between a handful of wallets (in both directions, so lock ordering is
+ * exercised) must neither lose money nor deadlock.
+ *
+ * Repositories are in-memory fakes, so this covers the in-process stripes
+ * of LOCKING mode only; both modes against a real database are covered by
+ * WalletTransferDatabaseConcurrencyTest.
+ */
+class WalletTransferConcurrencyTest {
+
+    private static final int WALLETS = 8;
+    private static final int TRANSFERS = 5000;
+    private static final int THREADS = 32;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    private final Map<String, User> usersByEmail = new HashMap<>();
+    private final Map<Long, Wallet> walletsByUserId = new HashMap<>();
+    private final Map<Long, Wallet> walletsById = new HashMap<>();
+
+    private WalletServiceImpl walletService;
+
+    @BeforeEach
+    void setUp() {
+        for (long i = 1; i <= WALLETS; i++) {
+            User user = new User();
+            user.setId(i);
+            user.setEmail("user" + i + "@koshpay.com");
+            user.setTransactionPin("hash");
+
+            Wallet wallet = new Wallet();
+            wallet.setId(100 + i);
+            wallet.setUser(user);
+            wallet.setBalance(INITIAL_BALANCE);
+
+            usersByEmail.put(user.getEmail(), user);
+            walletsByUserId.put(user.getId(), wallet);
+            walletsById.put(wallet.getId(), wallet);
+        }
+
+        UserRepository userRepo = mock(UserRepository.class, withSettings().stubOnly());
+        WalletRepository walletRepo = mock(WalletRepository.class, withSettings().stubOnly());
+        FraudDetectionService fraudService = mock(FraudDetectionService.class, withSettings().stubOnly());
+        PasswordEncoder encoder = mock(PasswordEncoder.class, withSettings().stubOnly());
+
+        when(userRepo.findByEmail(anyString()))
+                .thenAnswer(inv -> Optional.ofNullable(usersByEmail.get(inv.<String>getArgument(0))));
+        when(walletRepo.findByUserId(any()))
+                .thenAnswer(inv -> Optional.ofNullable(walletsByUserId.get(inv.<Long>getArgument(0))));
+        when(walletRepo.findById(any()))
+                .thenAnswer(inv -> Optional.ofNullable(walletsById.get(inv.<Long>getArgument(0))));
+        when(encoder.matches(any(), any())).thenReturn(true);
+        when(fraudService.evaluate(any()))
+                .thenAnswer(inv -> new FraudResult(0, FraudDecision.ALLOW, List.of()));
+
+        WalletLockManager lockManager =
+                new WalletLockManager(mock(EntityManager.class, withSettings().stubOnly()), 64, Duration.ofSeconds(30));
+
+        walletService = new WalletServiceImpl(
+                walletRepo,
+                mock(TransactionRepository.class, withSettings().stubOnly()),
+                userRepo,
+                mock(BalanceWebSocketService.class, withSettings().stubOnly()),
+                mock(AuditLogService.class, withSettings().stubOnly()),
+                fraudService,
+                mock(TransactionStatusService.class, withSettings().stubOnly()),
+                mock(OtpService.class, withSettings().stubOnly()),
+                new PinVerifier(encoder, userRepo, mock(PlatformTransactionManager.class)),
+                mock(VirtualPaymentAddressRepository.class, withSettings().stubOnly()),
+                lockManager,
+                new FraudPolicyService(FraudPolicy.defaults())
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void parallelTransfers_conserveTotalMoney_andNeverDeadlock() throws Exception {
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            long from = 1 + random.nextInt(WALLETS);
+            long to = 1 + (from + random.nextInt(WALLETS - 1)) % WALLETS;
+            BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(100));
+
+            futures.add(pool.submit(() -> {
+                start.await();
+                transferAs(from, to, amount, succeeded, rejected);
+                return null;
+            }));
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS),
+                "transfers did not finish — possible deadlock");
+
+        for (Future<?> f : futures) {
+            f.get(); // surfaces unexpected exceptions from workers
+        }
+
+        BigDecimal total = walletsById.values().stream()
+                .map(Wallet::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(WALLETS)).compareTo(total));
+        walletsById.values().forEach(w -> assertTrue(w.getBalance().signum() >= 0));
+        assertEquals(TRANSFERS, succeeded.get() + rejected.get());
+        assertTrue(succeeded.get() > 0);
+    }
+
+    private void transferAs(
+            long fromUserId,
+            long toUserId,
+            BigDecimal amount,
+            AtomicInteger succeeded,
+            AtomicInteger rejected
+    ) {
+        User sender = walletsByUserId.get(fromUserId).getUser();
+        Long toWalletId = walletsByUserId.get(toUserId).getId();
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(
+                new UsernamePasswordAuthenticationToken(sender.getEmail(), null, List.of()));
+        SecurityContextHolder.setContext(context);
+
+        try {
+            assertEquals("SUCCESS", walletService.transfer(toWalletId, amount, "1234", null));
+            succeeded.incrementAndGet();
+        } catch (InsufficientBalanceException e) {
+            rejected.incrementAndGet();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
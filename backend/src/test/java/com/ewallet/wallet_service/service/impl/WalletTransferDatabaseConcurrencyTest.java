@@ -0,0 +1,174 @@
+package com.ewallet.wallet_service.service.impl;
+
+import com.ewallet.wallet_service.entity.User;
+import com.ewallet.wallet_service.entity.Wallet;
+import com.ewallet.wallet_service.exception.InsufficientBalanceException;
+import com.ewallet.wallet_service.fraud.model.FraudPolicy;
+import com.ewallet.wallet_service.fraud.model.FraudResult;
+import com.ewallet.wallet_service.fraud.service.FraudDecision;
+import com.ewallet.wallet_service.fraud.service.FraudDetectionService;
+import com.ewallet.wallet_service.fraud.service.FraudPolicyService;
+import com.ewallet.wallet_service.repository.*;
+import com.ewallet.wallet_service.security.PinVerifier;
+import com.ewallet.wallet_service.service.AuditLogService;
+import com.ewallet.wallet_service.service.BalanceWebSocketService;
+import com.ewallet.wallet_service.service.TransactionStatusService;
+import com.ewallet.wallet_service.service.util.OtpService;
+import com.ewallet.wallet_service.service.util.WalletLockManager;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Conservation of money against a real database (H2): parallel transfers
+ * in both directions, each in its own transaction, in both transfer
+ * modes. Unlike WalletTransferConcurrencyTest this exercises the row locks,
+ * the conditional UPDATEs and rollback of a half-applied ATOMIC transfer.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:transfer-conservation;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=16",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WalletTransferDatabaseConcurrencyTest {
+
+    private static final int WALLETS = 6;
+    private static final int TRANSFERS = 600;
+    private static final int THREADS = 8;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("500.00");
+
+    @Autowired private WalletRepository walletRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private VirtualPaymentAddressRepository vpaRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @ParameterizedTest
+    @EnumSource(WalletServiceImpl.TransferMode.class)
+    void parallelTransfers_conserveTotalMoney(WalletServiceImpl.TransferMode mode) throws Exception {
+
+        List<User> users = new ArrayList<>();
+        List<Long> walletIds = new ArrayList<>();
+        for (int i = 0; i < WALLETS; i++) {
+            User user = new User();
+            user.setName("User " + i);
+            user.setEmail(mode.name().toLowerCase() + i + "@koshpay.com");
+            user.setPassword("hash");
+            users.add(userRepository.save(user));
+
+            Wallet wallet = new Wallet();
+            wallet.setUser(user);
+            wallet.setBalance(INITIAL_BALANCE);
+            walletIds.add(walletRepository.save(wallet).getId());
+        }
+
+        WalletServiceImpl walletService = walletService(mode);
+        TransactionTemplate perTransfer = new TransactionTemplate(transactionManager);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            int from = random.nextInt(WALLETS);
+            int to = (from + 1 + random.nextInt(WALLETS - 1)) % WALLETS;
+            BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(150));
+            String email = users.get(from).getEmail();
+            Long toWalletId = walletIds.get(to);
+
+            futures.add(pool.submit(() -> {
+                start.await();
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(new UsernamePasswordAuthenticationToken(email, null, List.of()));
+                SecurityContextHolder.setContext(context);
+                try {
+                    perTransfer.execute(s -> walletService.transfer(toWalletId, amount, "1234", null));
+                    succeeded.incrementAndGet();
+                } catch (InsufficientBalanceException e) {
+                    rejected.incrementAndGet();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(120, TimeUnit.SECONDS), "transfers did not finish");
+        for (Future<?> f : futures) {
+            f.get();
+        }
+
+        List<Wallet> wallets = walletRepository.findAllById(walletIds);
+        BigDecimal total = wallets.stream()
+                .map(Wallet::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(WALLETS)).compareTo(total));
+        wallets.forEach(w -> assertTrue(w.getBalance().signum() >= 0));
+        assertEquals(TRANSFERS, succeeded.get() + rejected.get());
+        assertTrue(succeeded.get() > 0);
+    }
+
+    private WalletServiceImpl walletService(WalletServiceImpl.TransferMode mode) {
+        FraudDetectionService fraudService = mock(FraudDetectionService.class, withSettings().stubOnly());
+        when(fraudService.evaluate(any()))
+                .thenAnswer(inv -> new FraudResult(0, FraudDecision.ALLOW, List.of()));
+
+        WalletServiceImpl walletService = new WalletServiceImpl(
+                walletRepository,
+                transactionRepository,
+                userRepository,
+                mock(BalanceWebSocketService.class, withSettings().stubOnly()),
+                mock(AuditLogService.class, withSettings().stubOnly()),
+                fraudService,
+                mock(TransactionStatusService.class, withSettings().stubOnly()),
+                mock(OtpService.class, withSettings().stubOnly()),
+                mock(PinVerifier.class, withSettings().stubOnly()),
+                vpaRepository,
+                new WalletLockManager(entityManager, 64, Duration.ofSeconds(30)),
+                new FraudPolicyService(FraudPolicy.defaults())
+        );
+        ReflectionTestUtils.setField(walletService, "transferMode", mode);
+        return walletService;
+    }
+}
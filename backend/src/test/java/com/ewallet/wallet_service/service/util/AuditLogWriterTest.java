@@ -0,0 +1,104 @@
+package com.ewallet.wallet_service.service.util;
+
+import com.ewallet.wallet_service.entity.AuditLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuditLogWriterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+
+    // batch sizes seen by the JdbcTemplate, in order
+    private final List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private AuditLogWriter writer(int capacity, int batchSize, AuditLogWriter.OverflowPolicy policy) {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    batches.add(inv.<Collection<?>>getArgument(1).size());
+                    return new int[0][0];
+                });
+        return new AuditLogWriter(jdbcTemplate, txManager, capacity, batchSize, 20, policy, 10, 5000);
+    }
+
+    private static AuditLog audit(String status) {
+        AuditLog audit = new AuditLog();
+        audit.setUsername("user@koshpay.com");
+        audit.setActionType("TRANSFER");
+        audit.setStatus(status);
+        audit.setOldBalance(BigDecimal.TEN);
+        audit.setNewBalance(BigDecimal.ONE);
+        audit.setTimestamp(Instant.now());
+        return audit;
+    }
+
+    @Test
+    void writesEverythingInBatches_andFlushesOnStop() {
+        AuditLogWriter writer = writer(10_000, 100, AuditLogWriter.OverflowPolicy.BLOCK);
+        writer.start();
+
+        for (int i = 0; i < 1_000; i++) {
+            writer.enqueue(audit("SUCCESS"));
+        }
+        writer.stop();
+
+        assertEquals(1_000, batches.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batches.stream().allMatch(size -> size <= 100));
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(0, writer.getDroppedCount());
+    }
+
+    @Test
+    void dropPolicy_dropsWhenQueueIsFull() {
+        AuditLogWriter writer = writer(2, 10, AuditLogWriter.OverflowPolicy.DROP);
+        // simulate a stalled writer: mark running without a writer thread
+        ReflectionTestUtils.setField(ReflectionTestUtils.getField(writer, "queue"), "running", true);
+
+        writer.enqueue(audit("A"));
+        writer.enqueue(audit("B"));
+        writer.enqueue(audit("C"));
+
+        assertEquals(2, writer.getQueueDepth());
+        assertEquals(1, writer.getDroppedCount());
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    void callerRunsPolicy_writesOnCallingThreadWhenQueueIsFull() {
+        AuditLogWriter writer = writer(1, 10, AuditLogWriter.OverflowPolicy.CALLER_RUNS);
+        ReflectionTestUtils.setField(ReflectionTestUtils.getField(writer, "queue"), "running", true);
+
+        writer.enqueue(audit("A"));
+        writer.enqueue(audit("B"));
+
+        assertEquals(1, writer.getQueueDepth());
+        assertEquals(List.of(1), batches);
+    }
+
+    @Test
+    void failedBatchIsCountedAndSwallowed() {
+        AuditLogWriter writer = writer(10, 10, AuditLogWriter.OverflowPolicy.BLOCK);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new RuntimeException("DB Down"));
+
+        // not started: written synchronously
+        assertDoesNotThrow(() -> writer.enqueue(audit("SUCCESS")));
+        assertEquals(1, writer.getDroppedCount());
+    }
+}
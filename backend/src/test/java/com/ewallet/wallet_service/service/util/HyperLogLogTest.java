@@ -0,0 +1,49 @@
+package com.ewallet.wallet_service.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimateWithinErrorBounds() {
+        for (int n : new int[] { 10, 1_000, 100_000 }) {
+            HyperLogLog hll = new HyperLogLog();
+            for (long id = 1; id <= n; id++) {
+                hll.add(id);
+                hll.add(id); // duplicates do not count
+            }
+            // ~3% standard error; allow 3 sigma
+            assertEquals(n, hll.estimate(), Math.max(1, n * 0.1), "n=" + n);
+        }
+    }
+
+    @Test
+    void mergeIsUnion() {
+        HyperLogLog a = new HyperLogLog();
+        HyperLogLog b = new HyperLogLog();
+        for (long id = 0; id < 6_000; id++) {
+            a.add(id);
+        }
+        for (long id = 4_000; id < 10_000; id++) {
+            b.add(id);
+        }
+
+        a.merge(b);
+
+        assertEquals(10_000, a.estimate(), 1_000);
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        HyperLogLog hll = new HyperLogLog();
+        hll.add(42);
+
+        byte[] bytes = hll.toBytes();
+        assertEquals(HyperLogLog.SIZE_BYTES, bytes.length);
+        assertEquals(1, HyperLogLog.fromBytes(bytes).estimate());
+        assertEquals(0, HyperLogLog.fromBytes(null).estimate());
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[3]));
+    }
+}
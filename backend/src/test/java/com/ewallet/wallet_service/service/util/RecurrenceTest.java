@@ -0,0 +1,103 @@
+package com.ewallet.wallet_service.service.util;
+
+import com.ewallet.wallet_service.entity.RecurrenceFrequency;
+import com.ewallet.wallet_service.entity.RecurringPaymentRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceTest {
+
+    private static RecurringPaymentRule rule(RecurrenceFrequency frequency, String start, String zone) {
+        RecurringPaymentRule rule = new RecurringPaymentRule();
+        rule.setFrequency(frequency);
+        rule.setStartAt(Instant.parse(start));
+        rule.setZone(zone);
+        return rule;
+    }
+
+    @Test
+    void firstOccurrenceIsStartWhenStartIsAhead() {
+        RecurringPaymentRule daily = rule(RecurrenceFrequency.DAILY, "2024-03-01T09:00:00Z", "UTC");
+
+        assertEquals(Instant.parse("2024-03-01T09:00:00Z"),
+                Recurrence.firstAtOrAfter(daily, Instant.parse("2024-02-01T00:00:00Z")));
+    }
+
+    @Test
+    void dailyKeepsLocalTimeAcrossDst() {
+        // 09:00 in Berlin: 08:00Z in winter, 07:00Z after the switch on 31 March
+        RecurringPaymentRule daily = rule(RecurrenceFrequency.DAILY, "2024-03-29T08:00:00Z", "Europe/Berlin");
+
+        assertEquals(Instant.parse("2024-03-31T07:00:00Z"),
+                Recurrence.after(daily, Instant.parse("2024-03-30T08:00:00Z")));
+    }
+
+    @Test
+    void weeklyStepsWholeWeeks() {
+        RecurringPaymentRule weekly = rule(RecurrenceFrequency.WEEKLY, "2024-01-01T10:00:00Z", "UTC");
+
+        assertEquals(Instant.parse("2024-01-22T10:00:00Z"),
+                Recurrence.after(weekly, Instant.parse("2024-01-15T10:00:00Z")));
+        assertEquals(Instant.parse("2024-01-15T10:00:00Z"),
+                Recurrence.firstAtOrAfter(weekly, Instant.parse("2024-01-15T10:00:00Z")));
+    }
+
+    @Test
+    void monthlyStaysAnchoredToStartDay() {
+        RecurringPaymentRule monthly = rule(RecurrenceFrequency.MONTHLY, "2024-01-31T12:00:00Z", "UTC");
+
+        Instant feb = Recurrence.after(monthly, Instant.parse("2024-01-31T12:00:00Z"));
+        assertEquals(Instant.parse("2024-02-29T12:00:00Z"), feb);
+        // back to the 31st, not stuck on the 29th
+        assertEquals(Instant.parse("2024-03-31T12:00:00Z"), Recurrence.after(monthly, feb));
+    }
+
+    @Test
+    void cronUsesRuleZone() {
+        RecurringPaymentRule weekdays = rule(RecurrenceFrequency.CRON, "2024-01-01T00:00:00Z", "Asia/Kolkata");
+        weekdays.setCronExpression("0 30 9 * * MON-FRI");
+
+        // Friday 09:30 IST, then Monday
+        assertEquals(Instant.parse("2024-01-08T04:00:00Z"),
+                Recurrence.after(weekdays, Instant.parse("2024-01-05T04:00:00Z")));
+    }
+
+    @Test
+    void noOccurrencePastEnd() {
+        RecurringPaymentRule daily = rule(RecurrenceFrequency.DAILY, "2024-01-01T09:00:00Z", "UTC");
+        daily.setEndAt(Instant.parse("2024-01-03T09:00:00Z"));
+
+        assertEquals(Instant.parse("2024-01-03T09:00:00Z"),
+                Recurrence.after(daily, Instant.parse("2024-01-02T09:00:00Z")));
+        assertNull(Recurrence.after(daily, Instant.parse("2024-01-03T09:00:00Z")));
+    }
+
+    @Test
+    void validateRejectsBadInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Recurrence.validate(RecurrenceFrequency.CRON, "every day", "UTC", Duration.ZERO));
+        assertThrows(IllegalArgumentException.class,
+                () -> Recurrence.validate(RecurrenceFrequency.DAILY, null, "Mars/Olympus", Duration.ZERO));
+        assertDoesNotThrow(
+                () -> Recurrence.validate(RecurrenceFrequency.DAILY, null, "Asia/Kolkata", Duration.ZERO));
+    }
+
+    @Test
+    void validateRejectsCronFiringFasterThanMinSpacing() {
+        Duration tenMinutes = Duration.ofMinutes(10);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Recurrence.validate(RecurrenceFrequency.CRON, "0 */5 * * * *", "UTC", tenMinutes));
+        // two runs a minute apart once a day
+        assertThrows(IllegalArgumentException.class,
+                () -> Recurrence.validate(RecurrenceFrequency.CRON, "0 0,1 9 * * *", "UTC", tenMinutes));
+        assertDoesNotThrow(
+                () -> Recurrence.validate(RecurrenceFrequency.CRON, "0 0 9 * * MON-FRI", "UTC", tenMinutes));
+        assertDoesNotThrow(
+                () -> Recurrence.validate(RecurrenceFrequency.CRON, "0 */10 * * * *", "UTC", tenMinutes));
+    }
+}
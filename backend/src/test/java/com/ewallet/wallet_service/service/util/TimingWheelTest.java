@@ -0,0 +1,65 @@
+package com.ewallet.wallet_service.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private final TimingWheel<Long> wheel = new TimingWheel<>(100, 16, 0);
+
+    @Test
+    void firesAtFirstAdvancePastDeadline() {
+        wheel.schedule(1L, 250);
+
+        assertTrue(wheel.advance(200).isEmpty());
+        assertTrue(wheel.advance(249).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(300));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void keysBeyondOneRotationWaitForTheirDeadline() {
+        // 16 slots x 100 ms = 1.6 s per rotation
+        wheel.schedule(1L, 150);
+        wheel.schedule(2L, 150 + 1600);
+        wheel.schedule(3L, 150 + 3 * 1600);
+
+        assertEquals(List.of(1L), wheel.advance(200));
+        assertTrue(wheel.advance(1700).isEmpty());
+        assertEquals(List.of(2L), wheel.advance(1800));
+        assertEquals(List.of(3L), wheel.advance(5000));
+    }
+
+    @Test
+    void pastDeadlineFiresOnNextAdvance() {
+        wheel.advance(1000);
+        wheel.schedule(1L, 10);
+
+        assertEquals(List.of(1L), wheel.advance(1000));
+    }
+
+    @Test
+    void rescheduleMovesAndCancelRemoves() {
+        wheel.schedule(1L, 100);
+        wheel.schedule(1L, 900);
+        wheel.schedule(2L, 100);
+        assertTrue(wheel.cancel(2L));
+        assertFalse(wheel.cancel(2L));
+
+        assertTrue(wheel.advance(500).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(900));
+    }
+
+    @Test
+    void longStallFiresEverythingOverdue() {
+        for (long id = 0; id < 100; id++) {
+            wheel.schedule(id, id * 37);
+        }
+
+        assertEquals(100, wheel.advance(60_000).size());
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,63 @@
+package com.ewallet.wallet_service.service.util;
+
+import com.ewallet.wallet_service.entity.Wallet;
+import com.ewallet.wallet_service.exception.ServiceBusyException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WalletLockManagerTest {
+
+    private final WalletLockManager lockManager =
+            new WalletLockManager(mock(EntityManager.class), 16, Duration.ofMillis(50));
+
+    @Test
+    void lock_GivesUpAfterLockWait() throws Exception {
+        Wallet wallet = wallet(1L);
+
+        try (WalletLockManager.WalletLock ignored = lockManager.lock(wallet)) {
+            CompletableFuture<Throwable> waiter = CompletableFuture.supplyAsync(() -> {
+                try {
+                    lockManager.lock(wallet).close();
+                    return null;
+                } catch (RuntimeException e) {
+                    return e;
+                }
+            });
+            assertInstanceOf(ServiceBusyException.class, waiter.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void lock_ReleasesStripesTakenBeforeGivingUp() throws Exception {
+        Wallet free = wallet(1L);
+        Wallet busy = wallet(2L);
+
+        try (WalletLockManager.WalletLock ignored = lockManager.lock(busy)) {
+            CompletableFuture<Throwable> waiter = CompletableFuture.supplyAsync(() -> {
+                try {
+                    lockManager.lock(free, busy).close();
+                    return null;
+                } catch (RuntimeException e) {
+                    return e;
+                }
+            });
+            assertInstanceOf(ServiceBusyException.class, waiter.get(5, TimeUnit.SECONDS));
+        }
+
+        // the stripe of the free wallet was handed back
+        CompletableFuture.runAsync(() -> lockManager.lock(free).close()).get(5, TimeUnit.SECONDS);
+    }
+
+    private static Wallet wallet(Long id) {
+        Wallet wallet = new Wallet();
+        wallet.setId(id);
+        return wallet;
+    }
+}
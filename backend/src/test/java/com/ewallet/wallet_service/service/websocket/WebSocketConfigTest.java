@@ -2,7 +2,10 @@ package com.ewallet.wallet_service.websocket;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.StompWebSocketEndpointRegistration;
 
@@ -36,4 +39,27 @@ class WebSocketConfigTest {
         verify(registry).addEndpoint("/ws");
         verify(registration).withSockJS();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testChannelsKeepDefaultExecutorsOnPlatformThreads() {
+        WebSocketConfig config = new WebSocketConfig();
+        ChannelRegistration registration = mock(ChannelRegistration.class);
+
+        config.configureClientInboundChannel(registration);
+        config.configureClientOutboundChannel(registration);
+
+        verifyNoInteractions(registration);
+    }
+
+    @Test
+    void testChannelsUseVirtualThreadsWhenEnabled() {
+        WebSocketConfig config = new WebSocketConfig();
+        ReflectionTestUtils.setField(config, "virtualThreads", true);
+        ChannelRegistration registration = mock(ChannelRegistration.class);
+
+        config.configureClientOutboundChannel(registration);
+
+        verify(registration).taskExecutor(argThat((ThreadPoolTaskExecutor executor) ->
+                executor.getThreadNamePrefix().equals("ws-outbound-") && executor.getMaxPoolSize() == 256));
+    }
+}
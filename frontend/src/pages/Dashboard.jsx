@@ -36,7 +36,7 @@ export default function Dashboard() {
   const fetchTransactions = useCallback(async (delayMs = 0) => {
     try {
       if (delayMs > 0) await new Promise((r) => setTimeout(r, delayMs));
-      const txRes = await api.get("/wallet/transactions");
+      const txRes = await api.get("/wallet/transactions", { params: { limit: 5 } });
       setRecentTxs(txRes.data.slice(0, 5));
     } catch (err) {
       console.error("Failed to refresh transactions", err);
@@ -9,7 +9,25 @@ const STATUS_DOT = {
   INITIATED:"#f5c842",
 };
 
-// ── CSV export — pure frontend, no backend needed ─────────────
+// Largest page the history endpoint serves (app.wallet.history.max-page-size)
+const EXPORT_PAGE_SIZE = 200;
+
+// ── Filters are applied server-side; the date is the user's local day ──
+function historyParams(filterType, filterStatus, filterDate) {
+  const params = {};
+  if (filterType   !== "ALL") params.direction = filterType;
+  if (filterStatus !== "ALL") params.status    = filterStatus;
+  if (filterDate) {
+    const from = new Date(`${filterDate}T00:00:00`);
+    const to   = new Date(from);
+    to.setDate(to.getDate() + 1);
+    params.from = from.toISOString();
+    params.to   = to.toISOString();
+  }
+  return params;
+}
+
+// ── CSV export — built in the browser from every matching row ─────
 function exportToCSV(data) {
   if (!data.length) return;
   const headers = ["ID", "Type", "From UPI", "To UPI", "Amount (INR)", "Status", "Date & Time"];
@@ -35,33 +53,67 @@ function exportToCSV(data) {
 export default function Transactions() {
   const [txs, setTxs]         = useState([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
   const [filterType,   setFilterType]   = useState("ALL");
   const [filterStatus, setFilterStatus] = useState("ALL");
   const [filterDate,   setFilterDate]   = useState("");
+  const [exporting, setExporting] = useState(false);
 
+  const params = useMemo(
+    () => historyParams(filterType, filterStatus, filterDate),
+    [filterType, filterStatus, filterDate]
+  );
+
+  // First page for the current filters; a late answer for old filters is ignored
   useEffect(() => {
+    let stale = false;
     const fetchData = async () => {
       try {
-        await api.get("/wallet/balance");
-        const txRes = await api.get("/wallet/transactions");
+        const txRes = await api.get("/wallet/transactions", { params });
+        if (stale) return;
         setTxs(txRes.data);
+        setNextCursor(txRes.headers["x-next-cursor"] || null);
       } catch (err) {
         console.error("Failed to load transactions", err);
       } finally {
-        setLoading(false);
+        if (!stale) setLoading(false);
       }
     };
     fetchData();
-  }, []);
+    return () => { stale = true; };
+  }, [params]);
+
+  // History is paged server-side (X-Next-Cursor); append the next page
+  const loadMore = async () => {
+    try {
+      const txRes = await api.get("/wallet/transactions", { params: { ...params, cursor: nextCursor } });
+      setTxs((prev) => [...prev, ...txRes.data]);
+      setNextCursor(txRes.headers["x-next-cursor"] || null);
+    } catch (err) {
+      console.error("Failed to load more transactions", err);
+    }
+  };
 
-  const filtered = useMemo(() => txs.filter((tx) => {
-    if (filterType   !== "ALL" && tx.type   !== filterType)   return false;
-    if (filterStatus !== "ALL" && tx.status !== filterStatus) return false;
-    if (filterDate) {
-      if (new Date(tx.timestamp).toISOString().slice(0,10) !== filterDate) return false;
+  // Every page matching the filters, not only the pages loaded on screen
+  const exportAll = async () => {
+    setExporting(true);
+    try {
+      const rows = [];
+      let cursor = null;
+      do {
+        const txRes = await api.get("/wallet/transactions", {
+          params: { ...params, cursor, limit: EXPORT_PAGE_SIZE },
+        });
+        rows.push(...txRes.data);
+        cursor = txRes.headers["x-next-cursor"] || null;
+      } while (cursor);
+      exportToCSV(rows);
+    } catch (err) {
+      console.error("Failed to export transactions", err);
+    } finally {
+      setExporting(false);
     }
-    return true;
-  }), [txs, filterType, filterStatus, filterDate]);
+  };
 
   const hasFilters = filterType !== "ALL" || filterStatus !== "ALL" || filterDate !== "";
   const clearFilters = () => { setFilterType("ALL"); setFilterStatus("ALL"); setFilterDate(""); };
@@ -80,10 +132,10 @@ export default function Transactions() {
           </div>
           <button
             className="txns-export-btn"
-            onClick={() => exportToCSV(filtered)}
-            disabled={filtered.length === 0}
+            onClick={exportAll}
+            disabled={txs.length === 0 || exporting}
           >
-            ↓ Export CSV
+            {exporting ? "Exporting..." : "↓ Export CSV"}
           </button>
         </div>
 
@@ -120,9 +172,9 @@ export default function Transactions() {
         <div className="txns-table-card">
           <div className="txns-table-header">
             <span className="txns-table-header__label">{hasFilters ? "Filtered Results" : "All Transactions"}</span>
-            <span className="txns-count">{filtered.length}{hasFilters && ` of ${txs.length}`} records</span>
+            <span className="txns-count">{txs.length}{nextCursor && "+"} records</span>
           </div>
-          {filtered.length === 0 ? (
+          {txs.length === 0 ? (
             <div className="txns-empty">
               <div className="txns-empty__icon">🔍</div>
               <p>No transactions match your filters</p>
@@ -135,7 +187,7 @@ export default function Transactions() {
                   <tr><th>Type</th><th>From</th><th>To</th><th>Amount</th><th>Status</th><th>Date & Time</th></tr>
                 </thead>
                 <tbody>
-                  {filtered.map((tx) => {
+                  {txs.map((tx) => {
                     const isDebit = tx.type === "DEBIT";
                     const statusKey = tx.status || "PENDING";
                     return (
@@ -158,6 +210,7 @@ export default function Transactions() {
               </table>
             </div>
           )}
+          {nextCursor && <button className="txns-clear-btn" onClick={loadMore}>Load more</button>}
         </div>
       </div>
     </div>
@@ -13,18 +13,37 @@ export default function AdminTransactions() {
   const [transactions, setTransactions] = useState([]);
   const [search, setSearch]             = useState("");
   const [statusFilter, setStatusFilter] = useState("ALL");
+  const [nextCursor, setNextCursor]     = useState(null);
+
+  // Status is filtered server-side; pages follow the X-Next-Cursor header
+  const fetchPage = async (cursor) => {
+    const params = { cursor: cursor || undefined };
+    if (statusFilter !== "ALL") params.status = statusFilter;
+    const res = await api.get("/admin/transactions", { params });
+    setNextCursor(res.headers["x-next-cursor"] || null);
+    return res.data;
+  };
 
   useEffect(() => {
     const loadTransactions = async () => {
       try {
-        const res = await api.get("/admin/transactions");
-        setTransactions(res.data);
+        setTransactions(await fetchPage(null));
       } catch (err) {
         console.error("Error loading transactions", err);
       }
     };
     loadTransactions();
-  }, []);
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [statusFilter]);
+
+  const loadMore = async () => {
+    try {
+      const page = await fetchPage(nextCursor);
+      setTransactions((prev) => [...prev, ...page]);
+    } catch (err) {
+      console.error("Error loading transactions", err);
+    }
+  };
 
   const filtered = transactions.filter((tx) => {
     const matchesSearch =
@@ -32,9 +51,7 @@ export default function AdminTransactions() {
       tx.fromUpiId.toLowerCase().includes(search.toLowerCase()) ||
       tx.toUpiId.toLowerCase().includes(search.toLowerCase());
 
-    const matchesStatus = statusFilter === "ALL" || tx.status === statusFilter;
-
-    return matchesSearch && matchesStatus;
+    return matchesSearch;
   });
 
   return (
@@ -120,6 +137,7 @@ export default function AdminTransactions() {
             </tbody>
           </table>
         </div>
+        {nextCursor && <button className="atx-select" onClick={loadMore}>Load more</button>}
       </div>
     </div>
   );
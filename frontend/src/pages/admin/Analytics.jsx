@@ -2,6 +2,7 @@ import { useEffect, useState } from "react";
 import {
   PieChart, Pie, Cell, Tooltip, ResponsiveContainer,
   BarChart, Bar, XAxis, YAxis, CartesianGrid, Legend,
+  LineChart, Line,
 } from "recharts";
 import api from "../../api/axios";
 import { useAuth } from "../../auth/AuthContext";
@@ -38,6 +39,7 @@ export default function Analytics() {
 
   const [summary, setSummary]           = useState(null);
   const [distribution, setDistribution] = useState(null);
+  const [series, setSeries]             = useState(null);
   const [error, setError]               = useState(false);
 
   useEffect(() => {
@@ -68,6 +70,13 @@ export default function Analytics() {
     loadAnalytics();
   }, [isSuperAdmin]);
 
+  // Last 24h, hourly, from the transaction rollups; the page works without it
+  useEffect(() => {
+    api.get("/admin/analytics/timeseries", { params: { granularity: "HOUR" } })
+      .then((res) => setSeries(res.data))
+      .catch((err) => console.error("Time series load failed", err));
+  }, []);
+
   if (error) {
     return (
       <div className="an-loading" style={{ color: "#ef4444" }}>
@@ -178,6 +187,33 @@ export default function Analytics() {
         </div>
 
       </div>
+
+      {series && (
+        <div className="an-chart-card">
+          <div className="an-chart-card__title">
+            ⏱️ Transactions, last 24h · ~{series.distinctSenders} senders
+          </div>
+          <ResponsiveContainer width="100%" height={260}>
+            <LineChart
+              data={series.points.map((p) => ({
+                time:    new Date(p.bucketStart).toLocaleTimeString([], { hour: "2-digit", minute: "2-digit" }),
+                Total:   p.count,
+                Success: p.successCount,
+                Failed:  p.failedCount,
+              }))}
+            >
+              <CartesianGrid strokeDasharray="3 3" stroke="rgba(255,255,255,0.05)" />
+              <XAxis dataKey="time" stroke="#475569" tick={{ ...CHART_STYLE, fill: "#94a3b8" }} />
+              <YAxis allowDecimals={false} stroke="#475569" tick={{ ...CHART_STYLE, fill: "#94a3b8" }} />
+              <Tooltip content={<DarkTooltip />} />
+              <Legend iconType="circle" iconSize={8} wrapperStyle={{ ...CHART_STYLE, color: "#94a3b8" }} />
+              <Line type="monotone" dataKey="Total"   stroke="#60a5fa" strokeWidth={2} dot={false} />
+              <Line type="monotone" dataKey="Success" stroke={COLORS[0]} strokeWidth={2} dot={false} />
+              <Line type="monotone" dataKey="Failed"  stroke={COLORS[1]} strokeWidth={2} dot={false} />
+            </LineChart>
+          </ResponsiveContainer>
+        </div>
+      )}
     </div>
   );
 }
\ No newline at end of file
@@ -12,24 +12,48 @@ export default function AuditLogs() {
   const [logs, setLogs]                 = useState([]);
   const [searchUser, setSearchUser]     = useState("");
   const [actionFilter, setActionFilter] = useState("");
+  const [nextCursor, setNextCursor]     = useState(null);
+  const [total, setTotal]               = useState(null);
+
+  // Action is filtered server-side; pages follow the X-Next-Cursor header.
+  // The total is an estimate unless X-Total-Count-Exact is "true".
+  const fetchPage = async (cursor) => {
+    const params = { cursor: cursor || undefined };
+    if (actionFilter) params.actionType = actionFilter;
+    if (!cursor) params.count = "ESTIMATE";
+    const res = await api.get("/admin/audit-logs", { params });
+    setNextCursor(res.headers["x-next-cursor"] || null);
+    if (!cursor && res.headers["x-total-count"] != null) {
+      const exact = res.headers["x-total-count-exact"] === "true";
+      setTotal(`${Number(res.headers["x-total-count"]).toLocaleString("en-IN")}${exact ? "" : "+"}`);
+    }
+    return res.data;
+  };
 
   useEffect(() => {
     const loadLogs = async () => {
       try {
-        const res = await api.get("/admin/audit-logs");
-        setLogs(res.data);
+        setLogs(await fetchPage(null));
       } catch (err) {
         console.error("Error loading audit logs", err);
       }
     };
     loadLogs();
-  }, []);
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [actionFilter]);
+
+  const loadMore = async () => {
+    try {
+      const page = await fetchPage(nextCursor);
+      setLogs((prev) => [...prev, ...page]);
+    } catch (err) {
+      console.error("Error loading audit logs", err);
+    }
+  };
 
-  const filtered = logs.filter((log) => {
-    const matchesUser   = log.username?.toLowerCase().includes(searchUser.toLowerCase());
-    const matchesAction = actionFilter ? log.actionType === actionFilter : true;
-    return matchesUser && matchesAction;
-  });
+  const filtered = logs.filter((log) =>
+    log.username?.toLowerCase().includes(searchUser.toLowerCase())
+  );
 
   return (
     <div className="al-page">
@@ -59,7 +83,7 @@ export default function AuditLogs() {
         </select>
 
         <span className="al-count">
-          {filtered.length} / {logs.length} records
+          {filtered.length} / {total ?? logs.length} records
         </span>
       </div>
 
@@ -131,6 +155,7 @@ export default function AuditLogs() {
             </tbody>
           </table>
         </div>
+        {nextCursor && <button className="al-select" onClick={loadMore}>Load more</button>}
       </div>
     </div>
   );